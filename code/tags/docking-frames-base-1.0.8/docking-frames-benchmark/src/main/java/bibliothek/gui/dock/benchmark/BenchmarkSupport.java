@@ -0,0 +1,236 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.benchmark;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.StackDockStation;
+import bibliothek.gui.dock.station.split.SplitDockTree;
+
+/**
+ * Utility methods shared by the benchmarks of this package. All the layouts
+ * created by this class can be used without a display, the benchmarks are
+ * intended to run with <code>java.awt.headless=true</code>.<br>
+ * The framework expects to be accessed only by the {@link EventQueue}, hence all benchmarks
+ * working with stations or controllers execute their work through {@link #invoke(Callable)}.
+ * @author Benjamin Sigg
+ */
+public final class BenchmarkSupport {
+	/** how many {@link Dockable}s are put onto one {@link StackDockStation} */
+	public static final int STACK_SIZE = 8;
+
+	private BenchmarkSupport(){
+		// nothing
+	}
+
+	/**
+	 * Executes <code>task</code> on the {@link EventQueue} and waits until it is finished.
+	 * @param <T> the kind of result
+	 * @param task the task to execute
+	 * @return the result of <code>task</code>
+	 * @throws Exception if <code>task</code> threw an exception
+	 */
+	public static <T> T invoke( final Callable<T> task ) throws Exception{
+		if( EventQueue.isDispatchThread() ){
+			return task.call();
+		}
+
+		final Object[] result = new Object[1];
+		try{
+			EventQueue.invokeAndWait( new Runnable(){
+				public void run(){
+					try{
+						result[0] = task.call();
+					}
+					catch( Exception e ){
+						throw new TaskException( e );
+					}
+				}
+			});
+		}
+		catch( InvocationTargetException e ){
+			Throwable cause = e.getCause();
+			if( cause instanceof TaskException ){
+				throw (Exception)cause.getCause();
+			}
+			if( cause instanceof Error ){
+				throw (Error)cause;
+			}
+			throw e;
+		}
+
+		@SuppressWarnings("unchecked")
+		T value = (T)result[0];
+		return value;
+	}
+
+	/**
+	 * Executes <code>task</code> on the {@link EventQueue} and waits until it is finished.
+	 * @param task the task to execute
+	 * @throws Exception if the task could not be executed
+	 */
+	public static void invoke( final Runnable task ) throws Exception{
+		invoke( new Callable<Object>(){
+			public Object call(){
+				task.run();
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Creates <code>count</code> new {@link DefaultDockable}s, each with a unique title.
+	 * @param count the number of dockables
+	 * @return the new dockables
+	 */
+	public static DefaultDockable[] createDockables( int count ){
+		DefaultDockable[] result = new DefaultDockable[count];
+		for( int i = 0; i < count; i++ ){
+			result[i] = new DefaultDockable( "Dockable " + i );
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a new {@link SplitDockStation} showing <code>count</code> {@link DefaultDockable}s.
+	 * The dockables are grouped into {@link StackDockStation}s of {@link #STACK_SIZE} elements,
+	 * the stacks are organized in a balanced tree.
+	 * @param count the total number of dockables
+	 * @return the new station
+	 */
+	public static SplitDockStation createSplitLayout( int count ){
+		SplitDockStation station = new SplitDockStation();
+		fillSplitLayout( station, count );
+		return station;
+	}
+
+	/**
+	 * Fills <code>station</code> with <code>count</code> {@link DefaultDockable}s, the
+	 * dockables are grouped into {@link StackDockStation}s of {@link #STACK_SIZE} elements.
+	 * @param station the station to fill, should be empty
+	 * @param count the total number of dockables
+	 */
+	public static void fillSplitLayout( SplitDockStation station, int count ){
+		StackDockStation[] stacks = createStacks( count );
+		if( stacks.length > 0 ){
+			SplitDockTree tree = new SplitDockTree();
+			tree.root( createTree( tree, stacks, 0, stacks.length, true ) );
+			station.dropTree( tree );
+		}
+	}
+
+	/**
+	 * Creates <code>count</code> {@link DefaultDockable}s and puts them onto
+	 * {@link StackDockStation}s of {@link #STACK_SIZE} elements.
+	 * @param count the total number of dockables
+	 * @return the new stations
+	 */
+	public static StackDockStation[] createStacks( int count ){
+		DefaultDockable[] dockables = createDockables( count );
+		StackDockStation[] stacks = new StackDockStation[ (count + STACK_SIZE - 1) / STACK_SIZE ];
+		for( int i = 0; i < stacks.length; i++ ){
+			stacks[i] = new StackDockStation();
+			for( int j = i * STACK_SIZE, n = Math.min( count, j + STACK_SIZE ); j < n; j++ ){
+				stacks[i].drop( dockables[j] );
+			}
+		}
+		return stacks;
+	}
+
+	private static SplitDockTree.Key createTree( SplitDockTree tree, Dockable[] leafs, int offset, int length, boolean horizontal ){
+		if( length == 1 ){
+			return tree.put( leafs[offset] );
+		}
+		int half = length / 2;
+		SplitDockTree.Key first = createTree( tree, leafs, offset, half, !horizontal );
+		SplitDockTree.Key second = createTree( tree, leafs, offset + half, length - half, !horizontal );
+		double divider = half / (double)length;
+		if( horizontal ){
+			return tree.horizontal( first, second, divider );
+		}
+		else{
+			return tree.vertical( first, second, divider );
+		}
+	}
+
+	/**
+	 * Creates the map of root stations that is used by {@link bibliothek.gui.dock.layout.DockSituation}
+	 * to store a layout.
+	 * @param station the only root station
+	 * @return a map containing only <code>station</code>
+	 */
+	public static Map<String, DockStation> roots( DockStation station ){
+		Map<String, DockStation> result = new HashMap<String, DockStation>();
+		result.put( "root", station );
+		return result;
+	}
+
+	/**
+	 * Sets the size of <code>component</code> and lays out all of its children. Other
+	 * than {@link Container#validate()} this method does not require the component
+	 * to be displayable.
+	 * @param component the component to lay out
+	 * @param width the new width
+	 * @param height the new height
+	 */
+	public static void layout( Component component, int width, int height ){
+		component.setSize( width, height );
+		layout( component );
+	}
+
+	private static void layout( Component component ){
+		if( component instanceof Container ){
+			Container container = (Container)component;
+			container.doLayout();
+			for( int i = 0, n = container.getComponentCount(); i < n; i++ ){
+				layout( container.getComponent( i ) );
+			}
+		}
+	}
+
+	/**
+	 * Transports a checked exception out of the {@link EventQueue}.
+	 * @author Benjamin Sigg
+	 */
+	private static class TaskException extends RuntimeException{
+		private static final long serialVersionUID = 1L;
+
+		public TaskException( Exception cause ){
+			super( cause );
+		}
+	}
+}
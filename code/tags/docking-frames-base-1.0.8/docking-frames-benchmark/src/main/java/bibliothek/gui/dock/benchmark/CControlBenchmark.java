@@ -0,0 +1,143 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.dock.common.CControl;
+import bibliothek.gui.dock.common.CLocation;
+import bibliothek.gui.dock.common.DefaultMultipleCDockable;
+import bibliothek.gui.dock.common.EmptyMultipleCDockableFactory;
+
+/**
+ * Measures how long a {@link CControl} needs to add, show and remove
+ * {@link bibliothek.gui.dock.common.MultipleCDockable}s. All dockables are shown
+ * in the normal area, no window is opened.
+ * @author Benjamin Sigg
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+public class CControlBenchmark {
+	/** the number of dockables added and removed in one operation, all of them end up on the same stack */
+	@Param({ "10", "100", "250" })
+	public int count;
+
+	/** the number of dockables that are always visible */
+	@Param({ "0", "100" })
+	public int present;
+
+	private CControl control;
+	private EmptyMultipleCDockableFactory<DefaultMultipleCDockable> factory;
+
+	/**
+	 * Creates a control that already shows {@link #present} dockables.
+	 */
+	@Setup
+	public void setup() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				control = new CControl();
+				BenchmarkSupport.layout( control.getContentArea(), 1600, 1200 );
+				factory = new EmptyMultipleCDockableFactory<DefaultMultipleCDockable>(){
+					@Override
+					public DefaultMultipleCDockable createDockable(){
+						return new DefaultMultipleCDockable( this );
+					}
+				};
+				control.addMultipleDockableFactory( "benchmark", factory );
+
+				for( int i = 0; i < present; i++ ){
+					show( "Present " + i );
+				}
+			}
+		});
+	}
+
+	/**
+	 * Destroys the control.
+	 */
+	@TearDown
+	public void tearDown() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				control.destroy();
+			}
+		});
+	}
+
+	/**
+	 * Adds {@link #count} new dockables, makes them visible, and removes them again.
+	 * @return the number of dockables that were added
+	 */
+	@Benchmark
+	public int addAndRemove() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Integer>(){
+			public Integer call(){
+				DefaultMultipleCDockable[] dockables = new DefaultMultipleCDockable[ count ];
+				for( int i = 0; i < count; i++ ){
+					dockables[i] = show( "Dockable " + i );
+				}
+				for( int i = 0; i < count; i++ ){
+					control.remove( dockables[i] );
+				}
+				return dockables.length;
+			}
+		});
+	}
+
+	/**
+	 * Creates a new dockable, adds it to {@link #control} and makes it visible.
+	 * @param title the title of the new dockable
+	 * @return the new dockable
+	 */
+	private DefaultMultipleCDockable show( String title ){
+		DefaultMultipleCDockable dockable = factory.createDockable();
+		dockable.setTitleText( title );
+		control.add( dockable );
+		dockable.setLocation( CLocation.base().normal() );
+		dockable.setVisible( true );
+		return dockable;
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.StackDockStation;
+
+/**
+ * Measures how long the {@link bibliothek.gui.dock.control.DockRegister} of a {@link DockController} needs to register
+ * and unregister a large number of dockables, either all at once by adding a whole tree
+ * of stations, or in small groups by adding many independent root stations.
+ * @author Benjamin Sigg
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+public class DockRegisterBenchmark {
+	/** the number of dockables that are registered */
+	@Param({ "1000", "10000" })
+	public int count;
+
+	private DockController controller;
+	private SplitDockStation tree;
+	private StackDockStation[] stacks;
+
+	/**
+	 * Creates the controller and the stations, none of the stations is registered.
+	 */
+	@Setup
+	public void setup() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				controller = new DockController();
+				tree = BenchmarkSupport.createSplitLayout( count );
+				stacks = BenchmarkSupport.createStacks( count );
+			}
+		});
+	}
+
+	/**
+	 * Destroys the controller.
+	 */
+	@TearDown
+	public void tearDown() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				controller.kill();
+			}
+		});
+	}
+
+	/**
+	 * Registers and unregisters a station with {@link #count} dockables.
+	 * @return the number of dockables that were registered
+	 */
+	@Benchmark
+	public int registerTree() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Integer>(){
+			public Integer call(){
+				controller.add( tree );
+				int result = controller.getRegister().getDockableCount();
+				controller.remove( tree );
+				return result;
+			}
+		});
+	}
+
+	/**
+	 * Registers {@link #count} dockables by adding one small station after the other
+	 * as root station, and unregisters them again in the same order. This way each
+	 * operation works on a register that already knows many elements.
+	 * @return the number of dockables that were registered
+	 */
+	@Benchmark
+	public int registerStacks() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Integer>(){
+			public Integer call(){
+				for( StackDockStation stack : stacks ){
+					controller.add( stack );
+				}
+				int result = controller.getRegister().getDockableCount();
+				for( StackDockStation stack : stacks ){
+					controller.remove( stack );
+				}
+				return result;
+			}
+		});
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.benchmark;
+
+import java.awt.event.InputEvent;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.control.DefaultDockRelocator;
+import bibliothek.gui.dock.control.RemoteRelocator;
+import bibliothek.gui.dock.control.RemoteRelocator.Reaction;
+import bibliothek.gui.dock.dockable.DockableMovingImageFactory;
+import bibliothek.gui.dock.dockable.MovingImage;
+import bibliothek.gui.dock.themes.BasicTheme;
+import bibliothek.gui.dock.title.DockTitle;
+
+/**
+ * Simulates drag and drop operations handled by the {@link DefaultDockRelocator}. The
+ * operations are sent through a {@link RemoteRelocator}, no mouse or display is required.
+ * The root station pretends to be visible and no window showing the dragged element
+ * is opened, hence the benchmark runs in a headless environment.
+ * @author Benjamin Sigg
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+public class DockRelocatorBenchmark {
+	/** the number of dockables on the station */
+	@Param({ "10", "100", "1000" })
+	public int count;
+
+	/** the number of drag events sent during one operation */
+	private static final int STEPS = 16;
+
+	private static final int WIDTH = 1600;
+	private static final int HEIGHT = 1200;
+
+	private DockController controller;
+	private SplitDockStation station;
+	private Dockable dockable;
+	private boolean left = false;
+
+	/**
+	 * Creates a station with {@link #count} dockables that is registered at a controller.
+	 */
+	@Setup
+	public void setup() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				controller = new DockController();
+				BasicTheme theme = new BasicTheme();
+				theme.setMovingImageFactory( new NullMovingImageFactory() );
+				controller.setTheme( theme );
+
+				station = new HeadlessSplitDockStation();
+				controller.add( station );
+				BenchmarkSupport.fillSplitLayout( station, count );
+				BenchmarkSupport.layout( station.getComponent(), WIDTH, HEIGHT );
+
+				for( Dockable child : controller.getRegister().getDockables() ){
+					if( child instanceof DefaultDockable ){
+						dockable = child;
+						break;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Destroys the controller.
+	 */
+	@TearDown
+	public void tearDown() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				controller.kill();
+			}
+		});
+	}
+
+	/**
+	 * Drags a dockable across the station and cancels the operation.
+	 * @return the reaction of the relocator on the last event
+	 */
+	@Benchmark
+	public Reaction drag() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Reaction>(){
+			public Reaction call(){
+				RemoteRelocator remote = controller.getRelocator().createRemote( dockable );
+				remote.init( WIDTH / 2, HEIGHT / 2, 0, 0, InputEvent.BUTTON1_DOWN_MASK );
+				Reaction reaction = null;
+				for( int i = 1; i <= STEPS; i++ ){
+					reaction = remote.drag( i * (WIDTH - 1) / STEPS, i * (HEIGHT - 1) / STEPS, InputEvent.BUTTON1_DOWN_MASK );
+				}
+				remote.cancel();
+				return reaction;
+			}
+		});
+	}
+
+	/**
+	 * Drags a dockable to the left or right border of the station and drops it there.
+	 * @return the reaction of the relocator on the drop event
+	 */
+	@Benchmark
+	public Reaction dragAndDrop() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Reaction>(){
+			public Reaction call(){
+				left = !left;
+				int x = left ? 5 : WIDTH - 5;
+				int y = HEIGHT / 2;
+
+				RemoteRelocator remote = controller.getRelocator().createRemote( dockable );
+				remote.init( WIDTH / 2, 5, 0, 0, InputEvent.BUTTON1_DOWN_MASK );
+				for( int i = 1; i <= STEPS; i++ ){
+					remote.drag( WIDTH / 2 + i * (x - WIDTH / 2) / STEPS, 5 + i * (y - 5) / STEPS, InputEvent.BUTTON1_DOWN_MASK );
+				}
+				Reaction reaction = remote.drop( x, y, 0 );
+				BenchmarkSupport.layout( station.getComponent(), WIDTH, HEIGHT );
+				return reaction;
+			}
+		});
+	}
+
+	/**
+	 * A {@link SplitDockStation} that claims to be visible even if it is not displayable,
+	 * otherwise no station would accept a dropped element in a headless environment.
+	 * @author Benjamin Sigg
+	 */
+	private static class HeadlessSplitDockStation extends SplitDockStation{
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean isStationVisible(){
+			return true;
+		}
+	}
+
+	/**
+	 * A factory that never creates an image, hence no window is opened during
+	 * a drag and drop operation.
+	 * @author Benjamin Sigg
+	 */
+	private static class NullMovingImageFactory implements DockableMovingImageFactory{
+		public MovingImage create( DockController controller, DockTitle snatched ){
+			return null;
+		}
+
+		public MovingImage create( DockController controller, Dockable dockable ){
+			return null;
+		}
+	}
+}
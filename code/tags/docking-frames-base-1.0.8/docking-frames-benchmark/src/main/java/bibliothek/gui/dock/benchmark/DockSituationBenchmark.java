@@ -0,0 +1,189 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.benchmark;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.DockStation;
+import bibliothek.gui.dock.layout.DockSituation;
+import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XIO;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
+
+/**
+ * Measures how long a {@link DockSituation} needs to write and read a layout, both
+ * in the binary and in the xml format. The xml format includes the conversion from and
+ * to text done by {@link XIO}, or by {@link XStreamWriter} and {@link XStreamReader} for
+ * the streamed variant.
+ * @author Benjamin Sigg
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+public class DockSituationBenchmark {
+	/** the number of dockables in the layout */
+	@Param({ "10", "100", "1000", "10000" })
+	public int count;
+
+	private DockSituation situation;
+	private Map<String, DockStation> stations;
+
+	private byte[] binary;
+	private String xml;
+
+	/**
+	 * Creates the layout and stores it once in each format.
+	 * @throws Exception if the layout cannot be written
+	 */
+	@Setup
+	public void setup() throws Exception{
+		BenchmarkSupport.invoke( new Callable<Object>(){
+			public Object call() throws Exception{
+				situation = new DockSituation();
+				stations = BenchmarkSupport.roots( BenchmarkSupport.createSplitLayout( count ) );
+
+				binary = writeBinary();
+				xml = writeXML();
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Writes the layout in the binary format.
+	 * @return the layout
+	 * @throws Exception if the layout cannot be written
+	 */
+	@Benchmark
+	public byte[] writeBinary() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<byte[]>(){
+			public byte[] call() throws Exception{
+				return situation.write( stations );
+			}
+		});
+	}
+
+	/**
+	 * Reads the layout from the binary format, this creates new stations and dockables.
+	 * @return the new stations
+	 * @throws Exception if the layout cannot be read
+	 */
+	@Benchmark
+	public Map<String, DockStation> readBinary() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Map<String, DockStation>>(){
+			public Map<String, DockStation> call() throws Exception{
+				return situation.read( binary );
+			}
+		});
+	}
+
+	/**
+	 * Writes the layout as xml document and converts the document into text.
+	 * @return the layout
+	 * @throws Exception if the layout cannot be written
+	 */
+	@Benchmark
+	public String writeXML() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<String>(){
+			public String call() throws Exception{
+				XElement root = new XElement( "layout" );
+				situation.writeXML( stations, root );
+				StringBuilder builder = new StringBuilder();
+				XIO.write( root, builder );
+				return builder.toString();
+			}
+		});
+	}
+
+	/**
+	 * Parses the xml document and reads the layout, this creates new stations and dockables.
+	 * @return the new stations
+	 * @throws Exception if the document cannot be parsed
+	 */
+	@Benchmark
+	public Map<String, DockStation> readXML() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Map<String, DockStation>>(){
+			public Map<String, DockStation> call() throws Exception{
+				return situation.readXML( XIO.read( xml ) );
+			}
+		});
+	}
+
+	/**
+	 * Writes the layout directly as text, without creating an xml document first.
+	 * @return the layout
+	 * @throws Exception if the layout cannot be written
+	 */
+	@Benchmark
+	public String writeXMLStream() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<String>(){
+			public String call() throws Exception{
+				StringBuilder builder = new StringBuilder();
+				XStreamWriter out = new XStreamWriter( builder );
+				out.startElement( "layout" );
+				situation.writeXML( stations, out );
+				out.endAll();
+				return builder.toString();
+			}
+		});
+	}
+
+	/**
+	 * Reads the layout directly from the text, without creating an xml document first.
+	 * @return the new stations
+	 * @throws Exception if the text cannot be parsed
+	 */
+	@Benchmark
+	public Map<String, DockStation> readXMLStream() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Map<String, DockStation>>(){
+			public Map<String, DockStation> call() throws Exception{
+				XStreamReader in = new XStreamReader( new StringReader( xml ) );
+				in.nextElement();
+				return situation.readXML( in );
+			}
+		});
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.station.support.ConvertedPlaceholderListItem;
+import bibliothek.gui.dock.station.support.PlaceholderList;
+import bibliothek.gui.dock.station.support.PlaceholderListItem;
+import bibliothek.gui.dock.station.support.PlaceholderListItemConverter;
+import bibliothek.gui.dock.station.support.PlaceholderMap;
+import bibliothek.util.Path;
+
+/**
+ * Measures the basic operations of a {@link PlaceholderList}: inserting and removing
+ * dockables, replacing dockables by placeholders and back, searching placeholders
+ * and converting the list into a {@link PlaceholderMap}. The list does not interact
+ * with any {@link java.awt.Component}, the benchmarks do not need to run on the
+ * {@link java.awt.EventQueue}.
+ * @author Benjamin Sigg
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+public class PlaceholderListBenchmark {
+	/** the number of dockables in the list */
+	@Param({ "10", "100", "1000", "10000" })
+	public int count;
+
+	private PlaceholderList<Item> list;
+	private Item[] items;
+	private Path[] placeholders;
+	private Item extra;
+	private int next = 0;
+
+	private PlaceholderListItemConverter<Item> converter = new PlaceholderListItemConverter<Item>(){
+		public ConvertedPlaceholderListItem convert( int index, Item dockable ){
+			ConvertedPlaceholderListItem item = new ConvertedPlaceholderListItem();
+			item.putInt( "id", dockable.id );
+			item.setPlaceholder( placeholders[ dockable.id ] );
+			return item;
+		}
+
+		public Item convert( ConvertedPlaceholderListItem item ){
+			return items[ item.getInt( "id" ) ];
+		}
+
+		public void added( Item dockable ){
+			// ignore
+		}
+	};
+
+	/**
+	 * Creates a list with {@link #count} dockables, each dockable is associated
+	 * with its own placeholder.
+	 */
+	@Setup
+	public void setup(){
+		list = new PlaceholderList<Item>();
+		DefaultDockable[] dockables = BenchmarkSupport.createDockables( count );
+		items = new Item[ count ];
+		placeholders = new Path[ count ];
+
+		for( int i = 0; i < count; i++ ){
+			items[i] = new Item( i, dockables[i] );
+			placeholders[i] = new Path( "benchmark", "dockable" + i );
+			list.dockables().add( items[i] );
+			list.put( items[i], placeholders[i] );
+		}
+
+		extra = new Item( -1, new DefaultDockable( "extra" ) );
+	}
+
+	private int next(){
+		next = (next + 7) % count;
+		return next;
+	}
+
+	/**
+	 * Inserts a new dockable in the middle of the list and removes it again.
+	 * @return the index the dockable had
+	 */
+	@Benchmark
+	public int insertAndRemove(){
+		list.dockables().add( count / 2, extra );
+		return list.dockables().remove( extra );
+	}
+
+	/**
+	 * Replaces a dockable by its placeholder and puts the dockable back
+	 * at the location of the placeholder. Putting the dockable back consumes the
+	 * placeholder, hence the placeholder is associated with the dockable again.
+	 * @return the new index of the dockable
+	 */
+	@Benchmark
+	public int removeAndRestore(){
+		int index = next();
+		list.remove( items[index] );
+		int result = list.put( placeholders[index], items[index] );
+		list.put( items[index], placeholders[index] );
+		return result;
+	}
+
+	/**
+	 * Searches the index of a dockable through its placeholder.
+	 * @return the index of the dockable
+	 */
+	@Benchmark
+	public int searchPlaceholder(){
+		return list.getDockableIndex( placeholders[ next() ] );
+	}
+
+	/**
+	 * Converts the list into a {@link PlaceholderMap} and reads the map again.
+	 * @return the new list
+	 */
+	@Benchmark
+	public PlaceholderList<Item> toMapAndRead(){
+		PlaceholderMap map = list.toMap( converter );
+		return new PlaceholderList<Item>( map, converter );
+	}
+
+	/**
+	 * A simple element of the {@link PlaceholderList}.
+	 * @author Benjamin Sigg
+	 */
+	public static class Item implements PlaceholderListItem{
+		private final int id;
+		private final Dockable dockable;
+
+		/**
+		 * Creates a new item.
+		 * @param id the unique identifier of this item
+		 * @param dockable the element represented by this item
+		 */
+		public Item( int id, Dockable dockable ){
+			this.id = id;
+			this.dockable = dockable;
+		}
+
+		public Dockable asDockable(){
+			return dockable;
+		}
+	}
+}
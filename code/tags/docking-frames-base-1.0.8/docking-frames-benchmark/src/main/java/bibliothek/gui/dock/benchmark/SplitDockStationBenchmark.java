@@ -0,0 +1,140 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.benchmark;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.station.split.SplitDockProperty;
+
+/**
+ * Measures how fast a {@link SplitDockStation} can add and remove children and how
+ * long it takes to update the boundaries of all its children.
+ * @author Benjamin Sigg
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Djava.awt.headless=true" )
+public class SplitDockStationBenchmark {
+	/** the number of dockables on the station */
+	@Param({ "10", "100", "1000" })
+	public int count;
+
+	private DockController controller;
+	private SplitDockStation station;
+	private DefaultDockable extra;
+	private SplitDockProperty[] locations;
+	private int next = 0;
+	private boolean wide = false;
+
+	/**
+	 * Creates a station with {@link #count} dockables that is registered at a controller.
+	 */
+	@Setup
+	public void setup() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				controller = new DockController();
+				station = BenchmarkSupport.createSplitLayout( count );
+				controller.add( station );
+				BenchmarkSupport.layout( station.getComponent(), 1600, 1200 );
+
+				extra = new DefaultDockable( "extra" );
+				locations = new SplitDockProperty[]{
+						new SplitDockProperty( 0.0, 0.0, 0.25, 1.0 ),
+						new SplitDockProperty( 0.75, 0.0, 0.25, 1.0 ),
+						new SplitDockProperty( 0.0, 0.0, 1.0, 0.25 ),
+						new SplitDockProperty( 0.0, 0.75, 1.0, 0.25 ),
+						new SplitDockProperty( 0.4, 0.4, 0.2, 0.2 )
+				};
+			}
+		});
+	}
+
+	/**
+	 * Destroys the controller.
+	 */
+	@TearDown
+	public void tearDown() throws Exception{
+		BenchmarkSupport.invoke( new Runnable(){
+			public void run(){
+				controller.kill();
+			}
+		});
+	}
+
+	/**
+	 * Drops a new dockable at one of several locations and removes it again.
+	 * @return whether the dockable could be dropped
+	 */
+	@Benchmark
+	public boolean dropAndRemove() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Boolean>(){
+			public Boolean call(){
+				next = (next + 1) % locations.length;
+				boolean result = station.drop( extra, locations[next] );
+				station.removeDockable( extra );
+				return result;
+			}
+		});
+	}
+
+	/**
+	 * Changes the size of the station and recalculates the boundaries of all children.
+	 * @return the new width of the station
+	 */
+	@Benchmark
+	public int updateBounds() throws Exception{
+		return BenchmarkSupport.invoke( new Callable<Integer>(){
+			public Integer call(){
+				wide = !wide;
+				station.setSize( wide ? 1600 : 1200, 1200 );
+				station.updateBounds();
+				return station.getWidth();
+			}
+		});
+	}
+}
@@ -0,0 +1,63 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.common;
+
+import java.awt.Component;
+
+import bibliothek.gui.dock.common.intern.CDockable;
+import bibliothek.gui.dock.common.intern.DefaultCDockable;
+
+/**
+ * Creates the content of a {@link DefaultCDockable} lazily. The content is created
+ * once the dockable becomes visible for the first time, e.g. because its tab 
+ * is selected or because it is shown by a minimize area. If a release delay is set,
+ * the content is given back to this supplier once the dockable has been invisible 
+ * for that time.
+ * @author Benjamin Sigg
+ * @see DefaultCDockable#setContentSupplier(CContentSupplier)
+ * @see DefaultCDockable#setContentReleaseDelay(int)
+ */
+public interface CContentSupplier {
+	/**
+	 * Creates the content of <code>dockable</code>. The result will be added to the
+	 * {@link DefaultCDockable#getContentPane() content pane} of <code>dockable</code>.
+	 * @param dockable the dockable which is about to become visible
+	 * @return the new content, can be <code>null</code>
+	 */
+	public Component createContent( CDockable dockable );
+	
+	/**
+	 * Called after <code>content</code> was removed from <code>dockable</code> because
+	 * <code>dockable</code> was invisible for too long. Implementations may store
+	 * the state of <code>content</code> or free its resources. 
+	 * {@link #createContent(CDockable)} will be called again once <code>dockable</code> 
+	 * becomes visible.
+	 * @param dockable the dockable whose content was removed
+	 * @param content the content that was created by {@link #createContent(CDockable)}
+	 */
+	public void releaseContent( CDockable dockable, Component content );
+}
@@ -30,17 +30,15 @@ import java.awt.event.InputEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -86,6 +84,7 @@ import bibliothek.gui.dock.common.intern.CommonMultipleDockableFactory;
 import bibliothek.gui.dock.common.intern.CommonSingleDockableFactory;
 import bibliothek.gui.dock.common.intern.ControlVetoClosingListener;
 import bibliothek.gui.dock.common.intern.ControlVetoFocusListener;
+import bibliothek.gui.dock.common.intern.DefaultCControlRegister;
 import bibliothek.gui.dock.common.intern.EfficientControlFactory;
 import bibliothek.gui.dock.common.intern.MutableCControlRegister;
 import bibliothek.gui.dock.common.intern.SecureControlFactory;
@@ -126,6 +125,8 @@ import bibliothek.gui.dock.layout.DockSituationIgnore;
 import bibliothek.gui.dock.station.support.PlaceholderStrategy;
 import bibliothek.gui.dock.support.util.ApplicationResource;
 import bibliothek.gui.dock.support.util.ApplicationResourceManager;
+import bibliothek.gui.dock.support.util.SnapshotApplicationResource;
+import bibliothek.gui.dock.support.util.StreamedApplicationResource;
 import bibliothek.gui.dock.themes.ThemeFactory;
 import bibliothek.gui.dock.util.DirectWindowProvider;
 import bibliothek.gui.dock.util.NullWindowProvider;
@@ -138,7 +139,8 @@ import bibliothek.util.Version;
 import bibliothek.util.Todo.Compatibility;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
-import bibliothek.util.xml.XIO;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * Manages the interaction between {@link SingleCDockable}, {@link MultipleCDockable}
@@ -243,6 +245,9 @@ public class CControl {
 
     /** a list of listeners which are to be informed when this control is no longer in use */
     private List<DestroyHook> hooks = new ArrayList<DestroyHook>();
+    
+    /** stores the layout automatically, can be <code>null</code> */
+    private CLayoutAutosave autosave;
 
     /** factory used to create new elements for this control */
     private CControlFactory factory;
@@ -464,27 +469,7 @@ public class CControl {
         themes = new ThemeMap( this );
 
         try{
-            resources.put( "ccontrol.frontend", new ApplicationResource(){
-                public void write( DataOutputStream out ) throws IOException {
-                    Version.write( out, Version.VERSION_1_0_4 );
-                    writeWorkingAreas( out );
-                    frontend.write( out );
-                }
-                public void read( DataInputStream in ) throws IOException {
-                    Version version = Version.read( in );
-                    version.checkCurrent();
-                    readWorkingAreas( in );
-                    frontend.read( in );
-                }
-                public void writeXML( XElement element ) {
-                    writeWorkingAreasXML( element.addElement( "areas" ) );
-                    frontend.writeXML( element.addElement( "frontend" ) );
-                }
-                public void readXML( XElement element ) {
-                    readWorkingAreasXML( element.getElement( "areas" ) );
-                    frontend.readXML( element.getElement( "frontend" ) );
-                }
-            });
+            resources.put( "ccontrol.frontend", new FrontendResource() );
 
             resources.put( "ccontrol.preferences", new ApplicationResource(){
                 public void read( DataInputStream in ) throws IOException {
@@ -899,13 +884,12 @@ public class CControl {
     }
 
     /**
-     * Writes a map using the unique identifiers of each {@link SingleCDockable} to
+     * Creates a map using the unique identifiers of each {@link SingleCDockable} to
      * tell to which {@link CWorkingArea} it belongs.
-     * @param out the stream to write into
-     * @throws IOException if an I/O error occurs
+     * @return the map, the unique identifiers of the dockables are the keys
      */
-    private void writeWorkingAreas( DataOutputStream out ) throws IOException{
-        Map<String,String> map = new HashMap<String, String>();
+    private Map<String, String> getWorkingAreas(){
+        Map<String,String> map = new LinkedHashMap<String, String>();
 
         for( SingleCDockable dockable : register.getSingleDockables() ){
             CStation<?> area = dockable.getWorkingArea();
@@ -914,6 +898,17 @@ public class CControl {
             }
         }
 
+        return map;
+    }
+
+    /**
+     * Writes a map using the unique identifiers of each {@link SingleCDockable} to
+     * tell to which {@link CWorkingArea} it belongs.
+     * @param map the map created by {@link #getWorkingAreas()}
+     * @param out the stream to write into
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeWorkingAreas( Map<String, String> map, DataOutputStream out ) throws IOException{
         out.writeInt( map.size() );
         for( Map.Entry<String, String> entry : map.entrySet() ){
             out.writeUTF( entry.getKey() );
@@ -923,19 +918,35 @@ public class CControl {
 
     /**
      * Writes a map of all {@link SingleCDockable}s and their {@link CWorkingArea}.
+     * @param map the map created by {@link #getWorkingAreas()}
      * @param element the element to write into
      */
-    private void writeWorkingAreasXML( XElement element ){
-        for( SingleCDockable dockable : register.getSingleDockables() ){
-            CStation<?> area = dockable.getWorkingArea();
-            if( area != null ){
-                XElement xarea = element.addElement( "area" );
-                xarea.addString( "id", area.getUniqueId() );
-                xarea.addString( "child", dockable.getUniqueId() );
-            }
+    private static void writeWorkingAreasXML( Map<String, String> map, XElement element ){
+        for( Map.Entry<String, String> entry : map.entrySet() ){
+            XElement xarea = element.addElement( "area" );
+            xarea.addString( "id", entry.getValue() );
+            xarea.addString( "child", entry.getKey() );
         }
     }
 
+    /**
+     * Writes a map of all {@link SingleCDockable}s and their {@link CWorkingArea} as
+     * new child "areas" of the current element of <code>out</code>.
+     * @param map the map created by {@link #getWorkingAreas()}
+     * @param out the stream to write into
+     * @throws IOException if an I/O error occurs
+     */
+    private static void writeWorkingAreasXML( Map<String, String> map, XStreamWriter out ) throws IOException{
+        out.startElement( "areas" );
+        for( Map.Entry<String, String> entry : map.entrySet() ){
+            out.startElement( "area" );
+            out.attribute( "id", entry.getValue() );
+            out.attribute( "child", entry.getKey() );
+            out.endElement();
+        }
+        out.endElement();
+    }
+
     /**
      * Reads a map telling for each {@link SingleCDockable} to which {@link CWorkingArea}
      * it belongs.
@@ -1004,6 +1015,10 @@ public class CControl {
      * work correctly after this method was called.
      */
     public void destroy(){
+        if( autosave != null ){
+            autosave.destroy();
+            autosave = null;
+        }
         frontend.kill();
         for( DestroyHook hook : hooks )
             hook.destroy();
@@ -1421,12 +1436,7 @@ public class CControl {
      * @return the element with that identifier or <code>null</code>
      */
     public SingleCDockable getSingleDockable( String id ){
-        for( SingleCDockable dockable : register.getSingleDockables() ){
-            if( dockable.getUniqueId().equals( id )){
-                return dockable;
-            }
-        }
-        return null;
+        return register.getSingleDockable( id );
     }
 
     /**
@@ -1437,10 +1447,9 @@ public class CControl {
      * otherwise
      */
     public boolean removeSingleDockable( String id ){
-        for( SingleCDockable dockable : register.getSingleDockables() ){
-            if( dockable.getUniqueId().equals( id )){
-                return remove( dockable );
-            }
+        SingleCDockable dockable = register.getSingleDockable( id );
+        if( dockable != null ){
+            return remove( dockable );
         }
         return false;
     }
@@ -1539,27 +1548,62 @@ public class CControl {
      * @return <code>dockable</code>
      */
     public <M extends MultipleCDockable> M add( M dockable ){
-        Set<String> ids = new HashSet<String>();
-
         String factory = access.getFactoryId( dockable.getFactory() );
         if( factory == null ){
             throw new IllegalStateException( "the factory for a MultipleCDockable is not registered: " + dockable.getFactory() );
         }
 
-        for( MultipleCDockable multi : register.getMultipleDockables() ){
-            if( factory.equals( access.getFactoryId( multi.getFactory() ))){
-                ids.add( accesses.get( multi ).getUniqueId() );
+        return add( dockable, nextMultipleCount( factory ) + " " + factory );
+    }
+    
+    /**
+     * Adds a set of dockables to this control, each dockable gets a new
+     * unique identifier like in {@link #add(MultipleCDockable)}. All the dockables
+     * are registered before the first {@link CControlListener} is informed about
+     * them, hence listeners see a consistent state, and the listeners are collected 
+     * only once for the whole batch. This method is intended for clients that
+     * need to create a large number of dockables at once.
+     * @param dockables the new elements, none of them may be <code>null</code>
+     * @throws IllegalStateException if the factory of one dockable is not registered. In
+     * this case no dockable is added.
+     * @throws IllegalArgumentException if one dockable is already part of a control or
+     * appears more than once in <code>dockables</code>. In this case no dockable is added.
+     * @throws NullPointerException if one dockable is <code>null</code>
+     */
+    public void addAll( Collection<? extends MultipleCDockable> dockables ){
+        List<String> factories = new ArrayList<String>( dockables.size() );
+        Set<MultipleCDockable> checked = new HashSet<MultipleCDockable>();
+        
+        for( MultipleCDockable dockable : dockables ){
+            if( dockable == null )
+                throw new NullPointerException( "dockable must not be null" );
+            
+            String factory = access.getFactoryId( dockable.getFactory() );
+            if( factory == null ){
+                throw new IllegalStateException( "the factory for a MultipleCDockable is not registered: " + dockable.getFactory() );
             }
+            if( dockable.getControl() != null || !checked.add( dockable ))
+                throw new IllegalArgumentException( "dockable is already part of a control" );
+            
+            factories.add( factory );
         }
-
-        int count = 0;
-        String id = count + " " + factory;
-        while( ids.contains( register.toMultiId( id ) ) ){
-            count++;
-            id = count + " " + factory;
+        
+        List<MultipleCDockable> added = new ArrayList<MultipleCDockable>( dockables.size() );
+        int index = 0;
+        
+        for( MultipleCDockable dockable : dockables ){
+            String factory = factories.get( index++ );
+            int next = nextMultipleCount( factory );
+            register( dockable, register.toMultiId( next + " " + factory ) );
+            added.add( dockable );
+        }
+        
+        CControlListener[] listeners = listeners();
+        for( MultipleCDockable dockable : added ){
+            for( CControlListener listener : listeners ){
+                listener.added( CControl.this, dockable );
+            }
         }
-
-        return add( dockable, id );
     }
 
     /**
@@ -1588,21 +1632,15 @@ public class CControl {
         }
 
         if( dockable.getControl() != null )
-            throw new IllegalStateException( "dockable is already part of a control" );
+            throw new IllegalArgumentException( "dockable is already part of a control" );
 
         uniqueId = register.toMultiId( uniqueId );
 
-        for( MultipleCDockable multi : register.getMultipleDockables() ){
-            String id = accesses.get( multi ).getUniqueId();
-            if( uniqueId.equals( id )){
-                throw new IllegalArgumentException( "The unique identifier is already in use: " + uniqueId );
-            }
+        if( findMultipleDockable( uniqueId ) != null ){
+            throw new IllegalArgumentException( "The unique identifier is already in use: " + uniqueId );
         }
 
-        dockable.setControl( access );
-        accesses.get( dockable ).setUniqueId( uniqueId );
-
-        register.addMultipleDockable( dockable );
+        register( dockable, uniqueId );
 
         for( CControlListener listener : listeners() )
             listener.added( CControl.this, dockable );
@@ -1610,6 +1648,69 @@ public class CControl {
         return dockable;
     }
     
+    /**
+     * Connects <code>dockable</code> with this control and stores it in the
+     * register. Does not inform any listener.
+     * @param dockable the new element
+     * @param uniqueId the unused identifier of <code>dockable</code>, including the "multi" prefix
+     */
+    private void register( MultipleCDockable dockable, String uniqueId ){
+        dockable.setControl( access );
+        accesses.get( dockable ).setUniqueId( uniqueId );
+
+        if( register instanceof DefaultCControlRegister ){
+            ((DefaultCControlRegister)register).addMultipleDockable( dockable, uniqueId );
+        }
+        else{
+            register.addMultipleDockable( dockable );
+        }
+    }
+    
+    /**
+     * Searches the {@link MultipleCDockable} which uses <code>uniqueId</code>. Uses
+     * the index of a {@link DefaultCControlRegister}, other registers are searched
+     * element by element.
+     * @param uniqueId the identifier to search, including the "multi" prefix
+     * @return the element with that identifier or <code>null</code>
+     */
+    private MultipleCDockable findMultipleDockable( String uniqueId ){
+        if( register instanceof DefaultCControlRegister ){
+            return ((DefaultCControlRegister)register).getMultipleDockable( uniqueId );
+        }
+        
+        for( MultipleCDockable multi : register.getMultipleDockables() ){
+            if( uniqueId.equals( accesses.get( multi ).getUniqueId() )){
+                return multi;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the smallest number <code>count</code> such that the identifier
+     * <code>count + " " + factory</code> is not yet in use.
+     * @param factory the identifier of the factory of a new dockable
+     * @return a number that results in an unused identifier
+     */
+    private int nextMultipleCount( String factory ){
+        if( register instanceof DefaultCControlRegister ){
+            return ((DefaultCControlRegister)register).nextMultipleCount( factory );
+        }
+        
+        Set<String> ids = new HashSet<String>();
+        for( MultipleCDockable multi : register.getMultipleDockables() ){
+            if( factory.equals( access.getFactoryId( multi.getFactory() ))){
+                ids.add( accesses.get( multi ).getUniqueId() );
+            }
+        }
+
+        int count = 0;
+        while( ids.contains( register.toMultiId( count + " " + factory ) ) ){
+            count++;
+        }
+        return count;
+    }
+    
     /**
      * Replaces <code>oldDockable</code> with <code>newDockable</code>. The new dockable
      * inherits settings and location of the old one.
@@ -1661,13 +1762,7 @@ public class CControl {
      * was found
      */
     public MultipleCDockable getMultipleDockable( String id ){
-        id = register.toMultiId( id );
-        for( MultipleCDockable dockable : register.getMultipleDockables() ){
-            if( accesses.get( dockable ).getUniqueId().equals( id )){
-                return dockable;
-            }
-        }
-        return null;
+        return findMultipleDockable( register.toMultiId( id ) );
     }
 
     private boolean shouldStore( String id ){
@@ -1725,10 +1820,8 @@ public class CControl {
 
         String multiId = register.toMultiId( uniqueId );
 
-        for( MultipleCDockable multi : register.getMultipleDockables() ){
-            if( accesses.get( multi ).getUniqueId().equals( multiId )){
-                return false;
-            }
+        if( findMultipleDockable( multiId ) != null ){
+            return false;
         }
 
         String factoryId = access.getFactoryId( factory );
@@ -2095,6 +2188,36 @@ public class CControl {
         getResources().writeStream( out );
     }
 
+    /**
+     * Installs a {@link CLayoutAutosave} which writes the current and all known
+     * layouts into <code>file</code> whenever the layout changes. The file is
+     * written by a background thread in the same format as {@link #write(File)} uses.
+     * Pending changes are written when this control is {@link #destroy() destroyed}.
+     * A previously installed autosave is flushed and removed.
+     * @param file the file to write into, <code>null</code> to disable autosaving
+     * @return the new autosave, which can be used to configure the autosave further,
+     * or <code>null</code> if <code>file</code> is <code>null</code>
+     */
+    public CLayoutAutosave setAutosave( File file ){
+        if( autosave != null ){
+            autosave.destroy();
+            autosave = null;
+        }
+        if( file != null ){
+            autosave = new CLayoutAutosave( this, file );
+            autosave.setEnabled( true );
+        }
+        return autosave;
+    }
+    
+    /**
+     * Gets the autosave that was installed by {@link #setAutosave(File)}.
+     * @return the autosave or <code>null</code>
+     */
+    public CLayoutAutosave getAutosave(){
+        return autosave;
+    }
+
     /**
      * Writes the current and all known layouts into <code>element</code>.<br>
      * This is the same as calling <code>getResources().writeXML( element )</code>.
@@ -2105,16 +2228,13 @@ public class CControl {
     }
 
     /**
-     * Writes the current and all known layouts into <code>file</code> in xml format.
+     * Writes the current and all known layouts into <code>file</code> in xml format.<br>
+     * This is the same as calling <code>getResources().writeFileXML( file )</code>.
      * @param file the file to write into
      * @throws IOException if the file is not writable
      */
     public void writeXML( File file ) throws IOException{
-        XElement root = new XElement( "root" );
-        getResources().writeXML( root );
-        BufferedOutputStream out = new BufferedOutputStream( new FileOutputStream( file ));
-        XIO.writeUTF( root, out );
-        out.close();
+        getResources().writeFileXML( file );
     }
     
     /**
@@ -2148,16 +2268,14 @@ public class CControl {
     }
     
     /**
-     * Reads the current and other known layouts from <code>file</code>.
+     * Reads the current and other known layouts from <code>file</code>.<br>
+     * This is the same as calling <code>getResources().readFileXML( file )</code>.
      * @param file the file to open and to read
      * @throws IOException if the file cannot be read
      * @throws XException if the xml file has the wrong structure
      */
     public void readXML( File file ) throws IOException{
-        BufferedInputStream in = new BufferedInputStream( new FileInputStream( file ));
-        XElement element = XIO.readUTF( in );
-        in.close();
-        readXML( element );
+        getResources().readFileXML( file );
     }
 
     /**
@@ -2193,6 +2311,84 @@ public class CControl {
         return settings.toArray( new String[ settings.size() ] );
     }
 
+    /**
+     * The {@link ApplicationResource} that stores the layout of the {@link DockFrontend}
+     * and the {@link CWorkingArea}s of the {@link SingleCDockable}s.
+     * @author Benjamin Sigg
+     */
+    private class FrontendResource implements SnapshotApplicationResource, StreamedApplicationResource{
+        public void write( DataOutputStream out ) throws IOException {
+            Version.write( out, Version.VERSION_1_0_4 );
+            writeWorkingAreas( getWorkingAreas(), out );
+            frontend.write( out );
+        }
+        public void read( DataInputStream in ) throws IOException {
+            Version version = Version.read( in );
+            version.checkCurrent();
+            readWorkingAreas( in );
+            frontend.read( in );
+        }
+        public void writeXML( XElement element ) {
+            writeWorkingAreasXML( getWorkingAreas(), element.addElement( "areas" ) );
+            frontend.writeXML( element.addElement( "frontend" ) );
+        }
+        public void readXML( XElement element ) {
+            readWorkingAreasXML( element.getElement( "areas" ) );
+            frontend.readXML( element.getElement( "frontend" ) );
+        }
+        public void writeXML( XStreamWriter out ) throws IOException {
+            writeWorkingAreasXML( getWorkingAreas(), out );
+            out.startElement( "frontend" );
+            frontend.writeXML( out );
+            out.endElement();
+        }
+        public void readXML( XStreamReader in ) throws IOException {
+            String name;
+            while( (name = in.nextElement()) != null ){
+                if( name.equals( "areas" )){
+                    readWorkingAreasXML( in.readElement() );
+                }
+                else if( name.equals( "frontend" )){
+                    frontend.readXML( in );
+                }
+                else{
+                    in.skipElement();
+                }
+            }
+        }
+        public ApplicationResource createSnapshot(){
+            final Map<String, String> areas = getWorkingAreas();
+            final DockFrontend.Snapshot snapshot = frontend.createSnapshot();
+            
+            return new StreamedApplicationResource(){
+                public void write( DataOutputStream out ) throws IOException {
+                    Version.write( out, Version.VERSION_1_0_4 );
+                    writeWorkingAreas( areas, out );
+                    snapshot.write( out );
+                }
+                public void writeXML( XElement element ) {
+                    writeWorkingAreasXML( areas, element.addElement( "areas" ) );
+                    snapshot.writeXML( element.addElement( "frontend" ) );
+                }
+                public void writeXML( XStreamWriter out ) throws IOException {
+                    writeWorkingAreasXML( areas, out );
+                    out.startElement( "frontend" );
+                    snapshot.writeXML( out );
+                    out.endElement();
+                }
+                public void read( DataInputStream in ) throws IOException {
+                    throw new UnsupportedOperationException( "a snapshot cannot be read" );
+                }
+                public void readXML( XElement element ) {
+                    throw new UnsupportedOperationException( "a snapshot cannot be read" );
+                }
+                public void readXML( XStreamReader in ) throws IOException {
+                    throw new UnsupportedOperationException( "a snapshot cannot be read" );
+                }
+            };
+        }
+    }
+
     /**
      * A class giving access to the internal methods of the enclosing
      * {@link CControl}.
@@ -0,0 +1,596 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2010 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.common;
+
+import java.awt.EventQueue;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseListener;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.swing.Timer;
+
+import bibliothek.gui.DockController;
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.SplitDockStation;
+import bibliothek.gui.dock.common.event.CControlListener;
+import bibliothek.gui.dock.common.event.CLayoutAutosaveListener;
+import bibliothek.gui.dock.common.intern.CDockable;
+import bibliothek.gui.dock.event.DockRegisterAdapter;
+import bibliothek.gui.dock.event.DockRelocatorAdapter;
+import bibliothek.gui.dock.support.util.ApplicationResourceManager;
+import bibliothek.util.xml.XStreamWriter;
+
+/**
+ * Automatically stores the layout of a {@link CControl} in a file whenever the layout
+ * changes. A change is detected when a {@link Dockable} or {@link DockStation} is
+ * registered, unregistered or moved while the register was stalled, when a drag and drop 
+ * operation ends, when the user releases a divider of a {@link SplitDockStation}, or when a 
+ * {@link CDockable} is added, removed, opened or closed. Clients can call {@link #requestSave()}
+ * to report additional changes.<br>
+ * Changes are collected until there was no change for {@link #setDelay(int) some time}, then 
+ * a {@link ApplicationResourceManager#createSnapshot(boolean) snapshot} of the layout is taken
+ * on the <code>EventDispatchThread</code>, and the snapshot is encoded and written into 
+ * the file by a background thread. The file is first written under a
+ * temporary name and then renamed, hence it is never left half written.<br>
+ * An autosave is usually installed by calling {@link CControl#setAutosave(File)}, in this
+ * case any pending change is written when the {@link CControl} is {@link CControl#destroy() destroyed}.<br>
+ * Errors are reported to the {@link CLayoutAutosaveListener}s, if there are no listeners the
+ * errors are printed.
+ * @author Benjamin Sigg
+ */
+public class CLayoutAutosave implements DestroyHook{
+	/** the control whose layout is stored */
+	private CControl control;
+	
+	/** the file into which the layout is written */
+	private File file;
+	
+	/** whether to write xml or binary data */
+	private boolean xml = false;
+	
+	/** whether this autosave currently listens to changes */
+	private boolean enabled = false;
+	
+	/** collects changes and starts a snapshot when no change happened for some time */
+	private Timer timer;
+	
+	/** the thread that writes into {@link #file}, created lazily */
+	private ExecutorService executor;
+	
+	/** the last task that was given to {@link #executor} */
+	private Future<?> lastWrite;
+	
+	/** the newest snapshot that was not yet picked up by the writing thread */
+	private Snapshot pending;
+	
+	/** the listener that detects changes */
+	private Listener listener = new Listener();
+	
+	/** the observers that are informed about errors */
+	private List<CLayoutAutosaveListener> listeners = new ArrayList<CLayoutAutosaveListener>();
+	
+	/**
+	 * Creates a new autosave. The autosave is not enabled.
+	 * @param control the control whose layout is stored
+	 * @param file the file into which the layout is written
+	 */
+	public CLayoutAutosave( CControl control, File file ){
+		if( control == null )
+			throw new IllegalArgumentException( "control must not be null" );
+		if( file == null )
+			throw new IllegalArgumentException( "file must not be null" );
+		
+		this.control = control;
+		this.file = file;
+		
+		timer = new Timer( 1000, new ActionListener(){
+			public void actionPerformed( ActionEvent e ){
+				save();
+			}
+		});
+		timer.setRepeats( false );
+	}
+	
+	/**
+	 * Gets the file into which this autosave writes.
+	 * @return the file
+	 */
+	public File getFile(){
+		return file;
+	}
+	
+	/**
+	 * Sets the format of the file, either binary like {@link CControl#write(File)} or
+	 * xml like {@link CControl#writeXML(File)}.
+	 * @param xml <code>true</code> if the xml format should be used
+	 */
+	public void setXML( boolean xml ){
+		this.xml = xml;
+	}
+	
+	/**
+	 * Tells whether the file is written in xml format.
+	 * @return <code>true</code> if xml is written
+	 * @see #setXML(boolean)
+	 */
+	public boolean isXML(){
+		return xml;
+	}
+	
+	/**
+	 * Sets the time that has to pass without any change before the layout is stored.
+	 * @param delay the delay in milliseconds, at least 0
+	 */
+	public void setDelay( int delay ){
+		if( delay < 0 )
+			throw new IllegalArgumentException( "delay must not be negative: " + delay );
+		timer.setInitialDelay( delay );
+	}
+	
+	/**
+	 * Gets the time that has to pass without any change before the layout is stored.
+	 * @return the delay in milliseconds
+	 */
+	public int getDelay(){
+		return timer.getInitialDelay();
+	}
+	
+	/**
+	 * Adds a listener to this autosave, the listener is informed when the layout
+	 * could not be written.
+	 * @param listener the new listener
+	 */
+	public void addAutosaveListener( CLayoutAutosaveListener listener ){
+		if( listener == null )
+			throw new IllegalArgumentException( "listener must not be null" );
+		listeners.add( listener );
+	}
+	
+	/**
+	 * Removes a listener from this autosave.
+	 * @param listener the listener to remove
+	 */
+	public void removeAutosaveListener( CLayoutAutosaveListener listener ){
+		listeners.remove( listener );
+	}
+	
+	/**
+	 * Informs all {@link CLayoutAutosaveListener}s that the layout could not be written. If
+	 * there are no listeners, then the stack trace of <code>error</code> is printed. This method
+	 * can be called from any thread, the listeners are always called on the <code>EventDispatchThread</code>.
+	 * @param error the cause of the failure
+	 */
+	protected void fireSaveFailed( final Exception error ){
+		if( !EventQueue.isDispatchThread() ){
+			EventQueue.invokeLater( new Runnable(){
+				public void run(){
+					fireSaveFailed( error );
+				}
+			});
+			return;
+		}
+		
+		if( listeners.isEmpty() ){
+			error.printStackTrace();
+		}
+		else{
+			for( CLayoutAutosaveListener listener : listeners.toArray( new CLayoutAutosaveListener[ listeners.size() ] )){
+				listener.saveFailed( this, error );
+			}
+		}
+	}
+	
+	/**
+	 * Enables or disables this autosave. A disabled autosave does not listen
+	 * to changes, but {@link #requestSave()} and {@link #flush()} can still be called.
+	 * @param enabled whether to listen to changes
+	 */
+	public void setEnabled( boolean enabled ){
+		if( this.enabled != enabled ){
+			this.enabled = enabled;
+			DockController controller = control.intern().getController();
+			if( enabled ){
+				controller.getRegister().addDockRegisterListener( listener );
+				controller.getRelocator().addDockRelocatorListener( listener.relocator );
+				control.addControlListener( listener );
+				for( DockStation station : controller.getRegister().listDockStations() ){
+					listener.addDivider( station );
+				}
+			}
+			else{
+				controller.getRegister().removeDockRegisterListener( listener );
+				controller.getRelocator().removeDockRelocatorListener( listener.relocator );
+				control.removeControlListener( listener );
+				for( DockStation station : controller.getRegister().listDockStations() ){
+					listener.removeDivider( station );
+				}
+				timer.stop();
+			}
+		}
+	}
+	
+	/**
+	 * Tells whether this autosave listens to changes of the layout.
+	 * @return <code>true</code> if changes are detected automatically
+	 */
+	public boolean isEnabled(){
+		return enabled;
+	}
+	
+	/**
+	 * Tells this autosave that the layout changed. The layout will be stored
+	 * once there was no change for {@link #getDelay() some time}. This method 
+	 * should be called on the <code>EventDispatchThread</code>.
+	 */
+	public void requestSave(){
+		timer.restart();
+	}
+	
+	/**
+	 * Tells whether there is a change which was not yet written into the file.
+	 * @return <code>true</code> if a save is pending or currently running
+	 */
+	public boolean isSavePending(){
+		if( timer.isRunning() )
+			return true;
+		
+		synchronized( this ){
+			return pending != null || (lastWrite != null && !lastWrite.isDone());
+		}
+	}
+	
+	/**
+	 * Writes any pending change into the file and waits until the file is written. 
+	 * Must be called on the <code>EventDispatchThread</code>.
+	 * @throws IOException if the file could not be written
+	 */
+	public void flush() throws IOException{
+		savePending();
+		awaitWrite();
+	}
+	
+	/**
+	 * Takes a snapshot of the layout if there is a change that was not yet handed over
+	 * to the background thread. Must be called on the <code>EventDispatchThread</code>.
+	 */
+	private void savePending(){
+		if( timer.isRunning() ){
+			timer.stop();
+			save();
+		}
+	}
+	
+	/**
+	 * Waits until the last snapshot was written into the file. Can be called by any thread.
+	 * @throws IOException if the file could not be written
+	 */
+	private void awaitWrite() throws IOException{
+		Future<?> write;
+		synchronized( this ){
+			write = lastWrite;
+		}
+		
+		if( write != null ){
+			try{
+				write.get();
+			}
+			catch( InterruptedException ex ){
+				Thread.currentThread().interrupt();
+			}
+			catch( ExecutionException ex ){
+				Throwable cause = ex.getCause();
+				if( cause instanceof IOException )
+					throw (IOException)cause;
+				if( cause instanceof RuntimeException )
+					throw (RuntimeException)cause;
+				if( cause instanceof Error )
+					throw (Error)cause;
+				throw new IOException( String.valueOf( cause ) );
+			}
+		}
+	}
+	
+	/**
+	 * Writes all pending changes, then disables this autosave and stops the background thread.
+	 * Called by the {@link CControl} when it is destroyed. If this method is not called on the
+	 * <code>EventDispatchThread</code>, then the last snapshot is taken on the <code>EventDispatchThread</code>
+	 * and this method waits until the snapshot is written.
+	 */
+	public void destroy(){
+		try{
+			if( EventQueue.isDispatchThread() ){
+				flush();
+			}
+			else{
+				EventQueue.invokeAndWait( new Runnable(){
+					public void run(){
+						savePending();
+					}
+				});
+				awaitWrite();
+			}
+		}
+		catch( IOException ex ){
+			// already reported by the background thread
+		}
+		catch( InterruptedException ex ){
+			Thread.currentThread().interrupt();
+		}
+		catch( InvocationTargetException ex ){
+			Throwable cause = ex.getCause();
+			if( cause instanceof Exception )
+				fireSaveFailed( (Exception)cause );
+			else
+				fireSaveFailed( ex );
+		}
+		
+		setEnabled( false );
+		synchronized( this ){
+			if( executor != null ){
+				executor.shutdown();
+				executor = null;
+			}
+		}
+	}
+	
+	/**
+	 * Takes a snapshot of the current layout and hands the snapshot over to the 
+	 * background thread.
+	 */
+	protected void save(){
+		Snapshot snapshot;
+		try{
+			snapshot = createSnapshot();
+		}
+		catch( IOException ex ){
+			fireSaveFailed( ex );
+			return;
+		}
+		
+		synchronized( this ){
+			boolean running = pending != null;
+			pending = snapshot;
+			if( !running ){
+				if( executor == null ){
+					executor = Executors.newSingleThreadExecutor( new ThreadFactory(){
+						public Thread newThread( Runnable r ){
+							Thread thread = new Thread( r, "CLayoutAutosave" );
+							thread.setDaemon( true );
+							return thread;
+						}
+					});
+				}
+				lastWrite = executor.submit( new Callable<Object>(){
+					public Object call() throws IOException{
+						Snapshot next;
+						synchronized( CLayoutAutosave.this ){
+							next = pending;
+							pending = null;
+						}
+						if( next != null ){
+							try{
+								write( next );
+							}
+							catch( IOException ex ){
+								fireSaveFailed( ex );
+								throw ex;
+							}
+							catch( RuntimeException ex ){
+								fireSaveFailed( ex );
+								throw ex;
+							}
+						}
+						return null;
+					}
+				});
+			}
+		}
+	}
+	
+	/**
+	 * Collects the layout of {@link #control}. This method is called on the 
+	 * <code>EventDispatchThread</code>, the encoding of the layout is left to
+	 * {@link Snapshot#write(FileOutputStream)}.
+	 * @return the current layout
+	 * @throws IOException if the layout cannot be collected
+	 */
+	protected Snapshot createSnapshot() throws IOException{
+		final ApplicationResourceManager resources = control.getResources().createSnapshot( xml );
+		if( xml ){
+			return new Snapshot(){
+				public void write( FileOutputStream out ) throws IOException{
+					XStreamWriter xml = new XStreamWriter( new BufferedWriter( new OutputStreamWriter( out, "UTF-8" )));
+					xml.startElement( "root" );
+					resources.writeXML( xml );
+					xml.endAll();
+					xml.flush();
+				}
+			};
+		}
+		else{
+			return new Snapshot(){
+				public void write( FileOutputStream out ) throws IOException{
+					DataOutputStream data = new DataOutputStream( new BufferedOutputStream( out ));
+					resources.writeStream( data );
+					data.flush();
+				}
+			};
+		}
+	}
+	
+	/**
+	 * Writes <code>snapshot</code> into a temporary file and then replaces {@link #file}
+	 * with the temporary file. If the file system does not allow to replace an existing
+	 * file, then the old file is moved aside and only deleted once the new file is in place.
+	 * This method is called by the background thread.
+	 * @param snapshot the data to write
+	 * @throws IOException if the file cannot be written
+	 */
+	protected void write( Snapshot snapshot ) throws IOException{
+		File temp = new File( file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp" );
+		FileOutputStream out = new FileOutputStream( temp );
+		try{
+			snapshot.write( out );
+			out.getFD().sync();
+		}
+		finally{
+			out.close();
+		}
+		
+		if( !temp.renameTo( file )){
+			// some file systems do not replace existing files
+			File backup = new File( temp.getParentFile(), file.getName() + ".bak" );
+			backup.delete();
+			if( !file.renameTo( backup )){
+				throw new IOException( "cannot replace " + file + " with " + temp );
+			}
+			if( !temp.renameTo( file )){
+				backup.renameTo( file );
+				throw new IOException( "cannot replace " + file + " with " + temp );
+			}
+			backup.delete();
+		}
+	}
+	
+	/**
+	 * The layout of a {@link CControl} at some point in time.
+	 * @author Benjamin Sigg
+	 */
+	protected static interface Snapshot{
+		/**
+		 * Writes the layout into <code>out</code>.
+		 * @param out the stream to write into
+		 * @throws IOException if an I/O-error occurs
+		 */
+		public void write( FileOutputStream out ) throws IOException;
+	}
+	
+	/**
+	 * Observes the {@link CControl} and calls {@link CLayoutAutosave#requestSave()}
+	 * when a change happens.
+	 * @author Benjamin Sigg
+	 */
+	private class Listener extends DockRegisterAdapter implements CControlListener{
+		/** observes drag and drop operations */
+		private DockRelocatorAdapter relocator = new DockRelocatorAdapter(){
+			@Override
+			public void drop( DockController controller, Dockable dockable, DockStation station ){
+				requestSave();
+			}
+		};
+		
+		/** observes the dividers of {@link SplitDockStation}s, the layout changes when the user releases a divider */
+		private MouseListener divider = new MouseAdapter(){
+			@Override
+			public void mouseReleased( MouseEvent e ){
+				requestSave();
+			}
+		};
+		
+		/**
+		 * Starts observing the dividers of <code>station</code> if <code>station</code> 
+		 * is a {@link SplitDockStation}.
+		 * @param station the new station
+		 */
+		public void addDivider( DockStation station ){
+			if( station instanceof SplitDockStation ){
+				((SplitDockStation)station).getContentPane().addMouseListener( divider );
+			}
+		}
+		
+		/**
+		 * Stops observing the dividers of <code>station</code>.
+		 * @param station the removed station
+		 */
+		public void removeDivider( DockStation station ){
+			if( station instanceof SplitDockStation ){
+				((SplitDockStation)station).getContentPane().removeMouseListener( divider );
+			}
+		}
+		
+		@Override
+		public void dockableRegistered( DockController controller, Dockable dockable ){
+			requestSave();
+		}
+		
+		@Override
+		public void dockableUnregistered( DockController controller, Dockable dockable ){
+			requestSave();
+		}
+		
+		@Override
+		public void dockableCycledRegister( DockController controller, Dockable dockable ){
+			requestSave();
+		}
+		
+		@Override
+		public void dockStationRegistered( DockController controller, DockStation station ){
+			addDivider( station );
+			requestSave();
+		}
+		
+		@Override
+		public void dockStationUnregistered( DockController controller, DockStation station ){
+			removeDivider( station );
+			requestSave();
+		}
+		
+		public void added( CControl control, CDockable dockable ){
+			requestSave();
+		}
+		
+		public void removed( CControl control, CDockable dockable ){
+			requestSave();
+		}
+		
+		public void opened( CControl control, CDockable dockable ){
+			requestSave();
+		}
+		
+		public void closed( CControl control, CDockable dockable ){
+			requestSave();
+		}
+	}
+}
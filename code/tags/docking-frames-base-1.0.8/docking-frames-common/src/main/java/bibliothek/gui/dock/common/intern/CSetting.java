@@ -45,6 +45,8 @@ import bibliothek.gui.dock.support.mode.ModeSettings;
 import bibliothek.util.FrameworkOnly;
 import bibliothek.util.Version;
 import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * A {@link Setting} that stores also the contents of a {@link CLocationModeManager}.
@@ -126,13 +128,37 @@ public class CSetting extends Setting{
         modes.writeXML( element.addElement( "modes" ) );
         
         if( !multiFactoryDockables.isEmpty() ){
-            XElement xmultiFactories = element.addElement( "multi-factories" );
-            for( Map.Entry<String, List<String>> factory : multiFactoryDockables.entrySet() ){
-                XElement xfactory = xmultiFactories.addElement( "factory" );
-                xfactory.addString( "id", factory.getKey() );
-                for( String dockable : factory.getValue() ){
-                    xfactory.addElement( "dockable" ).addString( "id", dockable );
-                }
+            writeMultiFactoriesXML( element.addElement( "multi-factories" ) );
+        }
+    }
+    
+    @Override
+    public void writeXML( DockSituation situation, PropertyTransformer transformer, boolean entry, XStreamWriter out ) throws IOException{
+        out.startElement( "base" );
+        super.writeXML( situation, transformer, entry, out );
+        out.endElement();
+        
+        XElement xmodes = new XElement( "modes" );
+        modes.writeXML( xmodes );
+        out.element( xmodes );
+        
+        if( !multiFactoryDockables.isEmpty() ){
+            XElement xmultiFactories = new XElement( "multi-factories" );
+            writeMultiFactoriesXML( xmultiFactories );
+            out.element( xmultiFactories );
+        }
+    }
+    
+    /**
+     * Writes the contents of {@link #multiFactoryDockables} into <code>element</code>.
+     * @param element the element to write into
+     */
+    private void writeMultiFactoriesXML( XElement element ){
+        for( Map.Entry<String, List<String>> factory : multiFactoryDockables.entrySet() ){
+            XElement xfactory = element.addElement( "factory" );
+            xfactory.addString( "id", factory.getKey() );
+            for( String dockable : factory.getValue() ){
+                xfactory.addElement( "dockable" ).addString( "id", dockable );
             }
         }
     }
@@ -171,19 +197,46 @@ public class CSetting extends Setting{
         
         XElement xmultiFactories = element.getElement( "multi-factories" );
         if( xmultiFactories != null ){
-            for( XElement xfactory : xmultiFactories.getElements( "factory" ) ){
-                List<String> dockables = new ArrayList<String>();
-                for( XElement xdockable : xfactory.getElements( "dockable" )){
-                    String id = xdockable.getString( "id" );
-                    if( id != null ){
-                        dockables.add( id );
-                    }
-                }
-                String id = xfactory.getString( "id" );
+            readMultiFactoriesXML( xmultiFactories );
+        }
+    }
+    
+    @Override
+    public void readXML( DockSituation situation, PropertyTransformer transformer, boolean entry, XStreamReader in ) throws IOException{
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "base" )){
+                super.readXML( situation, transformer, entry, in );
+            }
+            else if( name.equals( "modes" )){
+                modes.readXML( in.readElement() );
+            }
+            else if( name.equals( "multi-factories" )){
+                readMultiFactoriesXML( in.readElement() );
+            }
+            else{
+                in.skipElement();
+            }
+        }
+    }
+    
+    /**
+     * Reads the contents of {@link #multiFactoryDockables} from <code>element</code>.
+     * @param element the element to read
+     */
+    private void readMultiFactoriesXML( XElement element ){
+        for( XElement xfactory : element.getElements( "factory" ) ){
+            List<String> dockables = new ArrayList<String>();
+            for( XElement xdockable : xfactory.getElements( "dockable" )){
+                String id = xdockable.getString( "id" );
                 if( id != null ){
-                    putMultipleFactoryDockables( id, dockables );
+                    dockables.add( id );
                 }
             }
+            String id = xfactory.getString( "id" );
+            if( id != null ){
+                putMultipleFactoryDockables( id, dockables );
+            }
         }
     }
 }
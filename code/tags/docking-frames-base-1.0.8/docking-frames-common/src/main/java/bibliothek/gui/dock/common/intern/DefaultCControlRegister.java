@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -77,6 +78,22 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     private List<MultipleCDockable> multiDockables = 
         new ArrayList<MultipleCDockable>();
     
+    /** all {@link SingleCDockable}s accessible through their unique id */
+    private Map<String, SingleCDockable> singleIds =
+    	new HashMap<String, SingleCDockable>();
+    
+    /** all {@link MultipleCDockable}s accessible through their unique id (including the "multi" prefix) */
+    private Map<String, MultipleCDockable> multiIds =
+    	new HashMap<String, MultipleCDockable>();
+    
+    /** the unique id (including the "multi" prefix) of each {@link MultipleCDockable} */
+    private Map<MultipleCDockable, String> multiIdsReverse =
+    	new IdentityHashMap<MultipleCDockable, String>();
+    
+    /** for each factory the smallest number that might be used to build an unused unique id */
+    private Map<String, Integer> nextMultipleCounts =
+    	new HashMap<String, Integer>();
+    
     /** the stations known  */
     private List<CStation<?>> stations = new ArrayList<CStation<?>>();
     
@@ -212,22 +229,71 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     }
 
     public void addMultipleDockable( MultipleCDockable dockable ) {
+    	CControlAccess access = dockable.getControl();
+    	if( access == null )
+    		throw new IllegalArgumentException( "dockable is not connected to a control" );
+    	
+    	addMultipleDockable( dockable, access.access( dockable ).getUniqueId() );
+    }
+    
+    /**
+     * Adds <code>dockable</code> to this register. Unlike {@link #addMultipleDockable(MultipleCDockable)}
+     * this method does not need to ask the {@link CControlAccess} of <code>dockable</code> for its
+     * identifier.
+     * @param dockable the new element
+     * @param uniqueId the unique identifier of <code>dockable</code>, an identifier 
+     * created by {@link #toMultiId(String)}
+     * @throws IllegalArgumentException if <code>uniqueId</code> is already in use
+     */
+    public void addMultipleDockable( MultipleCDockable dockable, String uniqueId ) {
+    	if( multiIds.containsKey( uniqueId ))
+    		throw new IllegalArgumentException( "The unique identifier is already in use: " + uniqueId );
+    	
         dockables.add( dockable );
         multiDockables.add( dockable );
+        multiIds.put( uniqueId, dockable );
+        multiIdsReverse.put( dockable, uniqueId );
+    }
+    
+    /**
+     * Searches the one {@link MultipleCDockable} which was added with the unique
+     * identifier <code>uniqueId</code>.
+     * @param uniqueId some id created by {@link #toMultiId(String)}
+     * @return the dockable using <code>uniqueId</code> or <code>null</code>
+     */
+    public MultipleCDockable getMultipleDockable( String uniqueId ){
+    	return multiIds.get( uniqueId );
+    }
+    
+    /**
+     * Gets the smallest number <code>count</code> such that the identifier
+     * <code>toMultiId( count + " " + factory )</code> is not yet in use. The last
+     * result for each factory is remembered, hence adding many dockables of the
+     * same factory does not test the identifiers which are already in use again and again.
+     * @param factory the identifier of the factory of a new dockable
+     * @return a number that results in an unused identifier
+     */
+    public int nextMultipleCount( String factory ){
+    	Integer next = nextMultipleCounts.get( factory );
+    	int count = next == null ? 0 : next.intValue();
+    	while( multiIds.containsKey( toMultiId( count + " " + factory ) )){
+    		count++;
+    	}
+    	nextMultipleCounts.put( factory, count );
+    	return count;
     }
 
     public void addSingleDockable( SingleCDockable dockable ) {
+    	if( singleIds.containsKey( dockable.getUniqueId() ))
+    		throw new IllegalArgumentException( "unique id \'" + dockable.getUniqueId() + "\' already in use for another SingleCDockable" );
+    	
         dockables.add( dockable );
         singleDockables.add( dockable );
+        singleIds.put( dockable.getUniqueId(), dockable );
     }
     
     public SingleCDockable getSingleDockable( String id ){
-	    for( SingleCDockable dockable : singleDockables ){
-	    	if( dockable.getUniqueId().equals( id )){
-	    		return dockable;
-	    	}
-	    }
-	    return null;
+    	return singleIds.get( id );
     }
 
     public void addStation( CStation<?> station ) {
@@ -259,15 +325,51 @@ public class DefaultCControlRegister implements MutableCControlRegister {
     }
 
     public boolean removeMultipleDockable( MultipleCDockable dockable ) {
-        if( dockables.remove( dockable ) ){
+        String id = multiIdsReverse.remove( dockable );
+        if( id != null ){
+            multiIds.remove( id );
+            releaseMultipleCount( id );
+            dockables.remove( dockable );
             multiDockables.remove( dockable );
             return true;
         }
         return false;
     }
 
+    /**
+     * Called after the unique identifier <code>id</code> was released. If
+     * <code>id</code> has the form "count factory", then <code>count</code>
+     * is remembered as free number for <code>factory</code>.
+     * @param id the identifier that is no longer in use, including the "multi" prefix
+     */
+    private void releaseMultipleCount( String id ){
+    	if( !isMultiId( id ))
+    		return;
+    	
+    	id = multiToNormalId( id );
+    	int space = id.indexOf( ' ' );
+    	if( space <= 0 )
+    		return;
+    	
+    	int count;
+    	try{
+    		count = Integer.parseInt( id.substring( 0, space ) );
+    	}
+    	catch( NumberFormatException e ){
+    		return;
+    	}
+    	
+    	String factory = id.substring( space+1 );
+    	Integer next = nextMultipleCounts.get( factory );
+    	if( next != null && count >= 0 && count < next.intValue() ){
+    		nextMultipleCounts.put( factory, count );
+    	}
+    }
+
     public boolean removeSingleDockable( SingleCDockable dockable ) {
-        if( dockables.remove( dockable )){
+        if( singleIds.get( dockable.getUniqueId() ) == dockable ){
+            singleIds.remove( dockable.getUniqueId() );
+            dockables.remove( dockable );
             singleDockables.remove( dockable );
             return true;
         }
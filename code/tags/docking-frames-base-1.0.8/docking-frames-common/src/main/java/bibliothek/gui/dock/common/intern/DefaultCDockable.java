@@ -25,12 +25,20 @@
  */
 package bibliothek.gui.dock.common.intern;
 
+import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.LayoutManager;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
 
 import javax.swing.Icon;
+import javax.swing.JComponent;
+import javax.swing.Timer;
 
+import bibliothek.gui.dock.common.CContentSupplier;
 import bibliothek.gui.dock.common.action.CAction;
 import bibliothek.gui.dock.common.action.CSeparator;
 import bibliothek.util.FrameworkOnly;
@@ -41,7 +49,10 @@ import bibliothek.util.FrameworkOnly;
  * Subclasses may override {@link #createCommonDockable()} to provide a custom subclass
  * of {@link DefaultCommonDockable}, note that {@link #createCommonDockable()} is called
  * as soon as the internal representation is required, e.g. for setting a property like
- * the title or the icon.
+ * the title or the icon.<br>
+ * The content of this dockable can be created lazily by a {@link CContentSupplier}, see
+ * {@link #setContentSupplier(CContentSupplier)}. Titles, tabs and the layout of the
+ * dockable do not depend on the content and work as usual.
  * @author Benjamin Sigg
  */
 @FrameworkOnly
@@ -189,6 +200,21 @@ public class DefaultCDockable extends AbstractCDockable{
     /** whether this dockable can be combined with other dockables */
     private boolean stackable;
     
+    /** creates the content of this dockable lazily, can be <code>null</code> */
+    private CContentSupplier contentSupplier;
+    
+    /** the content created by {@link #contentSupplier}, <code>null</code> if not created */
+    private Component content;
+    
+    /** the time in milliseconds after which invisible content is released, negative if content is never released */
+    private int contentReleaseDelay = -1;
+    
+    /** timer used to release the content */
+    private Timer contentReleaseTimer;
+    
+    /** observes the {@link #getContentPane() content pane} and creates or releases the content */
+    private ContentObserver contentObserver;
+    
     /**
      * Creates a new dockable
      */
@@ -254,6 +280,156 @@ public class DefaultCDockable extends AbstractCDockable{
         getContentPane().remove( component );
     }
     
+    /**
+     * Sets the supplier which creates the content of this dockable lazily. The
+     * content is created as soon as the {@link #getContentPane() content pane}
+     * becomes visible for the first time. Until then the content pane remains empty. 
+     * The content is added to the center of the content pane if the pane has a 
+     * {@link BorderLayout}.<br>
+     * Any content that was created by an earlier supplier is released.
+     * @param supplier the new supplier, can be <code>null</code>
+     * @see #setContentReleaseDelay(int)
+     */
+    public void setContentSupplier( CContentSupplier supplier ){
+    	if( contentSupplier == supplier )
+    		return;
+    	
+    	releaseContent();
+    	contentSupplier = supplier;
+    	
+    	Container pane = getContentPane();
+    	if( supplier == null ){
+    		if( contentObserver != null ){
+    			pane.removeHierarchyListener( contentObserver );
+    			contentObserver = null;
+    		}
+    	}
+    	else{
+    		if( contentObserver == null ){
+    			contentObserver = new ContentObserver();
+    			pane.addHierarchyListener( contentObserver );
+    		}
+    		if( pane.isShowing() ){
+    			materializeContent();
+    		}
+    	}
+    }
+    
+    /**
+     * Gets the supplier which creates the content of this dockable lazily.
+     * @return the supplier, can be <code>null</code>
+     */
+    public CContentSupplier getContentSupplier(){
+		return contentSupplier;
+	}
+    
+    /**
+     * Sets the time after which the content of this dockable is released if
+     * the dockable remains invisible. This property only has an effect if 
+     * a {@link #setContentSupplier(CContentSupplier) content supplier} is set.
+     * @param delay the delay in milliseconds, a negative value means that the 
+     * content is never released. The default value is <code>-1</code>.
+     */
+    public void setContentReleaseDelay( int delay ){
+		this.contentReleaseDelay = delay;
+		if( delay < 0 && contentReleaseTimer != null ){
+			contentReleaseTimer.stop();
+			contentReleaseTimer = null;
+		}
+	}
+    
+    /**
+     * Gets the time after which invisible content is released.
+     * @return the delay in milliseconds, negative if the content is never released
+     */
+    public int getContentReleaseDelay(){
+		return contentReleaseDelay;
+	}
+    
+    /**
+     * Tells whether the content of the {@link #getContentSupplier() content supplier}
+     * is currently shown on this dockable.
+     * @return <code>true</code> if the content exists
+     */
+    public boolean isContentMaterialized(){
+    	return content != null;
+    }
+    
+    /**
+     * Ensures that the content of the {@link #getContentSupplier() content supplier}
+     * is created and shown on this dockable. Nothing happens if there is no supplier or
+     * if the content already exists.
+     */
+    public void materializeContent(){
+    	if( contentReleaseTimer != null ){
+    		contentReleaseTimer.stop();
+    		contentReleaseTimer = null;
+    	}
+    	
+    	if( content == null && contentSupplier != null ){
+    		content = contentSupplier.createContent( this );
+    		if( content != null ){
+    			Container pane = getContentPane();
+    			if( pane.getLayout() instanceof BorderLayout )
+    				pane.add( content, BorderLayout.CENTER );
+    			else
+    				pane.add( content );
+    			updateContentPane();
+    		}
+    	}
+    }
+    
+    /**
+     * Removes the content that was created by the {@link #getContentSupplier() content supplier}
+     * from this dockable and gives it back to the supplier. The supplier will be asked
+     * to create new content once this dockable becomes visible again.
+     */
+    public void releaseContent(){
+    	if( contentReleaseTimer != null ){
+    		contentReleaseTimer.stop();
+    		contentReleaseTimer = null;
+    	}
+    	
+    	if( content != null ){
+    		Component old = content;
+    		content = null;
+    		getContentPane().remove( old );
+    		updateContentPane();
+    		contentSupplier.releaseContent( this, old );
+    	}
+    }
+    
+    /**
+     * Revalidates and repaints the content pane after its content changed.
+     */
+    private void updateContentPane(){
+    	Container pane = getContentPane();
+    	if( pane instanceof JComponent )
+    		((JComponent)pane).revalidate();
+    	else
+    		pane.invalidate();
+    	pane.repaint();
+    }
+    
+    /**
+     * Starts the timer that will release the content of this dockable.
+     */
+    private void scheduleRelease(){
+    	if( content == null || contentReleaseDelay < 0 || contentReleaseTimer != null )
+    		return;
+    	
+    	contentReleaseTimer = new Timer( contentReleaseDelay, new ActionListener(){
+    		public void actionPerformed( ActionEvent e ){
+    			contentReleaseTimer = null;
+    			if( !getContentPane().isShowing() ){
+    				releaseContent();
+    			}
+    		}
+    	});
+    	contentReleaseTimer.setRepeats( false );
+    	contentReleaseTimer.start();
+    }
+    
     /**
      * Sets the text that is shown as title.
      * @param text the title
@@ -463,6 +639,22 @@ public class DefaultCDockable extends AbstractCDockable{
     	return intern().getActions().getAction( index );
     }
     
+    /**
+     * A listener added to the content pane, creates the content when the pane
+     * becomes visible and schedules its release when the pane becomes invisible.
+     * @author Benjamin Sigg
+     */
+    private class ContentObserver implements HierarchyListener{
+    	public void hierarchyChanged( HierarchyEvent e ){
+    		if( (e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 ){
+    			if( getContentPane().isShowing() )
+    				materializeContent();
+    			else
+    				scheduleRelease();
+    		}
+    	}
+    }
+    
     @Override
     public DefaultCommonDockable intern() {
     	return (DefaultCommonDockable)super.intern();
@@ -58,7 +58,7 @@ public class DockableCollector implements ComponentCollector {
         for( Dockable dockable : frontend.listDockables() )
             set.add( dockable.getComponent() );
         
-        for( Dockable dockable : frontend.getController().getRegister().listDockables() )
+        for( Dockable dockable : frontend.getController().getRegister().getDockables() )
             set.add( dockable.getComponent() );
         
         return set;
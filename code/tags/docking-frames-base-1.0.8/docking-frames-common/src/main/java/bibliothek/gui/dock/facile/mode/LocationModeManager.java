@@ -444,7 +444,7 @@ public class LocationModeManager<M extends LocationMode> extends ModeManager<Loc
 			if( this.controller != null ){
 				DockRegister register = this.controller.getRegister();
 				register.removeDockRegisterListener( this );
-				for( Dockable dockable : register.listDockables() ){
+				for( Dockable dockable : register.getDockables() ){
 					dockable.removeDockHierarchyListener( hierarchyListener );
 					rebuild( dockable );
 				}
@@ -453,7 +453,7 @@ public class LocationModeManager<M extends LocationMode> extends ModeManager<Loc
 			if( controller != null ){
 				DockRegister register = controller.getRegister();
 				register.addDockRegisterListener( this );
-				for( Dockable dockable : register.listDockables() ){
+				for( Dockable dockable : register.getDockables() ){
 					dockable.addDockHierarchyListener( hierarchyListener );
 				}
 			}
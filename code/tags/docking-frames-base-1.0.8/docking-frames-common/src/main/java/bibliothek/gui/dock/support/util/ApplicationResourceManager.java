@@ -31,7 +31,11 @@ import java.util.Map;
 import java.util.prefs.Preferences;
 
 import bibliothek.util.Version;
+import bibliothek.util.io.BoundedInputStream;
+import bibliothek.util.io.PatchableDataOutputStream;
 import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * Manages a set of {@link ApplicationResource}s, can load and store the
@@ -93,6 +97,42 @@ public class ApplicationResourceManager {
         resources.remove( name );
     }
     
+    /**
+     * Creates a new manager that contains a copy of the current state of all the
+     * resources of this manager. {@link SnapshotApplicationResource}s are asked
+     * to create their copy, all other resources are written into memory immediately.
+     * The result can be written with {@link #writeStream(DataOutputStream)},
+     * {@link #writeFile(File)} or {@link #writeXML(XElement)} at any later time and on
+     * any thread, but it must not be used to read data. This method must be called
+     * on the <code>EventDispatchThread</code>.
+     * @param xml whether the snapshot is going to be written in xml format or in binary format,
+     * resources that cannot create a copy are stored in this format only
+     * @return the copy of this manager
+     * @throws IOException if a resource cannot be written into memory
+     */
+    public ApplicationResourceManager createSnapshot( boolean xml ) throws IOException{
+        ApplicationResourceManager result = new ApplicationResourceManager();
+        for( Map.Entry<String, ApplicationResource> resource : resources.entrySet() ){
+            ApplicationResource value = resource.getValue();
+            if( value instanceof SnapshotApplicationResource ){
+                value = ((SnapshotApplicationResource)value).createSnapshot();
+            }
+            else if( xml ){
+                XElement element = new XElement( "resource" );
+                value.writeXML( element );
+                value = new BufferedResource( element );
+            }
+            else{
+                PatchableDataOutputStream out = new PatchableDataOutputStream();
+                value.write( out );
+                out.close();
+                value = new BufferedResource( out.toByteArray() );
+            }
+            result.resources.put( resource.getKey(), value );
+        }
+        return result;
+    }
+    
     /**
      * Writes all currently known {@link ApplicationResource}s into
      * <code>out</code>.
@@ -100,6 +140,23 @@ public class ApplicationResourceManager {
      * @throws IOException if the operation can't be completed
      */
     public void writeStream( DataOutputStream out ) throws IOException{
+        if( out instanceof PatchableDataOutputStream ){
+            writeStream( (PatchableDataOutputStream)out );
+        }
+        else{
+            PatchableDataOutputStream buffer = new PatchableDataOutputStream();
+            writeStream( buffer );
+            buffer.writeTo( out );
+        }
+    }
+    
+    /**
+     * Lets all {@link ApplicationResource}s write into <code>out</code>. Each resource
+     * writes directly into <code>out</code>, the length of its data is filled in afterwards.
+     * @param out the stream to write into
+     * @throws IOException if the operation can't be completed
+     */
+    private void writeStream( PatchableDataOutputStream out ) throws IOException{
         // version
         Version.write( out, Version.VERSION_1_0_4 );
         
@@ -110,14 +167,9 @@ public class ApplicationResourceManager {
         for( Map.Entry<String, ApplicationResource> resource : resources.entrySet() ){
             out.writeUTF( resource.getKey() );
             
-            ByteArrayOutputStream array = new ByteArrayOutputStream();
-            DataOutputStream data = new DataOutputStream( array );
-            resource.getValue().write( data );
-            data.close();
-            
-            // write out the array
-            out.writeInt( array.size() );
-            array.writeTo( out );
+            long block = out.beginBlock();
+            resource.getValue().write( out );
+            out.endBlock( block );
         }
     }
     
@@ -135,17 +187,17 @@ public class ApplicationResourceManager {
             String key = in.readUTF();
             
             int length = in.readInt();
-            byte[] input = new byte[ length ];
-            in.readFully( input );
             ApplicationResource resource = resources.get( key );
             if( resource != null ){
-                ByteArrayInputStream array = new ByteArrayInputStream( input );
-                DataInputStream data = new DataInputStream( array );
-                resource.read( data );
-                data.close();
+                BoundedInputStream block = new BoundedInputStream( in, length );
+                resource.read( new DataInputStream( block ) );
+                block.skipRemaining();
             }
-            else
+            else{
+                byte[] input = new byte[ length ];
+                in.readFully( input );
                 buffer.put( key, input );
+            }
         }
     }
     
@@ -178,18 +230,119 @@ public class ApplicationResourceManager {
         }
     }
     
+    /**
+     * Writes the content of this manager in xml format into the current element
+     * of <code>out</code>. The output is the same as the output of {@link #writeXML(XElement)},
+     * but {@link StreamedApplicationResource}s write directly into <code>out</code>.
+     * @param out the stream to write into, the attributes of the current element
+     * will not be changed
+     * @throws IOException if the operation can't be completed
+     */
+    public void writeXML( XStreamWriter out ) throws IOException{
+        for( Map.Entry<String, ApplicationResource> resource : resources.entrySet() ){
+            out.startElement( "resource" );
+            out.attribute( "name", resource.getKey() );
+            ApplicationResource value = resource.getValue();
+            if( value instanceof StreamedApplicationResource ){
+                ((StreamedApplicationResource)value).writeXML( out );
+            }
+            else{
+                XElement xresource = new XElement( "resource" );
+                value.writeXML( xresource );
+                out.content( xresource );
+            }
+            out.endElement();
+        }
+    }
+    
+    /**
+     * Reads the contents of this manager from the current element of <code>in</code>
+     * and closes that element. {@link StreamedApplicationResource}s read directly
+     * from <code>in</code>.
+     * @param in the stream to read from
+     * @throws IOException if the operation can't be completed
+     */
+    public void readXML( XStreamReader in ) throws IOException{
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "resource" )){
+                String key = in.getString( "name" );
+                ApplicationResource resource = resources.get( key );
+                if( resource instanceof StreamedApplicationResource ){
+                    int depth = in.getDepth();
+                    ((StreamedApplicationResource)resource).readXML( in );
+                    in.finish( depth );
+                }
+                else if( resource != null ){
+                    resource.readXML( in.readElement() );
+                }
+                else{
+                    buffer.put( key, in.readElement() );
+                }
+            }
+            else{
+                in.skipElement();
+            }
+        }
+    }
+    
+    /**
+     * Writes the contents of this manager into <code>file</code> in xml format. The
+     * file is written element by element using a {@link XStreamWriter}.
+     * @param file the file to write into
+     * @throws IOException if the operation can't be completed
+     */
+    public void writeFileXML( File file ) throws IOException{
+        FileOutputStream stream = new FileOutputStream( file );
+        try{
+            XStreamWriter out = new XStreamWriter( new BufferedWriter( new OutputStreamWriter( stream, "UTF-8" )));
+            out.startElement( "root" );
+            writeXML( out );
+            out.endAll();
+            out.flush();
+        }
+        finally{
+            stream.close();
+        }
+    }
+    
+    /**
+     * Reads the contents of this manager from the xml file <code>file</code>. The
+     * file is read element by element using a {@link XStreamReader}.
+     * @param file the file to read
+     * @throws IOException if the operation can't be completed
+     */
+    public void readFileXML( File file ) throws IOException{
+        FileInputStream stream = new FileInputStream( file );
+        try{
+            XStreamReader in = new XStreamReader( new InputStreamReader( stream, "UTF-8" ));
+            if( in.nextElement() == null )
+                throw new IOException( "missing root element" );
+            readXML( in );
+        }
+        finally{
+            stream.close();
+        }
+    }
+    
     /**
      * Writes the contents of this manager into <code>file</code>.
      * @param file the file to write into
      * @throws IOException if the operation can't be completed
      */
     public void writeFile( File file ) throws IOException{
-        DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( file )));
+        FileOutputStream stream = new FileOutputStream( file );
         try{
-            writeStream( out );
+            DataOutputStream out = new PatchableDataOutputStream( stream.getChannel() );
+            try{
+                writeStream( out );
+            }
+            finally{
+                out.close();
+            }
         }
         finally{
-            out.close();
+            stream.close();
         }
     }
     
@@ -214,10 +367,9 @@ public class ApplicationResourceManager {
      * @throws IOException if the operation can't be completed
      */
     public byte[] writeArray() throws IOException{
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        DataOutputStream data = new DataOutputStream( out );
-        writeStream( data );
-        data.close();
+        PatchableDataOutputStream out = new PatchableDataOutputStream();
+        writeStream( out );
+        out.close();
         return out.toByteArray();
     }
     
@@ -254,24 +406,54 @@ public class ApplicationResourceManager {
         if( array != null )
             readArray( array );
     }
+    
+    /**
+     * A resource that was written into memory by {@link ApplicationResourceManager#createSnapshot(boolean)}.
+     * @author Benjamin Sigg
+     */
+    private static class BufferedResource implements ApplicationResource{
+        /** the binary data, can be <code>null</code> */
+        private byte[] data;
+        /** the xml data, can be <code>null</code> */
+        private XElement element;
+        
+        /**
+         * Creates a resource with binary data.
+         * @param data the data that was written
+         */
+        public BufferedResource( byte[] data ){
+            this.data = data;
+        }
+        
+        /**
+         * Creates a resource with xml data.
+         * @param element the element that was written
+         */
+        public BufferedResource( XElement element ){
+            this.element = element;
+        }
+        
+        public void write( DataOutputStream out ) throws IOException{
+            if( data == null )
+                throw new IOException( "resource was stored in xml format" );
+            out.write( data );
+        }
+        
+        public void writeXML( XElement element ){
+            if( this.element == null )
+                throw new IllegalStateException( "resource was stored in binary format" );
+            element.setValue( this.element.getValue() );
+            for( XElement child : this.element.children() ){
+                element.addElement( child.copy() );
+            }
+        }
+        
+        public void read( DataInputStream in ) throws IOException{
+            throw new UnsupportedOperationException( "a snapshot cannot be read" );
+        }
+        
+        public void readXML( XElement element ){
+            throw new UnsupportedOperationException( "a snapshot cannot be read" );
+        }
+    }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
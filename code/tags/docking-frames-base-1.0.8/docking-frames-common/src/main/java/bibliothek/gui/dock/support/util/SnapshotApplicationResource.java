@@ -0,0 +1,45 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.support.util;
+
+/**
+ * An {@link ApplicationResource} that can make a copy of its current state. The
+ * copy can be written at any later time and on any thread, this allows a
+ * {@link ApplicationResourceManager} to collect the data on the 
+ * <code>EventDispatchThread</code> but do the expensive encoding and I/O elsewhere.
+ * @author Benjamin Sigg
+ * @see ApplicationResourceManager#createSnapshot(boolean)
+ */
+public interface SnapshotApplicationResource extends ApplicationResource{
+    /**
+     * Creates a copy of the current state of this resource. Only the write methods
+     * of the result will be called, and they may be called on any thread. This method
+     * is called on the <code>EventDispatchThread</code>.
+     * @return the copy, not <code>null</code>
+     */
+    public ApplicationResource createSnapshot();
+}
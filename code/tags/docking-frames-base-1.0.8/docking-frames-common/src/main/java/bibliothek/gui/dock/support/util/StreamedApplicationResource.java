@@ -0,0 +1,62 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.support.util;
+
+import java.io.IOException;
+
+import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
+
+/**
+ * An {@link ApplicationResource} that can write and read its xml format directly 
+ * to and from a stream, without building a tree of {@link XElement}s first. The 
+ * {@link ApplicationResourceManager} uses these methods when writing or reading 
+ * a xml file. The format must be the same as the format of {@link #writeXML(XElement)}
+ * and {@link #readXML(XElement)}.
+ * @author Benjamin Sigg
+ * @see ApplicationResourceManager#writeFileXML(java.io.File)
+ * @see ApplicationResourceManager#readFileXML(java.io.File)
+ */
+public interface StreamedApplicationResource extends ApplicationResource{
+    /**
+     * Writes the contents of this resource into the current element of <code>out</code>.
+     * @param out the stream to write into, the attributes of the current element 
+     * should not be changed
+     * @throws IOException if an I/O-error occurs
+     */
+    public void writeXML( XStreamWriter out ) throws IOException;
+    
+    /**
+     * Reads the contents of this resource from the current element of <code>in</code>.
+     * This method does not need to read the whole element, the caller skips the
+     * remaining content.
+     * @param in the stream to read from
+     * @throws IOException if an I/O-error occurs
+     */
+    public void readXML( XStreamReader in ) throws IOException;
+}
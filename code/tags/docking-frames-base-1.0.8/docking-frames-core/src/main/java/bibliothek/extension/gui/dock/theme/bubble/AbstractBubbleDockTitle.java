@@ -32,6 +32,7 @@ import java.util.List;
 import javax.swing.JComponent;
 
 import bibliothek.extension.gui.dock.util.MouseOverListener;
+import bibliothek.gui.DockController;
 import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.themes.color.TitleColor;
 import bibliothek.gui.dock.title.AbstractDockTitle;
@@ -136,6 +137,7 @@ public abstract class AbstractBubbleDockTitle extends AbstractDockTitle{
      */
     private void initAnimation(){
         animation = new BubbleColorAnimation();
+        animation.setComponent( this );
 
         updateAnimation();
 
@@ -151,8 +153,16 @@ public abstract class AbstractBubbleDockTitle extends AbstractDockTitle{
     @Override
     public void bind() {
         super.bind();
+        DockController controller = getDockable().getController();
+        animation.setClock( controller == null ? null : controller.getAnimationClock() );
         animation.kick();
     }
+    
+    @Override
+    public void unbind(){
+    	super.unbind();
+    	animation.setClock( null );
+    }
 
     @Override
     public void setActive( boolean active ) {
@@ -194,7 +204,7 @@ public abstract class AbstractBubbleDockTitle extends AbstractDockTitle{
      */
     protected void pulse(){
         setForeground( animation.getColor( ANIMATION_KEY_TEXT ));
-        repaint();
+        animation.getClock().repaint( this );
     }
 
     @Override
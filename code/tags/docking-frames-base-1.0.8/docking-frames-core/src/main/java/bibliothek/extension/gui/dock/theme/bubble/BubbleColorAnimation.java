@@ -27,14 +27,14 @@
 package bibliothek.extension.gui.dock.theme.bubble;
 
 import java.awt.Color;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.Component;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import javax.swing.Timer;
+import bibliothek.gui.dock.control.Animation;
+import bibliothek.gui.dock.control.AnimationClock;
 
 /**
  * A <code>BubbleColorAnimation</code> has the ability to convert one or many color-pairs smoothly from source
@@ -42,19 +42,23 @@ import javax.swing.Timer;
  * Clients have to call {@link #putColor(String, Color)} to start an animation. They
  * can call {@link #getColor(String)} any time to get the current intermediate color. Adding a {@link #addTask(Runnable) task}
  * will allow a client to be informed whenever the colors change.<br>
- * The animation itself takes {@link #setDuration(int) duration} milliseconds.  
+ * The animation itself takes {@link #setDuration(int) duration} milliseconds. The
+ * steps of the animation are triggered by an {@link AnimationClock}, if no clock
+ * is {@link #setClock(AnimationClock) set}, then the {@link AnimationClock#getDefault() default clock}
+ * is used.
  * @author Benjamin Sigg
  */
-public class BubbleColorAnimation {
+public class BubbleColorAnimation implements Animation{
 	/** How long a transformation takes */
     private int duration = 1000;
     
     /** The color pairs that can be animated */
     private Map<String, Entry> colors = new HashMap<String, Entry>();
-    /** The timer that triggers steps of the animation */
-    private Timer timer;
-    /** The current time in milliseconds*/
-    private long time = 0;
+    /** The clock that triggers steps of the animation, <code>null</code> if the default clock is used */
+    private AnimationClock clock;
+    
+    /** The component showing the colors, can be <code>null</code> */
+    private Component component;
     
     /** The tasks that are executed at every step of the animation */
     private List<Runnable> tasks = new ArrayList<Runnable>();
@@ -63,12 +67,47 @@ public class BubbleColorAnimation {
      * Creates a new animation.
      */
     public BubbleColorAnimation(){
-    	timer = new Timer( 25, new ActionListener(){
-            public void actionPerformed( ActionEvent e ) {
-                pulse();
-            }
-        });
-    	timer.setCoalesce( true );
+    	// nothing to do
+    }
+    
+    /**
+     * Sets the clock which triggers the steps of this animation. A running
+     * animation is moved to the new clock.
+     * @param clock the new clock, can be <code>null</code> to use the
+     * {@link AnimationClock#getDefault() default clock}
+     */
+    public void setClock( AnimationClock clock ){
+    	AnimationClock old = getClock();
+    	this.clock = clock;
+    	AnimationClock now = getClock();
+    	
+    	if( old != now && old.isRunning( this )){
+    		old.stop( this );
+    		now.start( this );
+    	}
+    }
+    
+    /**
+     * Gets the clock which triggers the steps of this animation.
+     * @return the clock, never <code>null</code>
+     */
+    public AnimationClock getClock(){
+    	if( clock == null )
+    		return AnimationClock.getDefault();
+    	return clock;
+    }
+    
+    /**
+     * Sets the component which shows the colors of this animation. If the
+     * component is not showing, then the animation is finished immediately.
+     * @param component the component, can be <code>null</code>
+     */
+    public void setComponent( Component component ){
+		this.component = component;
+	}
+    
+    public Component getComponent(){
+	    return component;
     }
     
     /**
@@ -162,20 +201,16 @@ public class BubbleColorAnimation {
      *
      */
     public void stop(){
-        timer.stop();
+        getClock().stop( this );
     }
     
     /**
      * Immediately puts all colors to their final state and stops the animation.
      */
     public void kick(){
-        if( timer.isRunning() ){
+        if( getClock().isRunning( this ) ){
             stop();
-            for( Entry entry : colors.values() )
-                entry.kick();
-            
-            for( Runnable task : tasks )
-                task.run();
+            finish();
         }
     }
     
@@ -183,29 +218,36 @@ public class BubbleColorAnimation {
      * Starts the animation if it is not yet running.
      */
     protected void start(){
-        if( !timer.isRunning() ){
-            time = System.currentTimeMillis();
-            timer.start();
-        }
+        getClock().start( this );
+    }
+    
+    public boolean step( AnimationClock clock, int delta ){
+    	return pulse( delta );
+    }
+    
+    public void finish(){
+    	for( Entry entry : colors.values() )
+    		entry.kick();
+    	
+    	for( Runnable task : tasks )
+    		task.run();
     }
     
     /**
      * Called when the animation has to perform another step.
+     * @param delta the time in milliseconds since the last step
+     * @return <code>true</code> if the animation needs more steps
      */
-    protected void pulse(){
+    protected boolean pulse( int delta ){
         boolean run = false;
-        long current = System.currentTimeMillis();
-        int delta = (int)( current - time );
-        time = current;
         
         for( Entry entry : colors.values() )
             run = entry.step( delta ) | run;
         
-        if( !run )
-            timer.stop();
-        
         for( Runnable task : tasks )
             task.run();
+        
+        return run;
     }
     
     /**
@@ -93,6 +93,7 @@ public class BubbleDisplayer extends BasicDockableDisplayer {
         super( station, dockable, title );
         
         animation = new BubbleColorAnimation();
+        animation.setComponent( this );
         animation.addTask( new Runnable(){
             public void run() {
                 pulse();
@@ -141,7 +142,7 @@ public class BubbleDisplayer extends BasicDockableDisplayer {
      * be repainted.
      */
     protected void pulse(){
-        dockable.repaint();
+        animation.getClock().repaint( dockable );
     }
     
     @Override
@@ -165,6 +166,7 @@ public class BubbleDisplayer extends BasicDockableDisplayer {
         borderLowActiveMouse.connect( controller );
         borderLowInactive.connect( controller );
         borderLowInactiveMouse.connect( controller );
+        animation.setClock( controller == null ? null : controller.getAnimationClock() );
         animation.kick();
     }
     
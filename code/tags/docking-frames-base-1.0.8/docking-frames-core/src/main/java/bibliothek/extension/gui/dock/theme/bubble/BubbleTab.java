@@ -183,6 +183,7 @@ public class BubbleTab extends JPanel implements CombinedTab, ChangeListener, Ru
 		label.setHorizontal( orientation.isHorizontal() );
 
 		animation = new BubbleColorAnimation();
+		animation.setComponent( this );
 		animation.addTask( this );
 
 		topMouse     = new BubbleTabColor( STATE_MOUSE, "stack.tab.background.top.mouse", "top", animation, dockable, Color.RED.brighter() );
@@ -321,6 +322,7 @@ public class BubbleTab extends JPanel implements CombinedTab, ChangeListener, Ru
 		}
 
 		checkAnimation();
+		animation.setClock( controller == null ? null : controller.getAnimationClock() );
 		animation.kick();
 	}
 
@@ -346,7 +348,7 @@ public class BubbleTab extends JPanel implements CombinedTab, ChangeListener, Ru
 
 	public void run() {
 		label.setForeground( animation.getColor( "text" ));
-		repaint();
+		animation.getClock().repaint( this );
 	}
 
 	public Dimension getPreferredSize( Tab[] tabs ){
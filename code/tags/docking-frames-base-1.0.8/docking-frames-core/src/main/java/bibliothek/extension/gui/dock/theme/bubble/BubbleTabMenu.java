@@ -115,6 +115,7 @@ public class BubbleTabMenu extends AbstractCombinedMenu{
 		colorBorder.connect( controller );
 		
 		animate();
+		animation.setClock( controller == null ? null : controller.getAnimationClock() );
 		animation.kick();
 	}
 	
@@ -169,6 +170,7 @@ public class BubbleTabMenu extends AbstractCombinedMenu{
 		 */
 		public Button(){
 			setOpaque( false );
+			animation.setComponent( this );
 			animation.addTask( this );
 			
 			setPreferredSize( new Dimension( 20, 20 ) );
@@ -194,7 +196,7 @@ public class BubbleTabMenu extends AbstractCombinedMenu{
 		}
 		
 		public void run(){
-			repaint();
+			animation.getClock().repaint( this );
 		}
 		
 		@Override
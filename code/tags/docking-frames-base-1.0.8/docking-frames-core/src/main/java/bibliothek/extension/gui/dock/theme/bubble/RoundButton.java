@@ -83,6 +83,7 @@ public class RoundButton extends JComponent implements RoundButtonConnectable{
 		setFocusable( true );
 		
 		animation = new BubbleColorAnimation();
+		animation.setComponent( this );
 		
 		colors = new RoundActionColor[]{
 		        new RoundActionColor( "action.button", dockable, action, Color.WHITE ),
@@ -125,7 +126,7 @@ public class RoundButton extends JComponent implements RoundButtonConnectable{
 
 		animation.addTask(new Runnable() {
 			public void run(){
-				repaint();	
+				animation.getClock().repaint( RoundButton.this );
 			}
 		});
 		
@@ -148,6 +149,7 @@ public class RoundButton extends JComponent implements RoundButtonConnectable{
 	    for( RoundActionColor color : colors )
 	        color.connect( controller );
 	    
+	    animation.setClock( controller == null ? null : controller.getAnimationClock() );
 	    animation.kick();
 	}
 	
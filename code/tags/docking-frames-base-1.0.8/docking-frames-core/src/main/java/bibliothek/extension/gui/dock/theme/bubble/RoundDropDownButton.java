@@ -103,6 +103,7 @@ public class RoundDropDownButton extends JComponent implements RoundButtonConnec
      */
     public RoundDropDownButton( BasicDropDownButtonHandler handler, Dockable dockable, DockAction action ){
         animation = new BubbleColorAnimation();
+        animation.setComponent( this );
         
         colors = new RoundActionColor[]{
                 new RoundActionColor( "action.dropdown", dockable, action, Color.WHITE ),
@@ -135,7 +136,7 @@ public class RoundDropDownButton extends JComponent implements RoundButtonConnec
         
         animation.addTask( new Runnable(){
             public void run() {
-                repaint();
+                animation.getClock().repaint( RoundDropDownButton.this );
             }
         });
         
@@ -173,6 +174,7 @@ public class RoundDropDownButton extends JComponent implements RoundButtonConnec
             color.connect( controller );
         }
         
+        animation.setClock( controller == null ? null : controller.getAnimationClock() );
         animation.kick();
     }
     
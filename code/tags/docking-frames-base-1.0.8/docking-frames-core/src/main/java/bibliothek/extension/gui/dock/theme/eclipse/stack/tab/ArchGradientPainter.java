@@ -258,14 +258,17 @@ public class ArchGradientPainter extends BaseTabComponent {
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-
-		int x = 0;
-		int y = 0;
-		int w = getWidth();
-		int h = getHeight();
-		Graphics2D g2d = (Graphics2D) g;
-		Color lineColor = colorStackBorder.value();
-
+		
+		Color[] colors = getGradientColors();
+		paintCachedBackground( g, colorStackBorder.value(), colors[0], colors[1], getBackground(),
+				getOrientation(), isSelected(), getTabIndex() == 0, isNextTabSelected() );
+	}
+	
+	/**
+	 * Gets the colors of the gradient that fills the background of this tab.
+	 * @return the color at the top and the color at the bottom
+	 */
+	private Color[] getGradientColors(){
 		Color color1;
 		Color color2;
 
@@ -287,6 +290,22 @@ public class ArchGradientPainter extends BaseTabComponent {
 			color1 = colorStackTabTop.value();
 			color2 = colorStackTabBottom.value();
 		}
+		
+		return new Color[]{ color1, color2 };
+	}
+	
+	@Override
+	protected void paintBackground( Graphics2D g2d ){
+		int x = 0;
+		int y = 0;
+		int w = getWidth();
+		int h = getHeight();
+		Graphics g = g2d;
+		Color lineColor = colorStackBorder.value();
+
+		Color[] colors = getGradientColors();
+		Color color1 = colors[0];
+		Color color2 = colors[1];
 
 		// draw tab if selected
 		if (isSelected()) {
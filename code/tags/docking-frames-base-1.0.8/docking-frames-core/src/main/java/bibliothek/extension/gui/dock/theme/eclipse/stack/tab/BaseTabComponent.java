@@ -29,6 +29,9 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.ContainerOrderFocusTraversalPolicy;
 import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
 import java.awt.Insets;
 import java.awt.Point;
 import java.awt.Window;
@@ -38,6 +41,7 @@ import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.awt.image.BufferedImage;
 
 import javax.swing.Icon;
 import javax.swing.JPanel;
@@ -274,6 +278,57 @@ public abstract class BaseTabComponent extends JPanel implements TabComponent{
      */
     protected abstract void updateColors();
     
+    /**
+     * Paints the background of this tab using an image of the {@link TabImageCache}.
+     * If there is no image stored under <code>key</code>, then a new image is 
+     * created and {@link #paintBackground(Graphics2D)} is used to paint it.
+     * @param g the graphics context to paint on
+     * @param key all the properties which have an influence on the 
+     * result of {@link #paintBackground(Graphics2D)}, except the size of this tab
+     * and the class of this tab
+     */
+    protected void paintCachedBackground( Graphics g, Object... key ){
+    	int width = getWidth();
+    	int height = getHeight();
+    	
+    	TabImageCache cache = TabImageCache.getDefault();
+    	if( !cache.isCacheable( width, height )){
+    		Graphics2D g2 = (Graphics2D)g.create();
+    		paintBackground( g2 );
+    		g2.dispose();
+    		return;
+    	}
+    	
+    	Object[] values = new Object[ key.length+4 ];
+    	values[0] = getClass();
+    	values[1] = getGraphicsConfiguration();
+    	values[2] = width;
+    	values[3] = height;
+    	System.arraycopy( key, 0, values, 4, key.length );
+    	TabImageCache.Key cacheKey = TabImageCache.key( values );
+    	
+    	Image image = cache.get( cacheKey );
+    	if( image == null ){
+    		BufferedImage buffer = cache.createImage( this, width, height );
+    		Graphics2D g2 = buffer.createGraphics();
+    		paintBackground( g2 );
+    		g2.dispose();
+    		cache.put( cacheKey, buffer );
+    		image = buffer;
+    	}
+    	
+    	g.drawImage( image, 0, 0, null );
+    }
+    
+    /**
+     * Paints the background of this tab, called by {@link #paintCachedBackground(Graphics, Object...)}.
+     * The default implementation does nothing.
+     * @param g the graphics context to paint on
+     */
+    protected void paintBackground( Graphics2D g ){
+    	// nothing
+    }
+    
     /**
      * Called when the {@link #doPaintIconWhenInactive() paint icon property} of
      * this component changed.
@@ -206,8 +206,17 @@ public class RectGradientPainter extends BaseTabComponent {
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
-		int height = getHeight(), width = getWidth();
-		Graphics2D g2d = (Graphics2D) g;
+		Color[] colors = getBackgroundColors();
+		paintCachedBackground( g, colors[0], colors[1], colors[2], getOrientation(), 
+				isSelected(), getTabIndex() == 0, isNextTabSelected() );
+	}
+	
+	/**
+	 * Gets the colors used to paint the background of this tab.
+	 * @return the color of the lines, the color at the start and the color 
+	 * at the end of the gradient
+	 */
+	private Color[] getBackgroundColors(){
 		Color lineColor = colorStackBorder.value();
 		Color color1, color2;
 		boolean focusTemporarilyLost = isFocusTemporarilyLost();
@@ -236,6 +245,20 @@ public class RectGradientPainter extends BaseTabComponent {
         	color1 = color2;
         	color2 = temp;
         }
+        
+        return new Color[]{ lineColor, color1, color2 };
+	}
+	
+	@Override
+	protected void paintBackground( Graphics2D g2d ){
+		int height = getHeight(), width = getWidth();
+		Graphics g = g2d;
+		Color[] colors = getBackgroundColors();
+		Color lineColor = colors[0];
+		Color color1 = colors[1];
+		Color color2 = colors[2];
+		
+		TabPlacement orientation = getOrientation();
 		
         GradientPaint gradient = null;
         if( !color1.equals( color2 )){
@@ -0,0 +1,180 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.extension.gui.dock.theme.eclipse.stack.tab;
+
+import java.awt.Component;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of images that are used to paint the background of tabs. The
+ * least recently used images are removed once the cache is full. The cache is 
+ * meant to be accessed only from the EventDispatchThread.
+ * @author Benjamin Sigg
+ */
+public class TabImageCache {
+	/** the cache shared by all tabs */
+	private static final TabImageCache DEFAULT = new TabImageCache( 256 );
+	
+	/**
+	 * Gets the cache that is shared by all tabs.
+	 * @return the shared cache
+	 */
+	public static TabImageCache getDefault(){
+		return DEFAULT;
+	}
+	
+	/** the maximum number of images in this cache */
+	private int capacity;
+	
+	/** images larger than this number of pixels are not cached */
+	private int maximumArea = 256 * 64;
+	
+	/** the cached images, ordered by their last access */
+	private Map<Key, Image> images;
+	
+	/**
+	 * Creates a new cache.
+	 * @param capacity the maximum number of images to store
+	 */
+	public TabImageCache( int capacity ){
+		if( capacity < 1 )
+			throw new IllegalArgumentException( "capacity must be at least 1: " + capacity );
+		
+		this.capacity = capacity;
+		images = new LinkedHashMap<Key, Image>( 16, 0.75f, true ){
+			@Override
+			protected boolean removeEldestEntry( Map.Entry<Key, Image> eldest ){
+				return size() > TabImageCache.this.capacity;
+			}
+		};
+	}
+	
+	/**
+	 * Creates a key for an image.
+	 * @param values the values describing the image, e.g. its size, colors and state. 
+	 * The values must implement {@link Object#equals(Object)} and {@link Object#hashCode()}.
+	 * @return the new key
+	 */
+	public static Key key( Object... values ){
+		return new Key( values );
+	}
+	
+	/**
+	 * Searches the image stored under <code>key</code>.
+	 * @param key the key of the image
+	 * @return the image or <code>null</code>
+	 */
+	public Image get( Key key ){
+		return images.get( key );
+	}
+	
+	/**
+	 * Stores <code>image</code> under <code>key</code>, might remove 
+	 * the least recently used image.
+	 * @param key the key of the image
+	 * @param image the new image
+	 */
+	public void put( Key key, Image image ){
+		images.put( key, image );
+	}
+	
+	/**
+	 * Tells whether an image of the given size should be stored in this cache.
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @return <code>true</code> if such an image can be cached
+	 */
+	public boolean isCacheable( int width, int height ){
+		return width > 0 && height > 0 && width * height <= maximumArea;
+	}
+	
+	/**
+	 * Removes all images from this cache.
+	 */
+	public void clear(){
+		images.clear();
+	}
+	
+	/**
+	 * Gets the number of images stored in this cache.
+	 * @return the number of images
+	 */
+	public int size(){
+		return images.size();
+	}
+	
+	/**
+	 * Creates a new translucent image that is compatible with the screen on
+	 * which <code>component</code> is shown.
+	 * @param component the component which will paint the image
+	 * @param width the width of the image
+	 * @param height the height of the image
+	 * @return the new image
+	 */
+	public BufferedImage createImage( Component component, int width, int height ){
+		GraphicsConfiguration configuration = component.getGraphicsConfiguration();
+		if( configuration != null )
+			return configuration.createCompatibleImage( width, height, Transparency.TRANSLUCENT );
+		
+		return new BufferedImage( width, height, BufferedImage.TYPE_INT_ARGB );
+	}
+	
+	/**
+	 * A key of an image, a set of values.
+	 * @author Benjamin Sigg
+	 */
+	public static class Key{
+		private Object[] values;
+		private int hash;
+		
+		private Key( Object[] values ){
+			this.values = values;
+			hash = Arrays.hashCode( values );
+		}
+		
+		@Override
+		public int hashCode(){
+			return hash;
+		}
+		
+		@Override
+		public boolean equals( Object obj ){
+			if( obj == this )
+				return true;
+			if( !(obj instanceof Key) )
+				return false;
+			Key other = (Key)obj;
+			return hash == other.hash && Arrays.equals( values, other.values );
+		}
+	}
+}
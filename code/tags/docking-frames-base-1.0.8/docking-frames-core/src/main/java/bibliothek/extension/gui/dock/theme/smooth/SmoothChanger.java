@@ -26,21 +26,25 @@
 
 package bibliothek.extension.gui.dock.theme.smooth;
 
+import java.awt.Component;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
-import javax.swing.Timer;
+import bibliothek.gui.dock.control.Animation;
+import bibliothek.gui.dock.control.AnimationClock;
 
 /**
  * A class which counts milliseconds from 0 to {@link #setDuration(int) duration}
  * or in the other direction. This class contains an array of states: one state is
  * counted upwards (the {@link #destination()}), all the other states are counted
  * downwards. Clients can use this class to smoothly switch between different states.<br>
- * This class works on the EDT, no new threads are created.
+ * This class works on the EDT, no new threads are created. The pulses are
+ * given by an {@link AnimationClock}, if no clock is {@link #setClock(AnimationClock) set}, then
+ * the {@link AnimationClock#getDefault() default clock} is used.
  * @author Benjamin Sigg
  *
  */
-public abstract class SmoothChanger implements ActionListener{
+public abstract class SmoothChanger implements ActionListener, Animation{
     /** the time at the last pulse */
     private long last;
     
@@ -50,8 +54,11 @@ public abstract class SmoothChanger implements ActionListener{
     /** the duration of the change */
     private int duration;
     
-    /** a timer which pulses this changer */
-    private Timer timer;
+    /** the clock which pulses this changer, <code>null</code> if the default clock is used */
+    private AnimationClock clock;
+    
+    /** the component which shows the transition, can be <code>null</code> */
+    private Component component;
     
     /**
      * Constructor, sets {@link #setDuration(int) duration} to 250 milliseconds.
@@ -69,7 +76,6 @@ public abstract class SmoothChanger implements ActionListener{
      */
     public SmoothChanger( int duration, int states ){
         this.duration = duration;
-        timer = new Timer( 15, this );
         current = new int[ states ];
     }
     
@@ -111,7 +117,47 @@ public abstract class SmoothChanger implements ActionListener{
      * @return <code>true</code> if active, <code>false</code> if not
      */
     public boolean isRunning(){
-    	return timer.isRunning();
+    	return getClock().isRunning( this );
+    }
+    
+    /**
+     * Sets the clock which pulses this changer. A running transition
+     * is moved to the new clock.
+     * @param clock the new clock, can be <code>null</code> to use the
+     * {@link AnimationClock#getDefault() default clock}
+     */
+    public void setClock( AnimationClock clock ){
+    	AnimationClock old = getClock();
+    	this.clock = clock;
+    	AnimationClock now = getClock();
+    	
+    	if( old != now && old.isRunning( this )){
+    		old.stop( this );
+    		now.start( this );
+    	}
+    }
+    
+    /**
+     * Gets the clock which pulses this changer.
+     * @return the clock, never <code>null</code>
+     */
+    public AnimationClock getClock(){
+    	if( clock == null )
+    		return AnimationClock.getDefault();
+    	return clock;
+    }
+    
+    /**
+     * Sets the component which shows the transition. If the component is not
+     * showing, then the transition is finished immediately.
+     * @param component the component, can be <code>null</code>
+     */
+    public void setComponent( Component component ){
+		this.component = component;
+	}
+    
+    public Component getComponent(){
+	    return component;
     }
     
     /**
@@ -127,14 +173,36 @@ public abstract class SmoothChanger implements ActionListener{
      * Starts a transition
      */
     public void trigger(){
-        timer.start();
+        getClock().start( this );
         last = System.currentTimeMillis();
     }
     
     public void actionPerformed( ActionEvent e ){
         long time = System.currentTimeMillis();
-        int delta = (int)( time - last );
-        last = time;
+        if( !pulse( (int)( time - last ) )){
+        	getClock().stop( this );
+        }
+    }
+    
+    public boolean step( AnimationClock clock, int delta ){
+    	return pulse( delta );
+    }
+    
+    public void finish(){
+    	int destination = destination();
+    	for( int i = 0; i < current.length; i++ ){
+    		current[i] = i == destination ? duration : 0;
+    	}
+    	repaint( current );
+    }
+    
+    /**
+     * Makes one step of the transition.
+     * @param delta the number of milliseconds since the last step
+     * @return <code>true</code> if the transition is not yet finished
+     */
+    private boolean pulse( int delta ){
+        last = System.currentTimeMillis();
         
         int destination = destination();
         boolean incomplete = false;
@@ -150,10 +218,7 @@ public abstract class SmoothChanger implements ActionListener{
         	}
         }
         
-        if( !incomplete ){
-        	timer.stop();
-        }
-                
         repaint( current );
+        return incomplete;
     }
 }
\ No newline at end of file
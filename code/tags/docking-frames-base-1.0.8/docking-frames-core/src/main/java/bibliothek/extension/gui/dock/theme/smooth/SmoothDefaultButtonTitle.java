@@ -28,6 +28,7 @@ package bibliothek.extension.gui.dock.theme.smooth;
 import java.awt.Color;
 import java.awt.Container;
 
+import bibliothek.gui.DockController;
 import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.FlapDockStation;
 import bibliothek.gui.dock.event.DockTitleEvent;
@@ -47,6 +48,9 @@ public class SmoothDefaultButtonTitle extends BasicButtonDockTitle {
 	/** the current time for each state */
 	private int[] current;
 	
+	/** whether {@link #changer} is currently updating the colors */
+	private boolean pulsing = false;
+	
     /** a trigger for the animation */
     private SmoothChanger changer = new SmoothChanger( 3 ){
     	@Override
@@ -62,7 +66,13 @@ public class SmoothDefaultButtonTitle extends BasicButtonDockTitle {
         @Override
         protected void repaint( int[] current ) {
             SmoothDefaultButtonTitle.this.current = current.clone();
-            updateColors();
+            pulsing = true;
+            try{
+            	updateColors();
+            }
+            finally{
+            	pulsing = false;
+            }
         }
     };
     
@@ -73,9 +83,33 @@ public class SmoothDefaultButtonTitle extends BasicButtonDockTitle {
 	 */
 	public SmoothDefaultButtonTitle( Dockable dockable, DockTitleVersion origin ){
 		super( dockable, origin );
+		changer.setComponent( this );
 	}
+    
+    @Override
+    public void repaint( long tm, int x, int y, int width, int height ){
+    	if( pulsing && changer.getClock().isTicking() ){
+    		changer.getClock().repaint( this );
+    	}
+    	else{
+    		super.repaint( tm, x, y, width, height );
+    	}
+    }
 	
 
+    @Override
+    public void bind(){
+    	super.bind();
+    	DockController controller = getDockable().getController();
+    	changer.setClock( controller == null ? null : controller.getAnimationClock() );
+    }
+    
+    @Override
+    public void unbind(){
+    	super.unbind();
+    	changer.setClock( null );
+    }
+    
     @Override
     public void setActive( boolean active ) {
         super.setActive(active);
@@ -26,6 +26,7 @@
 
 package bibliothek.extension.gui.dock.theme.smooth;
 
+import bibliothek.gui.DockController;
 import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.themes.basic.BasicStationTitle;
 import bibliothek.gui.dock.title.DockTitleVersion;
@@ -40,6 +41,9 @@ public class SmoothDefaultStationTitle extends BasicStationTitle{
     /** the counter, tells where transition between active and passive stands. */
     private int current = 0;
     
+    /** whether {@link #changer} is currently updating the colors */
+    private boolean pulsing = false;
+    
     /**
      * Source for pulses for this title.
      */
@@ -55,10 +59,29 @@ public class SmoothDefaultStationTitle extends BasicStationTitle{
         @Override
         protected void repaint( int[] current ) {
             SmoothDefaultStationTitle.this.current = current[0];
-            SmoothDefaultStationTitle.this.updateColors();
+            pulsing = true;
+            try{
+            	SmoothDefaultStationTitle.this.updateColors();
+            }
+            finally{
+            	pulsing = false;
+            }
         }
     };
     
+    @Override
+    public void bind(){
+    	super.bind();
+    	DockController controller = getDockable().getController();
+    	changer.setClock( controller == null ? null : controller.getAnimationClock() );
+    }
+    
+    @Override
+    public void unbind(){
+    	super.unbind();
+    	changer.setClock( null );
+    }
+    
     @Override
     public void setActive( boolean active ) {
         super.setActive(active);
@@ -74,6 +97,17 @@ public class SmoothDefaultStationTitle extends BasicStationTitle{
      */
     public SmoothDefaultStationTitle( Dockable dockable, DockTitleVersion origin ) {
         super(dockable, origin);
+        changer.setComponent( this );
+    }
+    
+    @Override
+    public void repaint( long tm, int x, int y, int width, int height ){
+    	if( pulsing && changer.getClock().isTicking() ){
+    		changer.getClock().repaint( this );
+    	}
+    	else{
+    		super.repaint( tm, x, y, width, height );
+    	}
     }
     
     /**
@@ -33,6 +33,7 @@ import java.awt.Graphics2D;
 
 import javax.swing.JComponent;
 
+import bibliothek.gui.DockController;
 import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.themes.basic.BasicDockTitle;
 import bibliothek.gui.dock.title.DockTitleVersion;
@@ -63,7 +64,7 @@ public class SmoothDefaultTitle extends BasicDockTitle{
         protected void repaint( int[] current ) {
             SmoothDefaultTitle.this.current = current[ ACTIVE_STATE ];
             updateForegroundColor();
-            SmoothDefaultTitle.this.repaint();
+            getClock().repaint( SmoothDefaultTitle.this );
         }
     };
     
@@ -74,6 +75,7 @@ public class SmoothDefaultTitle extends BasicDockTitle{
      */
     public SmoothDefaultTitle( Dockable dockable, DockTitleVersion origin ) {
         super(dockable, origin);
+        changer.setComponent( this );
     }
     
     /**
@@ -93,6 +95,19 @@ public class SmoothDefaultTitle extends BasicDockTitle{
         changer.setDuration( duration );
     }
     
+    @Override
+    public void bind(){
+    	super.bind();
+    	DockController controller = getDockable().getController();
+    	changer.setClock( controller == null ? null : controller.getAnimationClock() );
+    }
+    
+    @Override
+    public void unbind(){
+    	super.unbind();
+    	changer.setClock( null );
+    }
+    
     @Override
     public void setActive( boolean active ) {
         super.setActive(active);
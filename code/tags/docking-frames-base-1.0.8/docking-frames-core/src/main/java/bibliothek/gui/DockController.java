@@ -65,6 +65,7 @@ import bibliothek.gui.dock.action.ActionPopupSuppressor;
 import bibliothek.gui.dock.action.DockAction;
 import bibliothek.gui.dock.action.DockActionSource;
 import bibliothek.gui.dock.action.view.ActionViewConverter;
+import bibliothek.gui.dock.control.AnimationClock;
 import bibliothek.gui.dock.control.ComponentHierarchyObserver;
 import bibliothek.gui.dock.control.ControllerSetupCollection;
 import bibliothek.gui.dock.control.DefaultDockControllerFactory;
@@ -137,6 +138,8 @@ public class DockController {
 	private DockRegister register;
 	/** the known {@link Component}s in the realm of this controller */
 	private ComponentHierarchyObserver componentHierarchyObserver;
+	/** how often {@link #freezeLayout()} was called without a matching {@link #meltLayout()} */
+	private int layoutFreezeCount = 0;
 	
 	/** a manager handling drag and drop */
 	private DockRelocator relocator;
@@ -147,6 +150,9 @@ public class DockController {
 	/** the controller that manages global key-events */
 	private KeyboardController keyboardController;
 	
+	/** the clock driving the animations of the themes */
+	private AnimationClock animationClock;
+	
 	/** selector allows to select {@link Dockable} using the mouse or the keyboard */
 	private DockableSelector dockableSelector;
 	
@@ -366,6 +372,8 @@ public class DockController {
 	    theme.uninstall( this );
 	    UIManager.removePropertyChangeListener( lookAndFeelObserver );
 	    extensions.kill();
+	    if( animationClock != null )
+	    	animationClock.destroy();
 	    setRootWindowProvider( null );
     }
     
@@ -394,6 +402,8 @@ public class DockController {
     public ComponentHierarchyObserver getComponentHierarchyObserver() {
         if( componentHierarchyObserver == null ){
             componentHierarchyObserver = new ComponentHierarchyObserver( this );
+            for( int i = 0; i < layoutFreezeCount; i++ )
+                componentHierarchyObserver.setBatching( true );
             if( rootWindow != null )
                 componentHierarchyObserver.add( rootWindow );
         }
@@ -416,6 +426,19 @@ public class DockController {
         return doubleClickController;
     }
     
+    /**
+     * Gets the clock that drives animations, for example the changing colors
+     * of titles. Themes should use this clock instead of creating their own
+     * {@link javax.swing.Timer}s.
+     * @return the clock, never <code>null</code>
+     */
+    public AnimationClock getAnimationClock(){
+    	if( animationClock == null ){
+    		animationClock = new AnimationClock();
+    	}
+    	return animationClock;
+    }
+    
     /**
      * Gets the manager that handles all global KeyEvents.
      * @return the handler
@@ -473,7 +496,10 @@ public class DockController {
      * Events during the time where the listeners are disabled are collected,
      * conflicting events will cancel each other out, remaining events will be 
      * distributed once {@link #meltLayout()} is called. The effect of this method is
-     * equal to the effect when calling {@link DockRegister#setStalled(boolean)}.
+     * equal to the effect when calling {@link DockRegister#setStalled(boolean)}.<br>
+     * Events of the {@link ComponentHierarchyObserver} are collected as well and
+     * delivered as one batch once the layout melts, see
+     * {@link ComponentHierarchyObserver#setBatching(boolean)}.
      * @return <code>true</code> if the layout was already frozen,
      * <code>false</code> if it was not frozen
      * @see #meltLayout()
@@ -482,6 +508,9 @@ public class DockController {
     	DockRegister register = getRegister();
     	boolean frozen = register.isStalled();
     	getRegister().setStalled( true );
+    	layoutFreezeCount++;
+    	if( componentHierarchyObserver != null )
+    		componentHierarchyObserver.setBatching( true );
     	return frozen;
     }
     
@@ -506,6 +535,11 @@ public class DockController {
     	
     	DockRegister register = getRegister();
     	register.setStalled( false );
+    	if( layoutFreezeCount > 0 ){
+    		layoutFreezeCount--;
+    		if( componentHierarchyObserver != null )
+    			componentHierarchyObserver.setBatching( false );
+    	}
     	return register.isStalled();
     }
     
@@ -646,7 +680,7 @@ public class DockController {
 	    		dockTitles.registerTheme( DockTitleManager.THEME_FACTORY_ID, theme.getTitleFactory( this ) );
 	    		
 	    		// update only those station which are registered to this controller
-	    		for( DockStation station : register.listDockStations() ){
+	    		for( DockStation station : register.getStations() ){
 	    			if( station.getController() == this ){
 	    				station.updateTheme();
 	    			}
@@ -1165,7 +1199,7 @@ public class DockController {
             }
         }
         
-        for( Dockable dockable : getRegister().listDockables() ){
+        for( Dockable dockable : getRegister().getDockables() ){
             Component component = dockable.getComponent();
             Window ancestor = SwingUtilities.getWindowAncestor( component );
             if( ancestor != null ){
@@ -36,6 +36,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -101,6 +102,8 @@ import bibliothek.util.Todo.Priority;
 import bibliothek.util.xml.XAttribute;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * A DockFrontend provides some methods to handle the storage of various layouts.
@@ -1669,22 +1672,20 @@ public class DockFrontend {
      * @throws IOException if there are any problems
      */
     public void write( DataOutputStream out ) throws IOException{
-        Version.write( out, Version.VERSION_1_0_4 );
-        
-        if( currentSetting == null )
-            out.writeBoolean( false );
-        else{
-            out.writeBoolean( true );
-            out.writeUTF( currentSetting );
-        }
-        
-        out.writeInt( settings.size() );
-        for( Map.Entry<String, Setting> setting : settings.entrySet() ){
-            out.writeUTF( setting.getKey() );
-            write( setting.getValue(), true, out );
-        }
-        
-        write( getSetting( false ), false, out );
+        createSnapshot().write( out );
+    }
+    
+    /**
+     * Collects all the settings of this frontend, including the current layout. The
+     * result can be written at any later time, and on any thread, without accessing
+     * the {@link Dockable}s or {@link DockStation}s of this frontend again. This method
+     * must be called on the <code>EventDispatchThread</code>.
+     * @return the current state of this frontend
+     * @see #write(DataOutputStream)
+     * @see #writeXML(XElement)
+     */
+    public Snapshot createSnapshot(){
+        return new Snapshot();
     }
     
     /**
@@ -1753,20 +1754,34 @@ public class DockFrontend {
      * change the attributes of <code>element</code>
      */
     public void writeXML( XElement element ){
-        if( !settings.isEmpty() ){
-            XElement xsettings = element.addElement( "settings" );
-            for( Map.Entry<String, Setting> setting : settings.entrySet() ){
-                XElement xsetting = xsettings.addElement( "setting" );
-                xsetting.addString( "name", setting.getKey() );
-                writeXML( setting.getValue(), true, xsetting );
-            }
-        }
-        
-        XElement xcurrent = element.addElement( "current" );
-        if( currentSetting != null )
-            xcurrent.addString( "name", currentSetting );
-        
-        writeXML( getSetting( false ), false, xcurrent );
+        createSnapshot().writeXML( element );
+    }
+    
+    /**
+     * Writes all properties of this frontend into the current element of <code>out</code>. The
+     * output is the same as the output of {@link #writeXML(XElement)}.
+     * @param out the stream to write into, this method will not change the
+     * attributes of the current element
+     * @throws IOException if an I/O-error occurs
+     */
+    public void writeXML( XStreamWriter out ) throws IOException{
+        createSnapshot().writeXML( out );
+    }
+    
+    /**
+     * Calls {@link Setting#writeXML(DockSituation, PropertyTransformer, boolean, XStreamWriter)}.
+     * @param setting the setting to write
+     * @param entry whether <code>setting</code> is an ordinary entry, or
+     * the finall setting that contains more data.
+     * @param out the stream to write into, this method does not
+     * change the attributes of the current element
+     * @throws IOException if an I/O-error occurs
+     */
+    protected void writeXML( Setting setting, boolean entry, XStreamWriter out ) throws IOException{
+    	Internals internals = new Internals();
+        DockSituation situation = layoutChangeStrategy.createSituation( internals, entry );
+        PropertyTransformer properties = layoutChangeStrategy.createTransformer( internals );
+        setting.writeXML( situation, properties, entry, out );
     }
     
     /**
@@ -1809,6 +1824,63 @@ public class DockFrontend {
         }
     }
     
+    /**
+     * Reads the contents of this frontend from the current element of <code>in</code>
+     * and closes that element.
+     * @param in the stream to read from
+     * @throws IOException if an I/O-error occurs
+     */
+    public void readXML( XStreamReader in ) throws IOException{
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "settings" )){
+                while( (name = in.nextElement()) != null ){
+                    if( name.equals( "setting" )){
+                        String key = in.getString( "name" );
+                        Setting setting = readXML( true, in );
+                        settings.put( key, setting );
+                        fireRead( key );
+                    }
+                    else{
+                        in.skipElement();
+                    }
+                }
+            }
+            else if( name.equals( "current" )){
+                XAttribute xname = in.getAttribute( "name" );
+                if( xname != null )
+                    currentSetting = xname.getString();
+                
+                setSetting( readXML( false, in ), false );
+            }
+            else{
+                in.skipElement();
+            }
+        }
+    }
+    
+    /**
+     * Calls {@link #createSetting()} and then
+     * {@link Setting#readXML(DockSituation, PropertyTransformer, boolean, XStreamReader)}.
+     * The current element of <code>in</code> is read completely and closed.
+     * @param entry whether the set of properties is used as ordinary entry,
+     * or contains more data than usuall.
+     * @param in the stream to read from
+     * @return the new setting
+     * @throws IOException if an I/O-error occurs
+     * @see #createSetting()
+     */
+    protected Setting readXML( boolean entry, XStreamReader in ) throws IOException{
+        int depth = in.getDepth();
+        Setting setting = createSetting();
+        Internals internals = new Internals();
+        DockSituation situation = layoutChangeStrategy.createSituation( internals, entry );
+        PropertyTransformer properties = layoutChangeStrategy.createTransformer( internals );
+        setting.readXML( situation, properties, entry, in );
+        in.finish( depth );
+        return setting;
+    }
+    
     /**
      * Calls {@link #createSetting()} and then
      * {@link Setting#readXML(DockSituation, PropertyTransformer, boolean, XElement)}.
@@ -2279,6 +2351,117 @@ public class DockFrontend {
         }
     }
     
+    /**
+     * The settings of a {@link DockFrontend} at the time the snapshot was
+     * {@link DockFrontend#createSnapshot() created}.
+     * @author Benjamin Sigg
+     */
+    public class Snapshot{
+        /** the name of the current setting */
+        private String current;
+        /** all the stored settings */
+        private Map<String, Setting> entries;
+        /** the layout at the time this snapshot was created */
+        private Setting layout;
+        /** the situation used to write {@link #entries} */
+        private DockSituation entrySituation;
+        /** the situation used to write {@link #layout} */
+        private DockSituation finalSituation;
+        /** the transformer used to write all settings */
+        private PropertyTransformer properties;
+        
+        /**
+         * Creates a new snapshot of the enclosing frontend. All the information that is
+         * required to write the snapshot is collected by this constructor, the
+         * write-methods do not access the frontend anymore and can be called by any thread.
+         */
+        private Snapshot(){
+            current = currentSetting;
+            entries = new LinkedHashMap<String, Setting>( settings );
+            layout = getSetting( false );
+            
+            Internals internals = new Internals();
+            entrySituation = layoutChangeStrategy.createSituation( internals, true );
+            finalSituation = layoutChangeStrategy.createSituation( internals, false );
+            properties = layoutChangeStrategy.createTransformer( internals );
+        }
+        
+        /**
+         * Writes the contents of this snapshot in the same format
+         * as {@link DockFrontend#write(DataOutputStream)}.
+         * @param out the stream to write into
+         * @throws IOException if there are any problems
+         */
+        public void write( DataOutputStream out ) throws IOException{
+            Version.write( out, Version.VERSION_1_0_4 );
+            
+            if( current == null )
+                out.writeBoolean( false );
+            else{
+                out.writeBoolean( true );
+                out.writeUTF( current );
+            }
+            
+            out.writeInt( entries.size() );
+            for( Map.Entry<String, Setting> setting : entries.entrySet() ){
+                out.writeUTF( setting.getKey() );
+                setting.getValue().write( entrySituation, properties, true, out );
+            }
+            
+            layout.write( finalSituation, properties, false, out );
+        }
+        
+        /**
+         * Writes the contents of this snapshot in the same format
+         * as {@link DockFrontend#writeXML(XElement)}.
+         * @param element the element to write into, the attributes of 
+         * <code>element</code> are not changed
+         */
+        public void writeXML( XElement element ){
+            if( !entries.isEmpty() ){
+                XElement xsettings = element.addElement( "settings" );
+                for( Map.Entry<String, Setting> setting : entries.entrySet() ){
+                    XElement xsetting = xsettings.addElement( "setting" );
+                    xsetting.addString( "name", setting.getKey() );
+                    setting.getValue().writeXML( entrySituation, properties, true, xsetting );
+                }
+            }
+            
+            XElement xcurrent = element.addElement( "current" );
+            if( current != null )
+                xcurrent.addString( "name", current );
+            
+            layout.writeXML( finalSituation, properties, false, xcurrent );
+        }
+        
+        /**
+         * Writes the contents of this snapshot into the current element of <code>out</code>, 
+         * in the same format as {@link DockFrontend#writeXML(XElement)}.
+         * @param out the stream to write into, the attributes of the current 
+         * element are not changed
+         * @throws IOException if an I/O-error occurs
+         */
+        public void writeXML( XStreamWriter out ) throws IOException{
+            if( !entries.isEmpty() ){
+                out.startElement( "settings" );
+                for( Map.Entry<String, Setting> setting : entries.entrySet() ){
+                    out.startElement( "setting" );
+                    out.attribute( "name", setting.getKey() );
+                    setting.getValue().writeXML( entrySituation, properties, true, out );
+                    out.endElement();
+                }
+                out.endElement();
+            }
+            
+            out.startElement( "current" );
+            if( current != null )
+                out.attribute( "name", current );
+            
+            layout.writeXML( finalSituation, properties, false, out );
+            out.endElement();
+        }
+    }
+    
     /**
      * Stores information about a root-station.
      * @author Benjamin Sigg
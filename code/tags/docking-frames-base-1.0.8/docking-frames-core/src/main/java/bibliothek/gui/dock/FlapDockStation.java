@@ -624,6 +624,19 @@ public class FlapDockStation extends AbstractDockableStation {
     protected void updateWindowBounds(){
         if( window != null )
             window.updateBounds();
+        invalidateStationBounds();
+    }
+    
+    /**
+     * Informs the {@link bibliothek.gui.dock.control.StationBoundsIndex} of the current
+     * controller that the {@link #getStationBounds() bounds} of this station changed,
+     * because the popup-window was moved, shown or hidden.
+     */
+    private void invalidateStationBounds(){
+    	DockController controller = getController();
+    	if( controller != null ){
+    		controller.getRegister().getStationBounds().invalidate( this );
+    	}
     }
     
     /**
@@ -778,6 +791,7 @@ public class FlapDockStation extends AbstractDockableStation {
         	else
         		window.repaint();
         }
+        invalidateStationBounds();
         
         visibility.fire();
         listeners.fireDockableSelected( oldFrontDockable, dockable );
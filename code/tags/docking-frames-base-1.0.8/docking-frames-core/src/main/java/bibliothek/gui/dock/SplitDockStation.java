@@ -41,6 +41,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -260,6 +261,9 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 	/** The list of {@link Dockable Dockables} which are shown on this station */
 	private List<StationChildHandle> dockables = new ArrayList<StationChildHandle>();
 
+	/** the index of each element of {@link #dockables}, <code>null</code> if not yet calculated */
+	private Map<Dockable, Integer> dockableIndices;
+
 	/** The {@link Dockable} which has the focus */
 	private Dockable frontDockable;
 
@@ -472,11 +476,11 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 	@Override
 	public Dimension getMinimumSize(){
 		Insets insets = getInsets();
-		Dimension base = getRoot().getMinimumSize();
+		Dimension base = getRoot().getCachedMinimumSize();
 		if( insets != null ) {
-			base = new Dimension(base.width + insets.left + insets.right, base.height + insets.top + insets.bottom);
+			return new Dimension(base.width + insets.left + insets.right, base.height + insets.top + insets.bottom);
 		}
-		return base;
+		return new Dimension( base );
 	}
 
 	public DockTheme getTheme(){
@@ -814,6 +818,20 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 			throw new IllegalArgumentException("dividerSize must not be less than 0");
 
 		this.dividerSize = dividerSize;
+		root().visit( new SplitNodeVisitor(){
+			public void handleLeaf( Leaf leaf ){
+				leaf.invalidateMinimumSize();
+			}
+			public void handleNode( Node node ){
+				node.invalidateMinimumSize();
+			}
+			public void handlePlaceholder( Placeholder placeholder ){
+				// ignore
+			}
+			public void handleRoot( Root root ){
+				// ignore
+			}
+		});
 		doLayout();
 	}
 
@@ -2119,6 +2137,9 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 			dockStationListeners.fireDockableAdding(dockable);
 
 		dockables.add(handle);
+		if( dockableIndices != null && !dockableIndices.containsKey(dockable) ) {
+			dockableIndices.put(dockable, dockables.size() - 1);
+		}
 		dockable.setDockParent(this);
 
 		handle.updateDisplayer();
@@ -2152,6 +2173,7 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 
 		getContentPane().add(displayer.getComponent());
 		displayer.getComponent().setVisible(visible);
+		leaf.displayerChanged();
 
 		revalidate();
 	}
@@ -2162,11 +2184,15 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 	 * @return the index or -1 if the child was not found
 	 */
 	public int indexOfDockable( Dockable dockable ){
-		for( int i = 0, n = dockables.size(); i < n; i++ )
-			if( dockables.get(i).getDockable() == dockable )
-				return i;
+		if( dockableIndices == null ) {
+			dockableIndices = new IdentityHashMap<Dockable, Integer>();
+			for( int i = dockables.size() - 1; i >= 0; i-- ) {
+				dockableIndices.put(dockables.get(i).getDockable(), i);
+			}
+		}
 
-		return -1;
+		Integer index = dockableIndices.get(dockable);
+		return index == null ? -1 : index.intValue();
 	}
 
 	/**
@@ -2294,6 +2320,7 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 			dockStationListeners.fireDockableRemoving(dockable);
 
 		dockables.remove(index);
+		dockableIndices = null;
 
 		DockableDisplayer displayer = handle.getDisplayer();
 
@@ -2335,42 +2362,11 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 	 * @param id the id to search
 	 * @return the node with the id <code>id</code>
 	 */
-	public SplitNode getNode( final long id ){
-		class Visitor implements SplitNodeVisitor {
-			private SplitNode result;
-
-			public void handleRoot( Root root ){
-				if( root.getId() == id ) {
-					result = root;
-				}
-			}
-
-			public void handleLeaf( Leaf leaf ){
-				if( leaf.getId() == id ) {
-					result = leaf;
-				}
-			}
-
-			public void handlePlaceholder( Placeholder placeholder ){
-				if( placeholder.getId() == id ) {
-					result = placeholder;
-				}
-			}
-
-			public void handleNode( Node node ){
-				if( node.getId() == id ) {
-					result = node;
-				}
-			}
-		}
-		;
-
+	public SplitNode getNode( long id ){
 		if( root == null )
 			return null;
 
-		Visitor visitor = new Visitor();
-		getRoot().visit(visitor);
-		return visitor.result;
+		return root.getNode(id);
 	}
 
 	public String getFactoryID(){
@@ -2452,7 +2448,8 @@ public class SplitDockStation extends OverpaintablePanel implements Dockable, Do
 	private class VisibleListener extends DockStationAdapter {
 		@Override
 		public void dockableVisibiltySet( DockStation station, Dockable dockable, boolean visible ){
-			visibility.fire();
+			if( dockable == SplitDockStation.this )
+				visibility.fire();
 		}
 	}
 
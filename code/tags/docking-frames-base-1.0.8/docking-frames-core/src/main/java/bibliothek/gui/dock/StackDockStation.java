@@ -311,13 +311,6 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
         stackComponentRepresentative = new StackDockComponentRepresentative();
         stackComponentRepresentative.setComponent( stackComponent );
         stackComponentRepresentative.setTarget( this );
-        
-        addDockStationListener( new DockStationAdapter() {
-        	@Override
-        	public void dockableSelected( DockStation station, Dockable oldSelection, Dockable newSelection ){
-        		lastSelectedDockable = newSelection;
-        	}
-		});
     }
     
     /**
@@ -635,7 +628,9 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
     protected void fireDockableSelected(){
     	Dockable selection = getFrontDockable();
     	if( lastSelectedDockable != selection ){
-    		listeners.fireDockableSelected( lastSelectedDockable, selection );
+    		Dockable oldSelection = lastSelectedDockable;
+    		lastSelectedDockable = selection;
+    		listeners.fireDockableSelected( oldSelection, selection );
     	}
     }
     
@@ -1411,7 +1406,8 @@ public class StackDockStation extends AbstractDockableStation implements StackDo
     private class VisibleListener extends DockStationAdapter implements ChangeListener{
         @Override
         public void dockableVisibiltySet( DockStation station, Dockable dockable, boolean visible ) {
-            visibility.fire();
+            if( dockable == StackDockStation.this )
+                visibility.fire();
         }
         
         public void stateChanged( ChangeEvent e ) {
@@ -1,6 +1,9 @@
 package bibliothek.gui.dock.action;
 
+import java.awt.EventQueue;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import bibliothek.gui.DockController;
 import bibliothek.gui.Dockable;
@@ -12,7 +15,10 @@ import bibliothek.gui.dock.event.DockHierarchyListener;
  * A {@link DockActionSource} which observes the hierarchy of a {@link bibliothek.gui.Dockable}
  * and changes its content using {@link bibliothek.gui.DockController#listOffers(bibliothek.gui.Dockable)}.<br>
  * Clients using this source must call {@link #bind()} to connect the source with its {@link Dockable},
- * and {@link #unbind()} to free resources.
+ * and {@link #unbind()} to free resources.<br>
+ * Changes in the hierarchy only mark this source as dirty, the actions are
+ * recomputed at most once per cycle of the EventDispatchThread. Only the
+ * actions that really changed are reported to the listeners.
  * @author Benjamin Sigg
  */
 public class HierarchyDockActionSource extends AbstractDockActionSource {
@@ -28,6 +34,23 @@ public class HierarchyDockActionSource extends AbstractDockActionSource {
 	/** the source from which currently actions are fetched, can be <code>null</code> */
 	private DockActionSource source;
 	
+	/** the controller that was used to create {@link #source} */
+	private DockController controller;
+	
+	/** whether {@link #source} is outdated */
+	private boolean dirty = false;
+	
+	/** the actions that are visible while {@link #update()} fires events, <code>null</code> otherwise */
+	private List<DockAction> transition;
+	
+	/** recomputes the actions if this source is still dirty */
+	private Runnable refresh = new Runnable(){
+		public void run(){
+			if( dirty )
+				update();
+		}
+	};
+	
 	/**
 	 * Creates a new source.
 	 * @param dockable the Dockable to observe
@@ -59,32 +82,101 @@ public class HierarchyDockActionSource extends AbstractDockActionSource {
 	}
 	
 	/**
-	 * Updates the list of actions known to this source.
+	 * Marks this source as outdated and schedules a call to {@link #update()}.
+	 * Several calls to this method during the same event of the EventDispatchThread
+	 * result in only one update.
 	 */
-	public void update(){
-		int oldSize = getDockActionCount();
-		if( source != null ){
-			source.removeDockActionSourceListener( listener );
-			source = null;
+	public void invalidate(){
+		if( !dirty ){
+			dirty = true;
+			EventQueue.invokeLater( refresh );
 		}
-		
-		if( oldSize > 0 )
-			fireRemoved( 0, oldSize-1 );
+	}
+	
+	/**
+	 * Ensures that the actions of this source are up to date if nobody
+	 * observes this source. Observers instead receive the changes once
+	 * the scheduled update runs.
+	 */
+	private void validate(){
+		if( dirty && listeners.isEmpty() )
+			update();
+	}
+	
+	/**
+	 * Updates the list of actions known to this source. Only the actions that
+	 * changed are reported to the listeners, unless the {@link DockController} 
+	 * changed, in which case all actions are replaced.
+	 */
+	public void update(){
+		dirty = false;
 		
 		DockController controller = dockable.getController();
+		DockActionSource next = null;
 		if( controller != null )
-			source = controller.listOffers( dockable );
+			next = controller.listOffers( dockable );
+		
+		List<DockAction> oldActions = list( source );
+		List<DockAction> newActions = list( next );
+		
+		int prefix = 0;
+		int suffix = 0;
+		
+		if( controller == this.controller ){
+			int max = Math.min( oldActions.size(), newActions.size() );
+			while( prefix < max && oldActions.get( prefix ) == newActions.get( prefix ))
+				prefix++;
+			
+			max -= prefix;
+			while( suffix < max && 
+					oldActions.get( oldActions.size()-1-suffix ) == newActions.get( newActions.size()-1-suffix ))
+				suffix++;
+		}
+		
+		this.controller = controller;
+		
+		if( source != null && !listeners.isEmpty() )
+			source.removeDockActionSourceListener( listener );
+		source = next;
+		
+		int removedEnd = oldActions.size() - suffix;
+		if( removedEnd > prefix ){
+			transition = new ArrayList<DockAction>( oldActions.subList( 0, prefix ));
+			transition.addAll( oldActions.subList( removedEnd, oldActions.size() ));
+			try{
+				fireRemoved( prefix, removedEnd-1 );
+			}
+			finally{
+				transition = null;
+			}
+		}
 		
 		if( source != null && !listeners.isEmpty() ){
 			source.addDockActionSourceListener( listener );
 		}
 		
-		int newSize = getDockActionCount();
-		if( newSize > 0 ){
-			fireAdded( 0, newSize-1 );
+		int addedEnd = newActions.size() - suffix;
+		if( addedEnd > prefix ){
+			fireAdded( prefix, addedEnd-1 );
 		}
 	}
 	
+	/**
+	 * Copies the actions of <code>source</code> into a new list.
+	 * @param source the source to read, can be <code>null</code>
+	 * @return the actions of <code>source</code>
+	 */
+	private List<DockAction> list( DockActionSource source ){
+		if( source == null )
+			return new ArrayList<DockAction>( 0 );
+		
+		int count = source.getDockActionCount();
+		List<DockAction> result = new ArrayList<DockAction>( count );
+		for( int i = 0; i < count; i++ )
+			result.add( source.getDockAction( i ));
+		return result;
+	}
+	
 	@Override
 	public void addDockActionSourceListener( DockActionSourceListener listener ){
 		if( listeners.isEmpty() && source != null )
@@ -100,6 +192,9 @@ public class HierarchyDockActionSource extends AbstractDockActionSource {
 	}
 	
 	public DockAction getDockAction( int index ){
+		if( transition != null )
+			return transition.get( index );
+		validate();
 		if( source == null )
 			throw new IllegalArgumentException( "index out of bounds" );
 		else
@@ -107,6 +202,9 @@ public class HierarchyDockActionSource extends AbstractDockActionSource {
 	}
 
 	public int getDockActionCount(){
+		if( transition != null )
+			return transition.size();
+		validate();
 		if( source == null )
 			return 0;
 		else
@@ -114,6 +212,7 @@ public class HierarchyDockActionSource extends AbstractDockActionSource {
 	}
 
 	public LocationHint getLocationHint(){
+		validate();
 		if( source == null )
 			return LocationHint.UNKNOWN;
 		else
@@ -121,6 +220,9 @@ public class HierarchyDockActionSource extends AbstractDockActionSource {
 	}
 
 	public Iterator<DockAction> iterator(){
+		if( transition != null )
+			return transition.iterator();
+		validate();
 		if( source == null ){
 			return new Iterator<DockAction>(){
 				public boolean hasNext(){
@@ -148,10 +250,10 @@ public class HierarchyDockActionSource extends AbstractDockActionSource {
 	 */
 	private class Listener implements DockHierarchyListener, DockActionSourceListener{
 		public void controllerChanged( DockHierarchyEvent event ){
-			update();
+			invalidate();
 		}
 		public void hierarchyChanged( DockHierarchyEvent event ){
-			update();
+			invalidate();
 		}
 		
 		public void actionsAdded( DockActionSource source, int firstIndex, int lastIndex ){
@@ -0,0 +1,61 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2008 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.control;
+
+import java.awt.Component;
+
+/**
+ * An animation that is driven by an {@link AnimationClock}. All the animations
+ * of a clock make their steps at the same time, on the EDT.
+ * @author Benjamin Sigg
+ */
+public interface Animation {
+	/**
+	 * Called by the clock at every frame while this animation is running. 
+	 * @param clock the clock which drives this animation
+	 * @param delta the number of milliseconds passed since the last step of this animation,
+	 * or since this animation was started
+	 * @return <code>true</code> if this animation needs more steps, <code>false</code>
+	 * if this animation is finished and can be removed from <code>clock</code>
+	 */
+	public boolean step( AnimationClock clock, int delta );
+	
+	/**
+	 * Gets the component on which this animation is visible. If the component
+	 * is not {@link Component#isShowing() showing}, then the clock does not 
+	 * make any more steps but calls {@link #finish()}.
+	 * @return the component, can be <code>null</code> if this animation should
+	 * always make its steps
+	 */
+	public Component getComponent();
+	
+	/**
+	 * Immediately puts this animation into its final state. Called by the clock
+	 * when this animation is removed because its {@link #getComponent() component}
+	 * is not showing.
+	 */
+	public void finish();
+}
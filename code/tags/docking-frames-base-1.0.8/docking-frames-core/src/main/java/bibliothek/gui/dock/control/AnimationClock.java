@@ -0,0 +1,234 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2008 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.control;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.Timer;
+
+import bibliothek.gui.DockController;
+
+/**
+ * A clock driving any number of {@link Animation}s with a single {@link Timer}.
+ * All animations make their steps in the same event, components that need
+ * to be repainted during a frame are repainted only once and only if they are
+ * showing. Animations whose {@link Animation#getComponent() component} is not
+ * showing are {@link Animation#finish() finished} at once. The clock stops 
+ * completely if there is no running animation.<br>
+ * Each {@link DockController} has its own clock, see {@link DockController#getAnimationClock()}.
+ * Animations that do not know any controller can use the {@link #getDefault() default clock}.<br>
+ * This class must only be used on the EDT.
+ * @author Benjamin Sigg
+ */
+public class AnimationClock {
+	/** the clock used by animations that are not associated with a {@link DockController} */
+	private static AnimationClock defaultClock;
+	
+	/**
+	 * Gets a clock that can be used by animations which do not have access
+	 * to a {@link DockController}.
+	 * @return the default clock, never <code>null</code>
+	 */
+	public static AnimationClock getDefault(){
+		if( defaultClock == null ){
+			defaultClock = new AnimationClock();
+		}
+		return defaultClock;
+	}
+	
+	/** all the running animations and the time of their last step */
+	private Map<Animation, Long> animations = new LinkedHashMap<Animation, Long>();
+	
+	/** the components that need to be repainted at the end of the current frame */
+	private Map<Component, Boolean> repaints = new IdentityHashMap<Component, Boolean>();
+	
+	/** whether {@link #tick()} is currently executed */
+	private boolean ticking = false;
+	
+	/** the timer triggering new frames */
+	private Timer timer;
+	
+	/**
+	 * Creates a new clock with a frame rate of 40 frames per second.
+	 */
+	public AnimationClock(){
+		timer = new Timer( 25, new ActionListener(){
+			public void actionPerformed( ActionEvent e ){
+				tick();
+			}
+		});
+		timer.setCoalesce( true );
+	}
+	
+	/**
+	 * Sets the maximum number of frames per second. 
+	 * @param frames the frames per second, at least 1
+	 */
+	public void setFrameRate( int frames ){
+		if( frames < 1 )
+			throw new IllegalArgumentException( "frames must be at least 1: " + frames );
+		
+		int delay = Math.max( 1, 1000 / frames );
+		timer.setDelay( delay );
+		timer.setInitialDelay( delay );
+	}
+	
+	/**
+	 * Gets the maximum number of frames per second.
+	 * @return the frame rate
+	 */
+	public int getFrameRate(){
+		return 1000 / timer.getDelay();
+	}
+	
+	/**
+	 * Starts <code>animation</code>. Nothing happens if <code>animation</code> is 
+	 * already running. The first step of the animation will happen at the next frame.
+	 * @param animation the new animation, not <code>null</code>
+	 */
+	public void start( Animation animation ){
+		if( animation == null )
+			throw new IllegalArgumentException( "animation must not be null" );
+		
+		if( !animations.containsKey( animation )){
+			animations.put( animation, System.currentTimeMillis() );
+			if( !timer.isRunning() ){
+				timer.start();
+			}
+		}
+	}
+	
+	/**
+	 * Stops <code>animation</code> immediately.
+	 * @param animation the animation to stop
+	 */
+	public void stop( Animation animation ){
+		animations.remove( animation );
+		if( animations.isEmpty() && !ticking ){
+			timer.stop();
+		}
+	}
+	
+	/**
+	 * Tells whether <code>animation</code> is currently running on this clock.
+	 * @param animation the animation to search
+	 * @return <code>true</code> if <code>animation</code> is running
+	 */
+	public boolean isRunning( Animation animation ){
+		return animations.containsKey( animation );
+	}
+	
+	/**
+	 * Tells whether at least one animation is running.
+	 * @return <code>true</code> if this clock is running
+	 */
+	public boolean isRunning(){
+		return !animations.isEmpty();
+	}
+	
+	/**
+	 * Tells whether this clock is currently executing a frame. During a frame,
+	 * {@link #repaint(Component)} collects the components instead of repainting them.
+	 * @return <code>true</code> if the animations are currently making their steps
+	 */
+	public boolean isTicking(){
+		return ticking;
+	}
+	
+	/**
+	 * Requests a repaint of <code>component</code>. If called during a frame, then
+	 * the component is repainted at the end of the frame, otherwise it is 
+	 * repainted immediately. Components that are not showing are ignored.
+	 * @param component the component to repaint
+	 */
+	public void repaint( Component component ){
+		if( ticking ){
+			repaints.put( component, Boolean.TRUE );
+		}
+		else if( component.isShowing() ){
+			component.repaint();
+		}
+	}
+	
+	/**
+	 * Stops all animations. The clock can still be used afterwards.
+	 */
+	public void destroy(){
+		animations.clear();
+		repaints.clear();
+		timer.stop();
+	}
+	
+	/**
+	 * Executes one frame: all running animations make a step, then the 
+	 * components that were marked for repainting are repainted.
+	 */
+	protected void tick(){
+		ticking = true;
+		try{
+			long time = System.currentTimeMillis();
+			Animation[] running = animations.keySet().toArray( new Animation[ animations.size() ] );
+			
+			for( Animation animation : running ){
+				Long last = animations.get( animation );
+				if( last != null ){
+					Component component = animation.getComponent();
+					if( component != null && !component.isShowing() ){
+						animations.remove( animation );
+						animation.finish();
+					}
+					else{
+						animations.put( animation, time );
+						if( !animation.step( this, (int)(time - last.longValue()) )){
+							animations.remove( animation );
+						}
+					}
+				}
+			}
+			
+			if( !repaints.isEmpty() ){
+				Component[] components = repaints.keySet().toArray( new Component[ repaints.size() ] );
+				repaints.clear();
+				for( Component component : components ){
+					if( component.isShowing() ){
+						component.repaint();
+					}
+				}
+			}
+		}
+		finally{
+			ticking = false;
+			if( animations.isEmpty() ){
+				timer.stop();
+			}
+		}
+	}
+}
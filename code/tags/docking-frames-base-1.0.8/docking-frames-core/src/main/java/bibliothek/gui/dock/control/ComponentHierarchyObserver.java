@@ -27,6 +27,7 @@ package bibliothek.gui.dock.control;
 
 import java.awt.Component;
 import java.awt.Container;
+import java.awt.EventQueue;
 import java.awt.event.ContainerEvent;
 import java.awt.event.ContainerListener;
 import java.util.*;
@@ -44,7 +45,10 @@ import bibliothek.gui.dock.event.DockControllerRepresentativeListener;
  * A global instance of {@link ComponentHierarchyObserver} can be obtained
  * through {@link DockController#getComponentHierarchyObserver()}.<br>
  * Note that a hierarchy observer may also know {@link Component}s which are
- * not directly associated with {@link Dockable}s.
+ * not directly associated with {@link Dockable}s.<br>
+ * Events can be collected and delivered in one batch, see {@link #setBatching(boolean)}
+ * and {@link #setCoalesceEvents(boolean)}. Inside a batch a {@link Component} that is
+ * added and removed again (or removed and added again) does not show up in any event.
  * @author Benjamin Sigg
  */
 public class ComponentHierarchyObserver {
@@ -52,10 +56,41 @@ public class ComponentHierarchyObserver {
      * The set of components which were explicitly added to this observer and
      * will not be removed implicitly.
      */
-    private Set<Component> roots = new HashSet<Component>();
+    private Map<Component, Boolean> roots = new IdentityHashMap<Component, Boolean>();
     
     /** the currently known components */
-    private Set<Component> components = new HashSet<Component>();
+    private Map<Component, Boolean> components = new IdentityHashMap<Component, Boolean>();
+    
+    /** how many times {@link #setBatching(boolean)} was called with <code>true</code> */
+    private int batching = 0;
+    
+    /** whether changes made during one event of the EDT are delivered in one batch */
+    private boolean coalesceEvents = false;
+    
+    /** whether a batch was started automatically and will be closed later on the EDT */
+    private boolean flushPending = false;
+    
+    /** the components added during the current batch, the value tells whether the component is still added */
+    private Map<Component, Boolean> pendingAdded = new IdentityHashMap<Component, Boolean>();
+    
+    /** the order in which the components of {@link #pendingAdded} were added, may contain duplicates */
+    private List<Component> pendingAddedOrder = new ArrayList<Component>();
+    
+    /** the components removed during the current batch */
+    private Map<Component, Boolean> pendingRemoved = new IdentityHashMap<Component, Boolean>();
+    
+    /** the order in which the components of {@link #pendingRemoved} were removed, may contain duplicates */
+    private List<Component> pendingRemovedOrder = new ArrayList<Component>();
+    
+    /** closes a batch that was opened automatically by {@link #coalesceEvents} */
+    private Runnable flush = new Runnable(){
+        public void run() {
+            if( flushPending ){
+                flushPending = false;
+                setBatching( false );
+            }
+        }
+    };
     
     /** a listener to all {@link Container}s */
     private Listener listener = new Listener();
@@ -91,7 +126,7 @@ public class ComponentHierarchyObserver {
      * @return the set of <code>Component</code>s.
      */
     public Set<Component> getComponents() {
-        return Collections.unmodifiableSet( components );
+        return Collections.unmodifiableSet( components.keySet() );
     }
     
     /**
@@ -130,6 +165,158 @@ public class ComponentHierarchyObserver {
         return listeners.toArray( new ComponentHierarchyObserverListener[ listeners.size() ] );
     }
     
+    /**
+     * Starts or ends a batch. While a batch is open no events are fired,
+     * instead all changes are collected and merged. Once the batch ends, one
+     * {@link ComponentHierarchyObserverListener#removed(ComponentHierarchyObserverEvent) removed}
+     * and one {@link ComponentHierarchyObserverListener#added(ComponentHierarchyObserverEvent) added}
+     * event is fired. Nested calls are possible, the batch ends after this method
+     * was called as often with <code>false</code> as with <code>true</code>.<br>
+     * The set of known components is always updated immediately, only the events
+     * are delayed.
+     * @param batching <code>true</code> if a new batch should start, <code>false</code>
+     * if the current batch should end
+     * @see DockController#freezeLayout()
+     */
+    public void setBatching( boolean batching ){
+        if( batching )
+            this.batching++;
+        else
+            this.batching--;
+        
+        // recover from too many false-calls
+        if( this.batching < 0 )
+            this.batching = 0;
+        
+        if( this.batching == 0 )
+            firePending();
+    }
+    
+    /**
+     * Tells whether events are currently collected instead of fired.
+     * @return <code>true</code> if a batch is open
+     */
+    public boolean isBatching(){
+        return batching > 0;
+    }
+    
+    /**
+     * Sets whether all changes that happen during the same event of the 
+     * EventDispatchThread should be delivered in one batch. If set, the first 
+     * change opens a batch which gets closed by a task that is queued on the
+     * EDT with {@link EventQueue#invokeLater(Runnable)}.
+     * @param coalesceEvents whether to coalesce events, the default is <code>false</code>
+     */
+    public void setCoalesceEvents( boolean coalesceEvents ){
+        this.coalesceEvents = coalesceEvents;
+        if( !coalesceEvents && flushPending ){
+            flushPending = false;
+            setBatching( false );
+        }
+    }
+    
+    /**
+     * Tells whether changes of one event of the EDT are delivered in one batch.
+     * @return whether events are coalesced
+     * @see #setCoalesceEvents(boolean)
+     */
+    public boolean isCoalesceEvents(){
+        return coalesceEvents;
+    }
+    
+    /**
+     * Called before any change is made, opens a batch if 
+     * {@link #setCoalesceEvents(boolean) coalescing} is enabled and no
+     * batch is open yet.
+     */
+    private void beforeChange(){
+        if( coalesceEvents && !flushPending ){
+            flushPending = true;
+            setBatching( true );
+            EventQueue.invokeLater( flush );
+        }
+    }
+    
+    /**
+     * Either fires an event telling that <code>list</code> has been added,
+     * or stores <code>list</code> for the current batch.
+     * @param list the newly added components, not empty
+     */
+    private void fireAdded( List<Component> list ){
+        if( isBatching() ){
+            for( Component component : list ){
+                if( pendingRemoved.remove( component ) == null ){
+                    pendingAdded.put( component, Boolean.TRUE );
+                    pendingAddedOrder.add( component );
+                }
+            }
+        }
+        else{
+            list = Collections.unmodifiableList( list );
+            ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list );
+            for( ComponentHierarchyObserverListener listener : listeners() )
+                listener.added( event );
+        }
+    }
+    
+    /**
+     * Either fires an event telling that <code>list</code> has been removed,
+     * or stores <code>list</code> for the current batch.
+     * @param list the removed components, not empty
+     */
+    private void fireRemoved( List<Component> list ){
+        if( isBatching() ){
+            for( Component component : list ){
+                if( pendingAdded.remove( component ) == null ){
+                    pendingRemoved.put( component, Boolean.TRUE );
+                    pendingRemovedOrder.add( component );
+                }
+            }
+        }
+        else{
+            list = Collections.unmodifiableList( list );
+            ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list );
+            for( ComponentHierarchyObserverListener listener : listeners() )
+                listener.removed( event );
+        }
+    }
+    
+    /**
+     * Fires the events that were collected during the last batch.
+     */
+    private void firePending(){
+        List<Component> removed = drain( pendingRemoved, pendingRemovedOrder );
+        List<Component> added = drain( pendingAdded, pendingAddedOrder );
+        
+        if( !removed.isEmpty() )
+            fireRemoved( removed );
+        if( !added.isEmpty() )
+            fireAdded( added );
+    }
+    
+    /**
+     * Collects the components of <code>pending</code> in the order given by
+     * <code>order</code> and clears both collections.
+     * @param pending the components that are still pending
+     * @param order the order of the components, may contain duplicates or
+     * components that are no longer pending
+     * @return the pending components, without duplicates
+     */
+    private List<Component> drain( Map<Component, Boolean> pending, List<Component> order ){
+        if( pending.isEmpty() ){
+            order.clear();
+            return Collections.emptyList();
+        }
+        
+        List<Component> result = new ArrayList<Component>( pending.size() );
+        for( Component component : order ){
+            if( pending.remove( component ) != null )
+                result.add( component );
+        }
+        order.clear();
+        return result;
+    }
+    
     /**
      * Adds <code>component</code> and all its children to the set of
      * known {@link Component}s. Components that are already known will
@@ -138,7 +325,7 @@ public class ComponentHierarchyObserver {
      * @param component the new component
      */
     public void add( Component component ){
-        roots.add( component );
+        roots.put( component, Boolean.TRUE );
         add( component, null );
     }
     
@@ -154,10 +341,12 @@ public class ComponentHierarchyObserver {
      */
     private void add( Component component, List<Component> list ){
         boolean fire = list == null;
-        if( fire )
-            list = new LinkedList<Component>();
+        if( fire ){
+            beforeChange();
+            list = new ArrayList<Component>();
+        }
         
-        if( components.add( component )){
+        if( components.put( component, Boolean.TRUE ) == null ){
             list.add( component );
             if( component instanceof Container ){
                 Container container = (Container)component;
@@ -169,10 +358,7 @@ public class ComponentHierarchyObserver {
         }
         
         if( fire && !list.isEmpty() ){
-            list = Collections.unmodifiableList( list );
-            ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list );
-            for( ComponentHierarchyObserverListener listener : listeners() )
-                listener.added( event );
+            fireAdded( list );
         }
     }
     
@@ -196,12 +382,14 @@ public class ComponentHierarchyObserver {
      * an event.
      */
     private void remove( Component component, List<Component> list ){
-        if( !roots.contains( component )){
+        if( !roots.containsKey( component )){
             boolean fire = list == null;
-            if( fire )
-                list = new LinkedList<Component>();
+            if( fire ){
+                beforeChange();
+                list = new ArrayList<Component>();
+            }
             
-            if( components.remove( component )){
+            if( components.remove( component ) != null ){
                 list.add( component );
                 if( component instanceof Container ){
                     Container container = (Container)component;
@@ -213,10 +401,7 @@ public class ComponentHierarchyObserver {
             }
             
             if( fire && !list.isEmpty() ){
-                list = Collections.unmodifiableList( list );
-                ComponentHierarchyObserverEvent event = new ComponentHierarchyObserverEvent( controller, list );
-                for( ComponentHierarchyObserverListener listener : listeners() )
-                    listener.removed( event );
+                fireRemoved( list );
             }
         }
     }
@@ -36,6 +36,7 @@ import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -95,6 +96,13 @@ public class DefaultDockRelocator extends DockRelocator{
     /** the location of the last mouse event */
     private Point lastPoint;
     
+    /** the stations that were ordered by the last call to {@link #listStationsOrdered(int, int, Dockable)} */
+    private List<DockStation> orderedCandidates;
+    /** the result of the last call to {@link #listStationsOrdered(int, int, Dockable)} */
+    private List<DockStation> ordered;
+    /** the version of the {@link StationBoundsIndex} when {@link #ordered} was calculated */
+    private int orderedVersion = -1;
+    
 	/**
 	 * Creates a new manager.
 	 * @param controller the controller whose dockables are moved
@@ -263,39 +271,60 @@ public class DefaultDockRelocator extends DockRelocator{
     
     /**
      * Makes a list of all stations which are visible and contain the point
-     * <code>x/y</code>. The stations are ordered by their visibility.
+     * <code>x/y</code>. The stations are ordered by their visibility. Only the
+     * stations found by the {@link StationBoundsIndex} are checked, and the order
+     * of the last call is reused if neither the stations nor the index changed.
      * @param x x-coordinate on the screen
      * @param y y-coordinate on the screen
      * @param moved a Dockable which is dragged. If this is a 
      * station, then no child of the station will be in the resulting list.
      * @return a list of stations
+     * @see DockRegister#getStationBounds()
      */
     protected List<DockStation> listStationsOrdered( int x, int y, Dockable moved ){
-        List<DockStation> result = new LinkedList<DockStation>();
         DockStation movedStation = moved.asDockStation();
         DockController controller = getController();
-                
-        for( DockStation station : controller.getRegister().listDockStations() ){   
+        StationBoundsIndex index = controller.getRegister().getStationBounds();
+        
+        List<DockStation> candidates = new ArrayList<DockStation>();
+        index.listStationsAt( x, y, candidates );
+        
+        List<DockStation> filtered = new ArrayList<DockStation>( candidates.size() );
+        for( DockStation station : candidates ){   
             if( movedStation == null || (!DockUtilities.isAncestor( movedStation, station ) && movedStation != station )){
                 if( station.isStationVisible() ){
                     Rectangle bounds = station.getStationBounds();
                     if( bounds == null || bounds.contains( x, y )){
-                        int index = 0;
-                        
-                        // insertion sort
-                        for( DockStation resultStation : result ){
-                            int compare = compare( resultStation, station );
-                            if( compare < 0 )
-                                break;
-                            else
-                                index++;
-                        }
-                        
-                        result.add( index, station );
+                        filtered.add( station );
                     }
                 }
             }
-        }        
+        }
+        
+        if( orderedVersion == index.getVersion() && filtered.equals( orderedCandidates )){
+        	return new LinkedList<DockStation>( ordered );
+        }
+        
+        List<DockStation> result = new LinkedList<DockStation>();
+        for( DockStation station : filtered ){
+            int position = 0;
+            
+            // insertion sort
+            for( DockStation resultStation : result ){
+                int compare = compare( resultStation, station );
+                if( compare < 0 )
+                    break;
+                else
+                    position++;
+            }
+            
+            result.add( position, station );
+        }
+        
+        orderedVersion = index.getVersion();
+        orderedCandidates = filtered;
+        ordered = new ArrayList<DockStation>( result );
+        
         return result;
     }    
     
@@ -653,6 +682,10 @@ public class DefaultDockRelocator extends DockRelocator{
 	        movingImageWindow = null;
 	        pressPointScreen = null;
 	        pressPointLocal = null;
+	        
+	        orderedCandidates = null;
+	        ordered = null;
+	        orderedVersion = -1;
     	}
     }
     
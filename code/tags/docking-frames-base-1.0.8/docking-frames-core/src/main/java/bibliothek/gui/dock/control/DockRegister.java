@@ -44,9 +44,9 @@ import bibliothek.gui.dock.util.DockUtilities;
  */
 public class DockRegister {
 	/** the known stations */
-    private List<DockStation> stations = new ArrayList<DockStation>();
+    private Members<DockStation> stations = new Members<DockStation>();
     /** the known dockables */
-    private List<Dockable> dockables = new ArrayList<Dockable>();
+    private Members<Dockable> dockables = new Members<Dockable>();
     
     /** The controller for which the dockables and stations are stored */
     private DockController controller;
@@ -60,6 +60,12 @@ public class DockRegister {
     /** tells whether register and unregister-events should be stalled or not */
     private int stalled = 0;
     
+    /** tasks that will be executed once this register is no longer stalled */
+    private List<Runnable> stalledTasks = new ArrayList<Runnable>();
+    
+    /** the bounds of all the known stations */
+    private StationBoundsIndex stationBounds = new StationBoundsIndex();
+    
     /**
      * Creates a new register.
      * @param controller the controller for which the dockables and stations
@@ -104,8 +110,7 @@ public class DockRegister {
      * known to this register.
      */
     public void kill(){
-        List<DockStation> stations = new ArrayList<DockStation>( this.stations );
-        for( DockStation station : stations )
+        for( DockStation station : listDockStations() )
             remove( station );
     }
     
@@ -203,6 +208,26 @@ public class DockRegister {
     public DockStation[] listDockStations(){
     	return stations.toArray( new DockStation[ stations.size() ] );
     }
+    
+    /**
+     * Gets an unmodifiable list containing all known {@link DockStation}s. The list
+     * is a snapshot that is shared between all callers, it does not change if stations
+     * are added or removed later. Calling this method is cheap as long as the set
+     * of stations does not change.
+     * @return the list of stations
+     */
+    public List<DockStation> getStations(){
+    	return stations.view();
+    }
+
+    /**
+     * Gets an index of the bounds of all the known {@link DockStation}s. The index
+     * is updated whenever a station is registered or unregistered.
+     * @return the index, not <code>null</code>
+     */
+    public StationBoundsIndex getStationBounds(){
+		return stationBounds;
+	}
 
     /**
      * Gets a list of stations which have no parent and are therefore
@@ -211,7 +236,7 @@ public class DockRegister {
      */
     public DockStation[] listRoots(){
         List<DockStation> list = new LinkedList<DockStation>();
-        for( DockStation station : stations ){
+        for( DockStation station : stations.view() ){
             Dockable dockable = station.asDockable();
             if( dockable == null || dockable.getDockParent() == null )
                 list.add( station );
@@ -245,6 +270,17 @@ public class DockRegister {
     	return dockables.toArray( new Dockable[ dockables.size() ] );
     }
     
+    /**
+     * Gets an unmodifiable list containing all known {@link Dockable}s. The list
+     * is a snapshot that is shared between all callers, it does not change if dockables
+     * are added or removed later. Calling this method is cheap as long as the set
+     * of dockables does not change.
+     * @return the list of dockables
+     */
+    public List<Dockable> getDockables(){
+    	return dockables.view();
+    }
+    
     /**
      * Registers <code>dockable</code>, the associated controller will know the titles
      * of <code>dockable</code> to allow drag and drop operations.<br>
@@ -290,6 +326,7 @@ public class DockRegister {
         	fireDockStationRegistering( station );
             
             stations.add( station );
+            stationBounds.add( station );
             
             station.setController( controller );
             station.updateTheme();
@@ -310,6 +347,7 @@ public class DockRegister {
      */
     protected void unregister( DockStation station ){
         if( stations.remove( station ) ){
+            stationBounds.remove( station );
             station.setController( null );
             station.removeDockStationListener( stationListener );
             
@@ -414,9 +452,35 @@ public class DockRegister {
 		
 		if( this.stalled == 0 ){
 			stationListener.fire();
+			
+			while( this.stalled == 0 && !stalledTasks.isEmpty() ){
+				Runnable[] tasks = stalledTasks.toArray( new Runnable[ stalledTasks.size() ] );
+				stalledTasks.clear();
+				for( Runnable task : tasks )
+					task.run();
+			}
 		}
 	}
     
+    /**
+     * Executes <code>task</code> once this register is no longer stalled. If the
+     * register is not stalled, then <code>task</code> is executed immediately. 
+     * Tasks are executed in the order they were given to this method, and only 
+     * after the pending events of this register were fired. This method allows 
+     * other modules to collect their events while the layout is frozen.
+     * @param task the task to execute, not <code>null</code>
+     * @see #setStalled(boolean)
+     */
+    public void invokeUnstalled( Runnable task ){
+    	if( task == null )
+    		throw new IllegalArgumentException( "task must not be null" );
+    	
+    	if( isStalled() )
+    		stalledTasks.add( task );
+    	else
+    		task.run();
+    }
+    
     /**
      * Whether the register is currently stalled and does not forward
      * changes to the tree.
@@ -582,4 +646,130 @@ public class DockRegister {
             }
         }
     }
+
+    /**
+     * A set of elements that remembers the order in which elements were added. Uses the
+     * identity of the elements to compare them, checking whether an element is known and removing
+     * an element have constant cost. An array of all elements is created lazily and reused until
+     * the set changes.
+     * @author Benjamin Sigg
+     * @param <T> the kind of elements stored in this set
+     */
+    private static class Members<T>{
+    	/** all the elements, each element is part of a linked list */
+    	private Map<T, Node<T>> nodes = new IdentityHashMap<T, Node<T>>();
+    	/** the first element of the linked list */
+    	private Node<T> head;
+    	/** the last element of the linked list */
+    	private Node<T> tail;
+    	/** all the elements, <code>null</code> if the set changed since the array was created */
+    	private Object[] snapshot;
+    	/** an unmodifiable view of {@link #snapshot} */
+    	private List<T> view;
+    	
+    	public int size(){
+    		return nodes.size();
+    	}
+    	
+    	public boolean contains( T element ){
+    		return nodes.containsKey( element );
+    	}
+    	
+    	public boolean add( T element ){
+    		if( nodes.containsKey( element )){
+    			return false;
+    		}
+    		Node<T> node = new Node<T>( element );
+    		nodes.put( element, node );
+    		if( tail == null ){
+    			head = node;
+    			tail = node;
+    		}
+    		else{
+    			tail.next = node;
+    			node.previous = tail;
+    			tail = node;
+    		}
+    		changed();
+    		return true;
+    	}
+    	
+    	public boolean remove( T element ){
+    		Node<T> node = nodes.remove( element );
+    		if( node == null ){
+    			return false;
+    		}
+    		if( node.previous == null ){
+    			head = node.next;
+    		}
+    		else{
+    			node.previous.next = node.next;
+    		}
+    		if( node.next == null ){
+    			tail = node.previous;
+    		}
+    		else{
+    			node.next.previous = node.previous;
+    		}
+    		changed();
+    		return true;
+    	}
+    	
+    	@SuppressWarnings("unchecked")
+    	public T get( int index ){
+    		Object[] snapshot = snapshot();
+    		if( index < 0 || index >= snapshot.length ){
+    			throw new IndexOutOfBoundsException( "index: " + index + ", size: " + snapshot.length );
+    		}
+    		return (T)snapshot[ index ];
+    	}
+    	
+    	public T[] toArray( T[] array ){
+    		Object[] snapshot = snapshot();
+    		System.arraycopy( snapshot, 0, array, 0, snapshot.length );
+    		return array;
+    	}
+    	
+    	@SuppressWarnings("unchecked")
+    	public List<T> view(){
+    		if( view == null ){
+    			view = Collections.unmodifiableList( (List<T>)Arrays.asList( snapshot() ) );
+    		}
+    		return view;
+    	}
+    	
+    	private void changed(){
+    		snapshot = null;
+    		view = null;
+    	}
+    	
+    	private Object[] snapshot(){
+    		if( snapshot == null ){
+    			snapshot = new Object[ nodes.size() ];
+    			int index = 0;
+    			for( Node<T> node = head; node != null; node = node.next ){
+    				snapshot[ index++ ] = node.element;
+    			}
+    		}
+    		return snapshot;
+    	}
+    }
+    
+    /**
+     * An element of a {@link Members} set.
+     * @author Benjamin Sigg
+     * @param <T> the kind of element
+     */
+    private static class Node<T>{
+    	/** the element represented by this node */
+    	private final T element;
+    	/** the node added before this node */
+    	private Node<T> previous;
+    	/** the node added after this node */
+    	private Node<T> next;
+    	
+    	public Node( T element ){
+    		this.element = element;
+    	}
+    }
 }
@@ -29,13 +29,13 @@ package bibliothek.gui.dock.control;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import javax.swing.event.MouseInputAdapter;
 
 import bibliothek.gui.DockController;
 import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DockElement;
 import bibliothek.gui.dock.DockElementRepresentative;
 import bibliothek.gui.dock.event.ControllerSetupListener;
 import bibliothek.gui.dock.event.DockControllerRepresentativeListener;
@@ -54,6 +54,14 @@ public class DoubleClickController {
     private LocatedListenerList<DoubleClickListener> observers =
     	new LocatedListenerList<DoubleClickListener>();
     
+    /** forwards events to the {@link DoubleClickListener}s */
+    private final LocatedListenerList.Handler<DoubleClickListener, MouseEvent> processor = 
+    	new LocatedListenerList.Handler<DoubleClickListener, MouseEvent>(){
+    		public boolean handle( DoubleClickListener listener, DockElement element, MouseEvent event ){
+    			return listener.process( (Dockable)element, event );
+    		}
+    	};
+    
     /** A map that tells which listener was added to which {@link Dockable} */
     private Map<DockElementRepresentative, GlobalDoubleClickListener> listeners = 
         new HashMap<DockElementRepresentative, GlobalDoubleClickListener>();
@@ -128,12 +136,8 @@ public class DoubleClickController {
         if( event.getClickCount() != 2 )
             throw new IllegalArgumentException( "click count must be equal to 2" );
         
-        List<DoubleClickListener> list = observers.affected( dockable );
-        for( DoubleClickListener observer : list ){
-            if( observer.process( dockable, event )){
-                event.consume();
-                break;
-            }
+        if( observers.dispatch( dockable, event, processor )){
+            event.consume();
         }
     }
     
@@ -28,8 +28,6 @@ package bibliothek.gui.dock.control;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
-import java.util.ArrayList;
-import java.util.List;
 
 import bibliothek.gui.DockController;
 import bibliothek.gui.dock.DockElement;
@@ -49,8 +47,29 @@ public abstract class KeyboardController {
 	private LocatedListenerList<KeyboardListener> keyListeners = 
 		new LocatedListenerList<KeyboardListener>();
 	
-	/** the listeners which will be informed about any events */
-	private List<KeyListener> globalListeners = new ArrayList<KeyListener>();
+	/** the listeners which will be informed about any events, replaced whenever a listener is added or removed */
+	private KeyListener[] globalListeners = new KeyListener[0];
+	
+	/** forwards {@link KeyEvent#KEY_PRESSED} events */
+	private final LocatedListenerList.Handler<KeyboardListener, KeyEvent> pressed = new LocatedListenerList.Handler<KeyboardListener, KeyEvent>(){
+		public boolean handle( KeyboardListener listener, DockElement element, KeyEvent event ){
+			return listener.keyPressed( element, event );
+		}
+	};
+	
+	/** forwards {@link KeyEvent#KEY_RELEASED} events */
+	private final LocatedListenerList.Handler<KeyboardListener, KeyEvent> released = new LocatedListenerList.Handler<KeyboardListener, KeyEvent>(){
+		public boolean handle( KeyboardListener listener, DockElement element, KeyEvent event ){
+			return listener.keyReleased( element, event );
+		}
+	};
+	
+	/** forwards {@link KeyEvent#KEY_TYPED} events */
+	private final LocatedListenerList.Handler<KeyboardListener, KeyEvent> typed = new LocatedListenerList.Handler<KeyboardListener, KeyEvent>(){
+		public boolean handle( KeyboardListener listener, DockElement element, KeyEvent event ){
+			return listener.keyTyped( element, event );
+		}
+	};
 	
 	/** the controller in whose realm this {@link KeyboardController} works */
 	private DockController controller;
@@ -73,7 +92,11 @@ public abstract class KeyboardController {
 	public void addGlobalListener( KeyListener listener ){
 	    if( listener == null )
 	        throw new IllegalArgumentException( "listener must not be null" );
-	    globalListeners.add( listener );
+	    
+	    KeyListener[] result = new KeyListener[ globalListeners.length+1 ];
+	    System.arraycopy( globalListeners, 0, result, 0, globalListeners.length );
+	    result[ globalListeners.length ] = listener;
+	    globalListeners = result;
 	}
 	
 	/**
@@ -81,7 +104,15 @@ public abstract class KeyboardController {
 	 * @param listener the listener to remove
 	 */
 	public void removeGlobalListener( KeyListener listener ){
-	    globalListeners.remove( listener );
+		for( int i = 0; i < globalListeners.length; i++ ){
+			if( globalListeners[i].equals( listener )){
+				KeyListener[] result = new KeyListener[ globalListeners.length-1 ];
+				System.arraycopy( globalListeners, 0, result, 0, i );
+				System.arraycopy( globalListeners, i+1, result, i, result.length-i );
+				globalListeners = result;
+				return;
+			}
+		}
 	}
 	
 	/**
@@ -126,22 +157,9 @@ public abstract class KeyboardController {
 	 * @param event the event to send
 	 */
 	protected void fireKeyPressed( KeyEvent event ){
-		if( !event.isConsumed() ){
-    		DockElementRepresentative representative = controller.searchElement( event.getComponent() );
-    		if( representative != null ){
-    		    DockElement element = representative.getElement();
-    		    
-        		List<KeyboardListener> list = keyListeners.affected( element );
-        		loop:for( KeyboardListener listener : list ){
-        			if( listener.keyPressed( element, event )){
-        				event.consume();
-        				break loop;
-        			}
-        		}
-    		}
-		}
+		fire( event, pressed );
 		
-		for( KeyListener listener : globalListeners.toArray( new KeyListener[ globalListeners.size() ] )){
+		for( KeyListener listener : globalListeners ){
 		    listener.keyPressed( event );
 		}
 	}
@@ -153,22 +171,9 @@ public abstract class KeyboardController {
 	 * @param event the event to send
 	 */
 	protected void fireKeyReleased( KeyEvent event ){
-		if( !event.isConsumed() ){
-			DockElementRepresentative representative = controller.searchElement( event.getComponent() );
-    		if( representative != null ){
-    		    DockElement element = representative.getElement();
-    		    
-        		List<KeyboardListener> list = keyListeners.affected( element );
-        		loop:for( KeyboardListener listener : list ){
-        			if( listener.keyReleased( element, event )){
-        				event.consume();
-        				break loop;
-        			}
-        		}
-    		}
-		}
-
-		for( KeyListener listener : globalListeners.toArray( new KeyListener[ globalListeners.size() ] )){
+		fire( event, released );
+		
+		for( KeyListener listener : globalListeners ){
 		    listener.keyReleased( event );
 		}
 	}
@@ -180,25 +185,31 @@ public abstract class KeyboardController {
 	 * @param event the event to send
 	 */
 	protected void fireKeyTyped( KeyEvent event ){
-		if( !event.isConsumed() ){
-			DockElementRepresentative representative = controller.searchElement( event.getComponent() );
-    		if( representative != null ){
-    		    DockElement element = representative.getElement();
-        		List<KeyboardListener> list = keyListeners.affected( element );
-        		loop:for( KeyboardListener listener : list ){
-        			if( listener.keyTyped( element, event )){
-        				event.consume();
-        				break loop;
-        			}
-        		}
-    		}
-		}
-
-		for( KeyListener listener : globalListeners.toArray( new KeyListener[ globalListeners.size() ] )){
+		fire( event, typed );
+		
+		for( KeyListener listener : globalListeners ){
 		    listener.keyTyped( event );
 		}
 	}
 	
+	/**
+	 * Forwards <code>event</code> to the {@link KeyboardListener}s whose
+	 * {@link bibliothek.gui.dock.DockElement} is above the component on which
+	 * the event occurred, until one listener consumes the event.
+	 * @param event the event to send
+	 * @param handler the method to call on the listeners
+	 */
+	private void fire( KeyEvent event, LocatedListenerList.Handler<KeyboardListener, KeyEvent> handler ){
+		if( !event.isConsumed() && keyListeners.size() > 0 ){
+			DockElementRepresentative representative = controller.searchElement( event.getComponent() );
+			if( representative != null ){
+				if( keyListeners.dispatch( representative.getElement(), event, handler )){
+					event.consume();
+				}
+			}
+		}
+	}
+	
 
 	
 //		Does not make much sense, events could first travel up then down in the tree...	
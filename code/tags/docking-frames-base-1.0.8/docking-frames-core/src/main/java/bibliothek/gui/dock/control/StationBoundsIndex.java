@@ -0,0 +1,423 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ *
+ * Copyright (C) 2007 Benjamin Sigg
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.control;
+
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.HierarchyBoundsListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.SwingUtilities;
+
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+
+/**
+ * A screen-space index of the {@link DockStation#getStationBounds() bounds} of all
+ * the {@link DockStation}s known to a {@link DockRegister}. The index is a uniform grid,
+ * each cell knows which stations overlap it. The bounds of a station are only recalculated
+ * if its {@link Component} was moved, resized, shown or hidden, or if the station was
+ * explicitly {@link #invalidate(DockStation) invalidated}.<br>
+ * Stations whose bounds cannot be derived from their {@link Component} (e.g. because
+ * they have no component, or because they show an additional window) are not put
+ * into the grid but are returned by every query.<br>
+ * This class is used by the {@link DefaultDockRelocator} to find possible targets
+ * of a drag and drop operation without asking each station for its bounds.
+ * @author Benjamin Sigg
+ */
+public class StationBoundsIndex {
+	/** the width and height of one cell of the grid in pixels */
+	private static final int CELL_SIZE = 256;
+	/** if a station covers more than this amount of cells, it is not put into the grid */
+	private static final int MAX_CELLS = 1024;
+
+	/** all the stations known to this index */
+	private Map<DockStation, Entry> entries = new HashMap<DockStation, Entry>();
+	/** the grid, the key is made out of the x- and y-coordinate of a cell */
+	private Map<Long, List<Entry>> cells = new HashMap<Long, List<Entry>>();
+	/** entries which are not in the grid and need to be checked for any query */
+	private List<Entry> unbounded = new ArrayList<Entry>();
+	/** entries whose bounds need to be recalculated */
+	private List<Entry> dirty = new ArrayList<Entry>();
+
+	/** the sequence number for the next entry, tells the order in which stations were added */
+	private int sequence = 0;
+	/** incremented whenever the content of this index changes */
+	private int version = 0;
+
+	/** orders entries by their sequence number */
+	private static final Comparator<Entry> SEQUENCE_ORDER = new Comparator<Entry>(){
+		public int compare( Entry a, Entry b ){
+			if( a.sequence < b.sequence )
+				return -1;
+			if( a.sequence > b.sequence )
+				return 1;
+			return 0;
+		}
+	};
+
+	/**
+	 * Adds <code>station</code> to this index. Nothing happens if <code>station</code>
+	 * is already known.
+	 * @param station the new station, not <code>null</code>
+	 */
+	public void add( DockStation station ){
+		if( station == null )
+			throw new IllegalArgumentException( "station must not be null" );
+
+		if( !entries.containsKey( station )){
+			Entry entry = new Entry( station, sequence++ );
+			entries.put( station, entry );
+			entry.bind();
+			markDirty( entry );
+		}
+	}
+
+	/**
+	 * Removes <code>station</code> from this index.
+	 * @param station the station to remove
+	 */
+	public void remove( DockStation station ){
+		Entry entry = entries.remove( station );
+		if( entry != null ){
+			entry.unbind();
+			removeFromGrid( entry );
+			if( entry.dirty ){
+				dirty.remove( entry );
+				entry.dirty = false;
+			}
+			version++;
+		}
+	}
+
+	/**
+	 * Informs this index that the bounds of <code>station</code> may have changed without
+	 * any event of its {@link Component}. Stations showing additional windows (like the
+	 * {@link bibliothek.gui.dock.FlapDockStation}) should call this method whenever the
+	 * visibility or the size of such a window changes.
+	 * @param station the station whose bounds changed
+	 */
+	public void invalidate( DockStation station ){
+		Entry entry = entries.get( station );
+		if( entry != null ){
+			markDirty( entry );
+		}
+	}
+
+	/**
+	 * Informs this index that the bounds of all the stations may have changed.
+	 */
+	public void invalidateAll(){
+		for( Entry entry : entries.values() ){
+			markDirty( entry );
+		}
+	}
+
+	/**
+	 * Gets a number that changes whenever the content of this index changes, i.e. if a station
+	 * is added or removed, or if the bounds of a station may have changed. Clients can use
+	 * this number to validate information they derived from this index.
+	 * @return the current version
+	 */
+	public int getVersion(){
+		return version;
+	}
+
+	/**
+	 * Searches all the stations which may contain the point <code>x/y</code>. The result
+	 * contains all stations whose bounds contain the point and may contain some stations whose
+	 * bounds cannot be indexed. Clients still need to check the visibility and the
+	 * {@link DockStation#getStationBounds() bounds} of the stations, but they have to check far
+	 * less stations than are registered. The result is ordered in the same way as the stations
+	 * were added to this index.
+	 * @param x the x-coordinate on the screen
+	 * @param y the y-coordinate on the screen
+	 * @param result a list to which all the candidates will be added
+	 */
+	public void listStationsAt( int x, int y, List<DockStation> result ){
+		update();
+
+		List<Entry> cell = cells.get( key( cell( x ), cell( y ) ));
+		List<Entry> candidates = new ArrayList<Entry>( unbounded.size() + (cell == null ? 0 : cell.size()) );
+		candidates.addAll( unbounded );
+
+		if( cell != null ){
+			for( Entry entry : cell ){
+				if( entry.bounds.contains( x, y )){
+					candidates.add( entry );
+				}
+			}
+		}
+
+		Collections.sort( candidates, SEQUENCE_ORDER );
+		for( Entry entry : candidates ){
+			result.add( entry.station );
+		}
+	}
+
+	/**
+	 * Recalculates the bounds of all the entries which are dirty.
+	 */
+	private void update(){
+		if( !dirty.isEmpty() ){
+			for( Entry entry : dirty ){
+				entry.dirty = false;
+				removeFromGrid( entry );
+				addToGrid( entry );
+			}
+			dirty.clear();
+		}
+	}
+
+	/**
+	 * Marks <code>entry</code> as dirty, its bounds will be recalculated
+	 * on the next query.
+	 * @param entry the entry whose bounds may have changed
+	 */
+	private void markDirty( Entry entry ){
+		version++;
+		if( !entry.dirty ){
+			entry.dirty = true;
+			dirty.add( entry );
+		}
+	}
+
+	/**
+	 * Calculates the bounds of <code>entry</code> and stores it in the grid.
+	 * @param entry the entry to store
+	 */
+	private void addToGrid( Entry entry ){
+		DockStation station = entry.station;
+		Rectangle bounds = station.getStationBounds();
+
+		if( bounds == null || entry.component == null || !bounds.equals( componentBounds( entry.component ) )){
+			entry.unbounded = true;
+			unbounded.add( entry );
+			return;
+		}
+
+		int minX = cell( bounds.x );
+		int minY = cell( bounds.y );
+		int maxX = cell( bounds.x + bounds.width - 1 );
+		int maxY = cell( bounds.y + bounds.height - 1 );
+
+		if( bounds.width <= 0 || bounds.height <= 0 ){
+			entry.bounds = bounds;
+			entry.minX = 0;
+			entry.maxX = -1;
+			return;
+		}
+
+		if( ((long)(maxX - minX + 1)) * (maxY - minY + 1) > MAX_CELLS ){
+			entry.unbounded = true;
+			unbounded.add( entry );
+			return;
+		}
+
+		entry.bounds = bounds;
+		entry.minX = minX;
+		entry.minY = minY;
+		entry.maxX = maxX;
+		entry.maxY = maxY;
+
+		for( int cx = minX; cx <= maxX; cx++ ){
+			for( int cy = minY; cy <= maxY; cy++ ){
+				Long key = key( cx, cy );
+				List<Entry> list = cells.get( key );
+				if( list == null ){
+					list = new ArrayList<Entry>( 4 );
+					cells.put( key, list );
+				}
+				list.add( entry );
+			}
+		}
+	}
+
+	/**
+	 * Removes <code>entry</code> from the grid or from the list of unbounded entries.
+	 * @param entry the entry to remove
+	 */
+	private void removeFromGrid( Entry entry ){
+		if( entry.unbounded ){
+			unbounded.remove( entry );
+			entry.unbounded = false;
+		}
+		else if( entry.bounds != null ){
+			for( int cx = entry.minX; cx <= entry.maxX; cx++ ){
+				for( int cy = entry.minY; cy <= entry.maxY; cy++ ){
+					Long key = key( cx, cy );
+					List<Entry> list = cells.get( key );
+					if( list != null ){
+						list.remove( entry );
+						if( list.isEmpty() ){
+							cells.remove( key );
+						}
+					}
+				}
+			}
+			entry.bounds = null;
+		}
+	}
+
+	/**
+	 * Gets the bounds of <code>component</code> on the screen.
+	 * @param component some component
+	 * @return the bounds on the screen
+	 */
+	private Rectangle componentBounds( Component component ){
+		Point location = new Point( 0, 0 );
+		SwingUtilities.convertPointToScreen( location, component );
+		return new Rectangle( location.x, location.y, component.getWidth(), component.getHeight() );
+	}
+
+	/**
+	 * Gets the index of the cell that contains the coordinate <code>value</code>.
+	 * @param value some coordinate on the screen
+	 * @return the index of the cell
+	 */
+	private static int cell( int value ){
+		if( value < 0 )
+			return (value + 1) / CELL_SIZE - 1;
+		return value / CELL_SIZE;
+	}
+
+	/**
+	 * Gets the key of the cell <code>x/y</code>.
+	 * @param x the x-index of the cell
+	 * @param y the y-index of the cell
+	 * @return the key of the cell
+	 */
+	private static Long key( int x, int y ){
+		return Long.valueOf( (((long)x) << 32) | (y & 0xFFFFFFFFL) );
+	}
+
+	/**
+	 * Information about one {@link DockStation} in the index. Observes the {@link Component}
+	 * of the station and marks itself as dirty if its bounds change.
+	 * @author Benjamin Sigg
+	 */
+	private class Entry implements ComponentListener, HierarchyListener, HierarchyBoundsListener{
+		/** the station represented by this entry */
+		private final DockStation station;
+		/** tells the order in which entries were created */
+		private final int sequence;
+		/** the component that is observed by this entry, can be <code>null</code> */
+		private Component component;
+
+		/** the bounds of {@link #station} when it was put into the grid */
+		private Rectangle bounds;
+		/** the first cell (inclusive) in which this entry was stored */
+		private int minX, minY;
+		/** the last cell (inclusive) in which this entry was stored */
+		private int maxX, maxY;
+
+		/** whether this entry is in {@link StationBoundsIndex#dirty} */
+		private boolean dirty = false;
+		/** whether this entry is in {@link StationBoundsIndex#unbounded} */
+		private boolean unbounded = false;
+
+		/**
+		 * Creates a new entry.
+		 * @param station the represented station
+		 * @param sequence the order in which this entry was created
+		 */
+		public Entry( DockStation station, int sequence ){
+			this.station = station;
+			this.sequence = sequence;
+		}
+
+		/**
+		 * Adds the listeners of this entry to the component of {@link #station}.
+		 */
+		public void bind(){
+			Dockable dockable = station.asDockable();
+			if( dockable != null ){
+				component = dockable.getComponent();
+				if( component != null ){
+					component.addComponentListener( this );
+					component.addHierarchyListener( this );
+					component.addHierarchyBoundsListener( this );
+				}
+			}
+		}
+
+		/**
+		 * Removes the listeners added by {@link #bind()}.
+		 */
+		public void unbind(){
+			if( component != null ){
+				component.removeComponentListener( this );
+				component.removeHierarchyListener( this );
+				component.removeHierarchyBoundsListener( this );
+				component = null;
+			}
+		}
+
+		private void changed(){
+			if( entries.get( station ) == this ){
+				markDirty( this );
+			}
+		}
+
+		public void componentHidden( ComponentEvent e ){
+			changed();
+		}
+
+		public void componentMoved( ComponentEvent e ){
+			changed();
+		}
+
+		public void componentResized( ComponentEvent e ){
+			changed();
+		}
+
+		public void componentShown( ComponentEvent e ){
+			changed();
+		}
+
+		public void hierarchyChanged( HierarchyEvent e ){
+			changed();
+		}
+
+		public void ancestorMoved( HierarchyEvent e ){
+			changed();
+		}
+
+		public void ancestorResized( HierarchyEvent e ){
+			changed();
+		}
+	}
+}
@@ -35,9 +35,12 @@ import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.DefaultDockable;
 import bibliothek.gui.dock.DockFactory;
 import bibliothek.gui.dock.layout.LocationEstimationMap;
+import bibliothek.gui.dock.layout.StreamedDockFactory;
 import bibliothek.gui.dock.station.support.PlaceholderStrategy;
 import bibliothek.util.Version;
 import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * A factory which can read and write the properties of a 
@@ -46,7 +49,7 @@ import bibliothek.util.xml.XElement;
  * DefaultDockable.
  * @author Benjamin Sigg
  */
-public class DefaultDockableFactory implements DockFactory<DefaultDockable, Object> {
+public class DefaultDockableFactory implements DockFactory<DefaultDockable, Object>, StreamedDockFactory<Object> {
     /** The unique id of this factory */
     public static final String ID = "DefaultDockableFactory";
     
@@ -106,6 +109,10 @@ public class DefaultDockableFactory implements DockFactory<DefaultDockable, Obje
     public Object read( XElement element, PlaceholderStrategy placeholders ) {
         return new Object();
     }
+    
+    public Object read( XStreamReader in, PlaceholderStrategy placeholders ) {
+        return new Object();
+    }
 
 
     public void write( Object layout, DataOutputStream out )
@@ -118,4 +125,8 @@ public class DefaultDockableFactory implements DockFactory<DefaultDockable, Obje
     public void write( Object layout, XElement element ) {
         // nothing to do
     }
+    
+    public void write( Object layout, XStreamWriter out ) {
+        // nothing to do
+    }
 }
@@ -38,13 +38,24 @@ import bibliothek.gui.dock.util.DockSwingUtilities;
 
 /**
  * A factory that makes a snapshot of the {@link Dockable} which will be represented
- * by its {@link MovingImage}.
+ * by its {@link MovingImage}.<br>
+ * Components that consist only of Swing-components are painted directly into an image
+ * that already has the final, downscaled size. When a {@link MovingImage} is created, 
+ * a cheap placeholder is shown first and the snapshot is taken in a later event of
+ * the EventDispatchThread. The snapshots of {@link MovingImage}s are painted into a
+ * buffer that is reused between two drag and drop operations.
  * @author Benjamin Sigg
  *
  */
 public class ScreencaptureMovingImageFactory implements DockableMovingImageFactory {
     /** the maximal size of the images created by this factory */
     private Dimension max;
+    
+    /** a buffer that is reused by {@link #create(DockController, Dockable)} */
+    private BufferedImage buffer;
+    
+    /** the {@link MovingImage} which currently shows {@link #buffer}, can be <code>null</code> */
+    private MovingImage bufferOwner;
 
     /**
      * Creates a new factory.
@@ -68,70 +79,220 @@ public class ScreencaptureMovingImageFactory implements DockableMovingImageFacto
      * @see AWTComponentCaptureStrategy
      */
     public BufferedImage createImageFrom( DockController controller, Dockable dockable ){
+        return createImageFrom( controller, dockable, false );
+    }
+    
+    /**
+     * This method creates a new image that contains the contents of <code>dockable</code>. This
+     * method must be called from the EventDispatchThread.
+     * @param controller the controller for which the image is made
+     * @param dockable the element whose image should be taken
+     * @param reuse whether the image may be painted onto the buffer of this factory, in
+     * which case the image will be overridden by the next call of this method
+     * @return an image of <code>dockable</code> which is not larger than the
+     * maximum {@link Dimension} that was given to this factory in the 
+     * constructor.
+     */
+    private BufferedImage createImageFrom( DockController controller, Dockable dockable, boolean reuse ){
         Component c = dockable.getComponent();
 
         Dimension size = new Dimension( 
                 Math.max( 1, c.getWidth() ),
                 Math.max( 1, c.getHeight() ));
-
+        
+        GraphicsConfiguration configuration = c.getGraphicsConfiguration();
         BufferedImage image = null;
         
-        if( size.width >= 10 && size.height >= 10 ){
+        Dimension target = getImageSize( size );
+        if( target != null ){
             if( DockSwingUtilities.containsAWTComponents( c )){
-                image = controller.getProperties().get( AWTComponentCaptureStrategy.STRATEGY ).createCapture( controller, c );
+                BufferedImage capture = controller.getProperties().get( AWTComponentCaptureStrategy.STRATEGY ).createCapture( controller, c );
+                if( capture != null ){
+                    if( target.equals( size )){
+                        image = capture;
+                    }
+                    else{
+                        image = createImage( configuration, target, reuse );
+                        Graphics2D g = image.createGraphics();
+                        g.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR );
+                        g.drawImage( capture, 0, 0, target.width, target.height, 0, 0, size.width, size.height, null );
+                        g.dispose();
+                    }
+                }
             }
             else{
-                image = new BufferedImage( size.width, size.height, BufferedImage.TYPE_INT_ARGB );
-                Graphics g = image.createGraphics();
+                image = createImage( configuration, target, reuse );
+                Graphics2D g = image.createGraphics();
+                if( !target.equals( size )){
+                    g.setRenderingHint( RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON );
+                    g.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR );
+                    g.scale( target.getWidth() / size.getWidth(), target.getHeight() / size.getHeight() );
+                }
                 c.paint( g );
                 g.dispose();
             }
-            
-            if( image != null ){
-                double factor = Math.min( 
-                        max.getWidth() / size.getWidth(), 
-                        max.getHeight() / size.getHeight() );
-
-                if( factor < 1.0 ){
-                    int w = (int)( factor * size.getWidth() );
-                    int h = (int)( factor * size.getHeight() );
-
-                    w = Math.max( w, 1 );
-                    h = Math.max( h, 1 );
-
-                    if( w != size.width || h != size.height ){
-                        BufferedImage small = new BufferedImage( w, h, image.getType() );
-                        Graphics2D g = small.createGraphics();
-                        g.setRenderingHint( RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC );
-                        g.setRenderingHint( RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON );
-                        g.drawImage( image, 0, 0, w, h, 0, 0, size.width, size.height, null );
-                        g.dispose();
-                        image = small;
-                    }
-                }
-            }
         }
         if( image == null ){
-            Icon icon = dockable.getTitleIcon();
-            if( icon == null || icon.getIconHeight() < 1 || icon.getIconWidth() < 1 )
-                return null;
+            image = createIconImage( dockable );
+        }
+        
+        return image;
+    }
+    
+    /**
+     * Calculates the size of the snapshot of a component.
+     * @param size the size of the component
+     * @return the size of the image, not larger than the maximum size of this
+     * factory, or <code>null</code> if <code>size</code> is too small for a snapshot
+     */
+    private Dimension getImageSize( Dimension size ){
+        if( size.width < 10 || size.height < 10 )
+            return null;
+        
+        double factor = Math.min( 
+                max.getWidth() / size.getWidth(), 
+                max.getHeight() / size.getHeight() );
 
-            image = new BufferedImage( icon.getIconWidth()+2, icon.getIconHeight()+2, BufferedImage.TYPE_INT_ARGB );
-            Graphics2D g = image.createGraphics();
-            g.setColor( c.getBackground() );
-            g.fillRect( 0, 0, image.getWidth(), image.getHeight() );
-            icon.paintIcon( c, g, 1, 1 );
+        if( factor >= 1.0 )
+            return new Dimension( size );
+        
+        int w = (int)( factor * size.getWidth() );
+        int h = (int)( factor * size.getHeight() );
+        
+        return new Dimension( Math.max( w, 1 ), Math.max( h, 1 ));
+    }
+    
+    /**
+     * Creates a transparent image compatible with <code>configuration</code>.
+     * @param configuration the configuration of the screen on which the image will be shown,
+     * can be <code>null</code>
+     * @param size the size of the image
+     * @param reuse if <code>true</code> then the buffer of this factory may be used,
+     * the buffer is cleared first
+     * @return the new image
+     */
+    private BufferedImage createImage( GraphicsConfiguration configuration, Dimension size, boolean reuse ){
+        if( reuse && buffer != null && buffer.getWidth() >= size.width && buffer.getHeight() >= size.height &&
+                ( configuration == null || buffer.getColorModel().equals( configuration.getColorModel( Transparency.TRANSLUCENT )))){
+            Graphics2D g = buffer.createGraphics();
+            g.setComposite( AlphaComposite.Clear );
+            g.fillRect( 0, 0, size.width, size.height );
             g.dispose();
+            
+            if( buffer.getWidth() == size.width && buffer.getHeight() == size.height )
+                return buffer;
+            return buffer.getSubimage( 0, 0, size.width, size.height );
         }
         
+        BufferedImage image;
+        if( configuration == null )
+            image = new BufferedImage( size.width, size.height, BufferedImage.TYPE_INT_ARGB );
+        else
+            image = configuration.createCompatibleImage( size.width, size.height, Transparency.TRANSLUCENT );
+        
+        if( reuse )
+            buffer = image;
         return image;
     }
+    
+    /**
+     * Creates an image showing the icon of <code>dockable</code>.
+     * @param dockable the element whose icon is painted
+     * @return the image or <code>null</code> if <code>dockable</code> has no icon
+     */
+    private BufferedImage createIconImage( Dockable dockable ){
+        Component c = dockable.getComponent();
+        Icon icon = dockable.getTitleIcon();
+        if( icon == null || icon.getIconHeight() < 1 || icon.getIconWidth() < 1 )
+            return null;
 
-    public MovingImage create( DockController controller, Dockable dockable ) {
-        BufferedImage image = createImageFrom( controller, dockable );
+        BufferedImage image = new BufferedImage( icon.getIconWidth()+2, icon.getIconHeight()+2, BufferedImage.TYPE_INT_ARGB );
+        Graphics2D g = image.createGraphics();
+        g.setColor( c.getBackground() );
+        g.fillRect( 0, 0, image.getWidth(), image.getHeight() );
+        icon.paintIcon( c, g, 1, 1 );
+        g.dispose();
+        return image;
+    }
+    
+    /**
+     * Creates a cheap image that is shown until the real snapshot of <code>dockable</code>
+     * is available.
+     * @param dockable the element that is represented
+     * @param size the size of the final snapshot
+     * @return the placeholder
+     */
+    protected BufferedImage createPlaceholder( Dockable dockable, Dimension size ){
+        Component c = dockable.getComponent();
+        BufferedImage image = new BufferedImage( size.width, size.height, BufferedImage.TYPE_INT_ARGB );
+        Graphics2D g = image.createGraphics();
+        g.setColor( c.getBackground() );
+        g.fillRect( 0, 0, size.width, size.height );
+        g.setColor( c.getForeground() );
+        g.drawRect( 0, 0, size.width-1, size.height-1 );
+        
+        Icon icon = dockable.getTitleIcon();
+        if( icon != null ){
+            icon.paintIcon( c, g, (size.width - icon.getIconWidth()) / 2, (size.height - icon.getIconHeight()) / 2 );
+        }
+        g.dispose();
+        return image;
+    }
 
-        TrueMovingImage moving = new TrueMovingImage();
-        moving.setImage( image );
+    public MovingImage create( final DockController controller, final Dockable dockable ) {
+        final CaptureMovingImage moving = new CaptureMovingImage();
+        
+        Component c = dockable.getComponent();
+        Dimension target = getImageSize( new Dimension( c.getWidth(), c.getHeight() ));
+        if( target == null ){
+            moving.setImage( createImageFrom( controller, dockable ) );
+        }
+        else{
+            moving.setImage( createPlaceholder( dockable, target ) );
+            EventQueue.invokeLater( new Runnable(){
+                public void run(){
+                    if( moving.isClosed() ){
+                        // the operation already ended, there is no need for a snapshot
+                        return;
+                    }
+                    // another image may still show the buffer, in that case a new image is required
+                    boolean reuse = bufferOwner == null;
+                    BufferedImage image = createImageFrom( controller, dockable, reuse );
+                    if( reuse ){
+                        bufferOwner = moving;
+                    }
+                    moving.setImage( image );
+                }
+            });
+        }
+        
         return moving;
     }
+    
+    /**
+     * A {@link TrueMovingImage} that releases the buffer of this factory once
+     * it is no longer shown.
+     * @author Benjamin Sigg
+     */
+    private class CaptureMovingImage extends TrueMovingImage{
+        /** whether this image is no longer shown */
+        private boolean closed = false;
+        
+        /**
+         * Tells whether this image is no longer shown.
+         * @return <code>true</code> if {@link #unbind()} was called
+         */
+        public boolean isClosed(){
+            return closed;
+        }
+        
+        @Override
+        public void unbind(){
+            super.unbind();
+            closed = true;
+            if( bufferOwner == this ){
+                bufferOwner = null;
+            }
+        }
+    }
 }
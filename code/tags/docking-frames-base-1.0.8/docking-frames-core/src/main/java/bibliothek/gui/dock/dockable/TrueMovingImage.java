@@ -57,7 +57,11 @@ public class TrueMovingImage extends JPanel implements MovingImage{
     public void setImage( BufferedImage image ) {
         this.image = image;
         if( image != null ){
-            setPreferredSize( new Dimension( image.getWidth(), image.getHeight() ) );
+            Dimension size = new Dimension( image.getWidth(), image.getHeight() );
+            if( !size.equals( getPreferredSize() )){
+                setPreferredSize( size );
+                revalidate();
+            }
         }
         repaint();
     }
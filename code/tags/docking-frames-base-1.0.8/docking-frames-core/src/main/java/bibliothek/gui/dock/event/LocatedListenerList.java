@@ -23,34 +23,53 @@
  * benjamin_sigg@gmx.ch
  * CH - Switzerland
  */
-
 package bibliothek.gui.dock.event;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.DockElement;
-import bibliothek.gui.dock.util.DockUtilities;
 
 /**
  * An object that can hold some {@link LocatedListener}s and order and filter
- * them regarding to one element of the tree.
+ * them regarding to one element of the tree.<br>
+ * The listeners are stored in buckets, one bucket for each {@link LocatedListener#getTreeLocation() location}.
+ * An event only visits the buckets of the ancestors of its source, hence the location
+ * of a listener must not change while the listener is registered.
  * @param <L> the type of listeners in this list
  * @author Benjamin Sigg
  */
 public class LocatedListenerList<L extends LocatedListener> {
-	/** the listener of listeners known to this list */
-	private List<L> listeners = new ArrayList<L>();
+	/** the listeners without location */
+	private Object[] rootListeners = new Object[0];
+	
+	/** the listeners with a location, the arrays are replaced whenever a listener is added or removed */
+	private Map<DockElement, Object[]> listeners = new IdentityHashMap<DockElement, Object[]>();
+	
+	/** the number of listeners known to this list */
+	private int size = 0;
 
 	/**
 	 * Adds a listener to the list of listeners.
 	 * @param listener the new listener
 	 */
 	public void addListener( L listener ){
-		listeners.add( listener );
+		DockElement location = listener.getTreeLocation();
+		if( location == null ){
+			rootListeners = add( rootListeners, listener );
+		}
+		else{
+			Object[] bucket = listeners.get( location );
+			if( bucket == null ){
+				bucket = new Object[0];
+			}
+			listeners.put( location, add( bucket, listener ));
+		}
+		size++;
 	}
 	
 	/**
@@ -58,7 +77,46 @@ public class LocatedListenerList<L extends LocatedListener> {
 	 * @param listener the listener to remove
 	 */
 	public void removeListener( L listener ){
-		listeners.remove( listener );
+		DockElement location = listener.getTreeLocation();
+		if( location == null ){
+			Object[] result = remove( rootListeners, listener );
+			if( result != rootListeners ){
+				rootListeners = result;
+				size--;
+			}
+		}
+		else{
+			Object[] bucket = listeners.get( location );
+			if( bucket != null ){
+				Object[] result = remove( bucket, listener );
+				if( result != bucket ){
+					if( result.length == 0 )
+						listeners.remove( location );
+					else
+						listeners.put( location, result );
+					size--;
+				}
+			}
+		}
+	}
+	
+	private Object[] add( Object[] array, L listener ){
+		Object[] result = new Object[ array.length+1 ];
+		System.arraycopy( array, 0, result, 0, array.length );
+		result[ array.length ] = listener;
+		return result;
+	}
+	
+	private Object[] remove( Object[] array, L listener ){
+		for( int i = 0; i < array.length; i++ ){
+			if( array[i] == null ? listener == null : array[i].equals( listener )){
+				Object[] result = new Object[ array.length-1 ];
+				System.arraycopy( array, 0, result, 0, i );
+				System.arraycopy( array, i+1, result, i, result.length-i );
+				return result;
+			}
+		}
+		return array;
 	}
 	
 	/**
@@ -66,7 +124,7 @@ public class LocatedListenerList<L extends LocatedListener> {
 	 * @return the number of listeners
 	 */
 	public int size(){
-		return listeners.size();
+		return size;
 	}
 	
     /**
@@ -77,36 +135,89 @@ public class LocatedListenerList<L extends LocatedListener> {
      * @return the ordered list of observers
      */
     public List<L> affected( DockElement element ){
-        List<L> list = new LinkedList<L>();
-        for( L listener : listeners ){
-            DockElement location = listener.getTreeLocation();
-            if( location == null )
-                list.add( listener );
-            else if( element != null && DockUtilities.isAncestor( location, element ))
-                list.add( listener );
-        }
-        
-        Collections.sort( list, new Comparator<L>(){
-            public int compare( L o1, L o2 ) {
-                DockElement a = o1.getTreeLocation();
-                DockElement b = o2.getTreeLocation();
-                
-                if( a == b )
-                    return 0;
-                
-                if( a == null )
-                    return -1;
-                
-                if( b == null )
-                    return 1;
-                
-                if( DockUtilities.isAncestor( a, b ))
-                    return -1;
-                
-                return 1;
-            }
+        final List<L> list = new ArrayList<L>();
+        dispatch( element, null, new Handler<L, Object>(){
+        	public boolean handle( L listener, DockElement element, Object event ){
+        		list.add( listener );
+        		return false;
+        	}
         });
-        
         return list;
     }
+    
+    /**
+     * Calls <code>handler</code> for all the {@link LocatedListener}s which are affected
+     * by an event which occurs on <code>element</code>. The listeners are visited in the
+     * same order as {@link #affected(DockElement)} would list them. This method
+     * does not create any objects, listeners can be added or removed while this method is 
+     * running, the modifications will only be visible to the next call.
+     * @param <E> the kind of event
+     * @param element the element which is the source of the event
+     * @param event the event itself
+     * @param handler called for each affected listener until it returns <code>true</code>
+     * @return <code>true</code> if <code>handler</code> returned <code>true</code>,
+     * <code>false</code> if all the affected listeners were visited
+     */
+    public <E> boolean dispatch( DockElement element, E event, Handler<? super L, ? super E> handler ){
+    	if( handle( rootListeners, element, event, handler ))
+    		return true;
+    	
+    	if( element == null || listeners.isEmpty() )
+    		return false;
+    	
+    	Dockable dockable = element.asDockable();
+    	if( dockable == null )
+    		return false;
+    	
+    	return dispatch( dockable, element, event, handler );
+    }
+    
+    /**
+     * Visits the listeners of the ancestors of <code>dockable</code>, starting with
+     * the oldest ancestor, and then the listeners of <code>dockable</code>.
+     */
+    private <E> boolean dispatch( Dockable dockable, DockElement element, E event, Handler<? super L, ? super E> handler ){
+    	DockStation station = dockable.getDockParent();
+    	if( station != null ){
+    		Dockable parent = station.asDockable();
+    		if( parent != null ){
+    			if( dispatch( parent, element, event, handler ))
+    				return true;
+    		}
+    		else if( handle( listeners.get( station ), element, event, handler )){
+    			return true;
+    		}
+    	}
+    	
+    	return handle( listeners.get( dockable ), element, event, handler );
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <E> boolean handle( Object[] bucket, DockElement element, E event, Handler<? super L, ? super E> handler ){
+    	if( bucket != null ){
+    		for( Object listener : bucket ){
+    			if( handler.handle( (L)listener, element, event ))
+    				return true;
+    		}
+    	}
+    	return false;
+    }
+    
+    /**
+     * Forwards an event to a {@link LocatedListener}, used by {@link LocatedListenerList#dispatch(DockElement, Object, Handler)}.
+     * @param <L> the kind of listener
+     * @param <E> the kind of event
+     * @author Benjamin Sigg
+     */
+    public static interface Handler<L, E>{
+    	/**
+    	 * Forwards <code>event</code> to <code>listener</code>.
+    	 * @param listener the listener to call
+    	 * @param element the source of the event
+    	 * @param event the event
+    	 * @return <code>true</code> if the event was consumed and no other listener
+    	 * must be called
+    	 */
+    	public boolean handle( L listener, DockElement element, E event );
+    }
 }
@@ -25,11 +25,14 @@
  */
 package bibliothek.gui.dock.frontend;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -43,6 +46,7 @@ import bibliothek.gui.dock.DockElement;
 import bibliothek.gui.dock.DockFactory;
 import bibliothek.gui.dock.layout.AdjacentDockFactory;
 import bibliothek.gui.dock.layout.DockLayoutComposition;
+import bibliothek.gui.dock.layout.DockLayoutInfo;
 import bibliothek.gui.dock.layout.DockSituation;
 import bibliothek.gui.dock.layout.DockSituationIgnore;
 import bibliothek.gui.dock.layout.DockableProperty;
@@ -53,7 +57,9 @@ import bibliothek.util.xml.XException;
 
 /**
  * This default implementation of a {@link LayoutChangeStrategy} heavily depends on the methods of {@link PredefinedDockSituation}. It
- * also offers a set of methods that may be interesting for subclasses which do not use a {@link PredefinedDockSituation}. 
+ * also offers a set of methods that may be interesting for subclasses which do not use a {@link PredefinedDockSituation}.<br>
+ * When a new layout is applied, this strategy first searches for those parts of the current layout that do not
+ * change. These parts are neither torn down nor rebuilt, they are only moved to their new parent.
  * @author Benjamin Sigg
  */
 public class DefaultLayoutChangeStrategy implements LayoutChangeStrategy{
@@ -79,7 +85,23 @@ public class DefaultLayoutChangeStrategy implements LayoutChangeStrategy{
         	return false;
         }
         
-        // split up all child parent relations
+        // search the parts of the layout that do not change
+        Map<DockLayoutInfo, DockElement> reused = listReusable( frontend, situation, access, entry );
+        access.setReused( reused );
+        
+        // split up all child parent relations, except those inside the unchanged parts
+        if( !reused.isEmpty() ){
+        	final DockSituationIgnore baseIgnore = ignore;
+        	final Set<DockElement> keep = new HashSet<DockElement>( reused.values() );
+        	ignore = new DockSituationIgnore(){
+        		public boolean ignoreChildren( DockStation station ){
+        			return keep.contains( station ) || baseIgnore.ignoreChildren( station );
+        		}
+        		public boolean ignoreElement( DockElement element ){
+        			return baseIgnore.ignoreElement( element );
+        		}
+        	};
+        }
         frontend.clean( ignore );
         
         // apply the new layout
@@ -236,11 +258,154 @@ public class DefaultLayoutChangeStrategy implements LayoutChangeStrategy{
                     
                 }
                 
-                situation.convert( layout );
+                situation.convert( layout, setting.getReused() );
             }
         }
     }
     
+    /**
+     * Compares the current layout of <code>frontend</code> with the layout of <code>setting</code> and
+     * searches for subtrees that are equal in both layouts. The elements of these subtrees are reused as
+     * they are: they keep their children, displayers and titles. A subtree is found even if it moved to
+     * another parent or to another root. Two subtrees are equal if the factories of <code>situation</code>
+     * write the same bytes for their elements and if all their children are equal.
+     * @param frontend the caller of this method
+     * @param situation used to convert the current and the new layout
+     * @param setting the new layout
+     * @param entry whether the layout is a full or regular layout
+     * @return the roots of the unchanged subtrees, the keys are the {@link DockLayoutInfo}s of the new
+     * layout, the values the elements which already have that layout. Not <code>null</code>, may be empty
+     * @throws IOException if the new layout cannot be converted
+     * @throws XException if the new layout cannot be converted
+     */
+    protected Map<DockLayoutInfo, DockElement> listReusable( DockFrontendInternals frontend, DockSituation situation, SettingAccess setting, boolean entry ) throws IOException, XException{
+    	Map<DockLayoutInfo, DockElement> result = new HashMap<DockLayoutInfo, DockElement>();
+    	
+    	// signatures are written uncompressed by a situation of their own, "situation" is not modified
+    	DockSituation writer = createSituation( frontend, entry, true );
+    	writer.setCompressed( false );
+    	LayoutSignatures signatures = new LayoutSignatures( writer );
+    	
+    	// the current layout
+    	Map<Integer, List<CurrentNode>> available = new HashMap<Integer, List<CurrentNode>>();
+    	for( RootInfo info : frontend.getRoots() ){
+    		Map<DockLayoutComposition, DockElement> elements = new HashMap<DockLayoutComposition, DockElement>();
+    		DockLayoutComposition current = situation.convert( info.getStation(), elements );
+    		if( current != null ){
+    			indexCurrent( null, current, elements, signatures, available );
+    		}
+    	}
+    	
+    	if( available.isEmpty() ){
+    		return result;
+    	}
+    	
+    	// the new layout
+    	for( RootInfo info : frontend.getRoots() ){
+    		DockLayoutComposition original = setting.getRoot( info.getName() );
+    		if( original != null ){
+    			DockLayoutComposition target = situation.fillMissing( original );
+    			Map<DockLayoutComposition, Integer> targetSignatures = new HashMap<DockLayoutComposition, Integer>();
+    			signTarget( original, target, signatures, targetSignatures );
+    			matchTarget( target, targetSignatures, available, result );
+    		}
+    	}
+    	
+    	return result;
+    }
+    
+    /**
+     * Computes the signatures of <code>composition</code> and all its children and stores them
+     * in <code>available</code>.
+     * @return the signature of <code>composition</code> or -1 if <code>composition</code> cannot be reused
+     */
+    private int indexCurrent( CurrentNode parent, DockLayoutComposition composition, Map<DockLayoutComposition, DockElement> elements,
+    		LayoutSignatures signatures, Map<Integer, List<CurrentNode>> available ){
+    	
+    	CurrentNode node = new CurrentNode( parent, elements.get( composition ) );
+    	
+    	List<DockLayoutComposition> children = composition.getChildren();
+    	int[] childSignatures = new int[ children.size() ];
+    	boolean valid = node.element != null && !composition.isIgnoreChildren();
+    	
+    	for( int i = 0; i < childSignatures.length; i++ ){
+    		childSignatures[i] = indexCurrent( node, children.get( i ), elements, signatures, available );
+    		valid = valid && childSignatures[i] >= 0;
+    	}
+    	
+    	if( !valid ){
+    		return -1;
+    	}
+    	
+    	int signature = signatures.get( composition, childSignatures );
+    	if( signature >= 0 ){
+    		List<CurrentNode> list = available.get( signature );
+    		if( list == null ){
+    			list = new LinkedList<CurrentNode>();
+    			available.put( signature, list );
+    		}
+    		list.add( node );
+    	}
+    	return signature;
+    }
+    
+    /**
+     * Computes the signatures of <code>target</code> and all its children. Only compositions whose
+     * {@link DockLayoutInfo} was not replaced by {@link DockSituation#fillMissing(DockLayoutComposition)} get
+     * a signature, because only these compositions will be found again when the layout is applied.
+     * @param original the composition before missing information was filled in
+     * @param target <code>original</code> with missing information filled in
+     * @return the signature of <code>target</code> or -1 if it cannot be reused
+     */
+    private int signTarget( DockLayoutComposition original, DockLayoutComposition target, LayoutSignatures signatures, Map<DockLayoutComposition, Integer> result ){
+    	List<DockLayoutComposition> originalChildren = original.getChildren();
+    	List<DockLayoutComposition> children = target.getChildren();
+    	
+    	boolean valid = original.getLayout() == target.getLayout() &&
+    		target.getLayout() != null &&
+    		target.getLayout().getKind() == DockLayoutInfo.Data.DOCK_LAYOUT &&
+    		!target.isIgnoreChildren() &&
+    		originalChildren.size() == children.size();
+    	
+    	int[] childSignatures = new int[ children.size() ];
+    	for( int i = 0; i < childSignatures.length; i++ ){
+    		if( i < originalChildren.size() ){
+    			childSignatures[i] = signTarget( originalChildren.get( i ), children.get( i ), signatures, result );
+    		}
+    		else{
+    			childSignatures[i] = -1;
+    		}
+    		valid = valid && childSignatures[i] >= 0;
+    	}
+    	
+    	int signature = valid ? signatures.get( target, childSignatures ) : -1;
+    	result.put( target, signature );
+    	return signature;
+    }
+    
+    /**
+     * Searches the largest subtrees of <code>target</code> which are equal to some subtree of the current layout.
+     */
+    private void matchTarget( DockLayoutComposition target, Map<DockLayoutComposition, Integer> signatures, Map<Integer, List<CurrentNode>> available, Map<DockLayoutInfo, DockElement> result ){
+    	int signature = signatures.get( target );
+    	if( signature >= 0 ){
+    		List<CurrentNode> list = available.get( signature );
+    		if( list != null ){
+    			for( CurrentNode node : list ){
+    				if( node.isAvailable() ){
+    					node.use();
+    					result.put( target.getLayout(), node.element );
+    					return;
+    				}
+    			}
+    		}
+    	}
+    	
+    	for( DockLayoutComposition child : target.getChildren() ){
+    		matchTarget( child, signatures, available, result );
+    	}
+    }
+    
     /**
      * Applies <code>setting</code> to the invisible elements.
      * @param frontend the caller of this method
@@ -433,6 +598,8 @@ public class DefaultLayoutChangeStrategy implements LayoutChangeStrategy{
      */
     protected class SettingAccess{
     	private Setting setting;
+    	/** the elements which are not changed by {@link #setting} */
+    	private Map<DockLayoutInfo, DockElement> reused;
     	
     	/**
     	 * Creates a new wrapper.
@@ -450,6 +617,22 @@ public class DefaultLayoutChangeStrategy implements LayoutChangeStrategy{
 			return setting;
 		}
     	
+    	/**
+    	 * Sets the elements of the current layout which are not changed by this setting.
+    	 * @param reused the unchanged elements, see {@link DefaultLayoutChangeStrategy#listReusable(DockFrontendInternals, DockSituation, SettingAccess, boolean)}, can be <code>null</code>
+    	 */
+    	public void setReused( Map<DockLayoutInfo, DockElement> reused ){
+			this.reused = reused;
+		}
+    	
+    	/**
+    	 * Gets the elements of the current layout which are not changed by this setting.
+    	 * @return the unchanged elements, can be <code>null</code>
+    	 */
+    	public Map<DockLayoutInfo, DockElement> getReused(){
+			return reused;
+		}
+    	
         /**
          * Gets the layout of a root.
          * @param root the root
@@ -522,4 +705,118 @@ public class DefaultLayoutChangeStrategy implements LayoutChangeStrategy{
             setting.fillMissing( situation );
         }
     }
+    
+    /**
+     * An element of the current layout, used to find the parts of the layout that do not change.
+     * @author Benjamin Sigg
+     */
+    private static class CurrentNode{
+    	/** the parent of this node */
+    	private CurrentNode parent;
+    	/** the element represented by this node */
+    	private DockElement element;
+    	/** whether this node or one of its parents is already reused */
+    	private boolean used = false;
+    	/** whether one of the children of this node is already reused */
+    	private boolean broken = false;
+    	
+    	/**
+    	 * Creates a new node.
+    	 * @param parent the parent of this node, can be <code>null</code>
+    	 * @param element the element represented by this node
+    	 */
+    	public CurrentNode( CurrentNode parent, DockElement element ){
+    		this.parent = parent;
+    		this.element = element;
+    	}
+    	
+    	/**
+    	 * Tells whether this node and all its children can still be reused.
+    	 * @return whether this subtree is unused
+    	 */
+    	public boolean isAvailable(){
+    		if( broken ){
+    			return false;
+    		}
+    		CurrentNode node = this;
+    		while( node != null ){
+    			if( node.used ){
+    				return false;
+    			}
+    			node = node.parent;
+    		}
+    		return true;
+    	}
+    	
+    	/**
+    	 * Marks this subtree as reused.
+    	 */
+    	public void use(){
+    		used = true;
+    		CurrentNode node = parent;
+    		while( node != null && !node.broken ){
+    			node.broken = true;
+    			node = node.parent;
+    		}
+    	}
+    }
+    
+    /**
+     * Assigns a number to each distinct subtree of a layout. Two subtrees get the same
+     * number if their roots are written as the same bytes and if their children have the
+     * same numbers.
+     * @author Benjamin Sigg
+     */
+    private static class LayoutSignatures{
+    	/** used to write the layouts */
+    	private DockSituation situation;
+    	/** the numbers of all the known subtrees */
+    	private Map<String, Integer> signatures = new HashMap<String, Integer>();
+    	/** buffer used to write layouts */
+    	private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    	
+    	/**
+    	 * Creates a new set of signatures.
+    	 * @param situation used to write layouts
+    	 */
+    	public LayoutSignatures( DockSituation situation ){
+    		this.situation = situation;
+    	}
+    	
+    	/**
+    	 * Gets the number of the subtree <code>composition</code>.
+    	 * @param composition the root of the subtree
+    	 * @param children the numbers of the children of <code>composition</code>
+    	 * @return the number or -1 if <code>composition</code> cannot be written
+    	 */
+    	public int get( DockLayoutComposition composition, int[] children ){
+    		DockLayoutComposition single = new DockLayoutComposition( composition.getLayout(), composition.getAdjacent(), 
+    				new ArrayList<DockLayoutComposition>( 0 ), composition.isIgnoreChildren() );
+    		
+    		buffer.reset();
+    		try{
+    			DataOutputStream out = new DataOutputStream( buffer );
+    			situation.writeComposition( single, out );
+    			out.writeInt( children.length );
+    			for( int child : children ){
+    				out.writeInt( child );
+    			}
+    			out.flush();
+    			
+    			String key = buffer.toString( "ISO-8859-1" );
+    			Integer signature = signatures.get( key );
+    			if( signature == null ){
+    				signature = signatures.size();
+    				signatures.put( key, signature );
+    			}
+    			return signature;
+    		}
+    		catch( IOException ex ){
+    			return -1;
+    		}
+    		catch( IllegalArgumentException ex ){
+    			return -1;
+    		}
+    	}
+    }
 }
@@ -36,6 +36,8 @@ import bibliothek.util.Version;
 import bibliothek.util.xml.XAttribute;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 
 /**
@@ -256,6 +258,58 @@ public class Setting{
         }
     }
     
+    /**
+     * Writes the properties of this setting in xml format directly into a stream. The
+     * output is the same as the output of {@link #writeXML(DockSituation, PropertyTransformer, boolean, XElement)},
+     * subclasses overriding that method need to override this method as well.
+     * @param situation can be used to write {@link DockLayout}s
+     * @param transformer can be used to write {@link DockableProperty}s
+     * @param entry if <code>true</code>, then this setting is used as one of
+     * the settings a user can choose. If <code>false</code> then this setting
+     * is used as the final setting that is written when the application
+     * shuts down.
+     * @param out the stream to write into, the attributes of the current element
+     * are not changed
+     * @throws IOException if an I/O-error occurs
+     */
+    public void writeXML( DockSituation situation, PropertyTransformer transformer, boolean entry, XStreamWriter out ) throws IOException{
+        out.startElement( "roots" );
+        for( String root : getRootKeys() ){
+            out.startElement( "root" );
+            out.attribute( "name", root );
+            situation.writeCompositionXML( getRoot( root ), out );
+            out.endElement();
+        }
+        out.endElement();
+        
+        out.startElement( "children" );
+        for( int i = 0, n = getInvisibleCount(); i<n; i++ ){
+            out.startElement( "child" );
+            out.attribute( "key", getInvisibleKey( i ) );
+            String root = getInvisibleRoot( i );
+            if( root != null ){
+                out.attribute( "root", root );
+            }
+            
+            DockableProperty location = getInvisibleLocation( i );
+            out.attribute( "location", String.valueOf( location != null ) );
+            if( location != null ){
+                XElement xlocation = new XElement( "location" );
+                transformer.writeXML( location, xlocation );
+                out.element( xlocation );
+            }
+            
+            DockLayoutComposition layout = getInvisibleLayout( i );
+            if( layout != null ){
+                out.startElement( "layout" );
+                situation.writeCompositionXML( layout, out );
+                out.endElement();
+            }
+            out.endElement();
+        }
+        out.endElement();
+    }
+    
     /**
      * Reads the properties of this setting. Old properties are deleted without
      * further notice.
@@ -391,6 +445,100 @@ public class Setting{
         }
     }
     
+    /**
+     * Reads the properties of this setting from the current element of <code>in</code>
+     * and closes that element. Old properties are deleted without further notice. The
+     * format is the same as the format of {@link #readXML(DockSituation, PropertyTransformer, boolean, XElement)},
+     * subclasses overriding that method need to override this method as well.
+     * @param situation can be used to read {@link DockLayout}s
+     * @param transformer can be used to read {@link DockableProperty}s
+     * @param entry if <code>true</code>, then this setting is used as one of
+     * the settings a user can choose. If <code>false</code> then this setting
+     * is used as the first setting that is read when the application
+     * starts up.
+     * @param in the stream to read from
+     * @throws IOException if an I/O-error occurs
+     */
+    public void readXML( DockSituation situation, PropertyTransformer transformer, boolean entry, XStreamReader in ) throws IOException{
+        roots.clear();
+        dockables.clear();
+        
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "roots" )){
+                while( (name = in.nextElement()) != null ){
+                    if( name.equals( "root" )){
+                        String root = in.getString( "name" );
+                        DockLayoutComposition composition = situation.readCompositionXML( in );
+                        if( composition != null ){
+                            putRoot( root, composition );
+                        }
+                    }
+                    else{
+                        in.skipElement();
+                    }
+                }
+            }
+            else if( name.equals( "children" )){
+                while( (name = in.nextElement()) != null ){
+                    if( name.equals( "child" )){
+                        readInvisible( situation, transformer, in );
+                    }
+                    else{
+                        in.skipElement();
+                    }
+                }
+            }
+            else{
+                in.skipElement();
+            }
+        }
+    }
+    
+    /**
+     * Reads an invisible element from the current element of <code>in</code> and closes
+     * the current element.
+     * @param situation can be used to read {@link DockLayout}s
+     * @param transformer can be used to read {@link DockableProperty}s
+     * @param in the stream to read from
+     * @throws IOException if an I/O-error occurs
+     */
+    private void readInvisible( DockSituation situation, PropertyTransformer transformer, XStreamReader in ) throws IOException{
+        String key = in.getString( "key" );
+        String root = null;
+        
+        XAttribute aroot = in.getAttribute( "root" );
+        if( aroot != null ){
+            root = aroot.getString();
+        }
+        
+        XAttribute alocation = in.getAttribute( "location" );
+        if( alocation == null ){
+            // old style
+            addInvisible( key, root, null, transformer.readXML( in.readElement() ) );
+            return;
+        }
+        
+        boolean hasLocation = alocation.getBoolean();
+        DockableProperty location = null;
+        DockLayoutComposition layout = null;
+        
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "location" ) && hasLocation && location == null ){
+                location = transformer.readXML( in.readElement() );
+            }
+            else if( name.equals( "layout" ) && layout == null ){
+                layout = situation.readCompositionXML( in );
+            }
+            else{
+                in.skipElement();
+            }
+        }
+        
+        addInvisible( key, root, layout, location );
+    }
+    
     /**
      * Describes the location of an invisible element.
      * @author Benjamin Sigg
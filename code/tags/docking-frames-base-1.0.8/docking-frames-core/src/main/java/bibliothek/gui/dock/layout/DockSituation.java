@@ -36,6 +36,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import bibliothek.gui.DockStation;
 import bibliothek.gui.Dockable;
@@ -56,9 +58,15 @@ import bibliothek.gui.dock.station.support.PlaceholderStrategy;
 import bibliothek.gui.dock.util.DockUtilities;
 import bibliothek.util.Path;
 import bibliothek.util.Version;
+import bibliothek.util.io.BoundedInputStream;
+import bibliothek.util.io.CompactIO;
+import bibliothek.util.io.PatchableDataOutputStream;
+import bibliothek.util.io.StringTable;
 import bibliothek.util.xml.XAttribute;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * A <code>DockSituation</code> is a converter: the relationship of {@link DockStation}s and {@link Dockable}s,
@@ -84,6 +92,9 @@ public class DockSituation {
     
     /** strategy used to filter placeholders */
     private PlaceholderStrategy placeholders;
+    
+    /** whether binary compositions are compressed */
+    private boolean compressed = true;
 
     /**
      * Constructs a new DockSituation and sets some factories which are
@@ -144,6 +155,25 @@ public class DockSituation {
 		return placeholders;
 	}
     
+    /**
+     * Sets whether {@link #writeComposition(DockLayoutComposition, DataOutputStream)} compresses
+     * its output. Compressed and uncompressed compositions can both be read regardless of
+     * this setting. The default value is <code>true</code>.
+     * @param compressed whether to compress binary compositions
+     */
+    public void setCompressed( boolean compressed ){
+		this.compressed = compressed;
+	}
+    
+    /**
+     * Tells whether binary compositions are compressed.
+     * @return whether compression is used
+     * @see #setCompressed(boolean)
+     */
+    public boolean isCompressed(){
+		return compressed;
+	}
+    
     /**
      * Gets a placeholder for <code>element</code> using the current {@link PlaceholderStrategy}.
      * @param element some element, not <code>null</code>
@@ -232,8 +262,24 @@ public class DockSituation {
      * @throws ClassCastException if an element does not specify the correct
      * {@link DockFactory}.
      */
-    @SuppressWarnings("unchecked")
     public DockLayoutComposition convert( DockElement element ){
+        return convert( element, null );
+    }
+    
+    /**
+     * Converts the layout of <code>element</code> and all its children into a 
+     * {@link DockLayoutComposition}. Each composition that is created is stored
+     * in <code>elements</code> together with the element it was created from.
+     * @param element the element to convert
+     * @param elements a map that is filled with all the compositions and their elements, can be <code>null</code>
+     * @return the composition or <code>null</code> if the element is ignored
+     * @throws IllegalArgumentException if one element has an unknown id of
+     * a {@link DockFactory}.
+     * @throws ClassCastException if an element does not specify the correct
+     * {@link DockFactory}.
+     */
+    @SuppressWarnings("unchecked")
+    public DockLayoutComposition convert( DockElement element, Map<DockLayoutComposition, DockElement> elements ){
         if( ignoreElement( element ))
             return null;
 
@@ -254,7 +300,7 @@ public class DockSituation {
                 int index = 0;
                 for( int i = 0, n = station.getDockableCount(); i<n; i++ ){
                     Dockable dockable = station.getDockable( i );
-                    DockLayoutComposition composition = convert( dockable );
+                    DockLayoutComposition composition = convert( dockable, elements );
                     if( composition != null ){
                         children.add( composition );
                         ids.put( dockable, index++ );
@@ -279,7 +325,11 @@ public class DockSituation {
 
         DockLayoutInfo info = new DockLayoutInfo( layout );
         info.setPlaceholder( getPlaceholder( element ) );
-        return new DockLayoutComposition( info, adjacent, children, ignore );
+        DockLayoutComposition result = new DockLayoutComposition( info, adjacent, children, ignore );
+        if( elements != null ){
+            elements.put( result, element );
+        }
+        return result;
     }
 
     /**
@@ -289,11 +339,32 @@ public class DockSituation {
      * @return the new element, can be something else then a {@link DockElement}
      * if the factory for <code>composition</code> was not found
      */
-    @SuppressWarnings("unchecked")
     public DockElement convert( DockLayoutComposition composition ){
+        return convert( composition, null );
+    }
+    
+    /**
+     * Reads the contents of <code>composition</code> and tries to create a
+     * {@link DockElement} that matches the composition. Compositions whose {@link DockLayoutInfo}
+     * is a key of <code>reuse</code> are not converted, instead the associated element is used
+     * as it is. These elements and their children are neither created nor modified.
+     * @param composition the composition to analyze
+     * @param reuse elements that already have the layout described by some {@link DockLayoutInfo}s, can be <code>null</code>
+     * @return the new element, can be something else then a {@link DockElement}
+     * if the factory for <code>composition</code> was not found
+     */
+    @SuppressWarnings("unchecked")
+    public DockElement convert( DockLayoutComposition composition, Map<DockLayoutInfo, DockElement> reuse ){
         DockLayoutInfo info = composition.getLayout();
         if( info == null )
             return null;
+        
+        if( reuse != null ){
+            DockElement element = reuse.get( info );
+            if( element != null ){
+                return element;
+            }
+        }
 
         DockLayout<?> layout = info.getDataLayout();
         if( layout == null )
@@ -308,7 +379,7 @@ public class DockSituation {
 
         if( composition.isIgnoreChildren() ){
             for( DockLayoutComposition childComposition : composition.getChildren() ){
-                convert( childComposition );
+                convert( childComposition, reuse );
             }
 
             result = factory.layout( layout.getData() );
@@ -318,7 +389,7 @@ public class DockSituation {
             int index = 0;
 
             for( DockLayoutComposition childComposition : composition.getChildren() ){
-                DockElement child = convert( childComposition );
+                DockElement child = convert( childComposition, reuse );
                 if( child != null ){
                     Dockable dockable = child.asDockable();
                     if( dockable != null ){
@@ -362,33 +433,64 @@ public class DockSituation {
      * @throws IOException if an I/O-error occurs
      */
     public void writeComposition( DockLayoutComposition composition, DataOutputStream out ) throws IOException{
-        Version.write( out, Version.VERSION_1_0_8 );
-        writeCompositionStream( composition, out );
+        Version.write( out, Version.VERSION_1_0_8b );
+        out.writeBoolean( compressed );
+        
+        if( compressed ){
+            PatchableDataOutputStream buffer = new PatchableDataOutputStream();
+            writeCompositionStream( composition, buffer, new StringTable() );
+            buffer.close();
+            
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DeflaterOutputStream deflater = new DeflaterOutputStream( bytes );
+            buffer.writeTo( deflater );
+            deflater.close();
+            
+            out.writeInt( bytes.size() );
+            bytes.writeTo( out );
+        }
+        else if( out instanceof PatchableDataOutputStream ){
+            writeCompositionStream( composition, (PatchableDataOutputStream)out, new StringTable() );
+        }
+        else{
+            PatchableDataOutputStream buffer = new PatchableDataOutputStream();
+            writeCompositionStream( composition, buffer, new StringTable() );
+            buffer.writeTo( out );
+        }
     }
 
     /**
      * Writes the contents of <code>composition</code> and all its children
-     * to <code>out</code>.
+     * to <code>out</code>. The data of the factories is written directly into <code>out</code>,
+     * the length of each entry is filled in once the entry is written. Placeholders and
+     * the identifiers of factories are written only once, afterwards they are referenced
+     * by their index in <code>strings</code>.
      * @param composition the composition to write, should be created by
      * <code>this</code> {@link DockSituation} or a <code>DockSituation</code> with
      * similar properties.
      * @param out the stream to write into
+     * @param strings the strings that were already written into <code>out</code>
      * @throws IOException if an I/O-error occurs
      */
     @SuppressWarnings("unchecked")
-    private void writeCompositionStream( DockLayoutComposition composition, DataOutputStream out ) throws IOException{
+    private void writeCompositionStream( DockLayoutComposition composition, PatchableDataOutputStream out, StringTable strings ) throws IOException{
         DockLayoutInfo info = composition.getLayout();
         
         // placeholder
         Path placeholder = info.getPlaceholder();
-        out.writeBoolean( placeholder != null );
-        if( placeholder != null ){
-        	out.writeUTF( placeholder.toString() );
-        }
+        strings.write( out, placeholder == null ? null : placeholder.toString() );
     	
         if( info.getKind() == DockLayoutInfo.Data.BYTE ){
-            // data
-            out.write( info.getDataByte() );
+            // data, the header of the entry is replaced by the compact header
+            byte[] entry = info.getDataByte();
+            DataInputStream header = new DataInputStream( new ByteArrayInputStream( entry ));
+            String factoryId = header.readUTF();
+            int count = header.readInt();
+            header.close();
+            
+            strings.write( out, factoryId );
+            out.writeInt( count );
+            out.write( entry, entry.length - count, count );
         }
         else if( info.getKind() == DockLayoutInfo.Data.DOCK_LAYOUT ){
             DockLayout<?> layout = info.getDataLayout();
@@ -397,16 +499,12 @@ public class DockSituation {
                 throw new IOException( "Missing factory: " + layout.getFactoryID() );
             
             // factory
-            out.writeUTF( getID( factory ) );
+            strings.write( out, getID( factory ) );
             
             // contents
-            ByteArrayOutputStream bout = new ByteArrayOutputStream();
-            DataOutputStream dout = new DataOutputStream( bout );
-            factory.write( layout.getData(), dout );
-            dout.close();
-
-            out.writeInt( bout.size() );
-            bout.writeTo( out );
+            long block = out.beginBlock();
+            factory.write( layout.getData(), out );
+            out.endBlock( block );
         }
         else{
             // there is nothing to write...
@@ -416,23 +514,19 @@ public class DockSituation {
         // adjacent
         List<DockLayout<?>> adjacentLayouts = composition.getAdjacent();
         if( adjacentLayouts == null ){
-            out.writeInt( 0 );
+            CompactIO.writeUnsignedVarInt( out, 0 );
         }
         else{
-            out.writeInt( adjacentLayouts.size() );
+            CompactIO.writeUnsignedVarInt( out, adjacentLayouts.size() );
             for( DockLayout<?> adjacentLayout : adjacentLayouts ){
                 AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( adjacentLayout.getFactoryID() );
                 if( adjacentFactory == null )
                     throw new IOException( "Missing adjacent factory: " + adjacentLayout.getFactoryID() );
 
-                ByteArrayOutputStream adjacentBOut = new ByteArrayOutputStream();
-                DataOutputStream adjacentOut = new DataOutputStream( adjacentBOut );
-                adjacentFactory.write( adjacentLayout.getData(), adjacentOut );
-                adjacentOut.close();
-
-                out.writeUTF( getAdjacentID( adjacentFactory ) );
-                out.writeInt( adjacentBOut.size() );
-                adjacentBOut.writeTo( out );
+                strings.write( out, getAdjacentID( adjacentFactory ) );
+                long block = out.beginBlock();
+                adjacentFactory.write( adjacentLayout.getData(), out );
+                out.endBlock( block );
             }
         }
 
@@ -441,9 +535,9 @@ public class DockSituation {
 
         // children
         List<DockLayoutComposition> children = composition.getChildren();
-        out.writeInt( children.size() );
+        CompactIO.writeUnsignedVarInt( out, children.size() );
         for( DockLayoutComposition child : children ){
-            writeCompositionStream( child, out );
+            writeCompositionStream( child, out, strings );
         }
     }
 
@@ -456,8 +550,74 @@ public class DockSituation {
     public DockLayoutComposition readComposition( DataInputStream in ) throws IOException{
         Version version = Version.read( in );
         version.checkCurrent();
+        
+        if( Version.VERSION_1_0_8b.compareTo( version ) <= 0 ){
+            if( in.readBoolean() ){
+                int length = in.readInt();
+                BoundedInputStream block = new BoundedInputStream( in, length );
+                DataInputStream inflater = new DataInputStream( new InflaterInputStream( block ));
+                DockLayoutComposition result = readCompositionStream( inflater, new StringTable() );
+                inflater.close();
+                block.skipRemaining();
+                return result;
+            }
+            else{
+                return readCompositionStream( in, new StringTable() );
+            }
+        }
+        
         return readCompositionStream( in, version );
     }
+    
+    /**
+     * Reads one {@link DockLayoutComposition} and all its children, the composition
+     * must have been written in the compact format of version 1.0.8b.
+     * @param in the stream to read from
+     * @param strings the strings that were already read from <code>in</code>
+     * @return the new composition
+     * @throws IOException if an I/O-error occurs
+     */
+    private DockLayoutComposition readCompositionStream( DataInputStream in, StringTable strings ) throws IOException{
+        // placeholder
+        String placeholder = strings.read( in );
+        Path entryPlaceholder = placeholder == null ? null : new Path( placeholder );
+        
+        // factory
+        String factoryId = strings.read( in );
+        if( factoryId == null ){
+            throw new IOException( "missing identifier of factory" );
+        }
+        int count = in.readInt();
+        DockLayoutInfo info = readEntry( factoryId, count, in, entryPlaceholder, null );
+        
+        // adjacent
+        List<DockLayout<?>> adjacentLayouts = null;
+        int layoutCount = CompactIO.readUnsignedVarInt( in );
+        if( layoutCount > 0 ){
+            adjacentLayouts = new ArrayList<DockLayout<?>>( layoutCount );
+            for( int i = 0; i < layoutCount; i++ ){
+                String adjacentFactoryId = strings.read( in );
+                int adjacentCount = in.readInt();
+                DockLayout<?> adjacentLayout = readAdjacent( adjacentFactoryId, adjacentCount, in );
+                if( adjacentLayout != null ){
+                    adjacentLayouts.add( adjacentLayout );
+                }
+            }
+        }
+        
+        // ignore
+        boolean ignore = in.readBoolean();
+        
+        // children
+        int childCount = CompactIO.readUnsignedVarInt( in );
+        List<DockLayoutComposition> children = new ArrayList<DockLayoutComposition>( childCount );
+        for( int i = 0; i < childCount; i++ ){
+            children.add( readCompositionStream( in, strings ));
+        }
+        
+        // result
+        return new DockLayoutComposition( info, adjacentLayouts, children, ignore );
+    }
 
     /**
      * Reads one {@link DockLayoutComposition} and all its children.
@@ -466,7 +626,6 @@ public class DockSituation {
      * @return the new composition or <code>null</code> if the factory was missing
      * @throws IOException if an I/O-error occurs
      */
-    @SuppressWarnings("unchecked")
     private DockLayoutComposition readCompositionStream( DataInputStream in, Version version ) throws IOException{
         // factory
     	Path entryPlaceholder = null;
@@ -477,9 +636,7 @@ public class DockSituation {
 	   		}
     	}
     	
-        byte[] entry = readBuffer( in );
-
-        DockLayoutInfo info = readEntry( entry, entryPlaceholder );
+        DockLayoutInfo info = readEntry( in, entryPlaceholder );
 
         List<DockLayout<?>> adjacentLayouts = null;
         if( Version.VERSION_1_0_7.compareTo( version ) <= 0 ){
@@ -491,34 +648,9 @@ public class DockSituation {
                 for( int i = 0; i < layoutCount; i++ ){
                     String adjacentFactoryId = in.readUTF();
                     int adjacentCount = in.readInt();
-                    AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( adjacentFactoryId );
-                    if( adjacentFactory == null ){
-                        if( missingAdjacent == null ){
-                            // skip
-                            while( adjacentCount > 0 ){
-                                int skipped = (int)in.skip( adjacentCount );
-                                if( skipped <= 0 )
-                                    throw new EOFException();
-                                adjacentCount -= skipped;
-                            }
-                        }
-                        else{
-                            DataInputStream din = readBuffer( in, adjacentCount );
-                            Object data = missingAdjacent.read( getAdjacentFactoryID( adjacentFactoryId ), din, adjacentCount );
-                            if( data != null ){
-                                adjacentLayouts.add( new DockLayout<Object>( adjacentFactoryId, data ) );
-                            }
-                            din.close();
-                        }
-                    }
-                    else{
-                        DataInputStream din = readBuffer( in, adjacentCount );
-                        Object data = adjacentFactory.read( din, placeholders );
-                        if( data != null ){
-                            adjacentLayouts.add( new DockLayout<Object>( adjacentFactoryId, data ) );
-                        }
-
-                        din.close();
+                    DockLayout<?> adjacentLayout = readAdjacent( adjacentFactoryId, adjacentCount, in );
+                    if( adjacentLayout != null ){
+                        adjacentLayouts.add( adjacentLayout );
                     }
                 }
             }
@@ -537,36 +669,118 @@ public class DockSituation {
         // result
         return new DockLayoutComposition( info, adjacentLayouts, children, ignore );
     }
+    
+    /**
+     * Reads the layout of an {@link AdjacentDockFactory} whose header was already read.
+     * @param adjacentFactoryId the identifier of the factory
+     * @param count the number of bytes that belong to the layout
+     * @param in the stream to read from
+     * @return the layout or <code>null</code> if it could not be read
+     * @throws IOException if an I/O-error occurs
+     */
+    @SuppressWarnings("unchecked")
+    private DockLayout<?> readAdjacent( String adjacentFactoryId, int count, DataInputStream in ) throws IOException{
+        AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( adjacentFactoryId );
+        BoundedInputStream block = new BoundedInputStream( in, count );
+        DockLayout<?> result = null;
+        
+        if( adjacentFactory == null ){
+            if( missingAdjacent != null ){
+                DataInputStream din = new DataInputStream( block );
+                Object data = missingAdjacent.read( getAdjacentFactoryID( adjacentFactoryId ), din, count );
+                if( data != null ){
+                    result = new DockLayout<Object>( adjacentFactoryId, data );
+                }
+            }
+        }
+        else{
+            DataInputStream din = new DataInputStream( block );
+            Object data = adjacentFactory.read( din, placeholders );
+            if( data != null ){
+                result = new DockLayout<Object>( adjacentFactoryId, data );
+            }
+        }
+        
+        // skip whatever the factory did not read
+        block.skipRemaining();
+        return result;
+    }
 
     /**
-     * Tries to read <code>entry</code>. Entry will be read by a {@link DataInputStream},
-     * it must start with an utf-String used as id for a {@link DockFactory},
-     * then followed by an int telling how many bytes are in the remaining
-     * array. The rest of the array will be given to a {@link DockFactory}.
+     * Reads one entry of <code>in</code>. An entry starts with an utf-String used 
+     * as id for a {@link DockFactory}, then followed by an int telling how many bytes 
+     * belong to the entry. These bytes are given directly to the {@link DockFactory}
+     * without copying them. Only if the factory is missing the bytes are read into an
+     * array, because they may be needed later by {@link #fillMissing(DockLayoutComposition)}.
+     * @param in the stream to read from
+     * @param placeholder the placeholder which is associated with this element
+     * @return the information that was obtained, may be <code>null</code>
+     * @throws IOException if <code>in</code> has not the correct format
+     */
+    private DockLayoutInfo readEntry( DataInputStream in, Path placeholder ) throws IOException{
+        return readEntry( in, placeholder, null );
+    }
+    
+    /**
+     * Tries to read <code>entry</code>, an array that was created by {@link #readEntry(String, int, DataInputStream)}.
      * @param entry the entry to read
      * @param placeholder the placeholder which is associated with this element
      * @return the information that was obtained, may be <code>null</code>
      * @throws IOException if <code>entry</code> has not the correct format
      */
-    @SuppressWarnings("unchecked")
     private DockLayoutInfo readEntry( byte[] entry, Path placeholder ) throws IOException{
-        DataInputStream entryIn = new DataInputStream( new ByteArrayInputStream( entry ));
-        
-        String factoryId = entryIn.readUTF();
-        
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( entry ));
+        DockLayoutInfo info = readEntry( in, placeholder, entry );
+        in.close();
+        return info;
+    }
+    
+    /**
+     * Reads one entry of <code>in</code>.
+     * @param in the stream to read from
+     * @param placeholder the placeholder which is associated with this element
+     * @param entry if not <code>null</code>, then the array which is read by <code>in</code>
+     * @return the information that was obtained, may be <code>null</code>
+     * @throws IOException if <code>in</code> has not the correct format
+     */
+    private DockLayoutInfo readEntry( DataInputStream in, Path placeholder, byte[] entry ) throws IOException{
+        String factoryId = in.readUTF();
+        int count = in.readInt();
+        return readEntry( factoryId, count, in, placeholder, entry );
+    }
+    
+    /**
+     * Reads the content of one entry whose header was already read.
+     * @param factoryId the identifier of the factory, the first part of the header
+     * @param count the number of bytes of the content, the second part of the header
+     * @param in the stream to read from
+     * @param placeholder the placeholder which is associated with this element
+     * @param entry if not <code>null</code>, then the array which is read by <code>in</code>
+     * @return the information that was obtained, may be <code>null</code>
+     * @throws IOException if <code>in</code> has not the correct format
+     */
+    @SuppressWarnings("unchecked")
+    private DockLayoutInfo readEntry( String factoryId, int count, DataInputStream in, Path placeholder, byte[] entry ) throws IOException{
         DockFactory<DockElement, Object> factory = (DockFactory<DockElement, Object>)getFactory( factoryId );
 
         // contents
         DockLayoutInfo info;
-        int count = entryIn.readInt();
 
         if( factory == null ){
+            if( entry == null ){
+                entry = readEntry( factoryId, count, in );
+                if( missingFactory != null ){
+                    in = new DataInputStream( new ByteArrayInputStream( entry ));
+                    in.readUTF();
+                    in.readInt();
+                }
+            }
+            
             // try read
             info = null;
 
             if( missingFactory != null ){
-                Object data = missingFactory.read( getFactoryID( factoryId ), entryIn, count );
-                entryIn.close();
+                Object data = missingFactory.read( getFactoryID( factoryId ), new DataInputStream( new BoundedInputStream( in, count )), count );
 
                 if( data != null ){
                     info = new DockLayoutInfo( new DockLayout<Object>( factoryId, data ));
@@ -580,7 +794,10 @@ public class DockSituation {
             }
         }
         else{
-            Object data = factory.read( entryIn, placeholders );
+            BoundedInputStream block = new BoundedInputStream( in, count );
+            Object data = factory.read( new DataInputStream( block ), placeholders );
+            block.skipRemaining();
+            
             if( data == null ){
                 info = null;
             }
@@ -588,64 +805,38 @@ public class DockSituation {
                 info = new DockLayoutInfo( new DockLayout<Object>( factoryId, data ) );
                 info.setPlaceholder( placeholder );
             }
-
-            entryIn.close();
         }
 
         return info;
     }
 
     /**
-     * Reads <code>count</code> bytes from <code>in</code> and returns them
-     * in a new stream.
-     * @param in the stream to read from
-     * @param count the number of bytes to read
-     * @return a new stream with <code>count</code> bytes
-     * @throws IOException if <code>in</code> cannot be read or does not
-     * have <code>count</code> elements
-     */
-    private DataInputStream readBuffer( DataInputStream in, int count ) throws IOException{
-        byte[] buffer = new byte[ count ];
-        int read = 0;
-        while( read < count ){
-            int input = in.read( buffer, read, count-read );
-            if( input < 0 )
-                throw new EOFException();
-            read += input;
-        }
-
-        ByteArrayInputStream bin = new ByteArrayInputStream( buffer );
-        DataInputStream din = new DataInputStream( bin );
-        return din;
-    }
-
-    /**
-     * Reads one entry of the stream and returns the whole entry.
+     * Reads the <code>count</code> bytes of an entry whose header was already read
+     * and returns the whole entry, including the header.
      * An entry starts with an UTF-String, then an int telling how many bytes
      * follow, then an array of bytes.
+     * @param factory the identifier of the factory, the first part of the header
+     * @param count the number of bytes to read, the second part of the header
      * @param in the stream to read from
      * @return the whole entry
      * @throws IOException if the entry cannot be read from <code>in</code>
      */
-    private byte[] readBuffer( DataInputStream in ) throws IOException{
-        String factory = in.readUTF();
-        int count = in.readInt();
-
-        ByteArrayOutputStream out = new ByteArrayOutputStream( factory.length()*4 + 4 + count );
+    private byte[] readEntry( String factory, int count, DataInputStream in ) throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream( factory.length()*4 + 6 );
         DataOutputStream dout = new DataOutputStream( out );
-
         dout.writeUTF( factory );
         dout.writeInt( count );
-
-        for( int i = 0; i < count; i++ ){
-            int read = in.read();
-            if( read == -1 )
-                throw new EOFException( "unexpectetly reached end of file" );
-            dout.write( read );
-        }
-
         dout.close();
-        return out.toByteArray();
+        
+        byte[] entry = new byte[ out.size() + count ];
+        System.arraycopy( out.toByteArray(), 0, entry, 0, out.size() );
+        try{
+        	in.readFully( entry, out.size(), count );
+        }
+        catch( EOFException ex ){
+        	throw new EOFException( "unexpectetly reached end of file" );
+        }
+        return entry;
     }
 
     /**
@@ -657,11 +848,10 @@ public class DockSituation {
      * @throws IOException if the information can't be written
      */
     public byte[] write( Map<String, DockStation> stations ) throws IOException{
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        DataOutputStream out = new DataOutputStream( bytes );
+        PatchableDataOutputStream out = new PatchableDataOutputStream();
         write( stations, out );
         out.close();
-        return bytes.toByteArray();
+        return out.toByteArray();
     }
 
     /**
@@ -909,6 +1099,228 @@ public class DockSituation {
         return result;
     }
 
+    /**
+     * Writes the contents of <code>composition</code> into the current element of <code>out</code>.
+     * The output is the same as the output of {@link #writeCompositionXML(DockLayoutComposition, XElement)},
+     * but factories implementing {@link StreamedDockFactory} write their layouts directly 
+     * into the stream.
+     * @param composition the composition to write
+     * @param out the stream to write into
+     * @throws IOException if an I/O-error occurs
+     * @throws IllegalArgumentException if a factory is missing
+     */
+    @SuppressWarnings("unchecked")
+    public void writeCompositionXML( DockLayoutComposition composition, XStreamWriter out ) throws IOException{
+        DockLayoutInfo info = composition.getLayout();
+        if( info.getKind() == DockLayoutInfo.Data.XML ){
+            out.element( info.getDataXML() );
+        }
+        else if( info.getKind() == DockLayoutInfo.Data.DOCK_LAYOUT ){
+            DockLayout<?> layout = info.getDataLayout();
+
+            DockFactory<DockElement, Object> factory = (DockFactory<DockElement, Object>)getFactory( layout.getFactoryID() );
+            if( factory == null )
+                throw new IllegalArgumentException( "Missing factory: " + layout.getFactoryID() );
+
+            out.startElement( "layout" );
+            out.attribute( "factory", getID( factory ) );
+            Path placeholder = info.getPlaceholder();
+            if( placeholder != null ){
+                out.attribute( "placeholder", placeholder.toString() );
+            }
+            if( factory instanceof StreamedDockFactory<?> ){
+                ((StreamedDockFactory<Object>)factory).write( layout.getData(), out );
+            }
+            else{
+                XElement xfactory = new XElement( "layout" );
+                factory.write( layout.getData(), xfactory );
+                out.content( xfactory );
+            }
+            out.endElement();
+        }
+        else{
+            // there is nothing to write...
+            throw new IllegalArgumentException( "Cannot store layout as XML: it was never translated and its raw format is not XML" );
+        }
+
+        List<DockLayout<?>> adjacentLayouts = composition.getAdjacent();
+        if( adjacentLayouts != null ){
+            out.startElement( "adjacent" );
+
+            for( DockLayout<?> adjacentLayout : adjacentLayouts ){
+                AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( adjacentLayout.getFactoryID() );
+                if( adjacentFactory == null )
+                    throw new IllegalArgumentException( "Missing adjacent factory: " + adjacentLayout.getFactoryID() );
+
+                XElement xlayout = new XElement( "layout" );
+                xlayout.addString( "factory", getAdjacentID( adjacentFactory ) );
+                adjacentFactory.write( adjacentLayout.getData(), xlayout );
+                out.element( xlayout );
+            }
+            
+            out.endElement();
+        }
+
+        out.startElement( "children" );
+        out.attribute( "ignore", String.valueOf( composition.isIgnoreChildren() ));
+
+        for( DockLayoutComposition child : composition.getChildren() ){
+            out.startElement( "child" );
+            writeCompositionXML( child, out );
+            out.endElement();
+        }
+        
+        out.endElement();
+    }
+
+    /**
+     * Reads a {@link DockLayoutComposition} from the current element of <code>in</code>. The
+     * current element is read completely and closed.
+     * @param in the stream to read from
+     * @return the composition that was read
+     * @throws IOException if an I/O-error occurs
+     * @throws XException if something is missing or malformed in the stream
+     */
+    @SuppressWarnings("unchecked")
+    public DockLayoutComposition readCompositionXML( XStreamReader in ) throws IOException{
+        DockLayoutInfo layout = null;
+        List<DockLayout<?>> adjacentLayouts = null;
+        boolean ignore = true;
+        List<DockLayoutComposition> children = new ArrayList<DockLayoutComposition>();
+        
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "layout" ) && layout == null ){
+                layout = readEntry( in );
+            }
+            else if( name.equals( "adjacent" )){
+                if( adjacentLayouts == null ){
+                    adjacentLayouts = new ArrayList<DockLayout<?>>();
+                }
+                while( (name = in.nextElement()) != null ){
+                    if( name.equals( "layout" )){
+                        XElement xlayout = in.readElement();
+                        String factoryId = xlayout.getString( "factory" );
+                        AdjacentDockFactory<Object> adjacentFactory = (AdjacentDockFactory<Object>)getAdjacentFactory( factoryId );
+                        if( adjacentFactory != null ){
+                            Object data = adjacentFactory.read( xlayout, placeholders );
+                            if( data != null ){
+                                adjacentLayouts.add( new DockLayout<Object>( factoryId, data ));
+                            }
+                        }
+                        else if( missingAdjacent != null ){
+                            Object data = missingAdjacent.readXML( getAdjacentFactoryID( factoryId ), xlayout );
+                            if( data != null ){
+                                adjacentLayouts.add( new DockLayout<Object>( factoryId, data ) );
+                            }
+                        }
+                    }
+                    else{
+                        in.skipElement();
+                    }
+                }
+            }
+            else if( name.equals( "children" )){
+                XAttribute xignore = in.getAttribute( "ignore" );
+                if( xignore == null )
+                    throw new XException( "no attribute known with name: ignore" );
+                ignore = xignore.getBoolean();
+                while( (name = in.nextElement()) != null ){
+                    if( name.equals( "child" )){
+                        children.add( readCompositionXML( in ));
+                    }
+                    else{
+                        in.skipElement();
+                    }
+                }
+            }
+            else{
+                in.skipElement();
+            }
+        }
+
+        return new DockLayoutComposition( layout, adjacentLayouts, children, ignore );
+    }
+
+    /**
+     * Reads an entry from the current element of <code>in</code>. The element should have one
+     * attribute <code>factory</code>. The current element is read completely and closed.
+     * @param in the stream to read from
+     * @return the information of the current element, may be <code>null</code>
+     * @throws IOException if an I/O-error occurs
+     */
+    @SuppressWarnings("unchecked")
+    private DockLayoutInfo readEntry( XStreamReader in ) throws IOException{
+        String factoryId = in.getString( "factory" );
+        DockFactory<DockElement, Object> factory = (DockFactory<DockElement, Object>)getFactory( factoryId );
+        if( !(factory instanceof StreamedDockFactory<?>) ){
+            return readEntry( in.readElement() );
+        }
+        
+        int depth = in.getDepth();
+        Path placeholder = null;
+        XAttribute xplaceholder = in.getAttribute( "placeholder" );
+        if( xplaceholder != null ){
+            placeholder = new Path( xplaceholder.getString() );
+        }
+        
+        Object data = ((StreamedDockFactory<Object>)factory).read( in, placeholders );
+        in.finish( depth );
+        
+        if( data == null ){
+            return null;
+        }
+        DockLayoutInfo layout = new DockLayoutInfo( new DockLayout<Object>( factoryId, data ) );
+        layout.setPlaceholder( placeholder );
+        return layout;
+    }
+
+    /**
+     * Writes all locations and relationships of the {@link DockStation}s
+     * <code>stations</code> and their children into the current element of
+     * <code>out</code>. The output is the same as the output of {@link #writeXML(Map, XElement)}.
+     * @param stations The stations to store, only the roots are needed.
+     * @param out the stream to write into
+     * @throws IOException if an I/O-error occurs
+     */
+    public void writeXML( Map<String, DockStation> stations, XStreamWriter out ) throws IOException{
+        for( Map.Entry<String, DockStation> entry : stations.entrySet() ){
+            DockLayoutComposition composition = convert( entry.getValue() );
+            if( composition != null ){
+                out.startElement( "element" );
+                out.attribute( "name", entry.getKey() );
+                writeCompositionXML( composition, out );
+                out.endElement();
+            }
+        }
+    }
+
+    /**
+     * Reads a set of {@link DockStation}s that were stored earlier. Reads the current
+     * element of <code>in</code> completely and closes it.
+     * @param in the stream to read from
+     * @return the set of station
+     * @throws IOException if an I/O-error occurs
+     */
+    public Map<String, DockStation> readXML( XStreamReader in ) throws IOException{
+        Map<String, DockStation> result = new HashMap<String, DockStation>();
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "element" )){
+                String key = in.getString( "name" );
+                DockLayoutComposition composition = readCompositionXML( in );
+                DockElement element = composition == null ? null : convert( composition );
+                DockStation station = element == null ? null : element.asDockStation();
+                if( station != null )
+                    result.put( key, station );
+            }
+            else{
+                in.skipElement();
+            }
+        }
+        return result;
+    }
+
     /**
      * Using the factories currently known to this {@link DockSituation}, this
      * method tries to fill gaps in <code>composition</code>. It checks
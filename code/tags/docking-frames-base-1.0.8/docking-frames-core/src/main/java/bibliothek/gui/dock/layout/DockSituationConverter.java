@@ -0,0 +1,156 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.layout;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import bibliothek.util.Version;
+
+/**
+ * Converts binary layouts written by older versions of a {@link DockSituation} into the
+ * current format. The layouts are read and written by a {@link DockSituation}, hence the
+ * factories of that situation are used to translate the data. Entries whose
+ * {@link DockFactory} is missing are kept as they are, but the layouts of missing
+ * {@link AdjacentDockFactory}s are lost during the conversion.
+ * @author Benjamin Sigg
+ */
+public class DockSituationConverter {
+    /** the situation used to read and write layouts */
+    private DockSituation situation;
+    
+    /**
+     * Creates a new converter.
+     * @param situation the situation used to read and write the layouts, not <code>null</code>
+     */
+    public DockSituationConverter( DockSituation situation ){
+        if( situation == null )
+            throw new IllegalArgumentException( "situation must not be null" );
+        this.situation = situation;
+    }
+    
+    /**
+     * Gets the situation that is used to read and write layouts.
+     * @return the situation, not <code>null</code>
+     */
+    public DockSituation getSituation(){
+        return situation;
+    }
+    
+    /**
+     * Reads one composition that was written by {@link DockSituation#writeComposition(DockLayoutComposition, DataOutputStream)}
+     * and writes it again in the current format.
+     * @param in the stream to read from
+     * @param out the stream to write into
+     * @throws IOException if an I/O-error occurs
+     */
+    public void convertComposition( DataInputStream in, DataOutputStream out ) throws IOException{
+        DockLayoutComposition composition = situation.readComposition( in );
+        situation.writeComposition( composition, out );
+    }
+    
+    /**
+     * Reads a set of stations that was written by {@link DockSituation#write(java.util.Map, DataOutputStream)}
+     * and writes it again in the current format.
+     * @param in the stream to read from
+     * @param out the stream to write into
+     * @throws IOException if an I/O-error occurs
+     */
+    public void convert( DataInputStream in, DataOutputStream out ) throws IOException{
+        Version version = Version.read( in );
+        version.checkCurrent();
+        Version.write( out, Version.VERSION_1_0_4 );
+        
+        int count = in.readInt();
+        out.writeInt( count );
+        for( int i = 0; i < count; i++ ){
+            out.writeUTF( in.readUTF() );
+            convertComposition( in, out );
+        }
+    }
+    
+    /**
+     * Converts an array of bytes that was created by {@link DockSituation#write(java.util.Map)}.
+     * @param data the data to convert
+     * @return the converted data
+     * @throws IOException if <code>data</code> cannot be read
+     */
+    public byte[] convert( byte[] data ) throws IOException{
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( data ));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream( data.length );
+        DataOutputStream out = new DataOutputStream( bytes );
+        convert( in, out );
+        in.close();
+        out.close();
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Converts a file that was created by {@link DockSituation#write(java.util.Map, DataOutputStream)}
+     * using the default factories of {@link DockSituation}.
+     * @param args the arguments, <code>[-uncompressed] input output</code>
+     * @throws IOException if the file cannot be converted
+     */
+    public static void main( String[] args ) throws IOException{
+        boolean compressed = true;
+        int offset = 0;
+        if( args.length > 0 && "-uncompressed".equals( args[0] )){
+            compressed = false;
+            offset = 1;
+        }
+        
+        if( args.length - offset != 2 ){
+            System.err.println( "usage: DockSituationConverter [-uncompressed] input output" );
+            return;
+        }
+        
+        DockSituation situation = new DockSituation();
+        situation.setCompressed( compressed );
+        DockSituationConverter converter = new DockSituationConverter( situation );
+        
+        DataInputStream in = new DataInputStream( new BufferedInputStream( new FileInputStream( args[offset] )));
+        try{
+            DataOutputStream out = new DataOutputStream( new BufferedOutputStream( new FileOutputStream( args[offset+1] )));
+            try{
+                converter.convert( in, out );
+            }
+            finally{
+                out.close();
+            }
+        }
+        finally{
+            in.close();
+        }
+    }
+}
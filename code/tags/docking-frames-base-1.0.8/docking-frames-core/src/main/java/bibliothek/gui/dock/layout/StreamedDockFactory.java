@@ -0,0 +1,71 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.layout;
+
+import java.io.IOException;
+
+import bibliothek.gui.DockStation;
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DockFactory;
+import bibliothek.gui.dock.station.support.PlaceholderStrategy;
+import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
+
+/**
+ * An optional interface for {@link DockConverter}s like {@link DockFactory}. A factory 
+ * implementing this interface can write and read its layouts directly to and from
+ * a xml stream, without creating an {@link XElement} first. {@link DockSituation} uses
+ * this interface when storing or loading a layout with {@link XStreamWriter} or
+ * {@link XStreamReader}. Factories that do not implement this interface are still
+ * supported, but need to create an {@link XElement} for each of their layouts.<br>
+ * The format written by the stream methods must be the same format as the format
+ * written by {@link DockConverter#write(Object, XElement)}.
+ * @author Benjamin Sigg
+ * @param <L> the kind of object this factory uses as intermediate format
+ */
+public interface StreamedDockFactory<L> {
+    /**
+     * Writes the contents of <code>layout</code> into the current element of <code>out</code>.
+     * The attributes of the current element must not be changed, but new attributes can be added.
+     * @param layout the layout to write
+     * @param out the stream to write into, the current element must remain open
+     * @throws IOException if an I/O-error occurs
+     */
+    public void write( L layout, XStreamWriter out ) throws IOException;
+    
+    /**
+     * Reads a layout from the current element of <code>in</code>. This method does not need
+     * to read the whole element, the caller skips the remaining content.
+     * @param in the stream to read from
+     * @param placeholders a strategy to detect invalid placeholders, can be <code>null</code>.
+     * Factories loading only {@link Dockable}s but no {@link DockStation}s can safely ignore this argument.
+     * @return the new layout, can be <code>null</code>
+     * @throws IOException if an I/O-error occurs
+     */
+    public L read( XStreamReader in, PlaceholderStrategy placeholders ) throws IOException;
+}
@@ -241,7 +241,7 @@ public class DefaultSplitLayoutManager implements SplitLayoutManager{
             
             divider = validateDivider( station, divider, 
                     putInfo.getDockable().getComponent().getMinimumSize(),
-                    other.getMinimumSize(), 
+                    other.getCachedMinimumSize(), 
                     Orientation.VERTICAL, 
                     other.getWidth(), other.getHeight() );
             
@@ -253,7 +253,7 @@ public class DefaultSplitLayoutManager implements SplitLayoutManager{
                 divider = 1.0 - (size + dividerSize/2.0) / nodeSize.height;
             
             divider = validateDivider( station, divider, 
-                    other.getMinimumSize(),
+                    other.getCachedMinimumSize(),
                     putInfo.getDockable().getComponent().getMinimumSize(),
                     Orientation.VERTICAL, 
                     other.getWidth(), other.getHeight() );
@@ -268,7 +268,7 @@ public class DefaultSplitLayoutManager implements SplitLayoutManager{
             
             divider = validateDivider( station, divider, 
                     putInfo.getDockable().getComponent().getMinimumSize(),
-                    other.getMinimumSize(), 
+                    other.getCachedMinimumSize(), 
                     Orientation.HORIZONTAL, 
                     other.getWidth(), other.getHeight() );
             
@@ -280,7 +280,7 @@ public class DefaultSplitLayoutManager implements SplitLayoutManager{
                 divider = 1.0 - (size + dividerSize/2.0) / nodeSize.width;
             
             divider = validateDivider( station, divider, 
-                    other.getMinimumSize(), 
+                    other.getCachedMinimumSize(), 
                     putInfo.getDockable().getComponent().getMinimumSize(), 
                     Orientation.HORIZONTAL, 
                     other.getWidth(), other.getHeight() );
@@ -302,12 +302,12 @@ public class DefaultSplitLayoutManager implements SplitLayoutManager{
         if( node.getLeft() == null )
             leftMin = new Dimension();
         else
-            leftMin = node.getLeft().getMinimumSize();
+            leftMin = node.getLeft().getCachedMinimumSize();
         
         if( node.getRight() == null )
             rightMin = new Dimension();
         else
-            rightMin = node.getRight().getMinimumSize();
+            rightMin = node.getRight().getCachedMinimumSize();
         
         return validateDivider( station, divider, leftMin, rightMin, node.getOrientation(), node.getWidth(), node.getHeight() );
     }
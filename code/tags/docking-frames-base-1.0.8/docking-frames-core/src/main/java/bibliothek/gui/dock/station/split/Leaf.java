@@ -26,8 +26,16 @@
 
 package bibliothek.gui.dock.station.split;
 
+import java.awt.Component;
+import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
 import java.util.Map;
 
 import bibliothek.gui.DockController;
@@ -54,6 +62,13 @@ public class Leaf extends VisibleSplitNode{
 	/** Information about the element that is shown by this leaf */
     private StationChildHandle handle;
     
+    /** invalidates the cached minimum size when the components of this leaf change */
+    private MinimumSizeObserver minimumSizeObserver = new MinimumSizeObserver();
+    /** the component of the displayer that is observed by {@link #minimumSizeObserver} */
+    private Component observedDisplayer;
+    /** the component of the dockable that is observed by {@link #minimumSizeObserver} */
+    private Component observedDockable;
+    
     /**
      * Creates a new leaf.
      * @param access the access to the private functions of the owning {@link SplitDockStation}
@@ -76,8 +91,65 @@ public class Leaf extends VisibleSplitNode{
      * @param handle the element
      */
     public void setHandle( StationChildHandle handle ){
+    	Dockable oldDockable = getDockable();
 		this.handle = handle;
+		invalidateMinimumSize();
+		observeComponents();
+		dockableChanged( oldDockable );
 	}
+    
+    /**
+     * Informs this leaf that the {@link DockableDisplayer} of its {@link #getDockableHandle() handle}
+     * was replaced.
+     */
+    public void displayerChanged(){
+    	observeComponents();
+    	invalidateMinimumSize();
+    }
+    
+    /**
+     * Ensures that {@link #minimumSizeObserver} observes the current displayer and dockable
+     * of this leaf. A change of the minimum size, the visibility or the children of these 
+     * components invalidates the {@link #getCachedMinimumSize() cached minimum size} of this 
+     * leaf and of its parents, all other leafs keep their cached values.
+     */
+    private void observeComponents(){
+    	DockableDisplayer displayer = getDisplayer();
+    	Dockable dockable = getDockable();
+    	Component displayerComponent = displayer == null ? null : displayer.getComponent();
+    	Component dockableComponent = dockable == null ? null : dockable.getComponent();
+    	
+    	if( observedDisplayer != displayerComponent ){
+    		if( observedDisplayer != null ){
+    			minimumSizeObserver.remove( observedDisplayer );
+    		}
+    		observedDisplayer = displayerComponent;
+    		if( observedDisplayer != null ){
+    			minimumSizeObserver.add( observedDisplayer );
+    		}
+    	}
+    	if( observedDockable != dockableComponent ){
+    		if( observedDockable != null ){
+    			minimumSizeObserver.remove( observedDockable );
+    		}
+    		observedDockable = dockableComponent;
+    		if( observedDockable != null ){
+    			minimumSizeObserver.add( observedDockable );
+    		}
+    	}
+    }
+    
+    /**
+     * Updates the index of the {@link Root} this leaf is attached to after
+     * the {@link Dockable} of this leaf changed.
+     * @param oldDockable the element this leaf showed before the change
+     */
+    private void dockableChanged( Dockable oldDockable ){
+    	Root root = getTreeRoot();
+    	if( root != null ){
+    		root.leafChanged( this, oldDockable );
+    	}
+    }
     
     @Override
     public Dimension getMinimumSize() {
@@ -138,12 +210,15 @@ public class Leaf extends VisibleSplitNode{
     			setPlaceholderMap( station.getPlaceholders() );
     		}
     		
+    		Dockable oldDockable = handle.getDockable();
     		getAccess().removeHandle( handle, fire );
     		handle = null;
+    		dockableChanged( oldDockable );
     	}
     	
         if( dockable != null ){
         	handle = getAccess().newHandle( dockable );
+        	dockableChanged( null );
             
         	if( updatePlaceholders ){
         		getAccess().getPlaceholderSet().set( null, dockable );
@@ -152,6 +227,7 @@ public class Leaf extends VisibleSplitNode{
         	getAccess().addHandle( handle, fire );
         }
         
+        observeComponents();
         treeChanged();
     }
     
@@ -520,4 +596,57 @@ public class Leaf extends VisibleSplitNode{
         out.append( getId() );
         out.append( " ]" );
     }
-}
\ No newline at end of file
+    
+    /**
+     * Observes the {@link Component}s of a leaf and invalidates the cached minimum size
+     * of the leaf when they change.
+     * @author Benjamin Sigg
+     */
+    private class MinimumSizeObserver extends ComponentAdapter implements PropertyChangeListener, ContainerListener{
+    	/**
+    	 * Starts observing <code>component</code>.
+    	 * @param component the new observed component
+    	 */
+    	public void add( Component component ){
+    		component.addComponentListener( this );
+    		component.addPropertyChangeListener( "minimumSize", this );
+    		if( component instanceof Container ){
+    			((Container)component).addContainerListener( this );
+    		}
+    	}
+    	
+    	/**
+    	 * Stops observing <code>component</code>.
+    	 * @param component the component that is no longer observed
+    	 */
+    	public void remove( Component component ){
+    		component.removeComponentListener( this );
+    		component.removePropertyChangeListener( "minimumSize", this );
+    		if( component instanceof Container ){
+    			((Container)component).removeContainerListener( this );
+    		}
+    	}
+    	
+    	public void propertyChange( PropertyChangeEvent evt ){
+    		invalidateMinimumSize();
+    	}
+    	
+    	@Override
+    	public void componentShown( ComponentEvent e ){
+    		invalidateMinimumSize();
+    	}
+    	
+    	@Override
+    	public void componentHidden( ComponentEvent e ){
+    		invalidateMinimumSize();
+    	}
+    	
+    	public void componentAdded( ContainerEvent e ){
+    		invalidateMinimumSize();
+    	}
+    	
+    	public void componentRemoved( ContainerEvent e ){
+    		invalidateMinimumSize();
+    	}
+    }
+}
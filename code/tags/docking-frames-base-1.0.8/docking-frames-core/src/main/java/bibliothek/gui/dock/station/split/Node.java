@@ -230,32 +230,47 @@ public class Node extends VisibleSplitNode{
         if( orientation == null )
             throw new NullPointerException( "orientation must not be null" );
         this.orientation = orientation;
+        invalidateMinimumSize();
         getAccess().getOwner().revalidate();
     }
     
     @Override
     public Dimension getMinimumSize() {
+    	return new Dimension( getCachedMinimumSize() );
+    }
+    
+    @Override
+    protected Dimension createMinimumSize(){
     	boolean leftVisible = left == null || left.isVisible();
     	boolean rightVisible = right == null || right.isVisible();
     	if( leftVisible && rightVisible ){
-	    	Dimension minLeft = left == null ? new Dimension() : left.getMinimumSize();
-	    	Dimension minRight = right == null ? new Dimension() : right.getMinimumSize();
+	    	int leftWidth = 0, leftHeight = 0, rightWidth = 0, rightHeight = 0;
+	    	if( left != null ){
+	    		Dimension minLeft = left.getCachedMinimumSize();
+	    		leftWidth = minLeft.width;
+	    		leftHeight = minLeft.height;
+	    	}
+	    	if( right != null ){
+	    		Dimension minRight = right.getCachedMinimumSize();
+	    		rightWidth = minRight.width;
+	    		rightHeight = minRight.height;
+	    	}
 	    	int divider = getAccess().getOwner().getDividerSize();
 	    	
 	    	if( orientation == Orientation.HORIZONTAL ){
-	    		return new Dimension( minLeft.width + divider + minRight.width,
-	    				Math.max( minLeft.height, minRight.height ));
+	    		return new Dimension( leftWidth + divider + rightWidth,
+	    				Math.max( leftHeight, rightHeight ));
 	    	}
 	    	else{
-	    		return new Dimension( Math.max( minLeft.width, minRight.width),
-	    				minLeft.height + divider + minRight.height );
+	    		return new Dimension( Math.max( leftWidth, rightWidth),
+	    				leftHeight + divider + rightHeight );
 	    	}
     	}
     	else if( leftVisible ){
-    		return left.getMinimumSize();
+    		return left.getCachedMinimumSize();
     	}
     	else if( rightVisible ){
-    		return right.getMinimumSize();
+    		return right.getCachedMinimumSize();
     	}
     	else{
     		return new Dimension();
@@ -678,6 +693,21 @@ public class Node extends VisibleSplitNode{
     
     @Override
     public Leaf getLeaf( Dockable dockable ) {
+    	Root root = getTreeRoot();
+    	if( root != null && root.isLeafIndexComplete() ){
+    		Leaf leaf = root.getLeaf( dockable );
+    		if( leaf == null )
+    			return null;
+    		
+    		SplitNode parent = leaf.getParent();
+    		while( parent != null ){
+    			if( parent == this )
+    				return leaf;
+    			parent = parent.getParent();
+    		}
+    		return null;
+    	}
+    	
         if( left != null && left.isVisible() ){
             Leaf leaf = left.getLeaf( dockable );
             if( leaf != null )
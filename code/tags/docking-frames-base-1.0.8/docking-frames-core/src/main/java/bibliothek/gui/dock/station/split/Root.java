@@ -28,6 +28,8 @@ package bibliothek.gui.dock.station.split;
 
 import java.awt.Dimension;
 import java.awt.Insets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import bibliothek.gui.Dockable;
@@ -46,6 +48,18 @@ public class Root extends VisibleSplitNode{
     /** tells whether the subtree has changed since the last reset */
     private boolean treeChanged = true;
     
+    /** all the nodes of this tree, including this root, accessible through their unique id */
+    private Map<Long, SplitNode> nodes = new HashMap<Long, SplitNode>();
+    
+    /** all the {@link Leaf}s of this tree accessible through their {@link Dockable} */
+    private Map<Dockable, Leaf> leaves = new IdentityHashMap<Dockable, Leaf>();
+    
+    /** whether two nodes with the same id were ever part of this tree, in which case {@link #nodes} may be incomplete */
+    private boolean nodeCollision = false;
+    
+    /** whether two leaves with the same {@link Dockable} were ever part of this tree, in which case {@link #leaves} may be incomplete */
+    private boolean leafCollision = false;
+    
     /**
      * Creates a new root.
      * @param access the access to internal methods of the
@@ -53,6 +67,7 @@ public class Root extends VisibleSplitNode{
      */
     public Root( SplitDockAccess access ){
         super( access, -1 );
+        setTreeRoot( this );
     }
     
     /**
@@ -63,10 +78,12 @@ public class Root extends VisibleSplitNode{
      */
     public Root( SplitDockAccess access, long id ){
         super( access, id );
+        setTreeRoot( this );
     }
     
     @Override
     protected void treeChanged(){
+    	super.treeChanged();
 	    treeChanged = true;
     }
     
@@ -139,10 +156,14 @@ public class Root extends VisibleSplitNode{
     
     @Override
     public Dimension getMinimumSize() {
-    	Dimension result = child == null ? null : child.getMinimumSize();
-    	if( result == null )
+    	return new Dimension( getCachedMinimumSize() );
+    }
+    
+    @Override
+    protected Dimension createMinimumSize(){
+    	if( child == null )
     		return new Dimension( 0, 0 );
-    	return result;
+    	return child.getCachedMinimumSize();
     }
         
     /**
@@ -279,9 +300,116 @@ public class Root extends VisibleSplitNode{
     
     @Override
     public Leaf getLeaf( Dockable dockable ) {
+    	if( !leafCollision )
+    		return leaves.get( dockable );
         return child == null ? null : child.getLeaf( dockable );
     }
     
+    /**
+     * Searches the node whose {@link SplitNode#getId() id} equals <code>id</code> in
+     * the tree of this root.
+     * @param id the id to search
+     * @return the node with the id <code>id</code> or <code>null</code>
+     */
+    public SplitNode getNode( final long id ){
+    	SplitNode node = nodes.get( id );
+    	if( node != null || !nodeCollision )
+    		return node;
+    	
+    	final SplitNode[] result = new SplitNode[1];
+    	visit( new SplitNodeVisitor(){
+			public void handleRoot( Root root ){
+				if( root.getId() == id )
+					result[0] = root;
+			}
+			public void handleNode( Node node ){
+				if( node.getId() == id )
+					result[0] = node;
+			}
+			public void handleLeaf( Leaf leaf ){
+				if( leaf.getId() == id )
+					result[0] = leaf;
+			}
+			public void handlePlaceholder( Placeholder placeholder ){
+				if( placeholder.getId() == id )
+					result[0] = placeholder;
+			}
+		});
+    	return result[0];
+    }
+    
+    /**
+     * Tells whether the index of this root knows for sure which {@link Leaf} shows
+     * which {@link Dockable}.
+     * @return <code>true</code> if {@link #getLeaf(Dockable)} can be answered by a lookup
+     */
+    boolean isLeafIndexComplete(){
+    	return !leafCollision;
+    }
+    
+    /**
+     * Adds <code>node</code> to the indices of this root.
+     * @param node the node that was attached to this tree
+     */
+    void index( SplitNode node ){
+    	SplitNode previous = nodes.put( node.getId(), node );
+    	if( previous != null && previous != node ){
+    		nodeCollision = true;
+    	}
+    	
+    	if( node instanceof Leaf ){
+    		Dockable dockable = ((Leaf)node).getDockable();
+    		if( dockable != null ){
+    			indexLeaf( (Leaf)node, dockable );
+    		}
+    	}
+    }
+    
+    /**
+     * Removes <code>node</code> from the indices of this root.
+     * @param node the node that was detached from this tree
+     */
+    void unindex( SplitNode node ){
+    	if( nodes.get( node.getId() ) == node ){
+    		nodes.remove( node.getId() );
+    	}
+    	
+    	if( node instanceof Leaf ){
+    		Dockable dockable = ((Leaf)node).getDockable();
+    		if( dockable != null ){
+    			unindexLeaf( (Leaf)node, dockable );
+    		}
+    	}
+    }
+    
+    /**
+     * Called by <code>leaf</code> if its {@link Dockable} changed.
+     * @param leaf a leaf of this tree
+     * @param oldDockable the element <code>leaf</code> showed before
+     */
+    void leafChanged( Leaf leaf, Dockable oldDockable ){
+    	if( oldDockable != null ){
+    		unindexLeaf( leaf, oldDockable );
+    	}
+    	Dockable dockable = leaf.getDockable();
+    	if( dockable != null ){
+    		indexLeaf( leaf, dockable );
+    	}
+    }
+    
+    private void indexLeaf( Leaf leaf, Dockable dockable ){
+    	Leaf previous = leaves.put( dockable, leaf );
+    	if( previous != null && previous != leaf ){
+    		leafCollision = true;
+    	}
+    }
+    
+    private void unindexLeaf( Leaf leaf, Dockable dockable ){
+    	if( leaves.get( dockable ) == leaf ){
+    		leaves.remove( dockable );
+    	}
+    }
+    
     @Override
     public Node getDividerNode( int x, int y ) {
         if( child == null )
@@ -40,20 +40,25 @@ import bibliothek.gui.dock.SplitDockStation.Orientation;
 import bibliothek.gui.dock.layout.DockLayoutInfo;
 import bibliothek.gui.dock.layout.DockableProperty;
 import bibliothek.gui.dock.layout.LocationEstimationMap;
+import bibliothek.gui.dock.layout.StreamedDockFactory;
 import bibliothek.gui.dock.station.split.SplitDockStationLayout.Entry;
 import bibliothek.gui.dock.station.support.PlaceholderMap;
 import bibliothek.gui.dock.station.support.PlaceholderStrategy;
 import bibliothek.gui.dock.util.DockUtilities;
 import bibliothek.util.Path;
 import bibliothek.util.Version;
+import bibliothek.util.io.CompactIO;
+import bibliothek.util.io.StringTable;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * A factory that creates {@link SplitDockStation SplitDockStations}.
  * @author Benjamin Sigg
  */
-public class SplitDockStationFactory implements DockFactory<SplitDockStation, SplitDockStationLayout> {
+public class SplitDockStationFactory implements DockFactory<SplitDockStation, SplitDockStationLayout>, StreamedDockFactory<SplitDockStationLayout> {
 	/** The id which is normally used for this type of factory*/
     public static final String ID = "SplitDockStationFactory";
 
@@ -283,7 +288,7 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
     public void write( SplitDockStationLayout layout, DataOutputStream out )
             throws IOException {
 
-        Version.write( out, Version.VERSION_1_0_8a );
+        Version.write( out, Version.VERSION_1_0_8b );
         
         SplitDockStationLayout.Entry root = layout.getRoot();
         if( root == null ){
@@ -291,20 +296,21 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
         }
         else{
             out.writeBoolean( true );
-            writeEntry( root, out );
+            writeEntry( root, out, new StringTable() );
         }
         
-        out.writeInt( layout.getFullscreen() );
+        CompactIO.writeVarInt( out, layout.getFullscreen() );
     }
     
     /**
      * Writes an entry to <code>out</code>.
      * @param entry the entry to store
      * @param out the stream to write into
+     * @param strings the strings that were already written
      * @throws IOException if an I/O-error occurs
      */
-    private void writeEntry( SplitDockStationLayout.Entry entry, DataOutputStream out ) throws IOException{
-    	out.writeLong( entry.getNodeId() );
+    private void writeEntry( SplitDockStationLayout.Entry entry, DataOutputStream out, StringTable strings ) throws IOException{
+    	CompactIO.writeVarLong( out, entry.getNodeId() );
     	
     	Path[] placeholders = entry.getPlaceholders();
     	PlaceholderMap placeholderMap = entry.getPlaceholderMap();
@@ -323,9 +329,9 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
     	out.writeByte( flag );
 
         if( placeholders != null && placeholders.length > 0 ){
-    		out.writeInt( placeholders.length );
+        	CompactIO.writeUnsignedVarInt( out, placeholders.length );
     		for( Path placeholder : placeholders ){
-    			out.writeUTF( placeholder.toString() );
+    			strings.write( out, placeholder.toString() );
     		}
     	}
         if( placeholderMap != null ){
@@ -333,14 +339,14 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
         }
         
         if( entry.asLeaf() != null ){
-        	out.writeInt( entry.asLeaf().getId() );
+        	CompactIO.writeVarInt( out, entry.asLeaf().getId() );
         }
         else{
             SplitDockStationLayout.Node node = entry.asNode();
-    		out.writeInt( node.getOrientation().ordinal() );
+            out.writeByte( node.getOrientation().ordinal() );
     		out.writeDouble( node.getDivider() );
-    		writeEntry( node.getChildA(), out );
-    		writeEntry( node.getChildB(), out );
+    		writeEntry( node.getChildA(), out, strings );
+    		writeEntry( node.getChildB(), out, strings );
         }
     }
     
@@ -350,6 +356,16 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
         
         boolean version8 = Version.VERSION_1_0_8.compareTo( version ) <= 0;
         boolean version8a = Version.VERSION_1_0_8a.compareTo( version ) <= 0;
+        boolean version8b = Version.VERSION_1_0_8b.compareTo( version ) <= 0;
+        
+        if( version8b ){
+        	SplitDockStationLayout.Entry root = null;
+            if( in.readBoolean() ){
+                root = readEntry( in, placeholders, new StringTable() );
+            }
+            int fullscreen = CompactIO.readVarInt( in );
+            return new SplitDockStationLayout( root, fullscreen );
+        }
         
         SplitDockStationLayout.Entry root = null;
         if( in.readBoolean() ){
@@ -359,6 +375,47 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
         return new SplitDockStationLayout( root, fullscreen );
     }
     
+    /**
+     * Reads an entry that was written in the compact format of version 1.0.8b.
+     * @param in the stream to read
+     * @param strategy tells which placeholders are invalid
+     * @param strings the strings that were already read
+     * @return the new entry
+     * @throws IOException if an I/O-error occurs
+     */
+    private SplitDockStationLayout.Entry readEntry( DataInputStream in, PlaceholderStrategy strategy, StringTable strings ) throws IOException{
+    	long id = CompactIO.readVarLong( in );
+    	byte flag = in.readByte();
+    	boolean node = (flag & 1) != 0;
+    	boolean hasPlaceholders = (flag & 2) != 0;
+    	boolean hasMap = (flag & 4) != 0;
+    	
+    	Path[] placeholders = null;
+    	if( hasPlaceholders ){
+    		placeholders = new Path[ CompactIO.readUnsignedVarInt( in ) ];
+    		for( int i = 0; i < placeholders.length; i++ ){
+    			placeholders[i] = new Path( strings.read( in ) ).intern();
+    		}
+    	}
+    	
+    	PlaceholderMap placeholderMap = null;
+    	if( hasMap ){
+    		placeholderMap = new PlaceholderMap( in, strategy );
+    		placeholderMap.setPlaceholderStrategy( null );
+    	}
+    	
+    	if( node ){
+    		Orientation orientation = Orientation.values()[ in.readByte() ];
+    		double divider = in.readDouble();
+    		SplitDockStationLayout.Entry childA = readEntry( in, strategy, strings );
+    		SplitDockStationLayout.Entry childB = readEntry( in, strategy, strings );
+    		return new SplitDockStationLayout.Node( orientation, divider, childA, childB, placeholders, placeholderMap, id );
+    	}
+    	else{
+    		return new SplitDockStationLayout.Leaf( CompactIO.readVarInt( in ), placeholders, placeholderMap, id );
+    	}
+    }
+    
     /**
      * Reads an entry from the stream.
      * @param in the stream to read
@@ -523,11 +580,11 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
     	Path[] placeholders = null;
     	XElement xplaceholders = element.getElement( "placeholders" );
     	if( xplaceholders != null ){
-    		XElement[] xchildren = xplaceholders.getElements( "placeholder" );
-    		if( xchildren.length > 0 ){
-    			List<Path> collection = new ArrayList<Path>( xchildren.length );
-    			for( int i = 0; i < xchildren.length; i++ ){
-    				Path placeholder = new Path( xchildren[i].getString() );
+    		int count = xplaceholders.getElementCount( "placeholder" );
+    		if( count > 0 ){
+    			List<Path> collection = new ArrayList<Path>( count );
+    			for( int i = 0; i < count; i++ ){
+    				Path placeholder = new Path( xplaceholders.getElement( "placeholder", i ).getString() );
     				if( strategy == null || strategy.isValidPlaceholder( placeholder )){
     					collection.add( placeholder );
     				}
@@ -566,6 +623,159 @@ public class SplitDockStationFactory implements DockFactory<SplitDockStation, Sp
         throw new XException( "element neither leaf nor node: " + element );
     }
     
+    public void write( SplitDockStationLayout layout, XStreamWriter out ) throws IOException{
+        if( layout.getFullscreen() != -1 ){
+            out.startElement( "fullscreen" );
+            out.attribute( "id", String.valueOf( layout.getFullscreen() ) );
+            out.endElement();
+        }
+        
+        if( layout.getRoot() != null ){
+            writeEntry( layout.getRoot(), out );
+        }
+    }
+    
+    /**
+     * Writes an entry in xml format directly into a stream.
+     * @param entry the entry to write
+     * @param out the stream to write into, the entry becomes a child of the current element
+     * @throws IOException if an I/O-error occurs
+     */
+    private void writeEntry( SplitDockStationLayout.Entry entry, XStreamWriter out ) throws IOException{
+        if( entry.asLeaf() != null ){
+            out.startElement( "leaf" );
+            out.attribute( "id", String.valueOf( entry.asLeaf().getId() ) );
+            out.attribute( "nodeId", String.valueOf( entry.getNodeId() ) );
+        }
+        else{
+            out.startElement( "node" );
+            out.attribute( "nodeId", String.valueOf( entry.getNodeId() ) );
+            out.attribute( "orientation", entry.asNode().getOrientation().name() );
+            out.attribute( "divider", String.valueOf( entry.asNode().getDivider() ) );
+            writeEntry( entry.asNode().getChildA(), out );
+            writeEntry( entry.asNode().getChildB(), out );
+        }
+        
+        Path[] placeholders = entry.getPlaceholders();
+        if( placeholders != null && placeholders.length > 0 ){
+            out.startElement( "placeholders" );
+            for( Path placeholder : placeholders ){
+                out.startElement( "placeholder" );
+                out.string( placeholder.toString() );
+                out.endElement();
+            }
+            out.endElement();
+        }
+        
+        PlaceholderMap map = entry.getPlaceholderMap();
+        if( map != null ){
+            out.startElement( "placeholder-map" );
+            map.write( out );
+            out.endElement();
+        }
+        
+        out.endElement();
+    }
+    
+    public SplitDockStationLayout read( XStreamReader in, PlaceholderStrategy placeholders ) throws IOException{
+        SplitDockStationLayout.Entry root = null;
+        int fullscreen = -1;
+        
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( root == null && (name.equals( "node" ) || name.equals( "leaf" ))){
+                root = readEntry( in, placeholders );
+            }
+            else if( name.equals( "fullscreen" )){
+                fullscreen = in.getInt( "id" );
+                in.skipElement();
+            }
+            else{
+                in.skipElement();
+            }
+        }
+        
+        return new SplitDockStationLayout( root, fullscreen );
+    }
+    
+    /**
+     * Reads the current element of <code>in</code>, which is of type "node" or "leaf", 
+     * and closes it.
+     * @param in the stream to read from
+     * @param strategy strategy used for removing invalid placeholders
+     * @return the new entry
+     * @throws IOException if an I/O-error occurs
+     */
+    private SplitDockStationLayout.Entry readEntry( XStreamReader in, PlaceholderStrategy strategy ) throws IOException{
+        String element = in.getName();
+        boolean leaf = "leaf".equals( element );
+        if( !leaf && !"node".equals( element )){
+            throw new XException( "element neither leaf nor node: " + element );
+        }
+        
+        long nodeId = -1;
+        if( in.getAttribute( "nodeId" ) != null ){
+            nodeId = in.getLong( "nodeId" );
+        }
+        
+        int id = -1;
+        Orientation orientation = null;
+        double divider = 0;
+        if( leaf ){
+            id = in.getInt( "id" );
+        }
+        else{
+            orientation = Orientation.valueOf( in.getString( "orientation" ) );
+            divider = in.getDouble( "divider" );
+        }
+        
+        Path[] placeholders = null;
+        PlaceholderMap map = null;
+        List<SplitDockStationLayout.Entry> children = new ArrayList<SplitDockStationLayout.Entry>( 2 );
+        
+        String name;
+        while( (name = in.nextElement()) != null ){
+            if( name.equals( "placeholders" ) && placeholders == null ){
+                List<Path> collection = new ArrayList<Path>();
+                int count = 0;
+                while( (name = in.nextElement()) != null ){
+                    if( name.equals( "placeholder" )){
+                        count++;
+                        Path placeholder = new Path( in.readString() );
+                        if( strategy == null || strategy.isValidPlaceholder( placeholder )){
+                            collection.add( placeholder );
+                        }
+                    }
+                    else{
+                        in.skipElement();
+                    }
+                }
+                if( count > 0 ){
+                    placeholders = collection.toArray( new Path[ collection.size() ]);
+                }
+            }
+            else if( name.equals( "placeholder-map" ) && map == null ){
+                map = new PlaceholderMap( in, strategy );
+                map.setPlaceholderStrategy( null );
+            }
+            else if( !leaf && (name.equals( "leaf" ) || name.equals( "node" ))){
+                children.add( readEntry( in, strategy ) );
+            }
+            else{
+                in.skipElement();
+            }
+        }
+        
+        if( leaf ){
+            return new SplitDockStationLayout.Leaf( id, placeholders, map, nodeId );
+        }
+        
+        if( children.size() != 2 )
+            throw new XException( "node element must have exactly two children, but has " + children.size() );
+        
+        return new SplitDockStationLayout.Node( orientation, divider, children.get( 0 ), children.get( 1 ), placeholders, map, nodeId );
+    }
+    
     /**
      * Creates new objects of {@link SplitDockStation}
      * @return the new instance
@@ -64,6 +64,12 @@ public abstract class SplitNode{
     /** a (hopefully) unique of for this node */
     private long id;
     
+    /** the cached result of {@link #createMinimumSize()}, <code>null</code> if not yet calculated */
+    private Dimension minimumSize;
+    
+    /** the root of the tree this node is attached to, <code>null</code> if this node is not attached to any {@link Root} */
+    private Root treeRoot;
+    
     /**
      * Creates a new SplitNode.
      * @param access the access to the owner of this node. Must not be <code>null</code>
@@ -83,6 +89,7 @@ public abstract class SplitNode{
      * Called if a child of this node changed.
      */
     protected void treeChanged(){
+    	minimumSize = null;
     	if( parent != null ){
     		parent.treeChanged();
     	}
@@ -342,6 +349,46 @@ public abstract class SplitNode{
     		node.setChild( null, node.getChildLocation( this ) );
     	}
         this.parent = parent;
+        setTreeRoot( parent == null ? null : parent.treeRoot );
+    }
+    
+    /**
+     * Sets the {@link Root} whose indices contain this node and its subtree. The
+     * node is removed from the indices of the old root and added to the indices
+     * of the new root.
+     * @param root the new root, can be <code>null</code>
+     */
+    void setTreeRoot( Root root ){
+    	if( treeRoot == root )
+    		return;
+    	
+    	if( treeRoot != null )
+    		treeRoot.unindex( this );
+    	treeRoot = root;
+    	if( root != null )
+    		root.index( this );
+    	
+    	if( this instanceof Node ){
+    		Node node = (Node)this;
+    		if( node.getLeft() != null )
+    			node.getLeft().setTreeRoot( root );
+    		if( node.getRight() != null )
+    			node.getRight().setTreeRoot( root );
+    	}
+    	else if( this instanceof Root ){
+    		SplitNode child = ((Root)this).getChild();
+    		if( child != null )
+    			child.setTreeRoot( root );
+    	}
+    }
+    
+    /**
+     * Gets the {@link Root} this node is attached to. Unlike {@link #getRoot()} this
+     * method does not walk up the tree.
+     * @return the root or <code>null</code>
+     */
+    protected Root getTreeRoot(){
+    	return treeRoot;
     }
     
     /**
@@ -389,6 +436,44 @@ public abstract class SplitNode{
      * @return the minimal size in pixel
      */
     public abstract Dimension getMinimumSize();
+    
+    /**
+     * Gets the minimal size of this node. The result of {@link #createMinimumSize()} is cached
+     * until the structure of the subtree changes or {@link #invalidateMinimumSize()} is called
+     * on this node or on one of its children. Hence calling this method repeatedly does neither 
+     * traverse the subtree nor create new objects.
+     * @return the minimal size in pixel, not <code>null</code>. Clients must not modify this object.
+     */
+    public Dimension getCachedMinimumSize(){
+    	if( minimumSize == null ){
+    		minimumSize = createMinimumSize();
+    		if( minimumSize == null ){
+    			minimumSize = new Dimension();
+    		}
+    	}
+    	return minimumSize;
+    }
+    
+    /**
+     * Calculates the value that is cached by {@link #getCachedMinimumSize()}. The default
+     * implementation calls {@link #getMinimumSize()}, subclasses may return objects that 
+     * are shared with their children.
+     * @return the minimal size in pixel
+     */
+    protected Dimension createMinimumSize(){
+    	return getMinimumSize();
+    }
+    
+    /**
+     * Deletes the {@link #getCachedMinimumSize() cached minimum size} of this node and of all
+     * its parents.
+     */
+    public void invalidateMinimumSize(){
+    	minimumSize = null;
+    	if( parent != null ){
+    		parent.invalidateMinimumSize();
+    	}
+    }
     
     /**
      * Updates the bounds of this node. If the node represents a {@link Component}, then 
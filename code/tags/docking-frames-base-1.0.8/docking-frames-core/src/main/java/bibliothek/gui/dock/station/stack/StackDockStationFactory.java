@@ -29,6 +29,8 @@ package bibliothek.gui.dock.station.stack;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import bibliothek.gui.DockController;
@@ -37,6 +39,7 @@ import bibliothek.gui.dock.DockFactory;
 import bibliothek.gui.dock.StackDockStation;
 import bibliothek.gui.dock.layout.DockLayoutInfo;
 import bibliothek.gui.dock.layout.LocationEstimationMap;
+import bibliothek.gui.dock.layout.StreamedDockFactory;
 import bibliothek.gui.dock.station.support.ConvertedPlaceholderListItem;
 import bibliothek.gui.dock.station.support.PlaceholderList;
 import bibliothek.gui.dock.station.support.PlaceholderListItem;
@@ -45,7 +48,11 @@ import bibliothek.gui.dock.station.support.PlaceholderMap;
 import bibliothek.gui.dock.station.support.PlaceholderStrategy;
 import bibliothek.util.Path;
 import bibliothek.util.Version;
+import bibliothek.util.io.CompactIO;
 import bibliothek.util.xml.XElement;
+import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * A {@link DockFactory} that can read and write instances of
@@ -55,7 +62,7 @@ import bibliothek.util.xml.XElement;
  * @author Benjamin Sigg
  */
 public class StackDockStationFactory implements
-		DockFactory<StackDockStation, StackDockStationLayout> {
+		DockFactory<StackDockStation, StackDockStationLayout>, StreamedDockFactory<StackDockStationLayout> {
 	/** The ID which is returned by {@link #getID()} */
 	public static final String ID = "StackDockStationFactory";
 
@@ -174,8 +181,8 @@ public class StackDockStationFactory implements
 			}
 		}
 		else{
-			Version.write( out, Version.VERSION_1_0_8 );
-			out.writeInt( layout.getSelected() );
+			Version.write( out, Version.VERSION_1_0_8b );
+			CompactIO.writeVarInt( out, layout.getSelected() );
 			layout.getPlaceholders().write( out );
 		}
 	}
@@ -185,8 +192,9 @@ public class StackDockStationFactory implements
 		version.checkCurrent();
 
 		boolean version8 = Version.VERSION_1_0_8.compareTo( version ) <= 0;
+		boolean version8b = Version.VERSION_1_0_8b.compareTo( version ) <= 0;
 		if( version8 ){
-			int selected = in.readInt();
+			int selected = version8b ? CompactIO.readVarInt( in ) : in.readInt();
 			PlaceholderMap map = new PlaceholderMap( in, placeholders );
 			map.setPlaceholderStrategy( null );
 			return new StackDockStationLayout( selected, map );
@@ -245,6 +253,77 @@ public class StackDockStationFactory implements
 		}
 	}
 
+	public void write( StackDockStationLayout layout, XStreamWriter out ) throws IOException{
+		if (layout.getSelected() >= 0){
+			out.startElement( "selected" );
+			out.value( String.valueOf( layout.getSelected() ) );
+			out.endElement();
+		}
+
+		if( layout instanceof RetroStackDockStationLayout ){
+			RetroStackDockStationLayout retroLayout = (RetroStackDockStationLayout)layout;
+			out.startElement( "children" );
+			for (int i : retroLayout.getChildren()) {
+				out.startElement( "child" );
+				out.attribute( "id", String.valueOf( i ) );
+				out.endElement();
+			}
+			out.endElement();
+		}
+		else{
+			out.startElement( "placeholders" );
+			layout.getPlaceholders().write( out );
+			out.endElement();
+		}
+	}
+
+	public StackDockStationLayout read( XStreamReader in, PlaceholderStrategy placeholders ) throws IOException{
+		int selected = -1;
+		PlaceholderMap map = null;
+		List<Integer> ids = null;
+
+		String name;
+		while( (name = in.nextElement()) != null ){
+			if( name.equals( "selected" ) ){
+				selected = parseInt( in.readValue() );
+			}
+			else if( name.equals( "placeholders" ) && map == null ){
+				map = new PlaceholderMap( in, placeholders );
+			}
+			else if( name.equals( "children" ) && ids == null ){
+				ids = new ArrayList<Integer>();
+				while( (name = in.nextElement()) != null ){
+					if( name.equals( "child" ) ){
+						ids.add( parseInt( in.getString( "id" ) ) );
+					}
+					in.skipElement();
+				}
+			}
+			else{
+				in.skipElement();
+			}
+		}
+
+		if( map == null ){
+			int[] children = new int[ ids == null ? 0 : ids.size() ];
+			for (int i = 0; i < children.length; i++)
+				children[i] = ids.get( i );
+			return new RetroStackDockStationLayout( selected, children );
+		}
+		else{
+			return new StackDockStationLayout( selected, map );
+		}
+	}
+
+	private int parseInt( String value ){
+		try{
+			return Integer.parseInt( value );
+		}
+		catch( NumberFormatException ex ){
+			throw new XException( ex );
+		}
+	}
+
 	/**
 	 * Called when a new {@link StackDockStation} is required.
 	 * 
@@ -27,9 +27,7 @@ package bibliothek.gui.dock.station.stack.tab;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 
 import bibliothek.gui.Dockable;
@@ -161,31 +159,9 @@ public class MenuLineLayout extends AbstractTabLayoutManager<MenuLineLayout.Layo
 		 * @return the preferred size
 		 */
 		public Dimension getPreferredSize(){
-			List<PaneLayout> layouts = listLayouts();
-			Dimension bestSize = new Dimension( 0, 0 );
-			
-			if( getPane().getTabPlacement().isHorizontal() ){
-				for( PaneLayout layout : layouts ){
-					if( layout.isPreferred() ){
-						Dimension size = layout.getSize();
-						if( size.width > bestSize.width ){
-							bestSize = size;
-						}
-					}
-				}
-			}
-			else{
-				for( PaneLayout layout : layouts ){
-					if( layout.isPreferred() ){
-						Dimension size = layout.getSize();
-						if( size.height > bestSize.height ){
-							bestSize = size;
-						}
-					}
-				}
-			}
-			
-			return bestSize;
+			PreferredCollector collector = new PreferredCollector();
+			search( collector );
+			return collector.bestSize;
 		}
 		
 		/**
@@ -193,27 +169,9 @@ public class MenuLineLayout extends AbstractTabLayoutManager<MenuLineLayout.Layo
 		 * @return the minimal size
 		 */
 		public Dimension getMinimumSize(){
-			List<PaneLayout> layouts = listLayouts();
-			Dimension bestSize = null;
-			
-			if( getPane().getTabPlacement().isHorizontal() ){
-				for( PaneLayout layout : layouts ){
-					Dimension size = layout.getSize();
-					if( bestSize == null || size.width < bestSize.width ){
-						bestSize = size;
-					}
-				}
-			}
-			else{
-				for( PaneLayout layout : layouts ){
-					Dimension size = layout.getSize();
-					if( bestSize == null || size.height < bestSize.height ){
-						bestSize = size;
-					}
-				}
-			}
-			
-			return bestSize;
+			MinimumCollector collector = new MinimumCollector();
+			search( collector );
+			return collector.bestSize;
 		}
 		
 		/**
@@ -231,105 +189,157 @@ public class MenuLineLayout extends AbstractTabLayoutManager<MenuLineLayout.Layo
 		public void layout(){
 			AxisConversion conversion = getConversion( getPane() );
 			
-			List<PaneLayout> layouts = listLayouts();
-			
 			// search the layout that fits into the available space
 			Rectangle available = conversion.viewToModel( getPane().getAvailableArea() );
 			
-			int space = available.width;
-			
-			PaneLayout best = null;
-			int bestSize = -1;
-			
-			PaneLayout smallest = null;
-			int smallestSize = -1;
-			
-			for( PaneLayout layout : layouts ){
-				Dimension size = conversion.viewToModel( layout.getSize() );
-				if( size.width <= space ){
-					if( layout.isPreferred() ){
-						if( (best == null || !best.isPreferred()) || bestSize < size.width ){
-							bestSize = size.width;
-							best = layout;
-						}
-					}
-					else{
-						if( (best == null || (!best.isPreferred()) && bestSize < size.width )){
-							bestSize = size.width;
-							best = layout;
-						}
-					}
-				}
-				
-				if( smallest == null || size.width < smallestSize ){
-					smallest = layout;
-					smallestSize = size.width;
-				}
-			}
+			LayoutCollector collector = new LayoutCollector( conversion, available.width );
+			search( collector );
 			
-			if( best != null ){
-				best.apply();
+			if( collector.best != null ){
+				collector.best.apply();
 			}
-			else if( smallest != null ){
-				smallest.apply();
+			else if( collector.smallest != null ){
+				collector.smallest.apply();
 			}
 		}
 		
 		/**
-		 * Creates a list of all available layouts.
-		 * @return the list of all available layouts
+		 * Offers all the available layouts to <code>collector</code>. Each layout has
+		 * a rank, a layout with a small rank is preferred over a layout with a big rank
+		 * if they are otherwise equal. Tab sizes which show only some of the tabs 
+		 * are offered together as {@link LayoutRange} if their lengths grow with
+		 * the number of tabs, allowing <code>collector</code> to search them 
+		 * instead of visiting all of them.
+		 * @param collector the collector for the layouts
 		 */
-		private List<PaneLayout> listLayouts(){
-			List<PaneLayout> results = new ArrayList<PaneLayout>();
+		private void search( Collector collector ){
 			TabPlacement orientation = getPane().getTabPlacement();
 			
 			tabs.setOrientation( orientation );
 			LineSize[] sizesTabs = tabs.getSizes();
+			boolean monotone = tabs.isSizeMonotone();
 			
 			menu.setOrientation( orientation );
 			Size[] sizesMenu = menu.getSizes();
 			
+			Size[] sizesInfo;
 			if( info != null ){
 				info.setOrientation( orientation );
-				Size[] sizesInfo = info.getSizes();
-				for( Size size : sizesInfo ){
-					listLayouts( results, size, sizesMenu, sizesTabs );
-				}
+				sizesInfo = info.getSizes();
 			}
 			else{
-				listLayouts( results, null, sizesMenu, sizesTabs );
-			}	
-			return results;
-		}
-		
-		private void listLayouts( List<PaneLayout> list, Size infoSize, Size[] menuSizes, LineSize[] tabSizes ){
-			for( LineSize tab : tabSizes ){
-				if( tab.isAllTabs() ){
-					listLayouts( list, infoSize, (Size)null, tab );
+				sizesInfo = new Size[]{ null };
+			}
+			
+			// the leading tab sizes that do not show all tabs
+			int partial = 0;
+			if( monotone ){
+				while( partial < sizesTabs.length && !sizesTabs[ partial ].isAllTabs() ){
+					partial++;
 				}
-				else{
-					for( Size menu : menuSizes ){
-						listLayouts( list, infoSize, menu, tab );
+			}
+			
+			long ranks = sizesMenu.length + 1;
+			
+			for( int i = 0; i < sizesInfo.length; i++ ){
+				Size infoSize = sizesInfo[i];
+				long infoRank = i * (long)sizesTabs.length;
+				
+				for( int m = 0; m < sizesMenu.length && partial > 0; m++ ){
+					LayoutRange range = range( infoSize, sizesMenu[m], sizesTabs, partial );
+					if( range != null ){
+						range.rank = infoRank * ranks + m + 1;
+						range.ranks = ranks;
+						collector.add( range );
+					}
+				}
+				
+				for( int t = partial; t < sizesTabs.length; t++ ){
+					LineSize tab = sizesTabs[t];
+					long tabRank = (infoRank + t) * ranks;
+					if( tab.isAllTabs() ){
+						if( accept( infoSize, null, tab ))
+							collector.add( new PaneLayout( tab, null, infoSize ), tabRank );
+					}
+					else{
+						for( int m = 0; m < sizesMenu.length; m++ ){
+							if( accept( infoSize, sizesMenu[m], tab ))
+								collector.add( new PaneLayout( tab, sizesMenu[m], infoSize ), tabRank + m + 1 );
+						}
 					}
 				}
 			}
 		}
 		
-		private void listLayouts( List<PaneLayout> list, Size infoSize, Size menuSize, LineSize tabSize ){
+		/**
+		 * Creates a {@link LayoutRange} containing all the sizes of the first <code>partial</code>
+		 * sizes of <code>tabSizes</code> which are accepted in combination with <code>menuSize</code>
+		 * and <code>infoSize</code>.
+		 * @param infoSize the size of the info panel, may be <code>null</code>
+		 * @param menuSize the size of the menu, not <code>null</code>
+		 * @param tabSizes all the sizes of the tabs
+		 * @param partial the number of sizes which do not show all tabs
+		 * @return the range or <code>null</code> if no size is accepted
+		 */
+		private LayoutRange range( Size infoSize, Size menuSize, LineSize[] tabSizes, int partial ){
+			int end = 0;
+			if( menuSize.isMinimum() ){
+				// only single tabs are accepted, and they are at the beginning
+				while( end < partial && accept( infoSize, menuSize, tabSizes[ end ] )){
+					end++;
+				}
+			}
+			else if( accept( infoSize, menuSize, tabSizes[0] )){
+				end = partial;
+			}
+			
+			if( end == 0 )
+				return null;
+			
+			return new LayoutRange( infoSize, menuSize, tabSizes, end );
+		}
+		
+		/**
+		 * Tells whether the combination of <code>infoSize</code>, <code>menuSize</code>
+		 * and <code>tabSize</code> is a valid layout.
+		 * @param infoSize the size of the info panel, may be <code>null</code>
+		 * @param menuSize the size of the menu, may be <code>null</code>
+		 * @param tabSize the size of the tabs, not <code>null</code>
+		 * @return whether the combination is valid
+		 */
+		private boolean accept( Size infoSize, Size menuSize, LineSize tabSize ){
 			boolean tabMustBeMinimum = (infoSize != null && infoSize.isMinimum()) || (menuSize != null);
 			boolean tabMustBeSingle = menuSize != null && menuSize.isMinimum();
 			boolean infoMustBeMinimum = menuSize != null && menuSize.isMinimum();
 			
 			if( tabMustBeMinimum && !tabSize.isMinimum() )
-				return;
+				return false;
 			
 			if( tabMustBeSingle && (tabSize.getTabCount() > 1 ))
-				return;
+				return false;
 			
 			if( infoMustBeMinimum && (infoSize != null && !infoSize.isMinimum()))
-				return;
+				return false;
 			
-			list.add( new PaneLayout( tabSize, menuSize, infoSize ) );			
+			return true;
+		}
+		
+		@Override
+		public void added( TabPane pane, Dockable dockable ){
+			super.added( pane, dockable );
+			tabs.invalidateSizes();
+		}
+		
+		@Override
+		public void removed( TabPane pane, Dockable dockable ){
+			super.removed( pane, dockable );
+			tabs.invalidateSizes();
+		}
+		
+		@Override
+		public void selectionChanged( TabPane pane ){
+			super.selectionChanged( pane );
+			tabs.invalidateSizes();
 		}
 		
 		@Override
@@ -341,6 +351,248 @@ public class MenuLineLayout extends AbstractTabLayoutManager<MenuLineLayout.Layo
 				info = newInfo.toLayoutBlock();
 		}
 		
+		/**
+		 * A set of layouts which all use the same menu and info, and whose tabs
+		 * need more space the more tabs they show.
+		 * @author Benjamin Sigg
+		 */
+		private class LayoutRange{
+			private Size menuSize;
+			private Size infoSize;
+			private LineSize[] tabSizes;
+			private int size;
+			
+			/** the rank of the first layout */
+			private long rank;
+			/** the difference between the ranks of two consecutive layouts */
+			private long ranks;
+			
+			/**
+			 * Creates a new range
+			 * @param info the size of the info panel, may be <code>null</code>
+			 * @param menu the size of the menu, not <code>null</code>
+			 * @param tabSizes the sizes of the tabs
+			 * @param size the number of layouts in this range
+			 */
+			public LayoutRange( Size info, Size menu, LineSize[] tabSizes, int size ){
+				this.infoSize = info;
+				this.menuSize = menu;
+				this.tabSizes = tabSizes;
+				this.size = size;
+			}
+			
+			/**
+			 * Gets the number of layouts in this range.
+			 * @return the number of layouts
+			 */
+			public int size(){
+				return size;
+			}
+			
+			/**
+			 * Gets the <code>index</code>'th layout, the layouts are ordered
+			 * by the space they need.
+			 * @param index the index of the layout
+			 * @return the layout
+			 */
+			public PaneLayout get( int index ){
+				return new PaneLayout( tabSizes[ index ], menuSize, infoSize );
+			}
+			
+			/**
+			 * Gets the rank of the <code>index</code>'th layout.
+			 * @param index the index of the layout
+			 * @return the rank
+			 */
+			public long rank( int index ){
+				return rank + index * ranks;
+			}
+		}
+		
+		/**
+		 * Receives the layouts found by {@link Layout#search(Collector)}.
+		 * @author Benjamin Sigg
+		 */
+		private abstract class Collector{
+			/**
+			 * Called for a single layout.
+			 * @param layout the new layout
+			 * @param rank the rank of the layout
+			 */
+			public abstract void add( PaneLayout layout, long rank );
+			
+			/**
+			 * Called for a set of layouts, the default implementation
+			 * calls {@link #add(PaneLayout, long)} for each layout.
+			 * @param range the new layouts
+			 */
+			public void add( LayoutRange range ){
+				for( int i = 0, n = range.size(); i < n; i++ ){
+					add( range.get( i ), range.rank( i ));
+				}
+			}
+			
+			/**
+			 * Gets the length of <code>size</code> along the line of tabs.
+			 * @param size some size
+			 * @return the length of <code>size</code>
+			 */
+			protected int length( Dimension size ){
+				if( getPane().getTabPlacement().isHorizontal() )
+					return size.width;
+				else
+					return size.height;
+			}
+		}
+		
+		/**
+		 * Searches the largest preferred layout.
+		 * @author Benjamin Sigg
+		 */
+		private class PreferredCollector extends Collector{
+			private Dimension bestSize = new Dimension( 0, 0 );
+			private long bestRank = -1;
+			
+			@Override
+			public void add( PaneLayout layout, long rank ){
+				if( layout.isPreferred() ){
+					Dimension size = layout.getSize();
+					int length = length( size );
+					int bestLength = length( bestSize );
+					if( length > bestLength || (length == bestLength && bestRank > rank )){
+						bestSize = size;
+						bestRank = rank;
+					}
+				}
+			}
+			
+			@Override
+			public void add( LayoutRange range ){
+				// a range never contains a preferred layout
+			}
+		}
+		
+		/**
+		 * Searches the smallest layout.
+		 * @author Benjamin Sigg
+		 */
+		private class MinimumCollector extends Collector{
+			private Dimension bestSize = null;
+			private long bestRank;
+			
+			@Override
+			public void add( PaneLayout layout, long rank ){
+				Dimension size = layout.getSize();
+				if( bestSize == null || length( size ) < length( bestSize ) || (length( size ) == length( bestSize ) && rank < bestRank )){
+					bestSize = size;
+					bestRank = rank;
+				}
+			}
+			
+			@Override
+			public void add( LayoutRange range ){
+				add( range.get( 0 ), range.rank( 0 ) );
+			}
+		}
+		
+		/**
+		 * Searches the layout that fits best into the available space.
+		 * @author Benjamin Sigg
+		 */
+		private class LayoutCollector extends Collector{
+			private AxisConversion conversion;
+			private int space;
+			
+			private PaneLayout best;
+			private int bestSize = -1;
+			private long bestRank;
+			
+			private PaneLayout smallest;
+			private int smallestSize = -1;
+			private long smallestRank;
+			
+			/**
+			 * Creates a new collector.
+			 * @param conversion conversion used to transform the size of the layouts
+			 * @param space the available space
+			 */
+			public LayoutCollector( AxisConversion conversion, int space ){
+				this.conversion = conversion;
+				this.space = space;
+			}
+			
+			private int width( PaneLayout layout ){
+				return conversion.viewToModel( layout.getSize() ).width;
+			}
+			
+			@Override
+			public void add( PaneLayout layout, long rank ){
+				add( layout, width( layout ), rank );
+			}
+			
+			private void add( PaneLayout layout, int width, long rank ){
+				if( width <= space ){
+					if( layout.isPreferred() ){
+						if( best == null || !best.isPreferred() || bestSize < width || (bestSize == width && rank < bestRank) ){
+							best = layout;
+							bestSize = width;
+							bestRank = rank;
+						}
+					}
+					else if( best == null || (!best.isPreferred() && (bestSize < width || (bestSize == width && rank < bestRank)))){
+						best = layout;
+						bestSize = width;
+						bestRank = rank;
+					}
+				}
+				
+				if( smallest == null || width < smallestSize || (width == smallestSize && rank < smallestRank) ){
+					smallest = layout;
+					smallestSize = width;
+					smallestRank = rank;
+				}
+			}
+			
+			@Override
+			public void add( LayoutRange range ){
+				// the smallest layout of the range
+				PaneLayout first = range.get( 0 );
+				int firstWidth = width( first );
+				add( first, firstWidth, range.rank( 0 ));
+				if( firstWidth > space ){
+					return;
+				}
+				
+				// the largest layout of the range that still fits
+				int low = 0;
+				int high = range.size()-1;
+				while( low < high ){
+					int middle = (low + high + 1) / 2;
+					if( width( range.get( middle )) <= space ){
+						low = middle;
+					}
+					else{
+						high = middle-1;
+					}
+				}
+				
+				// the first layout of the range with the same width
+				int width = width( range.get( low ));
+				high = low;
+				low = 0;
+				while( low < high ){
+					int middle = (low + high) / 2;
+					if( width( range.get( middle )) < width ){
+						low = middle+1;
+					}
+					else{
+						high = middle;
+					}
+				}
+				add( range.get( low ), width, range.rank( low ));
+			}
+		}
+		
 		/**
 		 * A possibility for a layout
 		 * @author Benjamin Sigg
@@ -28,7 +28,9 @@ import java.awt.Dimension;
 import java.awt.Insets;
 import java.awt.Rectangle;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import bibliothek.gui.Dockable;
 import bibliothek.gui.dock.station.stack.tab.AxisConversion;
@@ -48,6 +50,9 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 	 */
 	private boolean sameSize = true;
 	
+	/** the result of the last call to {@link #getSizes()}, <code>null</code> if not yet calculated */
+	private SizeCache sizes;
+	
 	/**
 	 * If set, then all tabs have the same height (width) if laid out
 	 * horizontal (vertical).
@@ -87,10 +92,53 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 		insertTab( pane.putOnTab( selection ));
 	}
 
+	/**
+	 * Gets the possible sizes of this block. The sizes are ordered by the
+	 * number of tabs they show. The result of this method is cached, the cache
+	 * is only recalculated if the orientation, the set or the order of the tabs,
+	 * or the size of a tab changed.
+	 * @return the possible sizes
+	 * @see #invalidateSizes()
+	 */
 	public LineSize[] getSizes(){
 		Tab[] tabs = getTabsOrderedByImportance();
-		SizeCollector collector = new SizeCollector( getPane().getDockables() );
+		Dockable[] dockables = getPane().getDockables();
 		
+		if( sizes == null || !sizes.isValid( tabs, dockables ) ){
+			sizes = new SizeCache( tabs, dockables );
+		}
+		
+		return sizes.getSizes();
+	}
+	
+	/**
+	 * Tells whether the length of the {@link LineSize}s returned by {@link #getSizes()} 
+	 * grows, or at least does not shrink, with the number of tabs they show. The length 
+	 * is the width if the orientation is horizontal, the height otherwise. 
+	 * The last size, the preferred size, is not included in this property.
+	 * @return <code>true</code> if the sizes grow monotone
+	 */
+	public boolean isSizeMonotone(){
+		getSizes();
+		return sizes.isMonotone();
+	}
+	
+	/**
+	 * Forces this block to recalculate the result of {@link #getSizes()} the next
+	 * time the sizes are needed. This method should be called if a tab was added
+	 * or removed, or if the selection changed.
+	 */
+	public void invalidateSizes(){
+		sizes = null;
+	}
+	
+	/**
+	 * Calculates the sizes of this block.
+	 * @param tabs the tabs ordered by importance
+	 * @param collector used to collect the size, contains all tabs once this method finished
+	 * @return the sizes
+	 */
+	private LineSize[] calculateSizes( Tab[] tabs, SizeCollector collector ){
 		LineSize[] result = new LineSize[ tabs.length+1 ];
 		for( int i = 0; i < tabs.length; i++ ){
 			collector.insert( tabs[i] );
@@ -417,6 +465,107 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 		}
 	}
 	
+	/**
+	 * The result of {@link LineTabsLayoutBlock#getSizes()} together with the
+	 * information that is required to find out whether the result is still valid.
+	 * @author Benjamin Sigg
+	 */
+	private class SizeCache{
+		private LineSize[] sizes;
+		private boolean monotone;
+		
+		private TabPlacement orientation;
+		private Tab[] tabs;
+		private Dockable[] dockables;
+		
+		/** all the tabs in the order of {@link #dockables} */
+		private Tab[] line;
+		private Dimension[] minimum;
+		private Dimension[] preferred;
+		
+		/**
+		 * Calculates the sizes of the block.
+		 * @param tabs the tabs ordered by importance
+		 * @param dockables the elements of the {@link TabPane}
+		 */
+		public SizeCache( Tab[] tabs, Dockable[] dockables ){
+			this.tabs = tabs;
+			this.dockables = dockables;
+			orientation = getOrientation();
+			
+			SizeCollector collector = new SizeCollector( dockables );
+			sizes = calculateSizes( tabs, collector );
+			
+			line = collector.getVisibleTabs();
+			minimum = new Dimension[ line.length ];
+			preferred = new Dimension[ line.length ];
+			for( int i = 0; i < line.length; i++ ){
+				minimum[i] = new Dimension( line[i].getMinimumSize( line ));
+				preferred[i] = new Dimension( line[i].getPreferredSize( line ));
+			}
+			
+			boolean horizontal = orientation.isHorizontal();
+			monotone = true;
+			for( int i = 1; i < sizes.length-1 && monotone; i++ ){
+				if( horizontal ){
+					monotone = sizes[i-1].getWidth() <= sizes[i].getWidth();
+				}
+				else{
+					monotone = sizes[i-1].getHeight() <= sizes[i].getHeight();
+				}
+			}
+		}
+		
+		/**
+		 * Tells whether this cache still represents the current state of the block.
+		 * @param tabs the tabs ordered by importance
+		 * @param dockables the elements of the {@link TabPane}
+		 * @return <code>true</code> if the cache can be used
+		 */
+		public boolean isValid( Tab[] tabs, Dockable[] dockables ){
+			if( orientation != getOrientation() )
+				return false;
+			
+			if( !same( this.tabs, tabs ) || !same( this.dockables, dockables ))
+				return false;
+			
+			for( int i = 0; i < line.length; i++ ){
+				if( !minimum[i].equals( line[i].getMinimumSize( line ) ))
+					return false;
+				if( !preferred[i].equals( line[i].getPreferredSize( line ) ))
+					return false;
+			}
+			
+			return true;
+		}
+		
+		private boolean same( Object[] a, Object[] b ){
+			if( a.length != b.length )
+				return false;
+			for( int i = 0; i < a.length; i++ ){
+				if( a[i] != b[i] )
+					return false;
+			}
+			return true;
+		}
+		
+		/**
+		 * Gets the sizes of the block.
+		 * @return the sizes
+		 */
+		public LineSize[] getSizes(){
+			return sizes;
+		}
+		
+		/**
+		 * Tells whether the minimum sizes grow with the number of tabs.
+		 * @return whether the sizes grow monotone
+		 */
+		public boolean isMonotone(){
+			return monotone;
+		}
+	}
+	
 	/**
 	 * Used to calculate the minimum and preferred size of a set of 
 	 * {@link Tab}s.
@@ -424,6 +573,8 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 	 */
 	protected class SizeCollector{
 		private Dockable[] dockables;
+		/** the index of each element of {@link #dockables} */
+		private Map<Dockable, Integer> indices;
 		private Tab[] tabs;
 		
 		private Dimension[] minimum;
@@ -431,6 +582,11 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 		private int[] overlapPrevious;
 		private int[] overlapNext;
 		
+		/** the length of the line of tabs when using the minimum or the preferred sizes */
+		private int lengthMinimum, lengthPreferred;
+		/** the breadth of the line of tabs when using the minimum or the preferred sizes */
+		private int breadthMinimum, breadthPreferred;
+		
 		/**
 		 * Creates a new collector
 		 * @param dockables underlying set of {@link Dockable}s.
@@ -444,6 +600,11 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 			preferred = new Dimension[ size ];
 			overlapPrevious = new int[ size ];
 			overlapNext = new int[ size ];
+			
+			indices = new IdentityHashMap<Dockable, Integer>();
+			for( int i = size-1; i >= 0; i-- ){
+				indices.put( dockables[i], i );
+			}
 		}
 		
 		/**
@@ -452,12 +613,9 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 		 * @param tab the new tab
 		 */
 		public void insert( Tab tab ){
-			Dockable dockable = tab.getDockable();
-			for( int i = 0; i < dockables.length; i++ ){
-				if( dockables[i] == dockable ){
-					insert( tab, i );
-					return;
-				}
+			Integer index = indices.get( tab.getDockable() );
+			if( index != null ){
+				insert( tab, index.intValue() );
 			}
 		}
 		
@@ -465,7 +623,7 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 		 * Gets all the tabs that are currently not <code>null</code>
 		 * @return the visible tabs
 		 */
-		private Tab[] getVisibleTabs(){
+		public Tab[] getVisibleTabs(){
 			int count = 0;
 			for( Tab tab : tabs ){
 				if( tab != null ){
@@ -490,17 +648,13 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 			
 			boolean horizontal = getOrientation().isHorizontal();
 			
+			int previous = -1;
+			int next = -1;
+			
 			// search previous
 			for( int i = index-1; i >= 0; i-- ){
 				if( tabs[i] != null ){
-					if( horizontal ){
-						overlapNext[i] = tabs[i].getOverlap( tab ).right;
-						overlapPrevious[ index ] = tab.getOverlap( tabs[i] ).left;
-					}
-					else{
-						overlapNext[i] = tabs[i].getOverlap( tab ).bottom;
-						overlapPrevious[ index ] = tab.getOverlap( tabs[i] ).top;
-					}
+					previous = i;
 					break;
 				}
 			}
@@ -508,17 +662,64 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 			// search next
 			for( int i = index+1; i < tabs.length; i++ ){
 				if( tabs[i] != null ){
-					if( horizontal ){
-						overlapNext[ index ] = tab.getOverlap( tabs[i] ).right;
-						overlapPrevious[i] = tabs[i].getOverlap( tab ).left;
-					}
-					else{
-						overlapNext[ index ] = tab.getOverlap( tabs[i] ).bottom;
-						overlapPrevious[i] = tabs[i].getOverlap( tab ).top;
-					}
+					next = i;
 					break;
 				}
 			}
+			
+			int overlap = 0;
+			if( previous != -1 && next != -1 ){
+				overlap -= overlap( previous, next );
+			}
+			
+			if( previous != -1 ){
+				if( horizontal ){
+					overlapNext[ previous ] = tabs[ previous ].getOverlap( tab ).right;
+					overlapPrevious[ index ] = tab.getOverlap( tabs[ previous ] ).left;
+				}
+				else{
+					overlapNext[ previous ] = tabs[ previous ].getOverlap( tab ).bottom;
+					overlapPrevious[ index ] = tab.getOverlap( tabs[ previous ] ).top;
+				}
+				overlap += overlap( previous, index );
+			}
+			
+			if( next != -1 ){
+				if( horizontal ){
+					overlapNext[ index ] = tab.getOverlap( tabs[ next ] ).right;
+					overlapPrevious[ next ] = tabs[ next ].getOverlap( tab ).left;
+				}
+				else{
+					overlapNext[ index ] = tab.getOverlap( tabs[ next ] ).bottom;
+					overlapPrevious[ next ] = tabs[ next ].getOverlap( tab ).top;
+				}
+				overlap += overlap( index, next );
+			}
+			
+			// update the size of the line
+			if( horizontal ){
+				lengthMinimum += minimum[ index ].width - overlap;
+				lengthPreferred += preferred[ index ].width - overlap;
+				breadthMinimum = Math.max( breadthMinimum, minimum[ index ].height );
+				breadthPreferred = Math.max( breadthPreferred, preferred[ index ].height );
+			}
+			else{
+				lengthMinimum += minimum[ index ].height - overlap;
+				lengthPreferred += preferred[ index ].height - overlap;
+				breadthMinimum = Math.max( breadthMinimum, minimum[ index ].width );
+				breadthPreferred = Math.max( breadthPreferred, preferred[ index ].width );
+			}
+		}
+		
+		/**
+		 * Gets the number of pixels the tabs at <code>previous</code> and <code>next</code>
+		 * overlap, there must not be any other tab between these two tabs.
+		 * @param previous the index of the first tab
+		 * @param next the index of the second tab
+		 * @return the overlap
+		 */
+		private int overlap( int previous, int next ){
+			return Math.max( overlapNext[ previous ], overlapPrevious[ next ] );
 		}
 		
 		/**
@@ -526,7 +727,7 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 		 * @return minimum size
 		 */
 		public Dimension getMinimumSize(){
-			return getSize( minimum );
+			return getSize( lengthMinimum, breadthMinimum );
 		}
 		
 		/**
@@ -534,51 +735,14 @@ public class LineTabsLayoutBlock extends TabsLayoutBlock{
 		 * @return preferred size
 		 */
 		public Dimension getPreferredSize(){
-			return getSize( preferred );
+			return getSize( lengthPreferred, breadthPreferred );
 		}
 		
-		private Dimension getSize( Dimension[] required ){
-			int width = 0;
-			int height = 0;
-			
-			int previous = -1;
-			
-			if( getOrientation().isHorizontal() ){
-				for( int i = 0; i < tabs.length; i++ ){
-					if( tabs[i] != null ){
-						Dimension size = required[i];
-						
-						height = Math.max( height, size.height );
-						
-						width += size.width;
-						
-						if( previous != -1 ){
-							width -= Math.max( overlapNext[ previous ], overlapPrevious[ i ] );
-						}
-						
-						previous = i;
-					}
-				}
-			}
-			else{
-				for( int i = 0; i < tabs.length; i++ ){
-					if( tabs[i] != null ){
-						Dimension size = required[i];
-						
-						width = Math.max( width, size.width );
-						
-						height += size.height;
-						
-						if( previous != -1 ){
-							height -= Math.max( overlapNext[ previous ], overlapPrevious[ i ] );
-						}
-						
-						previous = i;
-					}
-				}
-			}
-				
-			return new Dimension( width, height );			
+		private Dimension getSize( int length, int breadth ){
+			if( getOrientation().isHorizontal() )
+				return new Dimension( length, breadth );
+			else
+				return new Dimension( breadth, length );
 		}
 	}
 }
@@ -26,23 +26,54 @@
 
 package bibliothek.gui.dock.station.support;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
+import bibliothek.gui.DockController;
 import bibliothek.gui.DockStation;
 import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.control.DockRegister;
 import bibliothek.gui.dock.event.DockStationListener;
 
 /**
  * This manager stores {@link DockStationListener DockStationListeners}
- * and provides methods to invoke the listeners.
+ * and provides methods to invoke the listeners.<br>
+ * While the {@link DockRegister} of the station is {@link DockRegister#isStalled() stalled}
+ * (e.g. because {@link DockController#freezeLayout()} was called) events about the
+ * visibility and the selection of children are collected. Repeated changes are merged,
+ * changes that cancel each other out are dropped, and the remaining events are fired
+ * once the register is no longer stalled. Events about adding or removing children
+ * are always fired immediately.
  * @author Benjamin Sigg
  *
  */
 public class DockStationListenerManager {
 	private List<DockStationListener> listeners = new ArrayList<DockStationListener>();
+	/** a copy of {@link #listeners}, <code>null</code> if outdated */
+	private DockStationListener[] listenerArray;
     private DockStation station;
     
+    /** the register whose stalled state delays events, <code>null</code> if no events are pending */
+    private DockRegister transaction;
+    /** the pending visibility events, in the order they were first issued */
+    private Map<Dockable, Boolean> pendingVisibility = new LinkedHashMap<Dockable, Boolean>();
+    /** the visibility the children had before the transaction started */
+    private Map<Dockable, Boolean> visibilityBefore = new HashMap<Dockable, Boolean>();
+    /** children that were added or removed during the transaction */
+    private Set<Dockable> moved = new HashSet<Dockable>();
+    /** whether a selection event is pending */
+    private boolean selectionPending = false;
+    /** the selection before the transaction started */
+    private Dockable selectionBefore;
+    /** the selection after the last event of the transaction */
+    private Dockable selectionAfter;
+    
+    /** fires the pending events once the transaction ends */
+    private Runnable flush = new Runnable(){
+    	public void run(){
+    		firePending();
+    	}
+    };
+    
     /**
      * Constructs a new manager.
      * @param station The station which shall be used as origin, not <code>null</code>
@@ -68,6 +99,7 @@ public class DockStationListenerManager {
      */
     public void addListener( DockStationListener listener ){
     	listeners.add( listener );
+    	listenerArray = null;
     }
     
     /**
@@ -76,6 +108,77 @@ public class DockStationListenerManager {
      */
     public void removeListener( DockStationListener listener ){
     	listeners.remove( listener );
+    	listenerArray = null;
+    }
+    
+    /**
+     * Gets an array containing all the listeners of this manager. The array
+     * is shared and must not be modified.
+     * @return all the listeners
+     */
+    protected DockStationListener[] listeners(){
+    	if( listenerArray == null )
+    		listenerArray = listeners.toArray( new DockStationListener[ listeners.size() ] );
+    	return listenerArray;
+    }
+    
+    /**
+     * Tells whether events are currently collected rather than fired. Opens
+     * a new transaction if the {@link DockRegister} of the station is stalled.
+     * @return <code>true</code> if events should be collected
+     */
+    private boolean isTransaction(){
+    	if( transaction != null )
+    		return true;
+    	
+    	DockController controller = station.getController();
+    	if( controller == null )
+    		return false;
+    	
+    	DockRegister register = controller.getRegister();
+    	if( !register.isStalled() )
+    		return false;
+    	
+    	transaction = register;
+    	register.invokeUnstalled( flush );
+    	return true;
+    }
+    
+    /**
+     * Fires all the events that were collected during the last transaction.
+     */
+    private void firePending(){
+    	transaction = null;
+    	
+    	Map<Dockable, Boolean> visibility = pendingVisibility;
+    	Map<Dockable, Boolean> before = visibilityBefore;
+    	Set<Dockable> moved = this.moved;
+    	
+    	pendingVisibility = new LinkedHashMap<Dockable, Boolean>();
+    	visibilityBefore = new HashMap<Dockable, Boolean>();
+    	this.moved = new HashSet<Dockable>();
+    	
+    	for( Map.Entry<Dockable, Boolean> entry : visibility.entrySet() ){
+    		Dockable dockable = entry.getKey();
+    		Boolean value = entry.getValue();
+    		if( moved.contains( dockable ) || !value.equals( before.get( dockable ) )){
+    			for( DockStationListener listener : listeners() )
+    	            listener.dockableVisibiltySet( station, dockable, value.booleanValue() );
+    		}
+    	}
+    	
+    	if( selectionPending ){
+    		selectionPending = false;
+    		Dockable oldSelected = selectionBefore;
+    		Dockable newSelected = selectionAfter;
+    		selectionBefore = null;
+    		selectionAfter = null;
+    		
+    		if( oldSelected != newSelected ){
+    			for( DockStationListener listener : listeners() )
+    	            listener.dockableSelected( station, oldSelected, newSelected );
+    		}
+    	}
     }
 	
 	/**
@@ -85,7 +188,14 @@ public class DockStationListenerManager {
      * @param value the new state
      */
     public void fireDockableVisibilitySet( Dockable dockable, boolean value ){
-    	for( DockStationListener listener : listeners.toArray( new DockStationListener[ listeners.size() ] ))
+    	if( isTransaction() ){
+    		if( !pendingVisibility.containsKey( dockable ))
+    			visibilityBefore.put( dockable, !value );
+    		pendingVisibility.put( dockable, value );
+    		return;
+    	}
+    	
+    	for( DockStationListener listener : listeners() )
             listener.dockableVisibiltySet( station, dockable, value );
     }
     
@@ -95,7 +205,10 @@ public class DockStationListenerManager {
      * @param dockable the {@link Dockable} which was added
      */
     public void fireDockableAdded( Dockable dockable ){
-        for( DockStationListener listener : listeners.toArray( new DockStationListener[ listeners.size() ] ))
+    	if( isTransaction() )
+    		moved.add( dockable );
+    	
+        for( DockStationListener listener : listeners())
             listener.dockableAdded( station, dockable );
     }
     
@@ -105,7 +218,10 @@ public class DockStationListenerManager {
      * @param dockable the {@link Dockable} which was removed
      */
     public void fireDockableRemoved( Dockable dockable ){
-        for( DockStationListener listener : listeners.toArray( new DockStationListener[ listeners.size() ] ))
+    	if( isTransaction() )
+    		moved.add( dockable );
+    	
+        for( DockStationListener listener : listeners())
             listener.dockableRemoved( station, dockable );
     }
     
@@ -115,7 +231,7 @@ public class DockStationListenerManager {
      * @param dockable the {@link Dockable} which will be added
      */
     public void fireDockableAdding( Dockable dockable ){
-        for( DockStationListener listener : listeners.toArray( new DockStationListener[ listeners.size() ] ))
+        for( DockStationListener listener : listeners())
             listener.dockableAdding( station, dockable );
     }
     
@@ -125,7 +241,7 @@ public class DockStationListenerManager {
      * @param dockable the {@link Dockable} which will be removed
      */
     public void fireDockableRemoving( Dockable dockable ){
-        for( DockStationListener listener : listeners.toArray( new DockStationListener[ listeners.size() ] ))
+        for( DockStationListener listener : listeners())
             listener.dockableRemoving( station, dockable );
     }
     
@@ -136,7 +252,16 @@ public class DockStationListenerManager {
      * @param newSelected the selected {@link Dockable}
      */
     public void fireDockableSelected( Dockable oldSelected, Dockable newSelected ){
-        for( DockStationListener listener : listeners.toArray( new DockStationListener[ listeners.size() ] ))
+    	if( isTransaction() ){
+    		if( !selectionPending ){
+    			selectionPending = true;
+    			selectionBefore = oldSelected;
+    		}
+    		selectionAfter = newSelected;
+    		return;
+    	}
+    	
+        for( DockStationListener listener : listeners())
             listener.dockableSelected( station, oldSelected, newSelected );
     }
 }
@@ -29,8 +29,10 @@ package bibliothek.gui.dock.station.support;
 import java.util.HashMap;
 import java.util.Map;
 
+import bibliothek.gui.DockController;
 import bibliothek.gui.DockStation;
 import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.control.DockRegister;
 import bibliothek.gui.dock.event.DockStationAdapter;
 
 /**
@@ -39,13 +41,29 @@ import bibliothek.gui.dock.event.DockStationAdapter;
  * if the visibility of some children has changed. The manager fires events
  * automatically if a {@link Dockable} is added or removed from the 
  * parent station. The manager tries to minimize the number of messages
- * sent to the listeners.
+ * sent to the listeners.<br>
+ * While the {@link DockRegister} is {@link DockRegister#isStalled() stalled}, calls
+ * to {@link #fire()} are merged into one check that runs once the register is no 
+ * longer stalled.
  * @author Benjamin Sigg
  */
 public class DockableVisibilityManager extends DockStationAdapter{
     private DockStationListenerManager listeners;
     private Map<Dockable, Boolean> visibility = new HashMap<Dockable, Boolean>();
     
+    /** whether a call to {@link #fire()} is pending */
+    private boolean dirty = false;
+    
+    /** executes a pending call to {@link #fire()} */
+    private Runnable refresh = new Runnable(){
+    	public void run(){
+    		if( dirty ){
+    			dirty = false;
+    			fire();
+    		}
+    	}
+    };
+    
     /**
      * Constructs a new manager
      * @param listeners the listeners used to fire events
@@ -64,6 +82,20 @@ public class DockableVisibilityManager extends DockStationAdapter{
      */
     public void fire(){
         DockStation station = listeners.getStation();
+        
+        DockController controller = station.getController();
+        if( controller != null ){
+        	DockRegister register = controller.getRegister();
+        	if( register.isStalled() ){
+        		if( !dirty ){
+        			dirty = true;
+        			register.invokeUnstalled( refresh );
+        		}
+        		return;
+        	}
+        }
+        dirty = false;
+        
         for( int i = 0, n = station.getDockableCount(); i<n; i++ ){
             Dockable dockable = station.getDockable(i);
             boolean visible = station.isVisible( dockable );
@@ -25,10 +25,18 @@
  */
 package bibliothek.gui.dock.station.support;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Set;
 
 import bibliothek.gui.DockStation;
@@ -42,11 +50,19 @@ import bibliothek.util.Path;
  * of placeholders.<br>
  * Clients should call {@link #bind()} and {@link #unbind()} to manage the
  * lifecycle of this list.<br>
+ * The entries of this list are stored in a balanced tree that knows how many
+ * {@link Dockable}s and placeholders each subtree contains, hence accessing an element
+ * by its index or computing the index of an element have logarithmic cost. Placeholders
+ * and dockables are additionally stored in hash maps, searching them does not require
+ * visiting all the entries of this list.<br>
  * A {@link PlaceholderList} is not thread-safe.
  * @author Benjamin Sigg
  * @param <D> the type which represents a {@link Dockable}
  */
 public class PlaceholderList<D extends PlaceholderListItem> {
+	/** the format of the {@link PlaceholderMap}s written by this list */
+	private static final Path FORMAT = new Path( "dock.PlaceholderList" ).intern();
+	
 	/** the current set of valid placeholders */
 	private PlaceholderStrategy strategy;
 	
@@ -59,6 +75,21 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 	/** head of the dockables sublist */
 	private Entry headDockable = null;
 	
+	/** the root of the tree that contains all entries ordered by their location */
+	private Entry root = null;
+	
+	/** used to create the priorities of the entries in the tree */
+	private Random random = new Random();
+	
+	/** for each placeholder all the entries that contain the placeholder, the keys are {@link Path#intern() interned} */
+	private Map<Path, List<Entry>> placeholderIndex = new HashMap<Path, List<Entry>>();
+	
+	/** for each dockable the entry that contains the dockable */
+	private Map<D, Entry> dockableIndex = new IdentityHashMap<D, Entry>();
+	
+	/** all the entries whose item has a {@link PlaceholderMap} */
+	private Set<Entry> mapEntries = new HashSet<Entry>();
+	
 	/** identifiers for the various sublists this list consists of */
 	public static enum Level{
 		BASE, DOCKABLE, PLACEHOLDER;
@@ -139,6 +170,16 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			return item.getDockable();
 		}
 		
+		@Override
+		public int indexOf( D object ){
+			Entry entry = search( object );
+			if( entry != null ){
+				return entry.index( Level.DOCKABLE );
+			}
+			return super.indexOf( object );
+		}
+		
+		@Override
 		public void add( int index, D object ){
 			super.add( index, object );
 			
@@ -219,7 +260,7 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			throw new IllegalArgumentException( "converter must not be null" );
 		}
 		
-		if( !map.getFormat().equals( new Path( "dock.PlaceholderList") )){
+		if( !map.getFormat().equals( FORMAT )){
 			throw new IllegalArgumentException( "unknown format: " + map.getFormat() );
 		}
 		if( map.getVersion() != 0 ){
@@ -306,7 +347,7 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			throw new IllegalArgumentException( "converter must not be null" );
 		}
 		
-		PlaceholderMap map = new PlaceholderMap( new Path( "dock.PlaceholderList" ), 0 );
+		PlaceholderMap map = new PlaceholderMap( FORMAT, 0 );
 		int dockableIndex = 0;
 		
 		for( Item entry : list() ){
@@ -449,10 +490,19 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 				Item item = iter.next();
 				Set<Path> placeholders = item.getPlaceholderSet();
 				if( placeholders != null ){
-					Iterator<Path> paths = placeholders.iterator();
-					while( paths.hasNext() ){
-						if( !strategy.isValidPlaceholder( paths.next() )){
-							paths.remove();
+					List<Path> invalid = null;
+					for( Path path : placeholders ){
+						if( !strategy.isValidPlaceholder( path )){
+							if( invalid == null ){
+								invalid = new ArrayList<Path>();
+							}
+							invalid.add( path );
+						}
+					}
+					if( invalid != null ){
+						for( Path path : invalid ){
+							placeholders.remove( path );
+							unindex( item.owner, path );
 						}
 					}
 				}
@@ -495,7 +545,7 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 	 * @return the placeholders
 	 */
 	public Filter<Set<Path>> purePlaceholders(){
-		return purePlaceholders();
+		return purePlaceholders;
 	}
 	
 	/**
@@ -521,12 +571,11 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 	 * @param placeholders the placeholders to remove
 	 */
 	public void removeAll( Set<Path> placeholders ){
-		Iterator<Item> iter = list().iterator();
-		while( iter.hasNext() ){
-			Item item = iter.next();
+		for( Entry entry : affected( placeholders ) ){
+			Item item = entry.item;
 			item.removeAll( placeholders );
 			if( item.getPlaceholderSet() == null && item.isPlaceholder() ){
-				iter.remove();
+				entry.remove();
 			}
 		}
 	}
@@ -538,16 +587,32 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 	 * @param placeholder the placeholder to remove
 	 */
 	public void removeAll( Path placeholder ){
-		Iterator<Item> iter = list().iterator();
-		while( iter.hasNext() ){
-			Item item = iter.next();
+		for( Entry entry : affected( Collections.singleton( placeholder ) ) ){
+			Item item = entry.item;
 			item.remove( placeholder );
 			if( item.getPlaceholderSet() == null && item.isPlaceholder() ){
-				iter.remove();
+				entry.remove();
 			}
 		}
 	}
 	
+	/**
+	 * Collects all the entries that may contain one of <code>placeholders</code>, either
+	 * directly or in their {@link PlaceholderMap}. The entries are not ordered.
+	 * @param placeholders the placeholders to search
+	 * @return the entries that may be affected by removing <code>placeholders</code>
+	 */
+	private Set<Entry> affected( Collection<Path> placeholders ){
+		Set<Entry> result = new LinkedHashSet<Entry>( mapEntries );
+		for( Path placeholder : placeholders ){
+			List<Entry> entries = placeholderIndex.get( placeholder );
+			if( entries != null ){
+				result.addAll( entries );
+			}
+		}
+		return result;
+	}
+	
 	/**
 	 * Removes the <code>index</code>'th {@link Dockable} from this list were
 	 * <code>index</code> is an index used in {@link #dockables()}.
@@ -651,16 +716,11 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			return -1;
 		}
 		
-		while( entry != null && entry.item.isPlaceholder() ){
-			entry = entry.previous( Level.BASE );
-		}
-		
-		if( entry == null ){
-			return 0;
-		}
-		else{
-			return entry.index( Level.DOCKABLE ) + 1;
+		int index = rank( entry, Level.DOCKABLE );
+		if( !entry.placeholder ){
+			index++;
 		}
+		return index;
 	}
 	
 	/**
@@ -719,36 +779,326 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 	}
 
 	private Entry search( Path placeholder ){
-		Entry entry = this.head;
-		while( entry != null ){
-			Set<Path> set = entry.item.getPlaceholderSet();
-			if( set != null && set.contains( placeholder )){
-				return entry;
+		List<Entry> entries = placeholderIndex.get( placeholder );
+		if( entries == null ){
+			return null;
+		}
+		
+		Entry result = null;
+		int resultIndex = -1;
+		
+		for( Entry entry : entries ){
+			if( result == null ){
+				result = entry;
+			}
+			else{
+				if( resultIndex == -1 ){
+					resultIndex = rank( result, Level.BASE );
+				}
+				int index = rank( entry, Level.BASE );
+				if( index < resultIndex ){
+					result = entry;
+					resultIndex = index;
+				}
 			}
-			entry = entry.next( Level.BASE );
 		}
-		return null;
+		return result;
 	}
 	
 	private Entry search( D dockable ){
-		Entry entry = head( Level.DOCKABLE );
+		Entry entry = dockableIndex.get( dockable );
+		if( entry != null && entry.item.getDockable() == dockable ){
+			return entry;
+		}
+		return null;
+	}
+	
+	private Entry search( int index, Level level ){
+		return select( index, level );
+	}
+	
+	/**
+	 * Stores that <code>entry</code> contains <code>placeholder</code>.
+	 * @param entry the owner of <code>placeholder</code>, can be <code>null</code>
+	 * @param placeholder the new placeholder
+	 */
+	private void index( Entry entry, Path placeholder ){
+		if( entry != null ){
+			List<Entry> entries = placeholderIndex.get( placeholder );
+			if( entries == null ){
+				entries = new ArrayList<Entry>( 1 );
+				placeholderIndex.put( placeholder.intern(), entries );
+			}
+			if( !entries.contains( entry )){
+				entries.add( entry );
+			}
+		}
+	}
+	
+	/**
+	 * Stores that <code>entry</code> no longer contains <code>placeholder</code>.
+	 * @param entry the former owner of <code>placeholder</code>, can be <code>null</code>
+	 * @param placeholder the removed placeholder
+	 */
+	private void unindex( Entry entry, Path placeholder ){
+		if( entry != null ){
+			List<Entry> entries = placeholderIndex.get( placeholder );
+			if( entries != null ){
+				entries.remove( entry );
+				if( entries.isEmpty() ){
+					placeholderIndex.remove( placeholder );
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stores all the information of <code>item</code> in the indices of this list.
+	 * @param entry the owner of <code>item</code>
+	 * @param item the item to store
+	 */
+	private void index( Entry entry, Item item ){
+		if( item.placeholderSet != null ){
+			for( Path placeholder : item.placeholderSet ){
+				index( entry, placeholder );
+			}
+		}
+		if( item.value != null ){
+			dockableIndex.put( item.value, entry );
+		}
+		if( item.placeholderMap != null ){
+			mapEntries.add( entry );
+		}
+	}
+	
+	/**
+	 * Removes all the information of <code>item</code> from the indices of this list.
+	 * @param entry the owner of <code>item</code>
+	 * @param item the item to remove
+	 */
+	private void unindex( Entry entry, Item item ){
+		if( item.placeholderSet != null ){
+			for( Path placeholder : item.placeholderSet ){
+				unindex( entry, placeholder );
+			}
+		}
+		if( item.value != null && dockableIndex.get( item.value ) == entry ){
+			dockableIndex.remove( item.value );
+		}
+		mapEntries.remove( entry );
+	}
+	
+	/**
+	 * Gets the number of entries in the subtree <code>entry</code> that are part of <code>level</code>.
+	 * @param entry the root of a subtree, can be <code>null</code>
+	 * @param level the sublist whose entries are counted
+	 * @return the number of entries
+	 */
+	private int count( Entry entry, Level level ){
+		if( entry == null ){
+			return 0;
+		}
+		switch( level ){
+			case BASE: return entry.size;
+			case DOCKABLE: return entry.dockableCount;
+			case PLACEHOLDER: return entry.size - entry.dockableCount;
+		}
+		throw new IllegalArgumentException();
+	}
+	
+	/**
+	 * Tells whether <code>entry</code> is part of the sublist <code>level</code>.
+	 * @param entry some entry
+	 * @param level the sublist
+	 * @return whether <code>entry</code> is counted in <code>level</code>
+	 */
+	private boolean isIn( Entry entry, Level level ){
+		switch( level ){
+			case BASE: return true;
+			case DOCKABLE: return !entry.placeholder;
+			case PLACEHOLDER: return entry.placeholder;
+		}
+		throw new IllegalArgumentException();
+	}
+	
+	/**
+	 * Searches the <code>index</code>'th entry of the sublist <code>level</code>.
+	 * @param index the index of the entry
+	 * @param level the sublist
+	 * @return the entry or <code>null</code> if <code>index</code> is out of bounds
+	 */
+	private Entry select( int index, Level level ){
+		if( index < 0 ){
+			return null;
+		}
+		Entry entry = root;
 		while( entry != null ){
-			if( entry.item.getDockable() == dockable ){
-				return entry;
+			int left = count( entry.left, level );
+			if( index < left ){
+				entry = entry.left;
+			}
+			else{
+				index -= left;
+				if( isIn( entry, level )){
+					if( index == 0 ){
+						return entry;
+					}
+					index--;
+				}
+				entry = entry.right;
 			}
-			entry = entry.next( Level.DOCKABLE );
 		}
 		return null;
 	}
 	
-	private Entry search( int index, Level level ){
-		Entry entry = head( level );
+	/**
+	 * Counts how many entries of the sublist <code>level</code> are before <code>entry</code>.
+	 * @param entry some entry of this list
+	 * @param level the sublist
+	 * @return the number of entries before <code>entry</code>
+	 */
+	private int rank( Entry entry, Level level ){
+		int result = count( entry.left, level );
+		while( entry.parent != null ){
+			Entry parent = entry.parent;
+			if( parent.right == entry ){
+				result += count( parent.left, level );
+				if( isIn( parent, level )){
+					result++;
+				}
+			}
+			entry = parent;
+		}
+		return result;
+	}
+	
+	/**
+	 * Inserts <code>entry</code> into the tree, directly after <code>predecessor</code>.
+	 * @param entry the new entry
+	 * @param predecessor the entry before <code>entry</code> or <code>null</code>
+	 */
+	private void treeInsert( Entry entry, Entry predecessor ){
+		entry.left = null;
+		entry.right = null;
+		entry.parent = null;
+		entry.priority = random.nextInt();
+		entry.update();
+		
+		if( root == null ){
+			root = entry;
+			return;
+		}
+		
+		Entry parent;
+		if( predecessor == null ){
+			parent = root;
+			while( parent.left != null ){
+				parent = parent.left;
+			}
+			parent.left = entry;
+		}
+		else if( predecessor.right == null ){
+			parent = predecessor;
+			parent.right = entry;
+		}
+		else{
+			parent = predecessor.right;
+			while( parent.left != null ){
+				parent = parent.left;
+			}
+			parent.left = entry;
+		}
+		entry.parent = parent;
+		updateUpwards( parent );
+		
+		while( entry.parent != null && entry.parent.priority < entry.priority ){
+			rotateUp( entry );
+		}
+	}
+	
+	/**
+	 * Removes <code>entry</code> from the tree.
+	 * @param entry the entry to remove
+	 */
+	private void treeRemove( Entry entry ){
+		while( entry.left != null && entry.right != null ){
+			if( entry.left.priority > entry.right.priority ){
+				rotateUp( entry.left );
+			}
+			else{
+				rotateUp( entry.right );
+			}
+		}
+		
+		Entry child = entry.left == null ? entry.right : entry.left;
+		Entry parent = entry.parent;
+		if( child != null ){
+			child.parent = parent;
+		}
+		if( parent == null ){
+			root = child;
+		}
+		else if( parent.left == entry ){
+			parent.left = child;
+		}
+		else{
+			parent.right = child;
+		}
+		
+		entry.parent = null;
+		entry.left = null;
+		entry.right = null;
+		updateUpwards( parent );
+	}
+	
+	/**
+	 * Rotates <code>entry</code> such that it replaces its parent.
+	 * @param entry the entry to move up, must have a parent
+	 */
+	private void rotateUp( Entry entry ){
+		Entry parent = entry.parent;
+		Entry grandParent = parent.parent;
+		
+		if( parent.left == entry ){
+			parent.left = entry.right;
+			if( entry.right != null ){
+				entry.right.parent = parent;
+			}
+			entry.right = parent;
+		}
+		else{
+			parent.right = entry.left;
+			if( entry.left != null ){
+				entry.left.parent = parent;
+			}
+			entry.left = parent;
+		}
+		parent.parent = entry;
+		entry.parent = grandParent;
+		
+		if( grandParent == null ){
+			root = entry;
+		}
+		else if( grandParent.left == parent ){
+			grandParent.left = entry;
+		}
+		else{
+			grandParent.right = entry;
+		}
 		
-		while( entry != null && index > 0 ){
-			entry = entry.next( level );
-			index--;
+		parent.update();
+		entry.update();
+	}
+	
+	/**
+	 * Updates the counters of <code>entry</code> and all its parents.
+	 * @param entry the entry whose subtree changed, can be <code>null</code>
+	 */
+	private void updateUpwards( Entry entry ){
+		while( entry != null ){
+			entry.update();
+			entry = entry.parent;
 		}
-		return entry;
 	}
 
 	/**
@@ -793,13 +1143,6 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		throw new IllegalArgumentException();
 	}
 	
-	private void invalidate(){
-		dockables.invalidate();
-		allPlaceholders.invalidate();
-		purePlaceholders.invalidate();
-		allItems.invalidate();
-	}
-	
 	@Override
 	public String toString(){
 		return list().toString();
@@ -812,18 +1155,45 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		private Entry next, previous;
 		private Entry nextLevel, previousLevel;
 		
+		/** the parent and the children of this entry in the tree */
+		private Entry parent, left, right;
+		/** the priority of this entry in the tree, parents have a higher priority than their children */
+		private int priority;
+		/** how many entries the subtree of this entry contains */
+		private int size;
+		/** how many entries of the subtree of this entry contain a dockable */
+		private int dockableCount;
+		/** whether this entry is counted as placeholder in the tree */
+		private boolean placeholder;
+		
 		public Entry( Entry predecessor, Item item ){
 			this.item = item;
 			insertAfter( predecessor );
 		}
 		
-		public void insertAfter( Entry predecessor ){
-			invalidate();
+		/**
+		 * Updates {@link #size} and {@link #dockableCount} assuming the children
+		 * of this entry have correct values.
+		 */
+		public void update(){
+			size = 1;
+			dockableCount = placeholder ? 0 : 1;
+			if( left != null ){
+				size += left.size;
+				dockableCount += left.dockableCount;
+			}
+			if( right != null ){
+				size += right.size;
+				dockableCount += right.dockableCount;
+			}
+		}
 		
+		public void insertAfter( Entry predecessor ){
 			item.setOwner( this );
 			itemWasPlaceholder = item.isPlaceholder();
+			placeholder = itemWasPlaceholder;
 			
-			Entry predecessorLevel = null;
+			treeInsert( this, predecessor );
 			
 			if( predecessor == null ){
 				next = head;
@@ -832,7 +1202,6 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 				}
 				
 				head = this;
-				predecessorLevel = null;
 			}
 			else{
 				next = predecessor.next;
@@ -842,19 +1211,23 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 				
 				predecessor.next = this;
 				this.previous = predecessor;
-				
-				Entry search = predecessor;
-				while( search != null && predecessorLevel == null ){
-					if( search.item.isPlaceholder() == item.isPlaceholder() ){
-						predecessorLevel = search;
-					}
-					search = search.previous( Level.BASE );
-				}
 			}
-	
-			Entry successorLevel = null;
+			
+			linkLevel();
+		}
+		
+		/**
+		 * Inserts this entry into the sublist of dockables or of placeholders, depending on
+		 * the current value of {@link #placeholder}.
+		 */
+		private void linkLevel(){
+			Level level = placeholder ? Level.PLACEHOLDER : Level.DOCKABLE;
+			int index = rank( this, level );
+			Entry predecessorLevel = select( index-1, level );
+			
 			if( predecessorLevel == null ){
-				if( item.isPlaceholder() ){
+				Entry successorLevel;
+				if( placeholder ){
 					successorLevel = headPlaceholder;
 					headPlaceholder = this;
 				}
@@ -862,9 +1235,13 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 					successorLevel = headDockable;
 					headDockable = this;
 				}
+				previousLevel = null;
+				nextLevel = successorLevel;
+				if( successorLevel != null ){
+					successorLevel.previousLevel = this;
+				}
 			}
-			
-			if( predecessorLevel != null ){
+			else{
 				previousLevel = predecessorLevel;
 				nextLevel = predecessorLevel.nextLevel;
 				
@@ -873,32 +1250,25 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 				}
 				previousLevel.nextLevel = this;
 			}
-			else if( successorLevel != null ){
-				nextLevel = successorLevel;
-				successorLevel.previousLevel = this;
-			}
 		}
 		
 		public void move( int delta, Level level ){
 			if( delta == 0 ){
 				return;
 			}
-			Entry newPredecessor = this;
+			int index = index( level );
+			Entry newPredecessor;
 			if( delta > 0 ){
-				for( int i = 0; i < delta; i++ ){
-					newPredecessor = newPredecessor.next( level );
-					if( newPredecessor == null ){
-						throw new IllegalArgumentException( "delta too big" );
-					}
+				newPredecessor = select( index + delta, level );
+				if( newPredecessor == null ){
+					throw new IllegalArgumentException( "delta too big" );
 				}
 			}
 			else{
-				for( int i = -delta; i >= 0; i-- ){
-					if( newPredecessor == null ){
-						throw new IllegalArgumentException( "delta too big" );
-					}
-					newPredecessor = newPredecessor.previous( level );
+				if( index + delta < 0 ){
+					throw new IllegalArgumentException( "delta too big" );
 				}
+				newPredecessor = select( index + delta - 1, level );
 			}
 			
 			remove();
@@ -924,16 +1294,10 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		}
 		
 		public int index( Level level ){
-			Entry entry = head( level );
-			int index = 0;
-			while( entry != this && entry != null ){
-				entry = entry.next( level );
-				index++;
-			}
-			if( entry == null ){
+			if( !isIn( this, level )){
 				return -1;
 			}
-			return index;
+			return rank( this, level );
 		}
 		
 		public void refresh(){
@@ -947,62 +1311,17 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			if( itemWasPlaceholder != item.isPlaceholder() ){
 				itemWasPlaceholder = item.isPlaceholder();
 				
-				invalidate();
 				removeLevel();
 				
-				Entry levelPredecessor = findLevelPredecessor( item.isPlaceholder() );
-				Entry levelSuccessor = findLevelSuccessor( item.isPlaceholder() );
+				placeholder = itemWasPlaceholder;
+				updateUpwards( this );
 				
-				if( levelPredecessor == null ){
-					if( item.isPlaceholder() ){
-						headPlaceholder = this;
-					}
-					else{
-						headDockable = this;
-					}
-					previousLevel = null;
-				}
-				else{
-					levelPredecessor.nextLevel = this;
-					previousLevel = levelPredecessor;
-				}
-				
-				if( levelSuccessor != null ){
-					nextLevel = levelSuccessor;
-					levelSuccessor.previousLevel = this;
-				}
-				else{
-					nextLevel = null;
-				}
+				linkLevel();
 			}
 			this.item = item;
 		}
 		
-		private Entry findLevelPredecessor( boolean placeholder ){
-			Entry entry = previous;
-			while( entry != null ){
-				if( entry.item.isPlaceholder() == placeholder ){
-					return entry;
-				}
-				entry = entry.previous;
-			}
-			return null;
-		}
-		
-		private Entry findLevelSuccessor( boolean placeholder ){
-			Entry entry = next;
-			while( entry != null ){
-				if( entry.item.isPlaceholder() == placeholder ){
-					return entry;
-				}
-				entry = entry.next;
-			}
-			return null;
-		}
-		
 		public void remove(){
-			invalidate();
-			
 			if( next != null ){
 				next.previous = previous;
 			}
@@ -1020,11 +1339,10 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			this.item.setOwner( null );
 			
 			removeLevel();
+			treeRemove( this );
 		}
 		
 		private void removeLevel(){
-			invalidate();
-			
 			if( nextLevel != null ){
 				nextLevel.previousLevel = previousLevel;
 			}
@@ -1113,6 +1431,13 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		 * @param owner the new owner, can be <code>null</code>
 		 */
 		protected void setOwner( PlaceholderList<D>.Entry owner ){
+			if( this.owner != null ){
+				unindex( this.owner, this );
+			}
+			if( owner != null ){
+				index( owner, this );
+			}
+			
 			if( bound && strategy != null ){
 				if( placeholderMap != null ){
 					if( owner == null ){
@@ -1151,7 +1476,17 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		 * @param placeholderSet the placeholders, can be <code>null</code>
 		 */
 		public void setPlaceholderSet( Set<Path> placeholderSet ){
+			if( owner != null && this.placeholderSet != null ){
+				for( Path placeholder : this.placeholderSet ){
+					unindex( owner, placeholder );
+				}
+			}
 			this.placeholderSet = placeholderSet;
+			if( owner != null && placeholderSet != null ){
+				for( Path placeholder : placeholderSet ){
+					index( owner, placeholder );
+				}
+			}
 		}
 		
 		/**
@@ -1160,7 +1495,11 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		 */
 		public void removeAll( Set<Path> placeholders ){
 			if( placeholderSet != null ){
-				placeholderSet.removeAll( placeholders );
+				for( Path placeholder : placeholders ){
+					if( placeholderSet.remove( placeholder )){
+						unindex( owner, placeholder );
+					}
+				}
 				if( placeholderSet.isEmpty() ){
 					placeholderSet = null;
 				}
@@ -1179,7 +1518,9 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		 */
 		public void remove( Path placeholder ){
 			if( placeholderSet != null ){
-				placeholderSet.remove( placeholder );
+				if( placeholderSet.remove( placeholder )){
+					unindex( owner, placeholder );
+				}
 				if( placeholderSet.isEmpty() ){
 					placeholderSet = null;
 				}
@@ -1200,7 +1541,9 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			if( placeholderSet == null ){
 				placeholderSet = new HashSet<Path>();
 			}
-			placeholderSet.add( placeholder );
+			if( placeholderSet.add( placeholder )){
+				index( owner, placeholder );
+			}
 		}
 		
 		/**
@@ -1235,7 +1578,13 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		 * @param dockable the new value, can be <code>null</code>
 		 */
 		public void setDockable( D dockable ){
+			if( value != null && dockableIndex.get( value ) == owner ){
+				dockableIndex.remove( value );
+			}
 			this.value = dockable;
+			if( dockable != null && owner != null ){
+				dockableIndex.put( dockable, owner );
+			}
 			owner.refresh();
 		}
 		
@@ -1245,6 +1594,15 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		 * @param placeholders the placeholders, may be <code>null</code>
 		 */
 		public void setPlaceholderMap( PlaceholderMap placeholders ){
+			if( owner != null ){
+				if( placeholders == null ){
+					mapEntries.remove( owner );
+				}
+				else{
+					mapEntries.add( owner );
+				}
+			}
+			
 			if( bound && strategy != null ){
 				if( this.placeholderMap != null ){
 					this.placeholderMap.setPlaceholderStrategy( null );
@@ -1403,7 +1761,6 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 	
 	private abstract class SubList<A> implements Filter<A>{
 		private Level level;
-		private int size = -1;
 		
 		protected abstract A unwrap( Item item );
 		protected abstract Item wrap( A item );
@@ -1413,23 +1770,11 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 			this.level = level;
 		}
 		
-		public void invalidate(){
-			size = -1;
-		}
-		
 		private Entry getEntry( int index ){
-			if( index < 0 )
+			Entry entry = select( index, level );
+			if( entry == null ){
 				throw new IndexOutOfBoundsException();
-			
-			Entry entry = head( level );
-			while( index > 0 ){
-				entry = entry.next( level );
-				index--;
-				if( entry == null ){
-					throw new IndexOutOfBoundsException();
-				}
 			}
-			
 			return entry;
 		}
 		
@@ -1439,13 +1784,7 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		
 		public void add( int index, A object ){
 			if( size() == index ){
-				Entry entry = head;
-				Entry predecessor = null;
-				while( entry != null ){
-					predecessor = entry;
-					entry = entry.next;
-				}
-				new Entry( predecessor, wrap( object ));
+				new Entry( select( count( root, Level.BASE )-1, Level.BASE ), wrap( object ));
 			}
 			else{
 				Entry entry = getEntry( index );
@@ -1513,15 +1852,7 @@ public class PlaceholderList<D extends PlaceholderListItem> {
 		}
 		
 		public int size(){
-			if( size == -1 ){
-				size = 0;
-				Entry entry = head( level );
-				while( entry != null ){
-					size++;
-					entry = entry.next( level );
-				}
-			}
-			return size;
+			return count( root, level );
 		}
 		
 		public void move( int source, int destination ){
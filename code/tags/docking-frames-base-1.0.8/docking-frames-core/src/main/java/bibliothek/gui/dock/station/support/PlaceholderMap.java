@@ -28,16 +28,22 @@ package bibliothek.gui.dock.station.support;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import bibliothek.util.Path;
 import bibliothek.util.Version;
+import bibliothek.util.io.CompactIO;
+import bibliothek.util.io.StringTable;
 import bibliothek.util.xml.XElement;
 import bibliothek.util.xml.XException;
+import bibliothek.util.xml.XStreamReader;
+import bibliothek.util.xml.XStreamWriter;
 
 /**
  * A data structure designed to store and retrieve placeholder information
@@ -96,12 +102,16 @@ public class PlaceholderMap {
 		setPlaceholderStrategy( strategy );
 		
 		Version version = Version.read( in );
+		if( version.compareTo( Version.VERSION_1_0_8b ) == 0 ){
+			readContent( in, strategy, new StringTable() );
+			return;
+		}
 		if( version.compareTo( Version.VERSION_1_0_8 ) != 0 ){
 			throw new IOException( "unknown version: " + version );
 		}
 		
 		this.version = in.readInt();
-		format = new Path( in.readUTF() );
+		format = new Path( in.readUTF() ).intern();
 	
 		int size = in.readInt();
 		
@@ -129,6 +139,53 @@ public class PlaceholderMap {
 		}
 	}
 	
+	/**
+	 * Creates a new map reading the content of the map directly from <code>in</code>. The
+	 * content was written in the compact format by {@link #write(DataOutputStream, StringTable)}.
+	 * @param in the content
+	 * @param strategy guard to identify the placeholders which are allowed to be stored, can be <code>null</code>
+	 * @param strings the strings that were already read
+	 * @throws IOException in case of an I/O error
+	 */
+	private PlaceholderMap( DataInputStream in, PlaceholderStrategy strategy, StringTable strings ) throws IOException{
+		setPlaceholderStrategy( strategy );
+		readContent( in, strategy, strings );
+	}
+	
+	/**
+	 * Reads the content of this map from <code>in</code>, the content was written in the compact
+	 * format by {@link #write(DataOutputStream, StringTable)}.
+	 * @param in the content
+	 * @param strategy guard to identify the placeholders which are allowed to be stored, can be <code>null</code>
+	 * @param strings the strings that were already read
+	 * @throws IOException in case of an I/O error
+	 */
+	private void readContent( DataInputStream in, PlaceholderStrategy strategy, StringTable strings ) throws IOException{
+		version = CompactIO.readVarInt( in );
+		format = new Path( strings.read( in ) ).intern();
+		
+		int size = CompactIO.readUnsignedVarInt( in );
+		for( int i = 0; i < size; i++ ){
+			PlaceholderKey key = new PlaceholderKey( in, strings );
+			key = key.shrink( strategy );
+			
+			Map<String, Object> map = null;
+			if( key != null ){
+				add( key );
+				map = data.get( key );
+			}
+			
+			int length = CompactIO.readUnsignedVarInt( in );
+			for( int j = 0; j < length; j++ ){
+				String subkey = strings.read( in );
+				Object value = read( in, strategy, strings );
+				if( map != null ){
+					map.put( subkey, value );
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Creates a new map reading the content of the map directly from <code>in</code>.
 	 * @param in the content to read
@@ -147,7 +204,7 @@ public class PlaceholderMap {
 		if( xformat == null ){
 			throw new XException( "missing element 'format'" );
 		}
-		format = new Path( xformat.getString() );
+		format = new Path( xformat.getString() ).intern();
 		
 		for( int i = 0, n = in.getElementCount(); i<n; i++ ){
 			XElement xentry = in.getElement( i );
@@ -171,40 +228,122 @@ public class PlaceholderMap {
 		}
 	}
 	
+	/**
+	 * Creates a new map reading the content of the map directly from the current element of 
+	 * <code>in</code>. The current element is read completely and closed. The format is the
+	 * same as the format read by {@link #PlaceholderMap(XElement, PlaceholderStrategy)}, but 
+	 * the element "key" must be the first child of each element "entry".
+	 * @param in the stream to read from
+	 * @param strategy guard to identify the placeholders which are allowed to be stored, can be <code>null</code>
+	 * @throws IOException if an I/O-error occurs
+	 */
+	public PlaceholderMap( XStreamReader in, PlaceholderStrategy strategy ) throws IOException{
+		setPlaceholderStrategy( strategy );
+		
+		boolean hasVersion = false;
+		String name;
+		while( (name = in.nextElement()) != null ){
+			if( name.equals( "version" )){
+				version = in.readInt();
+				hasVersion = true;
+			}
+			else if( name.equals( "format" )){
+				format = new Path( in.readString() ).intern();
+			}
+			else if( name.equals( "entry" )){
+				readEntry( in, strategy );
+			}
+			else{
+				in.skipElement();
+			}
+		}
+		
+		if( !hasVersion ){
+			throw new XException( "missing element 'version'" );
+		}
+		if( format == null ){
+			throw new XException( "missing element 'format'" );
+		}
+	}
+	
+	/**
+	 * Reads the current element "entry" of <code>in</code> and closes it.
+	 * @param in the stream to read from
+	 * @param strategy guard to identify the placeholders which are allowed to be stored, can be <code>null</code>
+	 * @throws IOException if an I/O-error occurs
+	 */
+	private void readEntry( XStreamReader in, PlaceholderStrategy strategy ) throws IOException{
+		if( !"key".equals( in.nextElement() )){
+			throw new XException( "missing element 'key'" );
+		}
+		PlaceholderKey placeholder = new PlaceholderKey( in );
+		placeholder = placeholder.shrink( strategy );
+		
+		if( placeholder == null ){
+			in.skipElement();
+			return;
+		}
+		
+		add( placeholder );
+		Map<String,Object> map = data.get( placeholder );
+		String name;
+		while( (name = in.nextElement()) != null ){
+			if( name.equals( "item" )){
+				String key = in.getString( "key" );
+				Object value = read( in, strategy );
+				map.put( key, value );
+			}
+			else{
+				in.skipElement();
+			}
+		}
+	}
+	
 	/**
 	 * Writes the contents of this map into <code>out</code>.
 	 * @param out the stream to write into
 	 * @throws IOException in case of an I/O error
 	 */
 	public void write( DataOutputStream out ) throws IOException{
-		Version.write( out, Version.VERSION_1_0_8 );
-		out.writeInt( version );
-		out.writeUTF( format.toString() );
+		Version.write( out, Version.VERSION_1_0_8b );
+		write( out, new StringTable() );
+	}
+	
+	/**
+	 * Writes the contents of this map into <code>out</code> using the compact format, in which
+	 * each string is written only once and integers use a variable number of bytes.
+	 * @param out the stream to write into
+	 * @param strings the strings that were already written
+	 * @throws IOException in case of an I/O error
+	 */
+	private void write( DataOutputStream out, StringTable strings ) throws IOException{
+		CompactIO.writeVarInt( out, version );
+		strings.write( out, format.toString() );
 		
-		out.writeInt( data.size() );
+		CompactIO.writeUnsignedVarInt( out, data.size() );
 		for( Map.Entry<Key, Map<String, Object>> entry : data.entrySet() ){
-			((PlaceholderKey)entry.getKey()).write( out );
+			((PlaceholderKey)entry.getKey()).write( out, strings );
 			Map<String, Object> map = entry.getValue();
-			out.writeInt( map.size() );
+			CompactIO.writeUnsignedVarInt( out, map.size() );
 			for( Map.Entry<String, Object> mapEntry : map.entrySet() ){
-				out.writeUTF( mapEntry.getKey() );
-				write( mapEntry.getValue(), out );
+				strings.write( out, mapEntry.getKey() );
+				write( mapEntry.getValue(), out, strings );
 			}
 		}
 	}
 
-	private void write( Object value, DataOutputStream out ) throws IOException{
+	private void write( Object value, DataOutputStream out, StringTable strings ) throws IOException{
 		if( value instanceof String ){
 			out.writeByte( 0 );
-			out.writeUTF( (String)value );
+			strings.write( out, (String)value );
 		}
 		else if( value instanceof Integer ){
 			out.writeByte( 1 );
-			out.writeInt( (Integer)value );
+			CompactIO.writeVarInt( out, (Integer)value );
 		}
 		else if( value instanceof Long ){
 			out.writeByte( 2 );
-			out.writeLong( (Long)value );
+			CompactIO.writeVarLong( out, (Long)value );
 		}
 		else if( value instanceof Double ){
 			out.writeByte( 3 );
@@ -216,20 +355,40 @@ public class PlaceholderMap {
 		}
 		else if( value instanceof PlaceholderMap ){
 			out.writeByte( 5 );
-			((PlaceholderMap)value).write( out );
+			((PlaceholderMap)value).write( out, strings );
 		}
 		else if( value instanceof Object[] ){
 			out.writeByte( 6 );
 			Object[] array = (Object[])value;
-			out.writeInt( array.length );
+			CompactIO.writeUnsignedVarInt( out, array.length );
 			for( Object item : array ){
-				write( item, out );
+				write( item, out, strings );
 			}
 		}
 		else{
 			throw new IOException( "unknown type: " + value.getClass() );
 		}
 	}
+	
+	private Object read( DataInputStream in, PlaceholderStrategy strategy, StringTable strings ) throws IOException{
+		byte kind = in.readByte();
+		switch( kind ){
+			case 0: return strings.read( in );
+			case 1: return CompactIO.readVarInt( in );
+			case 2: return CompactIO.readVarLong( in );
+			case 3: return in.readDouble();
+			case 4: return in.readBoolean();
+			case 5: return new PlaceholderMap( in, strategy, strings );
+			case 6:
+				int length = CompactIO.readUnsignedVarInt( in );
+				Object[] result = new Object[length];
+				for( int i = 0; i < length; i++ ){
+					result[i] = read( in, strategy, strings );
+				}
+				return result;
+		}
+		throw new IOException( "illegal format" );
+	}
 
 	private Object read( DataInputStream in, PlaceholderStrategy strategy ) throws IOException{
 		byte kind = in.readByte();
@@ -308,6 +467,112 @@ public class PlaceholderMap {
 		}
 	}
 
+	/**
+	 * Writes the contents of this map into the current element of <code>out</code>, the format
+	 * is the same as the format of {@link #write(XElement)}.
+	 * @param out the stream to write into, the attributes of the current element will not be modified
+	 * @throws IOException in case of an I/O error
+	 */
+	public void write( XStreamWriter out ) throws IOException{
+		out.startElement( "version" );
+		out.value( String.valueOf( version ) );
+		out.endElement();
+		out.startElement( "format" );
+		out.string( format.toString() );
+		out.endElement();
+		
+		for( Map.Entry<Key, Map<String, Object>> entry : data.entrySet() ){
+			out.startElement( "entry" );
+			out.startElement( "key" );
+			((PlaceholderKey)entry.getKey()).write( out );
+			out.endElement();
+			for( Map.Entry<String, Object> mapEntry : entry.getValue().entrySet() ){
+				out.startElement( "item" );
+				out.attribute( "key", mapEntry.getKey() );
+				write( mapEntry.getValue(), out );
+				out.endElement();
+			}
+			out.endElement();
+		}
+	}
+	
+	private void write( Object value, XStreamWriter out ) throws IOException{
+		if( value instanceof String ){
+			out.attribute( "type", "s" );
+			out.string( (String)value );
+		}
+		else if( value instanceof Integer ){
+			out.attribute( "type", "i" );
+			out.value( String.valueOf( value ) );
+		}
+		else if( value instanceof Long ){
+			out.attribute( "type", "l" );
+			out.value( String.valueOf( value ) );
+		}
+		else if( value instanceof Double ){
+			out.attribute( "type", "d" );
+			out.value( String.valueOf( value ) );
+		}
+		else if( value instanceof Boolean ){
+			out.attribute( "type", "b" );
+			out.value( String.valueOf( value ) );
+		}
+		else if( value instanceof PlaceholderMap ){
+			out.attribute( "type", "p" );
+			((PlaceholderMap)value).write( out );
+		}
+		else if( value instanceof Object[] ){
+			out.attribute( "type", "a" );
+			Object[] array = (Object[])value;
+			for( Object item : array ){
+				out.startElement( "item" );
+				write( item, out );
+				out.endElement();
+			}
+		}
+		else{
+			throw new XException( "unknown type: " + value.getClass() );
+		}
+	}
+	
+	private Object read( XStreamReader in, PlaceholderStrategy strategy ) throws IOException{
+		String type = in.getString( "type" );
+		if( "s".equals( type )){
+			return in.readString();
+		}
+		if( "i".equals( type )){
+			return in.readInt();
+		}
+		if( "l".equals( type )){
+			return in.readLong();
+		}
+		if( "d".equals( type )){
+			return in.readDouble();
+		}
+		if( "b".equals( type )){
+			return in.readBoolean();
+		}
+		if( "p".equals( type )){
+			return new PlaceholderMap( in, strategy );
+		}
+		if( "a".equals( type )){
+			List<Object> result = new ArrayList<Object>();
+			String name;
+			while( (name = in.nextElement()) != null ){
+				if( name.equals( "item" )){
+					result.add( read( in, strategy ) );
+				}
+				else{
+					in.skipElement();
+				}
+			}
+			return result.toArray();
+		}
+		else{
+			throw new XException( "unknown type: " + type );
+		}
+	}
+
 	private Object read( XElement in, PlaceholderStrategy strategy ){
 		String type = in.getString( "type" );
 		if( "s".equals( type )){
@@ -976,7 +1241,7 @@ public class PlaceholderMap {
 			shared = in.readBoolean();
 			placeholders = new Path[ in.readInt() ];
 			for( int i = 0; i < placeholders.length; i++ ){
-				placeholders[i] = new Path( in.readUTF() );
+				placeholders[i] = new Path( in.readUTF() ).intern();
 			}
 		}
 		
@@ -985,15 +1250,38 @@ public class PlaceholderMap {
 			XElement[] xplaceholders = in.getElements( "placeholder" );
 			placeholders = new Path[ xplaceholders.length ];
 			for( int i = 0; i < xplaceholders.length; i++ ){
-				placeholders[i] = new Path( xplaceholders[i].getString() );
+				placeholders[i] = new Path( xplaceholders[i].getString() ).intern();
+			}
+		}
+		
+		public PlaceholderKey( XStreamReader in ) throws IOException{
+			shared = in.getBoolean( "shared" );
+			List<Path> list = new ArrayList<Path>();
+			String name;
+			while( (name = in.nextElement()) != null ){
+				if( name.equals( "placeholder" )){
+					list.add( new Path( in.readString() ).intern() );
+				}
+				else{
+					in.skipElement();
+				}
+			}
+			placeholders = list.toArray( new Path[ list.size() ] );
+		}
+		
+		public PlaceholderKey( DataInputStream in, StringTable strings ) throws IOException{
+			shared = in.readBoolean();
+			placeholders = new Path[ CompactIO.readUnsignedVarInt( in ) ];
+			for( int i = 0; i < placeholders.length; i++ ){
+				placeholders[i] = new Path( strings.read( in ) ).intern();
 			}
 		}
 		
-		public void write( DataOutputStream out ) throws IOException{
+		public void write( DataOutputStream out, StringTable strings ) throws IOException{
 			out.writeBoolean( shared );
-			out.writeInt( placeholders.length );
+			CompactIO.writeUnsignedVarInt( out, placeholders.length );
 			for( Path path : placeholders ){
-				out.writeUTF( path.toString() );
+				strings.write( out, path.toString() );
 			}
 		}
 		
@@ -1004,6 +1292,15 @@ public class PlaceholderMap {
 			}
 		}
 		
+		public void write( XStreamWriter out ) throws IOException{
+			out.attribute( "shared", String.valueOf( shared ) );
+			for( Path placeholder : placeholders ){
+				out.startElement( "placeholder" );
+				out.string( placeholder.toString() );
+				out.endElement();
+			}
+		}
+		
 		/**
 		 * Creates a new key by removing any invalid placeholder.
 		 * @param strategy the strategy to apply, can be <code>null</code>
@@ -14,7 +14,7 @@ import bibliothek.util.Path;
  */
 public abstract class ActionColor extends AbstractDockColor{
     /** the path describing this kind of color */
-    public static final Path KIND_ACTION_COLOR = DockColor.KIND_DOCK_COLOR.append( "ActionColor" );
+    public static final Path KIND_ACTION_COLOR = DockColor.KIND_DOCK_COLOR.append( "ActionColor" ).intern();
     
     /** the dockable for which the action is used */
     private Dockable dockable;
@@ -37,7 +37,7 @@ import bibliothek.util.Path;
  */
 public abstract class DisplayerColor extends AbstractDockColor {
     /** the kind of color {@link DisplayerColor} is */
-    public static final Path KIND_DISPLAYER_COLOR = KIND_DOCK_COLOR.append( "DisplayerColor" );
+    public static final Path KIND_DISPLAYER_COLOR = KIND_DOCK_COLOR.append( "DisplayerColor" ).intern();
     
     /** the element for which the color is needed */
     private DockableDisplayer displayer;
@@ -38,7 +38,7 @@ import bibliothek.util.Path;
  */
 public abstract class DockableSelectionColor extends AbstractDockColor {
     /** the kind of color {@link DockableSelectionColor} is */
-    public static final Path KIND_DOCKABLE_SELECTION_COLOR = KIND_DOCK_COLOR.append( "DockableSelectionColor" );
+    public static final Path KIND_DOCKABLE_SELECTION_COLOR = KIND_DOCK_COLOR.append( "DockableSelectionColor" ).intern();
     
     private DockableSelection selection;
     
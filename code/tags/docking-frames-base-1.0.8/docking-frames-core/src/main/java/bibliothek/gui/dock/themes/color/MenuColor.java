@@ -39,7 +39,7 @@ import bibliothek.util.Path;
  */
 public abstract class MenuColor extends AbstractDockColor{
     /** the kind of color {@link TabColor} is */
-    public static final Path KIND_MENU_COLOR = KIND_DOCK_COLOR.append( "MenuColor" );
+    public static final Path KIND_MENU_COLOR = KIND_DOCK_COLOR.append( "MenuColor" ).intern();
     
     private DockStation station;
     private CombinedMenu menu;
@@ -38,7 +38,7 @@ import bibliothek.util.Path;
  */
 public abstract class StationPaintColor extends AbstractDockColor{
     /** the kind of color {@link StationPaintColor} is */
-    public static final Path KIND_STATION_PAINT_COLOR = KIND_DOCK_COLOR.append( "StationPaintColor" );
+    public static final Path KIND_STATION_PAINT_COLOR = KIND_DOCK_COLOR.append( "StationPaintColor" ).intern();
     
     /** the paint that uses this color */
     private StationPaint paint;
@@ -41,7 +41,7 @@ import bibliothek.util.Path;
  */
 public abstract class TabColor extends AbstractDockColor{
     /** the kind of color {@link TabColor} is */
-    public static final Path KIND_TAB_COLOR = KIND_DOCK_COLOR.append( "TabColor" );
+    public static final Path KIND_TAB_COLOR = KIND_DOCK_COLOR.append( "TabColor" ).intern();
     
     private DockStation station;
     private Dockable dockable;
@@ -40,10 +40,10 @@ import bibliothek.util.Path;
  */
 public abstract class TitleColor extends AbstractDockColor{
     /** the kind of color {@link TitleColor} is */
-    public static final Path KIND_TITLE_COLOR = DockColor.KIND_DOCK_COLOR.append( "TitleColor" );
+    public static final Path KIND_TITLE_COLOR = DockColor.KIND_DOCK_COLOR.append( "TitleColor" ).intern();
     
     /** special kind of color for buttons on the {@link FlapDockStation} */
-    public static final Path KIND_FLAP_BUTTON_COLOR = KIND_TITLE_COLOR.append( "flap" );
+    public static final Path KIND_FLAP_BUTTON_COLOR = KIND_TITLE_COLOR.append( "flap" ).intern();
     
     private DockTitle title;
     
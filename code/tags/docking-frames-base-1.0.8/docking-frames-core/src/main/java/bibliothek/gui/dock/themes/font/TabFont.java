@@ -14,7 +14,7 @@ import bibliothek.util.Path;
  */
 public abstract class TabFont extends AbstractDockFont{
     /** the identifier of this kind of font */
-    public final static Path KIND_TAB_FONT = KIND_DOCK_FONT.append( "tab" );
+    public final static Path KIND_TAB_FONT = KIND_DOCK_FONT.append( "tab" ).intern();
     
     /** the station for which this font is used */
     private DockStation station;
@@ -37,13 +37,13 @@ import bibliothek.util.Path;
  */
 public abstract class TitleFont extends AbstractDockFont{
     /** this kind describes a font that is used on a title */
-    public static final Path KIND_TITLE_FONT = KIND_DOCK_FONT.append( "title" );
+    public static final Path KIND_TITLE_FONT = KIND_DOCK_FONT.append( "title" ).intern();
     
     /** this kind describes a font that is used on a button title of a {@link FlapDockStation} */
-    public static final Path KIND_FLAP_BUTTON_FONT = KIND_TITLE_FONT.append( "flap" );
+    public static final Path KIND_FLAP_BUTTON_FONT = KIND_TITLE_FONT.append( "flap" ).intern();
     
     /** this kind describes a font that is used for a title which then is used as tab */
-    public static final Path KIND_TAB_TITLE_FONT = KIND_TITLE_FONT.append( "tab" );
+    public static final Path KIND_TAB_TITLE_FONT = KIND_TITLE_FONT.append( "tab" ).intern();
     
     private DockTitle title;
 
@@ -0,0 +1,323 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+import javax.swing.Icon;
+
+/**
+ * A cache of {@link LazyIcon}s that is shared by all {@link bibliothek.gui.DockController}s
+ * of the same JVM. Icons are created without reading their image, the image is read
+ * when the icon is painted or measured for the first time.<br>
+ * Clients can ask the registry to {@link #setPrefetch(boolean) prefetch} icons, in which case
+ * their images are decoded by a background thread. If the registry is
+ * {@link #setAsynchronous(boolean) asynchronous}, icons whose image is not yet available
+ * paint a {@link #setPlaceholder(Icon) placeholder} instead of blocking the 
+ * EventDispatchThread.<br>
+ * The registry does not prevent icons or {@link ClassLoader}s from being garbage collected: icons
+ * are only weakly referenced, and the icons read by {@link #loadIcons(String, String, ClassLoader)}
+ * are kept only as long as their {@link ClassLoader} is alive.
+ * @author Benjamin Sigg
+ */
+public class IconRegistry {
+	/** the default instance */
+	private static IconRegistry defaultRegistry;
+	
+	/**
+	 * Gets the registry that is shared by all the modules of the framework.
+	 * @return the shared registry, not <code>null</code>
+	 */
+	public static synchronized IconRegistry getDefault(){
+		if( defaultRegistry == null )
+			defaultRegistry = new IconRegistry();
+		return defaultRegistry;
+	}
+	
+	/** all the icons that are in use, the key is the external form of their url */
+	private Map<String, WeakReference<LazyIcon>> icons = new HashMap<String, WeakReference<LazyIcon>>();
+	
+	/** the contents of property files that were already read, grouped by the {@link ClassLoader} that was used to read them */
+	private Map<ClassLoader, Map<ListKey, Map<String, LazyIcon>>> lists = new WeakHashMap<ClassLoader, Map<ListKey,Map<String,LazyIcon>>>();
+	
+	/** icons waiting to be decoded by {@link #worker} */
+	private LinkedList<LazyIcon> queue = new LinkedList<LazyIcon>();
+	
+	/** the thread decoding images in the background, <code>null</code> if not running */
+	private Thread worker;
+	
+	/** whether new icons are decoded in the background */
+	private boolean prefetch = false;
+	
+	/** whether icons paint a placeholder rather than blocking */
+	private volatile boolean asynchronous = false;
+	
+	/** the icon painted while the real image is not yet available */
+	private volatile Icon placeholder;
+	
+	/**
+	 * Sets whether the images of newly created icons should immediately
+	 * be decoded by a background thread.
+	 * @param prefetch whether to prefetch images, the default is <code>false</code>
+	 */
+	public synchronized void setPrefetch( boolean prefetch ){
+		this.prefetch = prefetch;
+		if( prefetch ){
+			Iterator<WeakReference<LazyIcon>> iterator = icons.values().iterator();
+			while( iterator.hasNext() ){
+				LazyIcon icon = iterator.next().get();
+				if( icon == null )
+					iterator.remove();
+				else if( !icon.isLoaded() )
+					enqueue( icon );
+			}
+		}
+	}
+	
+	/**
+	 * Tells whether images are decoded in the background.
+	 * @return whether images are prefetched
+	 * @see #setPrefetch(boolean)
+	 */
+	public synchronized boolean isPrefetch(){
+		return prefetch;
+	}
+	
+	/**
+	 * Sets whether icons whose image is not yet available should paint the
+	 * {@link #getPlaceholder() placeholder} and load their image in the background,
+	 * rather than blocking until the image is decoded.
+	 * @param asynchronous whether to load images asynchronously, the default
+	 * is <code>false</code>
+	 */
+	public void setAsynchronous( boolean asynchronous ){
+		this.asynchronous = asynchronous;
+	}
+	
+	/**
+	 * Tells whether icons are loaded asynchronously.
+	 * @return whether icons do not block
+	 * @see #setAsynchronous(boolean)
+	 */
+	public boolean isAsynchronous(){
+		return asynchronous;
+	}
+	
+	/**
+	 * Sets the icon that is painted while the real image is not yet available.
+	 * @param placeholder the placeholder, can be <code>null</code> in which 
+	 * case nothing is painted
+	 */
+	public void setPlaceholder( Icon placeholder ){
+		this.placeholder = placeholder;
+	}
+	
+	/**
+	 * Gets the icon that is painted while the real image is not yet available.
+	 * @return the placeholder, can be <code>null</code>
+	 */
+	public Icon getPlaceholder(){
+		return placeholder;
+	}
+	
+	/**
+	 * Gets the icon whose image is stored at <code>url</code>. The image is
+	 * not read by this method.
+	 * @param url the location of the image, not <code>null</code>
+	 * @return the shared icon
+	 */
+	public synchronized LazyIcon getIcon( URL url ){
+		String key = url.toExternalForm();
+		WeakReference<LazyIcon> reference = icons.get( key );
+		LazyIcon icon = reference == null ? null : reference.get();
+		if( icon == null ){
+			icon = new LazyIcon( this, url );
+			icons.put( key, new WeakReference<LazyIcon>( icon ) );
+			if( prefetch )
+				enqueue( icon );
+		}
+		return icon;
+	}
+	
+	/**
+	 * Loads a map of icons. The property file <code>list</code> is read only
+	 * once, the icons are shared with any other caller using the same arguments.
+	 * @param list a path to a property-file containing key-path-pairs.
+	 * @param path the base path to the icons, will be added before any
+	 * path of the property file, can be <code>null</code>
+	 * @param loader used to transform paths into urls.
+	 * @return a new map of {@link Icon}s which can be modified by the caller, 
+	 * the map can be empty if no icons were found
+	 * @see Properties#load(InputStream)
+	 */
+	public Map<String, Icon> loadIcons( String list, String path, ClassLoader loader ){
+		ListKey key = new ListKey( list, path );
+		Map<String, LazyIcon> icons = null;
+		
+		synchronized( this ){
+			Map<ListKey, Map<String, LazyIcon>> known = lists.get( loader );
+			if( known != null )
+				icons = known.get( key );
+		}
+		
+		if( icons == null ){
+			icons = readIcons( list, path, loader );
+			synchronized( this ){
+				Map<ListKey, Map<String, LazyIcon>> known = lists.get( loader );
+				if( known == null ){
+					known = new HashMap<ListKey, Map<String,LazyIcon>>();
+					lists.put( loader, known );
+				}
+				known.put( key, icons );
+			}
+		}
+		
+		return new HashMap<String, Icon>( icons );
+	}
+	
+	/**
+	 * Reads the property file <code>list</code> and creates an icon for 
+	 * each entry.
+	 * @param list a path to a property-file containing key-path-pairs.
+	 * @param path the base path to the icons, can be <code>null</code>
+	 * @param loader used to transform paths into urls.
+	 * @return the icons
+	 */
+	private Map<String, LazyIcon> readIcons( String list, String path, ClassLoader loader ){
+		try{
+            InputStream in = loader.getResourceAsStream( list );
+            if( in == null )
+                return new HashMap<String, LazyIcon>();
+            
+            Properties properties = new Properties();
+            properties.load( in );
+            in.close();
+            
+            Map<String, LazyIcon> result = new HashMap<String, LazyIcon>();
+            for( Map.Entry<Object, Object> entry : properties.entrySet() ){
+                String key = (String)entry.getKey();
+                String file = (String)entry.getValue();
+                if( path != null )
+                    file = path + file;
+                
+                URL url = loader.getResource( file );
+                if( url == null ){
+                    System.err.println( "Missing file: " + file );
+                }
+                else{
+                    result.put( key, getIcon( url ) );
+                }
+            }
+            
+            return result;
+        }
+        catch( IOException ex ){
+            ex.printStackTrace();
+            return new HashMap<String, LazyIcon>();
+        }
+	}
+	
+	/**
+	 * Ensures that the image of <code>icon</code> gets decoded by the 
+	 * background thread.
+	 * @param icon the icon to load
+	 */
+	public synchronized void prefetch( LazyIcon icon ){
+		if( !icon.isLoaded() && !queue.contains( icon ))
+			enqueue( icon );
+	}
+	
+	/**
+	 * Adds <code>icon</code> to the queue of the background thread and
+	 * starts the thread if necessary.
+	 * @param icon the icon to load
+	 */
+	private void enqueue( LazyIcon icon ){
+		queue.add( icon );
+		if( worker == null ){
+			worker = new Thread( "DockingFrames icon loader" ){
+				@Override
+				public void run(){
+					while( true ){
+						LazyIcon next;
+						synchronized( IconRegistry.this ){
+							if( queue.isEmpty() ){
+								worker = null;
+								return;
+							}
+							next = queue.removeFirst();
+						}
+						next.load();
+					}
+				}
+			};
+			worker.setDaemon( true );
+			worker.setPriority( Thread.MIN_PRIORITY );
+			worker.start();
+		}
+	}
+	
+	/**
+	 * The key under which the result of {@link IconRegistry#loadIcons(String, String, ClassLoader)} is cached
+	 * for one {@link ClassLoader}.
+	 * @author Benjamin Sigg
+	 */
+	private static class ListKey{
+		private String list;
+		private String path;
+		
+		public ListKey( String list, String path ){
+			this.list = list;
+			this.path = path;
+		}
+		
+		@Override
+		public int hashCode(){
+			int hash = list.hashCode();
+			hash = hash * 31 + (path == null ? 0 : path.hashCode());
+			return hash;
+		}
+		
+		@Override
+		public boolean equals( Object obj ){
+			if( !(obj instanceof ListKey ))
+				return false;
+			ListKey other = (ListKey)obj;
+			return list.equals( other.list ) &&
+				(path == null ? other.path == null : path.equals( other.path ));
+		}
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.gui.dock.util;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Graphics;
+import java.awt.Image;
+import java.awt.Toolkit;
+import java.io.ObjectStreamException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.JComponent;
+
+/**
+ * An {@link ImageIcon} which does not read its image until the image is
+ * needed for the first time. Instances of this class are created and shared by an
+ * {@link IconRegistry}.<br>
+ * If the registry is {@link IconRegistry#setAsynchronous(boolean) asynchronous},
+ * an icon whose image is not yet decoded paints the 
+ * {@link IconRegistry#getPlaceholder() placeholder} instead of blocking, 
+ * and repaints the affected {@link Component}s once the image is available.<br>
+ * A serialized {@link LazyIcon} is written as a plain {@link ImageIcon}.
+ * @author Benjamin Sigg
+ */
+public class LazyIcon extends ImageIcon{
+	private static final long serialVersionUID = 1L;
+
+	/** the location of the image */
+	private URL url;
+	
+	/** the registry that created this icon */
+	private transient IconRegistry registry;
+	
+	/** whether the image has been read */
+	private volatile boolean loaded = false;
+	
+	/** lock held while the image is read, ensures the image is read only once */
+	private final transient Object loadLock = new Object();
+	
+	/** the components that painted the placeholder and need to be repainted once the image is loaded */
+	private transient List<Component> waiting;
+	
+	/**
+	 * Creates a new icon.
+	 * @param registry the registry which created this icon, not <code>null</code>
+	 * @param url the location of the image, not <code>null</code>
+	 */
+	protected LazyIcon( IconRegistry registry, URL url ){
+		if( registry == null )
+			throw new IllegalArgumentException( "registry must not be null" );
+		if( url == null )
+			throw new IllegalArgumentException( "url must not be null" );
+		
+		this.registry = registry;
+		this.url = url;
+		setDescription( url.toExternalForm() );
+	}
+	
+	/**
+	 * Gets the location of the image of this icon.
+	 * @return the location
+	 */
+	public URL getURL(){
+		return url;
+	}
+	
+	/**
+	 * Tells whether the image of this icon has already been read.
+	 * @return <code>true</code> if the image is available
+	 */
+	public boolean isLoaded(){
+		return loaded;
+	}
+	
+	/**
+	 * Reads and decodes the image of this icon, blocks until the image is
+	 * available. Does nothing if the image was already read.
+	 */
+	public void load(){
+		if( loaded )
+			return;
+		
+		List<Component> repaint = null;
+		
+		synchronized( loadLock ){
+			if( loaded )
+				return;
+			
+			super.setImage( Toolkit.getDefaultToolkit().getImage( url ) );
+			synchronized( this ){
+				loaded = true;
+				repaint = waiting;
+				waiting = null;
+			}
+		}
+		
+		if( repaint != null ){
+			final List<Component> components = repaint;
+			EventQueue.invokeLater( new Runnable(){
+				public void run(){
+					for( Component component : components ){
+						if( component instanceof JComponent )
+							((JComponent)component).revalidate();
+						component.repaint();
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Ensures that the image is available, or that it is loaded in the 
+	 * background if the registry is asynchronous.
+	 * @param component the component which needs the image, will be repainted
+	 * once the image is available. Can be <code>null</code>.
+	 * @return <code>true</code> if the image is available
+	 */
+	private boolean ensureLoaded( Component component ){
+		if( loaded )
+			return true;
+		
+		if( !registry.isAsynchronous() ){
+			load();
+			return true;
+		}
+		
+		synchronized( this ){
+			if( loaded )
+				return true;
+			
+			if( component != null ){
+				if( waiting == null )
+					waiting = new ArrayList<Component>( 2 );
+				if( !waiting.contains( component ))
+					waiting.add( component );
+			}
+		}
+		registry.prefetch( this );
+		return false;
+	}
+	
+	@Override
+	public Image getImage(){
+		load();
+		return super.getImage();
+	}
+	
+	@Override
+	public void setImage( Image image ){
+		synchronized( loadLock ){
+			super.setImage( image );
+			synchronized( this ){
+				loaded = true;
+				waiting = null;
+			}
+		}
+	}
+	
+	@Override
+	public int getImageLoadStatus(){
+		load();
+		return super.getImageLoadStatus();
+	}
+	
+	@Override
+	public int getIconWidth(){
+		if( ensureLoaded( null ))
+			return super.getIconWidth();
+		
+		Icon placeholder = registry.getPlaceholder();
+		return placeholder == null ? 0 : placeholder.getIconWidth();
+	}
+	
+	@Override
+	public int getIconHeight(){
+		if( ensureLoaded( null ))
+			return super.getIconHeight();
+		
+		Icon placeholder = registry.getPlaceholder();
+		return placeholder == null ? 0 : placeholder.getIconHeight();
+	}
+	
+	@Override
+	public void paintIcon( Component c, Graphics g, int x, int y ){
+		if( ensureLoaded( c )){
+			super.paintIcon( c, g, x, y );
+		}
+		else{
+			Icon placeholder = registry.getPlaceholder();
+			if( placeholder != null )
+				placeholder.paintIcon( c, g, x, y );
+		}
+	}
+	
+	/**
+	 * Replaces this icon by an {@link ImageIcon} that contains the same image
+	 * when this icon gets serialized.
+	 * @return the replacement
+	 * @throws ObjectStreamException never thrown
+	 */
+	protected Object writeReplace() throws ObjectStreamException{
+		return new ImageIcon( getImage(), getDescription() );
+	}
+	
+	@Override
+	public String toString(){
+		return getClass().getSimpleName() + "[url=" + url + ", loaded=" + loaded + "]";
+	}
+}
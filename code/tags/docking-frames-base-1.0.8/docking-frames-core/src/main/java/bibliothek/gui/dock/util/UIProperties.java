@@ -25,12 +25,14 @@
  */
 package bibliothek.gui.dock.util;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import bibliothek.gui.DockController;
 import bibliothek.util.Path;
@@ -40,7 +42,11 @@ import bibliothek.util.Todo.Version;
 
 /**
  * A map containing which contains some string-values pairs and so called
- * bridges to modify these values when reading them out. 
+ * bridges to modify these values when reading them out.<br>
+ * The observers of this map are indexed by their id and by their path, a change
+ * of a resource or of a bridge only affects the observers that really use
+ * that resource or bridge. While the map is {@link #lockUpdate() locked} all
+ * changes are collected and applied in one pass when the map gets unlocked.
  * @author Benjamin Sigg
  * @param <V> The kind of values this map contains
  * @param <U> The kind of observers used to read values from this map
@@ -49,18 +55,33 @@ import bibliothek.util.Todo.Version;
 @Todo(compatibility=Compatibility.BREAK_MINOR, priority=Todo.Priority.MAJOR, target=Version.VERSION_1_1_0, 
 		description="Use typesafe keys instead of Path")
 public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
-    /** the map of providers known to this manager */
+    /** the map of providers known to this manager, the keys are {@link Path#intern() interned} */
     private Map<Path, PriorityValue<B>> bridges = new HashMap<Path, PriorityValue<B>>();
     
     /** the map of resources that have been set */
     private Map<String, PriorityValue<V>> resources = new HashMap<String, PriorityValue<V>>();
     
-    /** a list of all observers */
-    private List<Observer> observers = new LinkedList<Observer>();
+    /** all observers, accessible through the {@link UIValue} they wrap */
+    private Map<U, Observer> observers = new IdentityHashMap<U, Observer>();
+    
+    /** all observers grouped by the id of the resource they observe */
+    private Map<String, Set<Observer>> observersById = new HashMap<String, Set<Observer>>();
+    
+    /** all observers grouped by their kind, the keys are {@link Path#intern() interned} */
+    private Map<Path, Set<Observer>> observersByPath = new HashMap<Path, Set<Observer>>();
     
     /** whether to stall updates or not */
     private int updateLock = 0;
     
+    /** the ids of the resources that changed while the updates were stalled */
+    private Set<String> lockedIds = new HashSet<String>();
+    
+    /** the paths of the bridges that changed while the updates were stalled */
+    private Set<Path> lockedPaths = new HashSet<Path>();
+    
+    /** whether all observers need to be updated once the update is no longer stalled */
+    private boolean lockedAll = false;
+    
     /** the owner of this properties map */
     private DockController controller;
     
@@ -89,17 +110,83 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
     }
     
     /**
-     * Tells this manager no longer to stall updates. This triggers a full
-     * update on all {@link UIValue}s.
+     * Tells this manager no longer to stall updates. This triggers an
+     * update on all {@link UIValue}s whose resource or bridge changed 
+     * while the updates were stalled.
      */
     public void unlockUpdate(){
         updateLock--;
         if( updateLock == 0 ){
-            for( Observer observer : observers )
+        	Set<Observer> affected;
+        	if( lockedAll ){
+        		affected = allObservers();
+        	}
+        	else{
+        		affected = new LinkedHashSet<Observer>();
+        		for( String id : lockedIds ){
+        			Set<Observer> group = observersById.get( id );
+        			if( group != null ){
+        				affected.addAll( group );
+        			}
+        		}
+        		for( Path path : lockedPaths ){
+        			collectObservers( path, affected );
+        		}
+        	}
+        	
+        	lockedAll = false;
+        	lockedIds.clear();
+        	lockedPaths.clear();
+        	
+            for( Observer observer : affected )
                 observer.resetAll();
         }
     }
     
+    /**
+     * Informs all observers that use <code>path</code> or a child of <code>path</code> that
+     * the bridge of <code>path</code> changed. If the updates are stalled, then
+     * <code>path</code> is only stored for later.
+     * @param path the path whose bridge changed
+     */
+    private void bridgeChanged( Path path ){
+    	if( updateLock == 0 ){
+    		Set<Observer> affected = new LinkedHashSet<Observer>();
+    		collectObservers( path, affected );
+    		for( Observer check : affected ){
+    			check.resetBridge();
+    		}
+    	}
+    	else{
+    		lockedPaths.add( path );
+    	}
+    }
+    
+    /**
+     * Collects all the observers that are currently known.
+     * @return all observers
+     */
+    private Set<Observer> allObservers(){
+    	Set<Observer> result = new LinkedHashSet<Observer>();
+    	for( Set<Observer> group : observersById.values() ){
+    		result.addAll( group );
+    	}
+    	return result;
+    }
+    
+    /**
+     * Collects all the observers whose path is <code>path</code> or a child of <code>path</code>.
+     * @param path the root of the observers to collect
+     * @param result the collection to fill
+     */
+    private void collectObservers( Path path, Set<Observer> result ){
+    	for( Map.Entry<Path, Set<Observer>> entry : observersByPath.entrySet() ){
+    		if( entry.getKey().startsWith( path )){
+    			result.addAll( entry.getValue() );
+    		}
+    	}
+    }
+    
     /**
      * Adds a new bridge between this {@link UIProperties} and a set of
      * {@link UIValue}s that have a certain type.
@@ -115,6 +202,7 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         if( bridge == null )
             throw new IllegalArgumentException( "bridge must not be null" );
         
+        path = path.intern();
         PriorityValue<B> value = bridges.get( path );
         if( value == null ){
             value = new PriorityValue<B>();
@@ -122,11 +210,7 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         }
         
         if( value.set( priority, bridge )){
-            if( updateLock == 0 ){
-                for( Observer check : observers ){
-                    check.resetBridge();
-                }
-            }
+            bridgeChanged( path );
         }
     }
     
@@ -137,16 +221,15 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
      * @param path the path of the bridge
      */
     public void unpublish( Priority priority, Path path ){
+        path = path.intern();
         PriorityValue<B> value = bridges.get( path );
         if( value != null ){
             boolean change = value.set( priority, null );
             if( value.get() == null )
                 bridges.remove( path );
             
-            if( change && updateLock == 0 ){
-                for( Observer check : observers ){
-                    check.resetBridge();
-                }
+            if( change ){
+                bridgeChanged( path );
             }   
         }
     }
@@ -158,23 +241,24 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
      * @param bridge the bridge to remove
      */
     public void unpublish( Priority priority, B bridge ){
-        Iterator<PriorityValue<B>> iterator = bridges.values().iterator();
-        boolean change = false;
+        Iterator<Map.Entry<Path, PriorityValue<B>>> iterator = bridges.entrySet().iterator();
+        Set<Path> changed = new HashSet<Path>();
         
         while( iterator.hasNext() ){
-            PriorityValue<B> next = iterator.next();
-            if( next.get( priority ) == bridge ){
-                change = next.set( priority, null ) || change;
-                if( next.get() == null ){
+            Map.Entry<Path, PriorityValue<B>> next = iterator.next();
+            PriorityValue<B> value = next.getValue();
+            if( value.get( priority ) == bridge ){
+                if( value.set( priority, null )){
+                	changed.add( next.getKey() );
+                }
+                if( value.get() == null ){
                     iterator.remove();
                 }
             }
         }
         
-        if( change && updateLock == 0 ){
-            for( Observer check : observers ){
-                check.resetBridge();
-            }
+        for( Path path : changed ){
+        	bridgeChanged( path );
         }
     }
 
@@ -193,8 +277,56 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         if( value == null )
             throw new IllegalArgumentException( "value must not be null" );
         
+        path = path.intern();
         Observer combination = new Observer( id, path, value );
-        observers.add( combination );
+        Observer first = observers.get( value );
+        if( first == null ){
+        	observers.put( value, combination );
+        }
+        else{
+        	while( first.duplicate != null ){
+        		first = first.duplicate;
+        	}
+        	first.duplicate = combination;
+        }
+        
+        group( observersById, id ).add( combination );
+        group( observersByPath, path ).add( combination );
+    }
+    
+    /**
+     * Gets the set of observers that is stored in <code>map</code> under <code>key</code>,
+     * creates a new set if necessary.
+     * @param <K> the kind of key
+     * @param map the map to search
+     * @param key the key of the set
+     * @return the set, not <code>null</code>
+     */
+    private <K> Set<Observer> group( Map<K, Set<Observer>> map, K key ){
+    	Set<Observer> result = map.get( key );
+    	if( result == null ){
+    		result = new LinkedHashSet<Observer>();
+    		map.put( key, result );
+    	}
+    	return result;
+    }
+    
+    /**
+     * Removes <code>observer</code> from the set that is stored in <code>map</code>
+     * under <code>key</code>.
+     * @param <K> the kind of key
+     * @param map the map to modify
+     * @param key the key of the set
+     * @param observer the observer to remove
+     */
+    private <K> void ungroup( Map<K, Set<Observer>> map, K key, Observer observer ){
+    	Set<Observer> group = map.get( key );
+    	if( group != null ){
+    		group.remove( observer );
+    		if( group.isEmpty() ){
+    			map.remove( key );
+    		}
+    	}
     }
     
     /**
@@ -202,14 +334,15 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
      * @param value the observer to remove
      */
     public void remove( U value ){
-        ListIterator<Observer> list = observers.listIterator();
-        while( list.hasNext() ){
-            Observer next = list.next();
-            if( next.getValue() == value ){
-                list.remove();
-                next.setBridge( null, false );
-                return;
-            }
+        Observer observer = observers.remove( value );
+        if( observer != null ){
+        	if( observer.duplicate != null ){
+        		observers.put( value, observer.duplicate );
+        		observer.duplicate = null;
+        	}
+        	ungroup( observersById, observer.id, observer );
+        	ungroup( observersByPath, observer.path, observer );
+        	observer.setBridge( null, false );
         }
     }
     
@@ -217,10 +350,15 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
      * Searches a bridge that can be used for <code>path</code>.
      * @param path the kind of bridge that is searched. First a bridge for
      * <code>path</code> will be searched, then for the parent of <code>path</code>,
-     * and so on...
+     * and so on... Callers should use {@link Path#intern() interned} paths, otherwise
+     * <code>path</code> has to be interned before the search starts.
      * @return the bridge or <code>null</code>
      */
     protected B getBridgeFor( Path path ){
+        if( path != null && !path.isInterned() ){
+            // the parents of interned paths are already known
+            path = path.intern();
+        }
         while( path != null ){
             PriorityValue<B> bridge = bridges.get( path );
             if( bridge != null ){
@@ -251,11 +389,15 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         
         if( value.set( priority, resource ) ){
             if( updateLock == 0 ){
-                for( Observer observer : observers ){
-                    if( observer.id.equals( id )){
-                        observer.update( resource );
-                    }
-                }
+            	Set<Observer> group = observersById.get( id );
+            	if( group != null ){
+            		for( Observer observer : new ArrayList<Observer>( group )){
+            			observer.update( resource );
+            		}
+            	}
+            }
+            else{
+            	lockedIds.add( id );
             }
         }
         
@@ -296,10 +438,13 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         }
         
         if( updateLock == 0 ){
-            for( Observer observer : observers ){
+            for( Observer observer : allObservers() ){
                 observer.resetAll();
             }
         }
+        else{
+        	lockedAll = true;
+        }
     }
 
     /**
@@ -316,6 +461,8 @@ public class UIProperties<V, U extends UIValue<V>, B extends UIBridge<V, U>> {
         private U value;
         /** a bridge for modified resources */
         private B bridge;
+        /** another observer that was added later for the same {@link #value} */
+        private Observer duplicate;
         
         /**
          * Creates a new observer
@@ -35,7 +35,7 @@ import bibliothek.util.Path;
  * @author Benjamin Sigg
  */
 public interface DockColor extends UIValue<Color>{
-    public static final Path KIND_DOCK_COLOR = new Path( "DockColor" );
+    public static final Path KIND_DOCK_COLOR = new Path( "DockColor" ).intern();
     
     // no new methods
 }
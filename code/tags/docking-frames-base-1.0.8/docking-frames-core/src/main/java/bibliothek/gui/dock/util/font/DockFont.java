@@ -35,7 +35,7 @@ import bibliothek.util.Path;
  */
 public interface DockFont extends UIValue<FontModifier> {
     /** the default kind of fonts */
-    public static final Path KIND_DOCK_FONT = new Path( "DockFont" );
+    public static final Path KIND_DOCK_FONT = new Path( "DockFont" ).intern();
     
     /** default id for the title active font */
     public static final String ID_TITLE_ACTIVE = "title.active";
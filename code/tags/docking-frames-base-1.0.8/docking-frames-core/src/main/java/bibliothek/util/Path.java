@@ -25,9 +25,12 @@
  */
 package bibliothek.util;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import javax.swing.KeyStroke;
 
@@ -39,7 +42,10 @@ import bibliothek.gui.dock.control.ModifierMask;
  * A path is a description of the position of some resource. A path consists
  * of segments where a segment can be any kind of string (preferably a segment is a 
  * valid java-identifier). A path can be converted into a string, the segments will
- * be {@link #encodeSegment(String) encoded} when doing that.
+ * be {@link #encodeSegment(String) encoded} when doing that.<br>
+ * Paths that are often used as keys in maps should be {@link #intern() interned}: 
+ * there is only one interned path for each sequence of segments, interned paths
+ * can be compared by their identity and their parents are known in advance.
  * @author Benjamin Sigg
  */
 public final class Path {
@@ -127,9 +133,21 @@ public final class Path {
     	return builder.toString();
     }
     
+    /** all the paths that were {@link #intern() interned}, the values are the keys themselves */
+    private static final Map<Path, WeakReference<Path>> interned = new WeakHashMap<Path, WeakReference<Path>>();
+    
     /** the segments of this path */
     private String[] segments;
     
+    /** the hash code of this path, 0 if not yet computed */
+    private int hash;
+    
+    /** the parent of this path, <code>null</code> if not yet computed */
+    private Path parent;
+    
+    /** whether this path is the one interned instance for its segments */
+    private boolean canonical = false;
+    
     /**
      * Tells whether <code>path</code> is a valid path or not
      * @param path the path to test
@@ -299,6 +317,24 @@ public final class Path {
         return append( new Path( segments ));
     }
     
+    /**
+     * Tells whether this path starts with <code>prefix</code>, i.e. whether <code>prefix</code>
+     * is equal to this path or one of its ancestors.
+     * @param prefix the path to compare, not <code>null</code>
+     * @return <code>true</code> if the first segments of this path are equal to the
+     * segments of <code>prefix</code>
+     */
+    public boolean startsWith( Path prefix ){
+        if( prefix.segments.length > segments.length )
+            return false;
+        
+        for( int i = 0, n = prefix.segments.length; i<n; i++ ){
+            if( !segments[i].equals( prefix.segments[i] ))
+                return false;
+        }
+        return true;
+    }
+    
     /**
      * Returns the parent of this path.
      * @return the parent or <code>null</code> if this is the root
@@ -307,14 +343,58 @@ public final class Path {
         if( segments.length == 0 )
             return null;
         
-        String[] result = new String[ segments.length-1 ];
-        System.arraycopy( segments, 0, result, 0, result.length );
-        return new Path( result );
+        if( parent == null ){
+            String[] result = new String[ segments.length-1 ];
+            System.arraycopy( segments, 0, result, 0, result.length );
+            parent = new Path( result );
+        }
+        return parent;
+    }
+    
+    /**
+     * Tells whether this path is the canonical representation of its segments, meaning
+     * that {@link #intern()} would just return <code>this</code>.
+     * @return <code>true</code> if this path is interned
+     */
+    public boolean isInterned(){
+        return canonical;
+    }
+    
+    /**
+     * Gets the canonical representation of this path. There is only one canonical
+     * path for each sequence of segments, hence two interned paths are equal if and
+     * only if they are the same object. The {@link #getParent() parent} of an interned
+     * path is interned as well.
+     * @return the interned path that is equal to this path, can be <code>this</code>
+     */
+    public Path intern(){
+        if( canonical )
+            return this;
+        
+        synchronized( interned ){
+            WeakReference<Path> reference = interned.get( this );
+            Path result = reference == null ? null : reference.get();
+            if( result == null ){
+                result = new Path( segments );
+                result.hash = hashCode();
+                if( segments.length > 0 ){
+                    result.parent = getParent().intern();
+                }
+                result.canonical = true;
+                interned.put( result, new WeakReference<Path>( result ) );
+            }
+            return result;
+        }
     }
     
     @Override
     public int hashCode() {
-        return Arrays.hashCode( segments );
+        int hash = this.hash;
+        if( hash == 0 ){
+            hash = Arrays.hashCode( segments );
+            this.hash = hash;
+        }
+        return hash;
     }
 
     @Override
@@ -326,6 +406,10 @@ public final class Path {
         if( getClass() != obj.getClass() )
             return false;
         final Path other = (Path)obj;
+        if( canonical && other.canonical )
+            return false;
+        if( hashCode() != other.hashCode() )
+            return false;
         if( !Arrays.equals( segments, other.segments ) )
             return false;
         return true;
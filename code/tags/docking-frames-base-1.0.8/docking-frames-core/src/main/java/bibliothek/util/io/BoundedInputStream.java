@@ -0,0 +1,133 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ *
+ * Copyright (C) 2007 Benjamin Sigg
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.util.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@link InputStream} that reads a fixed number of bytes from another stream. This stream
+ * reaches its end once all the bytes are read, even if the other stream contains more bytes.
+ * Closing this stream does not close the other stream. Can be used to hand over a block of 
+ * data with known size to some reader without copying the block.
+ * @author Benjamin Sigg
+ */
+public class BoundedInputStream extends InputStream{
+	/** the stream to read from */
+	private InputStream in;
+	
+	/** the number of bytes that can still be read */
+	private long remaining;
+	
+	/**
+	 * Creates a new stream.
+	 * @param in the stream to read from
+	 * @param length the number of bytes that can be read from <code>in</code>
+	 */
+	public BoundedInputStream( InputStream in, long length ){
+		if( in == null )
+			throw new IllegalArgumentException( "in must not be null" );
+		if( length < 0 )
+			throw new IllegalArgumentException( "length must not be negative: " + length );
+		
+		this.in = in;
+		this.remaining = length;
+	}
+	
+	/**
+	 * Gets the number of bytes that can still be read from this stream.
+	 * @return the number of bytes
+	 */
+	public long getRemaining(){
+		return remaining;
+	}
+	
+	/**
+	 * Skips all the bytes that were not yet read. 
+	 * @throws IOException if the underlying stream cannot be read
+	 * @throws EOFException if the underlying stream ends too early
+	 */
+	public void skipRemaining() throws IOException{
+		while( remaining > 0 ){
+			long skipped = in.skip( remaining );
+			if( skipped <= 0 ){
+				if( in.read() < 0 ){
+					throw new EOFException();
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+	
+	@Override
+	public int read() throws IOException{
+		if( remaining <= 0 )
+			return -1;
+		
+		int result = in.read();
+		if( result < 0 )
+			throw new EOFException();
+		
+		remaining--;
+		return result;
+	}
+	
+	@Override
+	public int read( byte[] b, int off, int len ) throws IOException{
+		if( len == 0 )
+			return 0;
+		if( remaining <= 0 )
+			return -1;
+		
+		int result = in.read( b, off, (int)Math.min( len, remaining ) );
+		if( result < 0 )
+			throw new EOFException();
+		
+		remaining -= result;
+		return result;
+	}
+	
+	@Override
+	public long skip( long n ) throws IOException{
+		long result = in.skip( Math.min( n, remaining ) );
+		if( result > 0 ){
+			remaining -= result;
+		}
+		return Math.max( 0, result );
+	}
+	
+	@Override
+	public int available() throws IOException{
+		return (int)Math.min( in.available(), remaining );
+	}
+	
+	@Override
+	public void close() throws IOException{
+		// ignore
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.util.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Methods to write and read integers with a variable number of bytes. Small values
+ * need only one byte, the largest values need one byte more than the fixed size
+ * formats of {@link DataOutputStream}. Signed values are stored in the "zig-zag" encoding,
+ * which maps values with a small magnitude, like <code>-1</code>, to small unsigned values.
+ * @author Benjamin Sigg
+ */
+public final class CompactIO {
+	private CompactIO(){
+		// nothing
+	}
+	
+	/**
+	 * Writes a non negative <code>int</code> using 1 to 5 bytes.
+	 * @param out the stream to write into
+	 * @param value the value to write, should not be negative
+	 * @throws IOException if an I/O-error occurs
+	 * @see #readUnsignedVarInt(DataInputStream)
+	 */
+	public static void writeUnsignedVarInt( DataOutputStream out, int value ) throws IOException{
+		while( (value & ~0x7F) != 0 ){
+			out.writeByte( (value & 0x7F) | 0x80 );
+			value >>>= 7;
+		}
+		out.writeByte( value );
+	}
+	
+	/**
+	 * Reads an <code>int</code> that was written by {@link #writeUnsignedVarInt(DataOutputStream, int)}.
+	 * @param in the stream to read from
+	 * @return the value
+	 * @throws IOException if an I/O-error occurs or the value is malformed
+	 */
+	public static int readUnsignedVarInt( DataInputStream in ) throws IOException{
+		int result = 0;
+		for( int shift = 0; shift < 35; shift += 7 ){
+			int next = in.readUnsignedByte();
+			result |= (next & 0x7F) << shift;
+			if( (next & 0x80) == 0 ){
+				return result;
+			}
+		}
+		throw new IOException( "malformed variable length integer" );
+	}
+	
+	/**
+	 * Writes any <code>int</code> using 1 to 5 bytes, values near 0 need less bytes.
+	 * @param out the stream to write into
+	 * @param value the value to write
+	 * @throws IOException if an I/O-error occurs
+	 * @see #readVarInt(DataInputStream)
+	 */
+	public static void writeVarInt( DataOutputStream out, int value ) throws IOException{
+		writeUnsignedVarInt( out, (value << 1) ^ (value >> 31) );
+	}
+	
+	/**
+	 * Reads an <code>int</code> that was written by {@link #writeVarInt(DataOutputStream, int)}.
+	 * @param in the stream to read from
+	 * @return the value
+	 * @throws IOException if an I/O-error occurs or the value is malformed
+	 */
+	public static int readVarInt( DataInputStream in ) throws IOException{
+		int value = readUnsignedVarInt( in );
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
+	/**
+	 * Writes any <code>long</code> using 1 to 10 bytes, values near 0 need less bytes.
+	 * @param out the stream to write into
+	 * @param value the value to write
+	 * @throws IOException if an I/O-error occurs
+	 * @see #readVarLong(DataInputStream)
+	 */
+	public static void writeVarLong( DataOutputStream out, long value ) throws IOException{
+		value = (value << 1) ^ (value >> 63);
+		while( (value & ~0x7FL) != 0 ){
+			out.writeByte( (int)(value & 0x7F) | 0x80 );
+			value >>>= 7;
+		}
+		out.writeByte( (int)value );
+	}
+	
+	/**
+	 * Reads a <code>long</code> that was written by {@link #writeVarLong(DataOutputStream, long)}.
+	 * @param in the stream to read from
+	 * @return the value
+	 * @throws IOException if an I/O-error occurs or the value is malformed
+	 */
+	public static long readVarLong( DataInputStream in ) throws IOException{
+		long value = 0;
+		for( int shift = 0; shift < 70; shift += 7 ){
+			int next = in.readUnsignedByte();
+			value |= (long)(next & 0x7F) << shift;
+			if( (next & 0x80) == 0 ){
+				return (value >>> 1) ^ -(value & 1);
+			}
+		}
+		throw new IOException( "malformed variable length integer" );
+	}
+}
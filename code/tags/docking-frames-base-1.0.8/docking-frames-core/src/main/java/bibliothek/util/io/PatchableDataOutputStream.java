@@ -0,0 +1,287 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ *
+ * Copyright (C) 2007 Benjamin Sigg
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.util.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link DataOutputStream} that can write blocks of data which are prefixed by their
+ * length, without the need to buffer the content of the blocks. A block is started with
+ * {@link #beginBlock()}, which reserves space for the length, and finished with 
+ * {@link #endBlock(long)}, which writes the length into the reserved space. Blocks can be nested.<br>
+ * The stream either collects all bytes in memory, or writes them into a {@link FileChannel}. In the 
+ * second case only a small buffer is kept in memory, lengths that are already written into the 
+ * channel are patched using positional writes.<br>
+ * The data written by this stream has the same format as if each block was first written 
+ * into its own {@link java.io.ByteArrayOutputStream} and then copied into the stream using
+ * {@link #writeInt(int)} and {@link #write(byte[])}.
+ * @author Benjamin Sigg
+ */
+public class PatchableDataOutputStream extends DataOutputStream{
+	/** the object that really stores the bytes */
+	private Sink sink;
+	
+	/**
+	 * Creates a new stream collecting all bytes in memory.
+	 */
+	public PatchableDataOutputStream(){
+		super( new Sink( null, 0, 1024 ) );
+		sink = (Sink)out;
+	}
+	
+	/**
+	 * Creates a new stream writing into <code>channel</code>, starting at the current position 
+	 * of <code>channel</code>. The channel will be closed when this stream is closed.
+	 * @param channel the channel to write into, must be writable, not <code>null</code>
+	 * @throws IOException if the position of <code>channel</code> cannot be read
+	 */
+	public PatchableDataOutputStream( FileChannel channel ) throws IOException{
+		super( new Sink( channel, channel.position(), 8192 ) );
+		sink = (Sink)out;
+	}
+	
+	/**
+	 * Gets the number of bytes that were written into this stream since it was created.
+	 * @return the number of bytes
+	 */
+	public long getPosition(){
+		return sink.position();
+	}
+	
+	/**
+	 * Starts a new block by reserving space for an <code>int</code> that will later be
+	 * replaced by the length of the block.
+	 * @return the marker of the block that has to be given to {@link #endBlock(long)}
+	 * @throws IOException if an I/O-error occurs
+	 */
+	public long beginBlock() throws IOException{
+		long marker = sink.position();
+		writeInt( 0 );
+		return marker;
+	}
+	
+	/**
+	 * Finishes a block that was started with {@link #beginBlock()}, the number of bytes
+	 * that were written since then is stored in front of the block.
+	 * @param marker the result of {@link #beginBlock()}
+	 * @throws IOException if an I/O-error occurs or if the block is too big
+	 */
+	public void endBlock( long marker ) throws IOException{
+		long length = sink.position() - marker - 4;
+		if( length < 0 || length > Integer.MAX_VALUE )
+			throw new IOException( "illegal size of block: " + length );
+		
+		sink.patchInt( marker, (int)length );
+	}
+	
+	/**
+	 * Writes all the bytes that were written into this stream into <code>out</code>. This method 
+	 * can only be called if this stream does not write into a {@link FileChannel}.
+	 * @param out the stream to write into
+	 * @throws IOException if <code>out</code> throws an exception
+	 * @throws IllegalStateException if this stream writes into a {@link FileChannel}
+	 */
+	public void writeTo( OutputStream out ) throws IOException{
+		sink.writeTo( out );
+	}
+	
+	/**
+	 * Gets a copy of all the bytes that were written into this stream. This method can only 
+	 * be called if this stream does not write into a {@link FileChannel}.
+	 * @return the bytes
+	 * @throws IllegalStateException if this stream writes into a {@link FileChannel}
+	 */
+	public byte[] toByteArray(){
+		return sink.toByteArray();
+	}
+	
+	/**
+	 * The {@link OutputStream} behind a {@link PatchableDataOutputStream}, either
+	 * a growing buffer or a fixed size buffer in front of a {@link FileChannel}.
+	 * @author Benjamin Sigg
+	 */
+	private static class Sink extends OutputStream{
+		/** the channel into which the bytes are finally written, can be <code>null</code> */
+		private FileChannel channel;
+		/** the position of {@link #channel} when this sink was created */
+		private long channelStart;
+		/** the bytes that are not yet written into {@link #channel} */
+		private byte[] buffer;
+		/** the number of bytes used in {@link #buffer} */
+		private int count;
+		/** the number of bytes that were already written into {@link #channel} */
+		private long flushed;
+		
+		/**
+		 * Creates a new sink.
+		 * @param channel the channel to write into or <code>null</code>
+		 * @param channelStart the current position of <code>channel</code>
+		 * @param capacity the initial size of the buffer
+		 */
+		public Sink( FileChannel channel, long channelStart, int capacity ){
+			this.channel = channel;
+			this.channelStart = channelStart;
+			buffer = new byte[ capacity ];
+		}
+		
+		public long position(){
+			return flushed + count;
+		}
+		
+		@Override
+		public void write( int b ) throws IOException{
+			ensure( 1 );
+			buffer[ count++ ] = (byte)b;
+		}
+		
+		@Override
+		public void write( byte[] b, int off, int len ) throws IOException{
+			if( channel != null && len >= buffer.length ){
+				drain();
+				writeFully( ByteBuffer.wrap( b, off, len ), -1 );
+				flushed += len;
+			}
+			else{
+				ensure( len );
+				System.arraycopy( b, off, buffer, count, len );
+				count += len;
+			}
+		}
+		
+		/**
+		 * Makes sure there is space for <code>length</code> additional bytes in {@link #buffer}.
+		 * @param length the number of bytes that are going to be written
+		 * @throws IOException if {@link #channel} cannot be written
+		 */
+		private void ensure( int length ) throws IOException{
+			if( count + length > buffer.length ){
+				if( channel != null ){
+					drain();
+				}
+				else{
+					byte[] temp = new byte[ Math.max( buffer.length * 2, count + length ) ];
+					System.arraycopy( buffer, 0, temp, 0, count );
+					buffer = temp;
+				}
+			}
+		}
+		
+		/**
+		 * Writes the content of {@link #buffer} into {@link #channel}.
+		 * @throws IOException if {@link #channel} cannot be written
+		 */
+		private void drain() throws IOException{
+			if( count > 0 ){
+				writeFully( ByteBuffer.wrap( buffer, 0, count ), -1 );
+				flushed += count;
+				count = 0;
+			}
+		}
+		
+		/**
+		 * Writes all remaining bytes of <code>data</code> into {@link #channel}.
+		 * @param data the bytes to write
+		 * @param position the position, relative to the start of this sink, at
+		 * which to write or -1 to append the bytes at the current position of the channel
+		 * @throws IOException if {@link #channel} cannot be written
+		 */
+		private void writeFully( ByteBuffer data, long position ) throws IOException{
+			while( data.hasRemaining() ){
+				if( position < 0 ){
+					channel.write( data );
+				}
+				else{
+					position += channel.write( data, channelStart + position );
+				}
+			}
+		}
+		
+		/**
+		 * Replaces the four bytes at <code>position</code> by <code>value</code>.
+		 * @param position the location of the bytes, the bytes must already be written
+		 * @param value the new value
+		 * @throws IOException if {@link #channel} cannot be written
+		 */
+		public void patchInt( long position, int value ) throws IOException{
+			if( position < 0 || position + 4 > position() )
+				throw new IllegalArgumentException( "position out of bounds: " + position );
+			
+			if( position >= flushed ){
+				int index = (int)(position - flushed);
+				buffer[ index ] = (byte)(value >>> 24);
+				buffer[ index+1 ] = (byte)(value >>> 16);
+				buffer[ index+2 ] = (byte)(value >>> 8);
+				buffer[ index+3 ] = (byte)value;
+			}
+			else{
+				ByteBuffer data = ByteBuffer.allocate( 4 );
+				data.putInt( value );
+				data.flip();
+				
+				int inChannel = (int)Math.min( 4, flushed - position );
+				data.limit( inChannel );
+				writeFully( data, position );
+				
+				for( int i = inChannel; i < 4; i++ ){
+					buffer[ i - inChannel ] = (byte)(value >>> (24 - 8*i));
+				}
+			}
+		}
+		
+		public void writeTo( OutputStream out ) throws IOException{
+			if( channel != null )
+				throw new IllegalStateException( "the data was written into a channel" );
+			out.write( buffer, 0, count );
+		}
+		
+		public byte[] toByteArray(){
+			if( channel != null )
+				throw new IllegalStateException( "the data was written into a channel" );
+			byte[] result = new byte[ count ];
+			System.arraycopy( buffer, 0, result, 0, count );
+			return result;
+		}
+		
+		@Override
+		public void flush() throws IOException{
+			if( channel != null ){
+				drain();
+			}
+		}
+		
+		@Override
+		public void close() throws IOException{
+			if( channel != null ){
+				drain();
+				channel.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.util.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table of strings that allows to write each string only once into a stream. The first
+ * time a string is written, it is stored with {@link DataOutputStream#writeUTF(String)} and
+ * added to the table. Afterwards only its index in the table is written. The reader of the
+ * stream has to use its own {@link StringTable} and has to read the strings in the same order
+ * as they were written.<br>
+ * A table should either be used for writing or for reading, but not for both. 
+ * @author Benjamin Sigg
+ */
+public class StringTable {
+	/** the index of each string that was written so far */
+	private Map<String, Integer> indices;
+	/** all the strings that were read so far */
+	private List<String> strings;
+	
+	/**
+	 * Writes <code>value</code> into <code>out</code>.
+	 * @param out the stream to write into
+	 * @param value the value to write, can be <code>null</code>
+	 * @throws IOException if an I/O-error occurs
+	 */
+	public void write( DataOutputStream out, String value ) throws IOException{
+		if( value == null ){
+			CompactIO.writeUnsignedVarInt( out, 0 );
+			return;
+		}
+		
+		if( indices == null ){
+			indices = new HashMap<String, Integer>();
+		}
+		
+		Integer index = indices.get( value );
+		if( index == null ){
+			indices.put( value, indices.size() );
+			CompactIO.writeUnsignedVarInt( out, 1 );
+			out.writeUTF( value );
+		}
+		else{
+			CompactIO.writeUnsignedVarInt( out, index + 2 );
+		}
+	}
+	
+	/**
+	 * Reads a string that was written by {@link #write(DataOutputStream, String)}.
+	 * @param in the stream to read from
+	 * @return the string, can be <code>null</code>
+	 * @throws IOException if an I/O-error occurs or if the string is unknown
+	 */
+	public String read( DataInputStream in ) throws IOException{
+		int index = CompactIO.readUnsignedVarInt( in );
+		if( index == 0 ){
+			return null;
+		}
+		
+		if( strings == null ){
+			strings = new ArrayList<String>();
+		}
+		
+		if( index == 1 ){
+			String value = in.readUTF();
+			strings.add( value );
+			return value;
+		}
+		
+		index -= 2;
+		if( index < 0 || index >= strings.size() ){
+			throw new IOException( "unknown string: " + index );
+		}
+		return strings.get( index );
+	}
+}
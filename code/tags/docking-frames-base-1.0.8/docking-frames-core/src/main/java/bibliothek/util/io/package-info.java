@@ -0,0 +1,4 @@
+/**
+ * Streams to read and write binary data which is organized in blocks of known size.
+ */
+package bibliothek.util.io;
@@ -32,6 +32,9 @@ package bibliothek.util.xml;
 public class XAttribute extends XContainer{
     /** the name of this attribute */
     private String name;
+    
+    /** the element to which this attribute was added last, its index has to be updated if the name of this attribute changes */
+    private XElement owner;
 
     /**
      * Creates a new attribute.
@@ -57,6 +60,17 @@ public class XAttribute extends XContainer{
             throw new IllegalArgumentException( "name must not be null" );
         
         this.name = name;
+        if( owner != null ){
+            owner.attributeRenamed();
+        }
+    }
+    
+    /**
+     * Sets the element to which this attribute was added.
+     * @param owner the new owner
+     */
+    void setOwner( XElement owner ){
+        this.owner = owner;
     }
     
     /**
@@ -27,21 +27,36 @@ package bibliothek.util.xml;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * A {@link XElement} is an entry in a xml-file. It has a name, can have children
- * and attributes, and might have a value.
+ * and attributes, and might have a value.<br>
+ * Elements with many children or attributes build an index the first time a child
+ * or an attribute is searched by its name, further searches do not need to compare
+ * any names.
  * @author Benjamin Sigg
  */
 public class XElement extends XContainer implements Iterable<XElement>{
+    /** elements with fewer children or attributes than this do not build an index */
+    private static final int INDEX_THRESHOLD = 8;
+    
     /** the attributes of this entry */
     private List<XAttribute> attributes = new ArrayList<XAttribute>();
     /** the children of this entry */
     private List<XElement> children = new ArrayList<XElement>();
     
+    /** the first attribute for each name, <code>null</code> if not yet built or outdated */
+    private Map<String, XAttribute> attributeIndex;
+    /** the children for each name, <code>null</code> if not yet built or outdated */
+    private Map<String, List<XElement>> childIndex;
+    
+    /** the element to which this element was added last, its index has to be updated if the name of this element changes */
+    private XElement parent;
+    
     /** the name of this attribute */
     private String name;
 
@@ -69,12 +84,28 @@ public class XElement extends XContainer implements Iterable<XElement>{
     	super.copy( original );
     	
     	attributes.clear();
-    	for( XAttribute attr : original.attributes )
-    		attributes.add( attr.copy() );
+    	for( XAttribute attr : original.attributes ){
+    		XAttribute copy = attr.copy();
+    		copy.setOwner( this );
+    		attributes.add( copy );
+    	}
     	
     	children.clear();
-    	for( XElement child : original.children )
-    		children.add( child.copy() );
+    	for( XElement child : original.children ){
+    		XElement copy = child.copy();
+    		copy.parent = this;
+    		children.add( copy );
+    	}
+    	
+    	attributeIndex = null;
+    	childIndex = null;
+    }
+    
+    /**
+     * Called when the name of one of the attributes of this element changed.
+     */
+    void attributeRenamed(){
+        attributeIndex = null;
     }
     
     /**
@@ -86,6 +117,9 @@ public class XElement extends XContainer implements Iterable<XElement>{
             throw new IllegalArgumentException( "name must not be null" );
         
         this.name = name;
+        if( parent != null ){
+            parent.childIndex = null;
+        }
     }
     
     /**
@@ -97,7 +131,25 @@ public class XElement extends XContainer implements Iterable<XElement>{
     }
     
     public Iterator<XElement> iterator() {
-        return children.iterator();
+        final Iterator<XElement> iterator = children.iterator();
+        return new Iterator<XElement>(){
+            private XElement current;
+            
+            public boolean hasNext(){
+                return iterator.hasNext();
+            }
+            public XElement next(){
+                current = iterator.next();
+                return current;
+            }
+            public void remove(){
+                iterator.remove();
+                if( current.parent == XElement.this ){
+                    current.parent = null;
+                }
+                childIndex = null;
+            }
+        };
     }
     
     /**
@@ -126,6 +178,8 @@ public class XElement extends XContainer implements Iterable<XElement>{
             throw new NullPointerException( "attribute must not be null" );
         
         attributes.add( attribute );
+        attribute.setOwner( this );
+        attributeIndex = null;
         return this;
     }
     
@@ -274,11 +328,22 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the attribute
      */
     public XAttribute getAttribute( String name ){
-        for( XAttribute check : attributes ){
-            if( check.getName().equals( name ))
-                return check;
+        if( attributes.size() < INDEX_THRESHOLD ){
+            for( XAttribute check : attributes ){
+                if( check.getName().equals( name ))
+                    return check;
+            }
+            return null;
+        }
+        
+        if( attributeIndex == null ){
+            attributeIndex = new HashMap<String, XAttribute>( attributes.size() * 2 );
+            for( int i = attributes.size()-1; i >= 0; i-- ){
+                XAttribute attribute = attributes.get( i );
+                attributeIndex.put( attribute.getName(), attribute );
+            }
         }
-        return null;
+        return attributeIndex.get( name );
     }
     
     /**
@@ -439,6 +504,8 @@ public class XElement extends XContainer implements Iterable<XElement>{
         if( element == null )
             throw new NullPointerException( "element must not be null" );
         children.add( element );
+        element.parent = this;
+        childIndex = null;
     }
    
     /**
@@ -458,12 +525,87 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the element or <code>null</code>
      */
     public XElement getElement( String name ){
-        for( XElement element : children ){
-            if( element.getName().equals( name ))
-                return element;
+        if( children.size() < INDEX_THRESHOLD ){
+            for( XElement element : children ){
+                if( element.getName().equals( name ))
+                    return element;
+            }
+            
+            return null;
+        }
+        
+        List<XElement> elements = childIndex().get( name );
+        if( elements == null )
+            return null;
+        return elements.get( 0 );
+    }
+    
+    /**
+     * Gets the number of children with the given name. Together with {@link #getElement(String, int)}
+     * this method allows to visit all children with a given name without creating any new objects.
+     * @param name the name of the children
+     * @return the number of children named <code>name</code>
+     */
+    public int getElementCount( String name ){
+        if( children.size() < INDEX_THRESHOLD ){
+            int count = 0;
+            for( XElement element : children ){
+                if( element.getName().equals( name ))
+                    count++;
+            }
+            return count;
+        }
+        
+        List<XElement> elements = childIndex().get( name );
+        if( elements == null )
+            return 0;
+        return elements.size();
+    }
+    
+    /**
+     * Gets the index'th child with the given name.
+     * @param name the name of the child
+     * @param index the index of the child, only children named <code>name</code> are counted
+     * @return the child
+     * @throws IndexOutOfBoundsException if there are not enough children named <code>name</code>
+     * @see #getElementCount(String)
+     */
+    public XElement getElement( String name, int index ){
+        if( children.size() < INDEX_THRESHOLD ){
+            int count = 0;
+            for( XElement element : children ){
+                if( element.getName().equals( name )){
+                    if( count == index )
+                        return element;
+                    count++;
+                }
+            }
+            throw new IndexOutOfBoundsException( "index: " + index + ", count: " + count );
         }
         
-        return null;
+        List<XElement> elements = childIndex().get( name );
+        if( elements == null )
+            throw new IndexOutOfBoundsException( "index: " + index + ", count: 0" );
+        return elements.get( index );
+    }
+    
+    /**
+     * Gets the index of the children of this element, builds the index if necessary.
+     * @return the index, maps names to children
+     */
+    private Map<String, List<XElement>> childIndex(){
+        if( childIndex == null ){
+            childIndex = new HashMap<String, List<XElement>>();
+            for( XElement element : children ){
+                List<XElement> elements = childIndex.get( element.getName() );
+                if( elements == null ){
+                    elements = new ArrayList<XElement>( 2 );
+                    childIndex.put( element.getName(), elements );
+                }
+                elements.add( element );
+            }
+        }
+        return childIndex;
     }
     
     /**
@@ -489,12 +631,20 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the array of children, might be empty
      */
     public XElement[] getElements( String name ){
-        List<XElement> elements = new LinkedList<XElement>();
-        for( XElement element : children ){
-            if( element.getName().equals( name ))
-                elements.add( element );
+        XElement[] result = new XElement[ getElementCount( name ) ];
+        if( result.length == 0 )
+            return result;
+        
+        if( children.size() < INDEX_THRESHOLD ){
+            int index = 0;
+            for( XElement element : children ){
+                if( element.getName().equals( name ))
+                    result[ index++ ] = element;
+            }
+            return result;
         }
-        return elements.toArray( new XElement[ elements.size() ] );
+        
+        return childIndex().get( name ).toArray( result );
     }
     
     /**
@@ -503,7 +653,7 @@ public class XElement extends XContainer implements Iterable<XElement>{
      * @return the array of children, ordered by their occurence within this element, might be empty
      */
     public XElement[] getElements( String... names ){
-    	List<XElement> elements = new LinkedList<XElement>();
+    	List<XElement> elements = new ArrayList<XElement>();
         for( XElement element : children ){
         	for( String name : names ){
         		if( element.getName().equals( name )){
@@ -517,23 +667,41 @@ public class XElement extends XContainer implements Iterable<XElement>{
     
     @Override
     public void setString( String s ) {
-        if( s.length() == 0 )
-            s = "[]";
-        else{
-            if( Character.isWhitespace( s.charAt( 0 ) ) || Character.isWhitespace( s.charAt( s.length()-1 ) )){
-                s = "[" + s + "]";
-            }
-            else if( s.charAt( 0 ) == '[' && s.charAt( s.length()-1 ) == ']' ){
-                s = "[" + s + "]";
-            }
-        }
-        
-        super.setString( s );
+        super.setString( encodeString( s ) );
     }
     
     @Override
     public String getString() {
-        String s = super.getString();
+        return decodeString( super.getString() );
+    }
+    
+    /**
+     * Encodes <code>s</code> such that it survives the trimming of the value of an
+     * element when reading a xml file.
+     * @param s the string to encode
+     * @return the encoded string, <code>s</code> wrapped in "[...]" if necessary
+     * @see #setString(String)
+     */
+    static String encodeString( String s ){
+        if( s.length() == 0 )
+            return "[]";
+        
+        if( Character.isWhitespace( s.charAt( 0 ) ) || Character.isWhitespace( s.charAt( s.length()-1 ) )){
+            return "[" + s + "]";
+        }
+        else if( s.charAt( 0 ) == '[' && s.charAt( s.length()-1 ) == ']' ){
+            return "[" + s + "]";
+        }
+        return s;
+    }
+    
+    /**
+     * Reverts the encoding of {@link #encodeString(String)}.
+     * @param s the encoded string
+     * @return the original string
+     * @see #getString()
+     */
+    static String decodeString( String s ){
         if( s.startsWith( "[" ) && s.endsWith( "]" ))
             return s.substring( 1, s.length()-1 );
         return s;
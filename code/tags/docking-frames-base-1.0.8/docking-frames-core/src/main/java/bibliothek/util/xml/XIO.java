@@ -26,7 +26,9 @@
 package bibliothek.util.xml;
 
 import java.io.*;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -40,7 +42,9 @@ import org.xml.sax.helpers.DefaultHandler;
 /**
  * Class used to read and write xml-files. Clients should use
  * {@link #writeUTF(XElement, OutputStream)} and {@link #readUTF(InputStream)} to
- * guarantee maximal independence from the underlying file system.
+ * guarantee maximal independence from the underlying file system.<br>
+ * Large files that should not be held in memory as a whole can be handled with
+ * {@link XStreamWriter} and {@link XStreamReader}.
  * @author Benjamin Sigg
  */
 public class XIO {
@@ -51,8 +55,8 @@ public class XIO {
      * @throws IOException if an I/O-error occurs
      */
     public static void write( XElement element, Appendable out ) throws IOException{
-        out.append( "<?xml version='1.0'?>\n" );
-        write( element, 0, out );
+        XStreamWriter writer = new XStreamWriter( out );
+        writer.element( element );
     }
     
     /**
@@ -116,87 +120,47 @@ public class XIO {
 
     
     /**
-     * Writes the contents of <code>element</code> into <code>out</code>.
-     * @param element the element to write
-     * @param tabs the number of tabs before the element
-     * @param out the stream to write into
-     * @throws IOException if an I/O-error occurs
-     */
-    private static void write( XElement element, int tabs, Appendable out ) throws IOException{
-        for( int i = 0; i < tabs; i++ )
-            out.append( "\t" );
-        
-        out.append( "<" );
-        out.append( element.getName() );
-        for( XAttribute attribute : element.attributes() ){
-            out.append( " " );
-            out.append( attribute.getName() );
-            out.append( "=\"" );
-            encode( attribute.getString(), out );
-            out.append( "\"" );
-        }
-        String value = element.getValue();
-        XElement[] children = element.children();
-        
-        if( value.length() == 0 && children.length == 0 ){
-            out.append( "/>" );
-        }
-        else{
-            out.append( ">" );
-            if( value.length() > 0 ){
-                if( children.length > 0 ){
-                    out.append( "\n\t" );
-                    for( int i = 0; i < tabs; i++ )
-                        out.append( "\t" );
-                }
-                    
-                encode( value, out );
-            }
-            if( children.length > 0 ){
-                out.append( "\n" );
-                for( XElement child : children ){
-                    write( child, tabs+1, out );
-                    out.append( "\n" );
-                }
-                
-                for( int i = 0; i < tabs; i++ )
-                    out.append( "\t" );
-            }
-            
-            out.append( "</" );
-            out.append( element.getName() );
-            out.append( ">" );
-        }
-    }
-    
-    /**
-     * Encodes <code>value</code> such that it is a valid string in a xml-file.
+     * Encodes <code>value</code> such that it is a valid string in a xml-file. Runs
+     * of characters that do not need to be replaced are written as one block.
      * @param value the value to encode
      * @param out the stream to write into
+     * @throws IOException if an I/O-error occurs
      */
-    private static void encode( String value, Appendable out ) throws IOException{
+    static void encode( String value, Appendable out ) throws IOException{
+        int start = 0;
         for( int i = 0, n = value.length(); i<n; i++ ){
-            char c = value.charAt( i );
-            switch( c ){
+            String replacement;
+            switch( value.charAt( i ) ){
                 case '<':
-                    out.append( "&lt;" );
+                    replacement = "&lt;";
                     break;
                 case '>':
-                    out.append( "&gt;" );
+                    replacement = "&gt;";
                     break;
                 case '\'':
-                    out.append( "&apos;" );
+                    replacement = "&apos;";
                     break;
                 case '"':
-                    out.append( "&quot;" );
+                    replacement = "&quot;";
                     break;
                 case '&':
-                    out.append( "&amp;" );
+                    replacement = "&amp;";
                     break;
                 default:
-                    out.append( c );
-                    break;
+                    continue;
+            }
+            if( start < i ){
+                out.append( value, start, i );
             }
+            out.append( replacement );
+            start = i+1;
+        }
+        
+        if( start == 0 ){
+            out.append( value );
+        }
+        else if( start < value.length() ){
+            out.append( value, start, value.length() );
         }
     }
     
@@ -253,6 +217,8 @@ public class XIO {
         private XElement element;
         /** the current stack of active entries */
         private LinkedList<XElement> stack = new LinkedList<XElement>();
+        /** the names of the elements and attributes read so far */
+        private Map<String, String> names = new HashMap<String, String>();
         
         /**
          * Gets the first element that was read.
@@ -266,7 +232,7 @@ public class XIO {
         public void startElement( String uri, String localName, String name,
                 Attributes attributes ) throws SAXException {
 
-            XElement element = new XElement( name );
+            XElement element = new XElement( name( name ) );
             if( this.element == null ){
                 this.element = element;
             }
@@ -278,12 +244,27 @@ public class XIO {
             
             // read the attributes
             for( int i = 0, n = attributes.getLength(); i<n; i++ ){
-                XAttribute attr = new XAttribute( attributes.getQName( i ));
+                XAttribute attr = new XAttribute( name( attributes.getQName( i ) ));
                 attr.setString( attributes.getValue( i ));
                 element.addAttribute( attr );
             }
         }
         
+        /**
+         * Gets the one instance of <code>name</code> that is shared by all the
+         * elements and attributes of the file.
+         * @param name some name
+         * @return a string equal to <code>name</code>
+         */
+        private String name( String name ){
+            String result = names.get( name );
+            if( result == null ){
+                names.put( name, name );
+                result = name;
+            }
+            return result;
+        }
+        
         @Override
         public void characters( char[] ch, int start, int length ) throws SAXException {
             if( length > 0 ){
@@ -0,0 +1,682 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.util.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cursor based reader for xml-files. Other than {@link XIO#read(Reader)} this
+ * reader does not build a tree of {@link XElement}s, instead the client moves the 
+ * cursor from element to element and reads only the information it needs. Only the
+ * elements that are not yet closed are kept in memory, hence reading large files 
+ * requires only a bounded amount of memory. Parts of the file can still be converted
+ * into {@link XElement}s using {@link #readElement()}.<br>
+ * This reader understands the subset of xml that is needed to read the files written by
+ * {@link XIO} or {@link XStreamWriter}: elements, attributes, text, character references and
+ * the predefined entities, <code>CDATA</code> sections, comments, processing instructions
+ * and document type declarations. The latter three are ignored.<br>
+ * A typical use of this reader looks like this:
+ * <pre>
+ * XStreamReader in = new XStreamReader( reader );
+ * in.nextElement(); // moves to the root element
+ * String name;
+ * while( (name = in.nextElement()) != null ){
+ *     if( name.equals( "child" ) ){
+ *         String value = in.readValue();
+ *     }
+ *     else{
+ *         in.skipElement();
+ *     }
+ * }</pre>
+ * @author Benjamin Sigg
+ */
+public class XStreamReader {
+    /** the source of all characters */
+    private Reader in;
+    
+    /** buffer for characters read from {@link #in} */
+    private char[] buffer = new char[ 8192 ];
+    /** the index of the next character in {@link #buffer} */
+    private int position = 0;
+    /** the number of valid characters in {@link #buffer} */
+    private int limit = 0;
+    /** whether the last character read was a '\r' that was converted into a '\n' */
+    private boolean carriageReturn = false;
+    
+    /** the elements that are not yet closed, the last element is the current element */
+    private List<Level> stack = new ArrayList<Level>();
+    
+    /** a reusable builder for names and values */
+    private StringBuilder builder = new StringBuilder();
+    
+    /** the names of the elements and attributes read so far */
+    private Map<String, String> names = new HashMap<String, String>();
+    
+    /**
+     * Creates a new reader.
+     * @param in the source of the xml-file
+     */
+    public XStreamReader( Reader in ){
+        if( in == null )
+            throw new IllegalArgumentException( "in must not be null" );
+        this.in = in;
+    }
+    
+    /**
+     * Gets the number of elements that are opened but not yet closed.
+     * @return the depth of the current element, 0 if the cursor is outside the root element
+     */
+    public int getDepth(){
+        return stack.size();
+    }
+    
+    /**
+     * Gets the name of the current element.
+     * @return the name of the current element
+     * @throws IllegalStateException if there is no current element
+     */
+    public String getName(){
+        return current().name;
+    }
+    
+    /**
+     * Gets all the attributes of the current element.
+     * @return the attributes
+     * @throws IllegalStateException if there is no current element
+     */
+    public XAttribute[] attributes(){
+        List<XAttribute> attributes = current().attributes;
+        return attributes.toArray( new XAttribute[ attributes.size() ] );
+    }
+    
+    /**
+     * Searches an attribute of the current element.
+     * @param name the name of the attribute
+     * @return the attribute or <code>null</code>
+     * @throws IllegalStateException if there is no current element
+     */
+    public XAttribute getAttribute( String name ){
+        for( XAttribute attribute : current().attributes ){
+            if( attribute.getName().equals( name ))
+                return attribute;
+        }
+        return null;
+    }
+    
+    /**
+     * Gets the value of an attribute of the current element.
+     * @param name the name of the attribute
+     * @return the value of the attribute
+     * @throws XException if the attribute does not exist
+     */
+    public String getString( String name ){
+        XAttribute attribute = getAttribute( name );
+        if( attribute == null )
+            throw new XException( "no attribute known with name: " + name );
+        return attribute.getString();
+    }
+    
+    /**
+     * Gets the value of an attribute of the current element as <code>int</code>.
+     * @param name the name of the attribute
+     * @return the value of the attribute
+     * @throws XException if the attribute does not exist or is not an <code>int</code>
+     */
+    public int getInt( String name ){
+        return attribute( name ).getInt();
+    }
+    
+    /**
+     * Gets the value of an attribute of the current element as <code>long</code>.
+     * @param name the name of the attribute
+     * @return the value of the attribute
+     * @throws XException if the attribute does not exist or is not a <code>long</code>
+     */
+    public long getLong( String name ){
+        return attribute( name ).getLong();
+    }
+    
+    /**
+     * Gets the value of an attribute of the current element as <code>double</code>.
+     * @param name the name of the attribute
+     * @return the value of the attribute
+     * @throws XException if the attribute does not exist or is not a <code>double</code>
+     */
+    public double getDouble( String name ){
+        return attribute( name ).getDouble();
+    }
+    
+    /**
+     * Gets the value of an attribute of the current element as <code>boolean</code>.
+     * @param name the name of the attribute
+     * @return the value of the attribute
+     * @throws XException if the attribute does not exist or is not a <code>boolean</code>
+     */
+    public boolean getBoolean( String name ){
+        return attribute( name ).getBoolean();
+    }
+    
+    private XAttribute attribute( String name ){
+        XAttribute attribute = getAttribute( name );
+        if( attribute == null )
+            throw new XException( "no attribute known with name: " + name );
+        return attribute;
+    }
+    
+    /**
+     * Moves the cursor to the next child of the current element. If the current element
+     * has no more children, then the element is closed and the cursor moves to its parent.
+     * If there is no current element, then the cursor moves to the root element.<br>
+     * Text found between the children is remembered as value of the current element.
+     * @return the name of the child or <code>null</code> if the current element
+     * was closed or the end of the file was reached
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     */
+    public String nextElement() throws IOException{
+        if( !stack.isEmpty() ){
+            Level level = stack.get( stack.size()-1 );
+            if( level.empty ){
+                stack.remove( stack.size()-1 );
+                return null;
+            }
+        }
+        
+        while( true ){
+            int next = read();
+            if( next == -1 ){
+                if( stack.isEmpty() )
+                    return null;
+                throw new IOException( "unexpected end of file, element not closed: " + stack.get( stack.size()-1 ).name );
+            }
+            if( next == '<' ){
+                next = read();
+                if( next == -1 ){
+                    throw new IOException( "unexpected end of file after '<'" );
+                }
+                else if( next == '?' ){
+                    skip( "?>" );
+                }
+                else if( next == '!' ){
+                    readDeclaration();
+                }
+                else if( next == '/' ){
+                    readEndTag();
+                    return null;
+                }
+                else{
+                    unread();
+                    return readStartTag();
+                }
+            }
+            else if( next == '&' ){
+                text( readReference() );
+            }
+            else{
+                text( (char)next );
+            }
+        }
+    }
+    
+    /**
+     * Reads the remaining content of the current element and closes the element. Children
+     * of the element are skipped. 
+     * @return the trimmed text of the element
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     */
+    public String readValue() throws IOException{
+        Level level = current();
+        finish( level.depth );
+        return level.value();
+    }
+    
+    /**
+     * Reads the remaining content of the current element and closes the element. Children
+     * of the element are skipped. The value is decoded the same way as {@link XElement#getString()}
+     * would decode it.
+     * @return the text of the element
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     */
+    public String readString() throws IOException{
+        return XElement.decodeString( readValue() );
+    }
+    
+    /**
+     * Reads the remaining content of the current element, closes the element and
+     * converts its value into an <code>int</code>.
+     * @return the value of the element
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     * @throws XException if the value is not an <code>int</code>
+     */
+    public int readInt() throws IOException{
+        return readContainer().getInt();
+    }
+    
+    /**
+     * Reads the remaining content of the current element, closes the element and
+     * converts its value into a <code>long</code>.
+     * @return the value of the element
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     * @throws XException if the value is not a <code>long</code>
+     */
+    public long readLong() throws IOException{
+        return readContainer().getLong();
+    }
+    
+    /**
+     * Reads the remaining content of the current element, closes the element and
+     * converts its value into a <code>double</code>.
+     * @return the value of the element
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     * @throws XException if the value is not a <code>double</code>
+     */
+    public double readDouble() throws IOException{
+        return readContainer().getDouble();
+    }
+    
+    /**
+     * Reads the remaining content of the current element, closes the element and
+     * converts its value into a <code>boolean</code>.
+     * @return the value of the element
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     * @throws XException if the value is not a <code>boolean</code>
+     */
+    public boolean readBoolean() throws IOException{
+        return readContainer().getBoolean();
+    }
+    
+    private XContainer readContainer() throws IOException{
+        XContainer container = new XContainer();
+        container.setValue( readValue() );
+        return container;
+    }
+    
+    /**
+     * Reads the remaining content of the current element and closes the element.
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     */
+    public void skipElement() throws IOException{
+        finish( current().depth );
+    }
+    
+    /**
+     * Reads the remaining content of the element at depth <code>depth</code> and closes
+     * it. Nothing happens if that element is already closed.
+     * @param depth the depth of an element, as returned by {@link #getDepth()}
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     */
+    public void finish( int depth ) throws IOException{
+        while( getDepth() >= depth && getDepth() > 0 ){
+            nextElement();
+        }
+    }
+    
+    /**
+     * Reads the remaining content of the current element, closes the element and converts
+     * it into an {@link XElement}. Children that were already visited by {@link #nextElement()}
+     * are not part of the result.
+     * @return the current element
+     * @throws IOException if an I/O-error occurs or the file is malformed
+     */
+    public XElement readElement() throws IOException{
+        Level level = current();
+        XElement element = new XElement( level.name );
+        for( XAttribute attribute : level.attributes ){
+            element.addAttribute( attribute );
+        }
+        
+        while( nextElement() != null ){
+            element.addElement( readElement() );
+        }
+        
+        element.setValue( level.value() );
+        return element;
+    }
+    
+    private Level current(){
+        if( stack.isEmpty() )
+            throw new IllegalStateException( "there is no current element" );
+        return stack.get( stack.size()-1 );
+    }
+    
+    private void text( char c ){
+        if( !stack.isEmpty() ){
+            stack.get( stack.size()-1 ).text( c );
+        }
+    }
+    
+    private void text( String text ){
+        if( !stack.isEmpty() ){
+            stack.get( stack.size()-1 ).text( text );
+        }
+    }
+    
+    /**
+     * Reads a start tag, the leading '&lt;' is already consumed.
+     * @return the name of the new element
+     */
+    private String readStartTag() throws IOException{
+        Level level = new Level( readName(), stack.size()+1 );
+        
+        while( true ){
+            int next = readNonWhitespace();
+            if( next == '>' ){
+                break;
+            }
+            else if( next == '/' ){
+                expect( '>' );
+                level.empty = true;
+                break;
+            }
+            else if( next == -1 ){
+                throw new IOException( "unexpected end of file in element: " + level.name );
+            }
+            else{
+                unread();
+                XAttribute attribute = new XAttribute( readName() );
+                expect( readNonWhitespace(), '=' );
+                attribute.setString( readAttributeValue() );
+                level.attributes.add( attribute );
+            }
+        }
+        
+        stack.add( level );
+        return level.name;
+    }
+    
+    /**
+     * Reads an end tag, the leading '&lt;/' is already consumed.
+     */
+    private void readEndTag() throws IOException{
+        String name = readName();
+        expect( readNonWhitespace(), '>' );
+        if( stack.isEmpty() )
+            throw new IOException( "end tag without element: " + name );
+        Level level = stack.remove( stack.size()-1 );
+        if( !level.name.equals( name ))
+            throw new IOException( "expected end of '" + level.name + "' but found end of '" + name + "'" );
+    }
+    
+    /**
+     * Reads a comment, a <code>CDATA</code> section or a document type declaration, the
+     * leading '&lt;!' is already consumed.
+     */
+    private void readDeclaration() throws IOException{
+        int next = read();
+        if( next == '-' ){
+            expect( '-' );
+            skip( "-->" );
+        }
+        else if( next == '[' ){
+            for( char c : "CDATA[".toCharArray() ){
+                expect( c );
+            }
+            builder.setLength( 0 );
+            while( builder.length() < 3 || builder.charAt( builder.length()-1 ) != '>' ||
+                    builder.charAt( builder.length()-2 ) != ']' || builder.charAt( builder.length()-3 ) != ']' ){
+                next = read();
+                if( next == -1 )
+                    throw new IOException( "unexpected end of file in CDATA section" );
+                builder.append( (char)next );
+            }
+            builder.setLength( builder.length()-3 );
+            text( builder.toString() );
+        }
+        else{
+            int brackets = 0;
+            while( next != '>' || brackets > 0 ){
+                if( next == -1 )
+                    throw new IOException( "unexpected end of file in declaration" );
+                if( next == '[' )
+                    brackets++;
+                else if( next == ']' )
+                    brackets--;
+                next = read();
+            }
+        }
+    }
+    
+    private String readName() throws IOException{
+        builder.setLength( 0 );
+        while( true ){
+            int next = read();
+            if( next == -1 || next == '>' || next == '/' || next == '=' || Character.isWhitespace( next )){
+                unread( next );
+                break;
+            }
+            builder.append( (char)next );
+        }
+        if( builder.length() == 0 )
+            throw new IOException( "missing name" );
+        
+        String name = builder.toString();
+        String result = names.get( name );
+        if( result == null ){
+            names.put( name, name );
+            result = name;
+        }
+        return result;
+    }
+    
+    private String readAttributeValue() throws IOException{
+        int quote = readNonWhitespace();
+        if( quote != '"' && quote != '\'' )
+            throw new IOException( "attribute value not quoted" );
+        builder.setLength( 0 );
+        while( true ){
+            int next = read();
+            if( next == quote ){
+                break;
+            }
+            else if( next == -1 ){
+                throw new IOException( "unexpected end of file in attribute value" );
+            }
+            else if( next == '&' ){
+                // readReference does not use the builder
+                builder.append( readReference() );
+            }
+            else if( next == '\n' || next == '\t' ){
+                // attribute value normalization, as done by any xml parser
+                builder.append( ' ' );
+            }
+            else{
+                builder.append( (char)next );
+            }
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * Reads an entity or a character reference, the leading '&amp;' is already consumed.
+     * @return the replacement text
+     */
+    private String readReference() throws IOException{
+        StringBuilder name = new StringBuilder();
+        while( true ){
+            int next = read();
+            if( next == ';' )
+                break;
+            if( next == -1 || name.length() > 16 )
+                throw new IOException( "malformed reference: &" + name );
+            name.append( (char)next );
+        }
+        String reference = name.toString();
+        if( reference.equals( "lt" ))
+            return "<";
+        if( reference.equals( "gt" ))
+            return ">";
+        if( reference.equals( "amp" ))
+            return "&";
+        if( reference.equals( "quot" ))
+            return "\"";
+        if( reference.equals( "apos" ))
+            return "'";
+        if( reference.startsWith( "#" )){
+            try{
+                int code;
+                if( reference.startsWith( "#x" ))
+                    code = Integer.parseInt( reference.substring( 2 ), 16 );
+                else
+                    code = Integer.parseInt( reference.substring( 1 ));
+                return new String( Character.toChars( code ));
+            }
+            catch( IllegalArgumentException e ){
+                throw new IOException( "malformed reference: &" + reference + ";" );
+            }
+        }
+        throw new IOException( "unknown entity: &" + reference + ";" );
+    }
+    
+    private void skip( String end ) throws IOException{
+        int matched = 0;
+        while( matched < end.length() ){
+            int next = read();
+            if( next == -1 )
+                throw new IOException( "unexpected end of file, missing: " + end );
+            if( next == end.charAt( matched ))
+                matched++;
+            else if( next == end.charAt( 0 ))
+                matched = 1;
+            else
+                matched = 0;
+        }
+    }
+    
+    private void expect( char c ) throws IOException{
+        expect( read(), c );
+    }
+    
+    private void expect( int next, char c ) throws IOException{
+        if( next != c ){
+            if( next == -1 )
+                throw new IOException( "unexpected end of file, missing '" + c + "'" );
+            throw new IOException( "expected '" + c + "' but found '" + (char)next + "'" );
+        }
+    }
+    
+    private int readNonWhitespace() throws IOException{
+        int next = read();
+        while( next != -1 && Character.isWhitespace( next )){
+            next = read();
+        }
+        return next;
+    }
+    
+    /**
+     * Reads the next character. Line breaks are normalized: "\r\n" and "\r" are 
+     * both read as '\n'.
+     * @return the next character or -1 if the end of the file is reached
+     */
+    private int read() throws IOException{
+        int next = readRaw();
+        if( carriageReturn ){
+            carriageReturn = false;
+            if( next == '\n' ){
+                next = readRaw();
+            }
+        }
+        if( next == '\r' ){
+            carriageReturn = true;
+            return '\n';
+        }
+        return next;
+    }
+    
+    private int readRaw() throws IOException{
+        if( position == limit ){
+            limit = in.read( buffer, 0, buffer.length );
+            position = 0;
+            if( limit <= 0 ){
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[ position++ ];
+    }
+    
+    private void unread(){
+        position--;
+    }
+    
+    private void unread( int next ){
+        if( next != -1 ){
+            position--;
+        }
+    }
+    
+    /**
+     * Information about an element that is not yet closed.
+     * @author Benjamin Sigg
+     */
+    private static class Level{
+        /** the name of the element */
+        public final String name;
+        /** the depth of the element, 1 for the root element */
+        public final int depth;
+        /** the attributes of the element */
+        public List<XAttribute> attributes = new ArrayList<XAttribute>( 4 );
+        /** whether the element was written as "&lt;name/&gt;" */
+        public boolean empty = false;
+        /** the text read so far, <code>null</code> if there was no text */
+        private StringBuilder text;
+        
+        public Level( String name, int depth ){
+            this.name = name;
+            this.depth = depth;
+        }
+        
+        public void text( char c ){
+            if( text == null )
+                text = new StringBuilder();
+            text.append( c );
+        }
+        
+        public void text( String value ){
+            if( text == null )
+                text = new StringBuilder();
+            text.append( value );
+        }
+        
+        /**
+         * Gets the value of this element the same way {@link XIO#read(Reader)} would: a
+         * value wrapped in "[...]" is unwrapped, then the value is trimmed.
+         * @return the value
+         */
+        public String value(){
+            if( text == null )
+                return "";
+            String value = text.toString();
+            if( value.startsWith( "[" ) && value.endsWith( "]" ))
+                value = value.substring( 1, value.length()-1 );
+            return value.trim();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+
+package bibliothek.util.xml;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An event based writer for xml-files. Other than {@link XIO#write(XElement, Appendable)}
+ * this writer does not require a complete tree of {@link XElement}s, the elements
+ * are written as soon as they are known. Only the elements that are not yet closed
+ * are kept in memory, hence writing large files requires only a bounded amount of memory.<br>
+ * The output of this writer is the same as the output of {@link XIO}: a 
+ * {@link #startElement(String) started} element, its {@link #attribute(String, String) attributes},
+ * its {@link #value(String) value} and its children are written exactly like 
+ * an {@link XElement} with the same content would be written.<br>
+ * A typical use of this writer looks like this:
+ * <pre>
+ * XStreamWriter out = new XStreamWriter( writer );
+ * out.startElement( "root" );
+ * out.attribute( "name", "value" );
+ * out.startElement( "child" );
+ * out.value( "content" );
+ * out.endElement();
+ * out.endElement();
+ * out.close();</pre>
+ * @author Benjamin Sigg
+ */
+public class XStreamWriter {
+    /** where to write the output */
+    private Appendable out;
+    
+    /** the elements that are not yet closed, the last element is the innermost element */
+    private List<Level> stack = new ArrayList<Level>();
+    
+    /** whether the declaration of the file was already written */
+    private boolean declared = false;
+    
+    /** cached strings consisting of tabs, the index is the number of tabs */
+    private String[] tabs = new String[]{ "", "\t", "\t\t", "\t\t\t", "\t\t\t\t" };
+    
+    /**
+     * Creates a new writer.
+     * @param out the stream to write into, should be buffered
+     */
+    public XStreamWriter( Appendable out ){
+        if( out == null )
+            throw new IllegalArgumentException( "out must not be null" );
+        this.out = out;
+    }
+    
+    /**
+     * Gets the number of elements that are started but not yet ended.
+     * @return the depth of the current element, 0 if no element is open
+     */
+    public int getDepth(){
+        return stack.size();
+    }
+    
+    /**
+     * Starts a new element. If there is already an open element, then the new element
+     * becomes a child of that element.
+     * @param name the name of the new element
+     * @throws IOException if an I/O-error occurs
+     */
+    public void startElement( String name ) throws IOException{
+        if( name == null )
+            throw new IllegalArgumentException( "name must not be null" );
+        
+        if( stack.isEmpty() ){
+            if( !declared ){
+                out.append( "<?xml version='1.0'?>\n" );
+                declared = true;
+            }
+        }
+        else{
+            Level parent = stack.get( stack.size()-1 );
+            if( parent.open ){
+                out.append( '>' );
+                parent.open = false;
+                if( parent.value != null && parent.value.length() > 0 ){
+                    out.append( "\n\t" );
+                    out.append( tabs( parent.depth ) );
+                    XIO.encode( parent.value, out );
+                }
+                parent.value = null;
+                out.append( '\n' );
+            }
+        }
+        
+        Level level = new Level( name, stack.size() );
+        stack.add( level );
+        
+        out.append( tabs( level.depth ) );
+        out.append( '<' );
+        out.append( name );
+    }
+    
+    /**
+     * Adds an attribute to the current element. Attributes have to be written
+     * before the value or any child of the element.
+     * @param name the name of the attribute
+     * @param value the value of the attribute
+     * @throws IOException if an I/O-error occurs
+     * @throws IllegalStateException if there is no element or if the element already
+     * has a value or children
+     */
+    public void attribute( String name, String value ) throws IOException{
+        Level level = current();
+        if( !level.open || level.value != null )
+            throw new IllegalStateException( "attributes must be written before any content of the element" );
+        
+        out.append( ' ' );
+        out.append( name );
+        out.append( "=\"" );
+        XIO.encode( value, out );
+        out.append( '"' );
+    }
+    
+    /**
+     * Sets the value of the current element. The value has to be set before 
+     * any child of the element is written.
+     * @param value the value, not <code>null</code>
+     * @throws IllegalStateException if there is no element or if the element
+     * already has children
+     */
+    public void value( String value ){
+        if( value == null )
+            throw new IllegalArgumentException( "value must not be null" );
+        
+        Level level = current();
+        if( !level.open )
+            throw new IllegalStateException( "the value must be written before the children of the element" );
+        level.value = value;
+    }
+    
+    /**
+     * Sets the value of the current element. The value is encoded the same way
+     * as {@link XElement#setString(String)} would encode it.
+     * @param value the value, not <code>null</code>
+     * @throws IllegalStateException if there is no element or if the element
+     * already has children
+     */
+    public void string( String value ){
+        if( value == null )
+            throw new IllegalArgumentException( "value must not be null" );
+        value( XElement.encodeString( value ) );
+    }
+    
+    /**
+     * Ends the current element.
+     * @throws IOException if an I/O-error occurs
+     * @throws IllegalStateException if there is no element
+     */
+    public void endElement() throws IOException{
+        Level level = current();
+        stack.remove( stack.size()-1 );
+        
+        if( level.open ){
+            if( level.value != null && level.value.length() > 0 ){
+                out.append( '>' );
+                XIO.encode( level.value, out );
+                out.append( "</" );
+                out.append( level.name );
+                out.append( '>' );
+            }
+            else{
+                out.append( "/>" );
+            }
+        }
+        else{
+            out.append( tabs( level.depth ) );
+            out.append( "</" );
+            out.append( level.name );
+            out.append( '>' );
+        }
+        
+        if( !stack.isEmpty() ){
+            out.append( '\n' );
+        }
+    }
+    
+    /**
+     * Writes <code>element</code> and all its children as child of the current element.
+     * @param element the element to write
+     * @throws IOException if an I/O-error occurs
+     */
+    public void element( XElement element ) throws IOException{
+        startElement( element.getName() );
+        content( element );
+        endElement();
+    }
+    
+    /**
+     * Writes the attributes, the value and the children of <code>element</code> into
+     * the current element. The name of <code>element</code> is ignored.
+     * @param element the element whose content is copied
+     * @throws IOException if an I/O-error occurs
+     */
+    public void content( XElement element ) throws IOException{
+        for( XAttribute attribute : element.attributes() ){
+            attribute( attribute.getName(), attribute.getString() );
+        }
+        String value = element.getValue();
+        if( value.length() > 0 ){
+            value( value );
+        }
+        for( XElement child : element.children() ){
+            element( child );
+        }
+    }
+    
+    /**
+     * Ends all the elements that are not yet closed.
+     * @throws IOException if an I/O-error occurs
+     */
+    public void endAll() throws IOException{
+        while( !stack.isEmpty() ){
+            endElement();
+        }
+    }
+    
+    /**
+     * Flushes the underlying stream. Elements that are not yet closed remain
+     * open and can still get new attributes, values or children.
+     * @throws IOException if an I/O-error occurs
+     */
+    public void flush() throws IOException{
+        if( out instanceof Flushable ){
+            ((Flushable)out).flush();
+        }
+    }
+    
+    /**
+     * Ends all open elements and closes the underlying stream.
+     * @throws IOException if an I/O-error occurs
+     */
+    public void close() throws IOException{
+        endAll();
+        flush();
+        if( out instanceof Closeable ){
+            ((Closeable)out).close();
+        }
+    }
+    
+    private Level current(){
+        if( stack.isEmpty() )
+            throw new IllegalStateException( "there is no open element" );
+        return stack.get( stack.size()-1 );
+    }
+    
+    private String tabs( int count ){
+        if( count >= tabs.length ){
+            String[] copy = new String[ count+1 ];
+            System.arraycopy( tabs, 0, copy, 0, tabs.length );
+            for( int i = tabs.length; i < copy.length; i++ ){
+                copy[i] = copy[i-1] + "\t";
+            }
+            tabs = copy;
+        }
+        return tabs[ count ];
+    }
+    
+    /**
+     * Information about an element that is not yet closed.
+     * @author Benjamin Sigg
+     */
+    private static class Level{
+        /** the name of the element */
+        public final String name;
+        /** the number of parents of the element */
+        public final int depth;
+        /** whether the start tag is not yet closed with '&gt;' */
+        public boolean open = true;
+        /** the value of the element, only written once the element is closed or gets children */
+        public String value;
+        
+        public Level( String name, int depth ){
+            this.name = name;
+            this.depth = depth;
+        }
+    }
+}
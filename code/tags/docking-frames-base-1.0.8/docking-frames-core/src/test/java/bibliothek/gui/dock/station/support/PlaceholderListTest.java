@@ -0,0 +1,81 @@
+/*
+ * Bibliothek - DockingFrames
+ * Library built on Java/Swing, allows the user to "drag and drop"
+ * panels containing any Swing-Component the developer likes to add.
+ * 
+ * Copyright (C) 2007 Benjamin Sigg
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ * 
+ * Benjamin Sigg
+ * benjamin_sigg@gmx.ch
+ * CH - Switzerland
+ */
+package bibliothek.gui.dock.station.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import bibliothek.gui.Dockable;
+import bibliothek.gui.dock.DefaultDockable;
+import bibliothek.util.Path;
+
+/**
+ * Tests the indices of {@link PlaceholderList}.
+ * @author Benjamin Sigg
+ */
+public class PlaceholderListTest {
+	/**
+	 * An element that is stored in a {@link PlaceholderList}.
+	 */
+	private static class TestItem implements PlaceholderListItem{
+		private Dockable dockable;
+		
+		public TestItem( String title ){
+			dockable = new DefaultDockable( title );
+		}
+		
+		public Dockable asDockable(){
+			return dockable;
+		}
+	}
+	
+	@Test
+	public void setDockableUpdatesIndex(){
+		PlaceholderList<TestItem> list = new PlaceholderList<TestItem>();
+		TestItem a = new TestItem( "a" );
+		TestItem b = new TestItem( "b" );
+		TestItem c = new TestItem( "c" );
+		list.dockables().add( a );
+		list.dockables().add( b );
+		
+		list.list().get( 0 ).setDockable( c );
+		
+		assertEquals( 0, list.dockables().indexOf( c ));
+		assertEquals( -1, list.dockables().indexOf( a ));
+		assertEquals( 1, list.dockables().indexOf( b ));
+		
+		Path placeholder = new Path( "test", "c" );
+		assertTrue( list.put( c, placeholder ));
+		assertSame( c, list.getDockableAt( placeholder ));
+		
+		list.remove( c );
+		assertEquals( -1, list.dockables().indexOf( c ));
+		assertEquals( 1, list.dockables().size() );
+	}
+}